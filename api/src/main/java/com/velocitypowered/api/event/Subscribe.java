@@ -29,17 +29,16 @@ public @interface Subscribe {
   /**
    * Whether the handler must be called asynchronously.
    *
-   * <p><strong>This option currently has no effect, but in the future it will. In Velocity 3.0.0,
-   * all event handlers run asynchronously by default. You are encouraged to determine whether or
-   * not to enable it now. This option is being provided as a migration aid.</strong></p>
-   *
    * <p>If this method returns {@code true}, the method is guaranteed to be executed
    * asynchronously. Otherwise, the handler may be executed on the current thread or
    * asynchronously. <strong>This still means you must consider thread-safety in your
    * event listeners</strong> as the "current thread" can and will be different each time.</p>
    *
    * <p>If any method handler targeting an event type is marked with {@code true}, then every
-   * handler targeting that event type will be executed asynchronously.</p>
+   * handler targeting that event type will be executed asynchronously. If every handler is marked
+   * with {@code false}, the event is handled on the thread that fired it, which is frequently a
+   * network thread. Such handlers must never block; return an {@link EventTask#async(Runnable)}
+   * task for any work that might.</p>
    *
    * @return Requires async
    */
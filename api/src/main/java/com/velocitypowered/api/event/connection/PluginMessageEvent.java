@@ -18,7 +18,9 @@ import com.velocitypowered.api.proxy.messages.ChannelIdentifier;
 import com.velocitypowered.api.proxy.messages.ChannelMessageSink;
 import com.velocitypowered.api.proxy.messages.ChannelMessageSource;
 import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
 
 /**
  * This event is fired when a plugin message is sent to the proxy, either from a client ({@link
@@ -31,7 +33,8 @@ public final class PluginMessageEvent implements ResultedEvent<PluginMessageEven
   private final ChannelMessageSource source;
   private final ChannelMessageSink target;
   private final ChannelIdentifier identifier;
-  private final byte[] data;
+  private final ByteBuffer data;
+  private volatile byte @MonotonicNonNull [] array;
   private ForwardResult result;
 
   /**
@@ -47,7 +50,28 @@ public final class PluginMessageEvent implements ResultedEvent<PluginMessageEven
     this.source = Preconditions.checkNotNull(source, "source");
     this.target = Preconditions.checkNotNull(target, "target");
     this.identifier = Preconditions.checkNotNull(identifier, "identifier");
-    this.data = Preconditions.checkNotNull(data, "data");
+    this.array = Preconditions.checkNotNull(data, "data");
+    this.data = ByteBuffer.wrap(data).asReadOnlyBuffer();
+    this.result = ForwardResult.forward();
+  }
+
+  /**
+   * Creates a new instance backed by a buffer. The remaining bytes of {@code data} are the payload;
+   * they are only copied into an array if a listener asks for one. The caller must keep the buffer
+   * contents intact until the event has finished firing, so a payload that was not read by then
+   * can't be read afterwards.
+   *
+   * @param source the source of the plugin message
+   * @param target the destination of the plugin message
+   * @param identifier the channel for this plugin message
+   * @param data the payload of the plugin message
+   */
+  public PluginMessageEvent(ChannelMessageSource source, ChannelMessageSink target,
+      ChannelIdentifier identifier, ByteBuffer data) {
+    this.source = Preconditions.checkNotNull(source, "source");
+    this.target = Preconditions.checkNotNull(target, "target");
+    this.identifier = Preconditions.checkNotNull(identifier, "identifier");
+    this.data = Preconditions.checkNotNull(data, "data").slice().asReadOnlyBuffer();
     this.result = ForwardResult.forward();
   }
 
@@ -73,16 +97,57 @@ public final class PluginMessageEvent implements ResultedEvent<PluginMessageEven
     return identifier;
   }
 
+  /**
+   * Returns a copy of the payload of this plugin message. The proxy only keeps the payload around
+   * while the event is being fired, so read it then to keep it.
+   *
+   * @return a copy of the payload
+   */
   public byte[] getData() {
-    return Arrays.copyOf(data, data.length);
+    byte[] array = array();
+    return Arrays.copyOf(array, array.length);
+  }
+
+  /**
+   * Returns a read-only view of the payload of this plugin message. Reading from the view does not
+   * copy the payload, but a view obtained while the event is being fired must not be used once the
+   * event has finished firing, as the proxy may have released the memory behind it by then. Copy
+   * the bytes out of the view, or read the payload through {@link #getData()}, to keep them.
+   *
+   * @return a read-only view of the payload
+   */
+  public ByteBuffer dataAsBuffer() {
+    byte[] array = this.array;
+    if (array != null) {
+      return ByteBuffer.wrap(array).asReadOnlyBuffer();
+    }
+    return data.duplicate();
   }
 
   public ByteArrayInputStream dataAsInputStream() {
-    return new ByteArrayInputStream(data);
+    return new ByteArrayInputStream(array());
   }
 
   public ByteArrayDataInput dataAsDataStream() {
-    return ByteStreams.newDataInput(data);
+    return ByteStreams.newDataInput(array());
+  }
+
+  private byte[] array() {
+    byte[] array = this.array;
+    if (array == null) {
+      array = copyData();
+    }
+    return array;
+  }
+
+  private synchronized byte[] copyData() {
+    byte[] array = this.array;
+    if (array == null) {
+      array = new byte[data.remaining()];
+      data.duplicate().get(array);
+      this.array = array;
+    }
+    return array;
   }
 
   @Override
@@ -91,7 +156,7 @@ public final class PluginMessageEvent implements ResultedEvent<PluginMessageEven
         + "source=" + source
         + ", target=" + target
         + ", identifier=" + identifier
-        + ", data=" + Arrays.toString(data)
+        + ", data=" + Arrays.toString(array())
         + ", result=" + result
         + '}';
   }
@@ -0,0 +1,31 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * The Velocity API is licensed under the terms of the MIT License. For more details,
+ * reference the LICENSE file in the api top-level directory.
+ */
+
+
+package com.velocitypowered.api.network;
+
+/**
+ * Represents the states a connection goes through in the Minecraft protocol.
+ */
+public enum ProtocolState {
+  /**
+   * The initial state of a connection, in which the client states what it wants to do.
+   */
+  HANDSHAKE,
+  /**
+   * The state in which the client queries the server list ping information.
+   */
+  STATUS,
+  /**
+   * The state in which the client logs in.
+   */
+  LOGIN,
+  /**
+   * The state in which the player is playing the game.
+   */
+  PLAY
+}
@@ -13,6 +13,7 @@ import com.velocitypowered.api.event.EventManager;
 import com.velocitypowered.api.plugin.PluginManager;
 import com.velocitypowered.api.proxy.config.ProxyConfig;
 import com.velocitypowered.api.proxy.messages.ChannelRegistrar;
+import com.velocitypowered.api.proxy.metrics.ProxyMetrics;
 import com.velocitypowered.api.proxy.player.ResourcePackInfo;
 import com.velocitypowered.api.proxy.server.RegisteredServer;
 import com.velocitypowered.api.proxy.server.ServerInfo;
@@ -196,6 +197,14 @@ public interface ProxyServer extends Audience {
    */
   ProxyVersion getVersion();
 
+  /**
+   * Gets the {@link ProxyMetrics} instance, which provides statistics about the proxy's network
+   * connections.
+   *
+   * @return the proxy metrics
+   */
+  ProxyMetrics getMetrics();
+
   /**
    * Creates a builder to build a {@link ResourcePackInfo} instance for use with
    * {@link com.velocitypowered.api.proxy.Player#sendResourcePackOffer(ResourcePackInfo)}.
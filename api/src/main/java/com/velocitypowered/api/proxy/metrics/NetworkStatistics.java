@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * The Velocity API is licensed under the terms of the MIT License. For more details,
+ * reference the LICENSE file in the api top-level directory.
+ */
+
+
+package com.velocitypowered.api.proxy.metrics;
+
+import com.velocitypowered.api.network.ProtocolState;
+
+/**
+ * Statistics about the traffic on one or more connections. Packet and byte counts are measured
+ * before compression and encryption are applied. Values are updated as traffic flows, so they may
+ * be slightly out of date when read from outside of the connection's event loop.
+ */
+public interface NetworkStatistics {
+
+  /**
+   * Returns the number of packets received while the connection was in the given state.
+   *
+   * @param state the protocol state
+   * @return the number of packets received
+   */
+  long getPacketsReceived(ProtocolState state);
+
+  /**
+   * Returns the number of packets received in all states.
+   *
+   * @return the number of packets received
+   */
+  default long getPacketsReceived() {
+    long total = 0;
+    for (ProtocolState state : ProtocolState.values()) {
+      total += getPacketsReceived(state);
+    }
+    return total;
+  }
+
+  /**
+   * Returns the number of bytes received while the connection was in the given state.
+   *
+   * @param state the protocol state
+   * @return the number of bytes received
+   */
+  long getBytesReceived(ProtocolState state);
+
+  /**
+   * Returns the number of bytes received in all states.
+   *
+   * @return the number of bytes received
+   */
+  default long getBytesReceived() {
+    long total = 0;
+    for (ProtocolState state : ProtocolState.values()) {
+      total += getBytesReceived(state);
+    }
+    return total;
+  }
+
+  /**
+   * Returns the number of packets sent while the connection was in the given state.
+   *
+   * @param state the protocol state
+   * @return the number of packets sent
+   */
+  long getPacketsSent(ProtocolState state);
+
+  /**
+   * Returns the number of packets sent in all states.
+   *
+   * @return the number of packets sent
+   */
+  default long getPacketsSent() {
+    long total = 0;
+    for (ProtocolState state : ProtocolState.values()) {
+      total += getPacketsSent(state);
+    }
+    return total;
+  }
+
+  /**
+   * Returns the number of bytes sent while the connection was in the given state.
+   *
+   * @param state the protocol state
+   * @return the number of bytes sent
+   */
+  long getBytesSent(ProtocolState state);
+
+  /**
+   * Returns the number of bytes sent in all states.
+   *
+   * @return the number of bytes sent
+   */
+  default long getBytesSent() {
+    long total = 0;
+    for (ProtocolState state : ProtocolState.values()) {
+      total += getBytesSent(state);
+    }
+    return total;
+  }
+
+  /**
+   * Returns the number of outbound bytes that were handed to the compressor.
+   *
+   * @return the number of bytes before compression
+   */
+  long getBytesBeforeCompression();
+
+  /**
+   * Returns the number of bytes the compressor produced from
+   * {@link #getBytesBeforeCompression()}.
+   *
+   * @return the number of bytes after compression
+   */
+  long getBytesAfterCompression();
+
+  /**
+   * Returns the number of bytes encrypted or decrypted.
+   *
+   * @return the number of bytes processed by the cipher
+   */
+  long getCipherBytes();
+
+  /**
+   * Returns the number of bytes that have been written but not yet sent to the network.
+   *
+   * @return the number of pending outbound bytes
+   */
+  long getPendingOutboundBytes();
+
+  /**
+   * Returns the total time spent decoding packets, in nanoseconds.
+   *
+   * @return the time spent decoding packets
+   */
+  long getDecodeTimeNanos();
+
+  /**
+   * Returns the number of times the connection was flushed with data pending.
+   *
+   * @return the number of flushes
+   */
+  long getFlushCount();
+
+  /**
+   * Returns the number of bytes sent by flushes.
+   *
+   * @return the number of bytes flushed
+   */
+  long getFlushedBytes();
+}
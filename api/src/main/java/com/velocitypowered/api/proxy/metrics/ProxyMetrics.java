@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * The Velocity API is licensed under the terms of the MIT License. For more details,
+ * reference the LICENSE file in the api top-level directory.
+ */
+
+
+package com.velocitypowered.api.proxy.metrics;
+
+import com.velocitypowered.api.proxy.Player;
+import com.velocitypowered.api.proxy.ServerConnection;
+import java.util.Optional;
+
+/**
+ * Provides access to the proxy's network metrics.
+ */
+public interface ProxyMetrics {
+
+  /**
+   * Returns the statistics for all connections the proxy has handled since it started, including
+   * connections to backend servers and status pings.
+   *
+   * @return the statistics for all connections
+   */
+  NetworkStatistics getTotalStatistics();
+
+  /**
+   * Returns the statistics for the connection between the player and the proxy.
+   *
+   * @param player the player
+   * @return the statistics for the player's connection
+   */
+  NetworkStatistics getStatistics(Player player);
+
+  /**
+   * Returns the statistics for the connection between the proxy and a backend server, if the
+   * connection has been established.
+   *
+   * @param connection the server connection
+   * @return the statistics for the connection, if available
+   */
+  Optional<NetworkStatistics> getStatistics(ServerConnection connection);
+
+  /**
+   * Returns the number of connections that are currently open.
+   *
+   * @return the number of open connections
+   */
+  int getOpenConnections();
+}
@@ -0,0 +1,12 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * The Velocity API is licensed under the terms of the MIT License. For more details,
+ * reference the LICENSE file in the api top-level directory.
+ */
+
+
+/**
+ * Provides operational metrics about the proxy's network connections.
+ */
+package com.velocitypowered.api.proxy.metrics;
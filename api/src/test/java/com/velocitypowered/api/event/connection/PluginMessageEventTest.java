@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * The Velocity API is licensed under the terms of the MIT License. For more details,
+ * reference the LICENSE file in the api top-level directory.
+ */
+
+package com.velocitypowered.api.event.connection;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.velocitypowered.api.proxy.messages.ChannelMessageSink;
+import com.velocitypowered.api.proxy.messages.ChannelMessageSource;
+import com.velocitypowered.api.proxy.messages.MinecraftChannelIdentifier;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import org.junit.jupiter.api.Test;
+
+class PluginMessageEventTest {
+
+  private static final ChannelMessageSource SOURCE = new ChannelMessageSource() {
+  };
+  private static final ChannelMessageSink TARGET = (identifier, data) -> true;
+  private static final MinecraftChannelIdentifier CHANNEL =
+      MinecraftChannelIdentifier.create("velocity", "test");
+
+  private static PluginMessageEvent event(ByteBuffer data) {
+    return new PluginMessageEvent(SOURCE, TARGET, CHANNEL, data);
+  }
+
+  @Test
+  void bufferPayloadStartsAtPosition() {
+    ByteBuffer buf = ByteBuffer.wrap(new byte[] {9, 1, 2, 3});
+    buf.position(1);
+    PluginMessageEvent event = event(buf);
+
+    assertArrayEquals(new byte[] {1, 2, 3}, event.getData());
+    assertEquals(3, event.dataAsBuffer().remaining());
+    assertEquals(1, event.dataAsDataStream().readByte());
+  }
+
+  @Test
+  void bufferViewIsReadOnly() {
+    PluginMessageEvent event = event(ByteBuffer.wrap(new byte[] {1, 2, 3}));
+
+    ByteBuffer view = event.dataAsBuffer();
+    assertTrue(view.isReadOnly());
+    assertThrows(ReadOnlyBufferException.class, () -> view.put(0, (byte) 0));
+  }
+
+  @Test
+  void bufferViewsAreIndependent() {
+    PluginMessageEvent event = event(ByteBuffer.allocateDirect(4).putInt(42).flip());
+
+    assertEquals(42, event.dataAsBuffer().getInt());
+    assertEquals(42, event.dataAsBuffer().getInt());
+  }
+
+  @Test
+  void getDataReturnsCopies() {
+    PluginMessageEvent event = new PluginMessageEvent(SOURCE, TARGET, CHANNEL,
+        new byte[] {1, 2, 3});
+
+    byte[] data = event.getData();
+    data[0] = 7;
+    assertNotSame(data, event.getData());
+    assertArrayEquals(new byte[] {1, 2, 3}, event.getData());
+    assertEquals(1, event.dataAsBuffer().get());
+  }
+
+  @Test
+  void payloadIsCopiedOnFirstRead() {
+    ByteBuffer buf = ByteBuffer.wrap(new byte[] {1, 2, 3});
+    PluginMessageEvent event = event(buf);
+    byte[] read = event.getData();
+    buf.put(0, (byte) 9);
+
+    assertArrayEquals(read, event.getData());
+    assertEquals(1, event.dataAsBuffer().get());
+    assertEquals(1, event.dataAsDataStream().readByte());
+  }
+}
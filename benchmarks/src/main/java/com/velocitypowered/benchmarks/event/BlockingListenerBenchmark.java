@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.benchmarks.event;
+
+import com.velocitypowered.api.event.PostOrder;
+import com.velocitypowered.api.plugin.PluginContainer;
+import com.velocitypowered.api.plugin.PluginManager;
+import com.velocitypowered.proxy.event.VelocityEventManager;
+import com.velocitypowered.proxy.util.concurrent.VirtualThreads;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Simulates a login storm: a burst of login-like events is fired at once, and a plugin listener
+ * blocks on each one as if it were querying a database. Compares the fixed pool of platform
+ * threads with a virtual thread per event. The virtual thread variant requires Java 21 or newer.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BlockingListenerBenchmark {
+
+  private static final int LOGINS = 1000;
+
+  /**
+   * The executor events are fired on.
+   */
+  public enum Executor {
+    /**
+     * The fixed pool of platform threads.
+     */
+    PLATFORM,
+    /**
+     * A new virtual thread for every event.
+     */
+    VIRTUAL
+  }
+
+  @Param
+  public Executor executor;
+
+  @Param({"1", "10"})
+  public int blockMillis;
+
+  private VelocityEventManager eventManager;
+
+  /**
+   * Creates an event manager with a single blocking listener.
+   */
+  @Setup
+  public void setup() {
+    if (executor == Executor.VIRTUAL && !VirtualThreads.isSupported()) {
+      throw new IllegalStateException("Virtual threads are not supported by this JVM");
+    }
+    Object plugin = new Object();
+    eventManager = new VelocityEventManager(new SinglePluginManager(plugin),
+        executor == Executor.VIRTUAL);
+    eventManager.register(plugin, LoginStormEvent.class, PostOrder.NORMAL, event -> {
+      try {
+        Thread.sleep(blockMillis);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+  }
+
+  @TearDown
+  public void tearDown() throws InterruptedException {
+    eventManager.shutdown();
+  }
+
+  /**
+   * Fires a burst of events and waits for all of them to complete.
+   */
+  @Benchmark
+  @OperationsPerInvocation(LOGINS)
+  public void loginStorm() {
+    CompletableFuture<?>[] futures = new CompletableFuture<?>[LOGINS];
+    for (int i = 0; i < LOGINS; i++) {
+      futures[i] = eventManager.fire(new LoginStormEvent());
+    }
+    CompletableFuture.allOf(futures).join();
+  }
+
+  /**
+   * Stands in for {@code LoginEvent}, which needs a connected player.
+   */
+  public static final class LoginStormEvent {
+  }
+
+  private static final class SinglePluginManager implements PluginManager {
+
+    private final Object plugin;
+    private final PluginContainer container = () -> () -> "benchmark";
+
+    SinglePluginManager(Object plugin) {
+      this.plugin = plugin;
+    }
+
+    @Override
+    public Optional<PluginContainer> fromInstance(Object instance) {
+      return instance == plugin ? Optional.of(container) : Optional.empty();
+    }
+
+    @Override
+    public Optional<PluginContainer> getPlugin(String id) {
+      return id.equals("benchmark") ? Optional.of(container) : Optional.empty();
+    }
+
+    @Override
+    public Collection<PluginContainer> getPlugins() {
+      return List.of(container);
+    }
+
+    @Override
+    public boolean isLoaded(String id) {
+      return id.equals("benchmark");
+    }
+
+    @Override
+    public void addToClasspath(Object plugin, Path path) {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.benchmarks.network;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFactory;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.incubator.channel.uring.IOUring;
+import io.netty.incubator.channel.uring.IOUringEventLoopGroup;
+import io.netty.incubator.channel.uring.IOUringServerSocketChannel;
+import io.netty.incubator.channel.uring.IOUringSocketChannel;
+import io.netty.util.ReferenceCountUtil;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Relays small packets over loopback the way the proxy relays a server's packets to a player: a
+ * "server" writes a burst of packets to the relay, which writes each one it reads to the "player"
+ * connection and flushes once the read is complete. Compares the transports the proxy can use.
+ *
+ * <p>The number of system calls per packet can be measured with the Linux perf profiler, e.g.
+ * {@code -prof "perfnorm:events=raw_syscalls:sys_enter"}. The io_uring transport is only
+ * available on Linux 5.9 or newer.</p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransportRelayBenchmark {
+
+  private static final int PACKETS_PER_BURST = 64;
+
+  /**
+   * The transports to compare, matching those the proxy chooses between.
+   */
+  public enum Transport {
+    /**
+     * The JDK's NIO selector.
+     */
+    NIO,
+    /**
+     * Netty's native epoll transport.
+     */
+    EPOLL,
+    /**
+     * Netty's incubating io_uring transport.
+     */
+    IO_URING
+  }
+
+  @Param
+  public Transport transport;
+
+  @Param({"48"})
+  public int packetSize;
+
+  private EventLoopGroup group;
+  private Channel relayListener;
+  private Channel playerListener;
+  private Channel serverSide;
+  private ByteBuf packet;
+  private volatile long expectedBytes;
+  private volatile CompletableFuture<Void> delivered;
+  private long receivedBytes;
+
+  /**
+   * Starts the player listener and the relay, then connects the server side to the relay.
+   */
+  @Setup
+  public void setup() throws Exception {
+    ChannelFactory<? extends ServerChannel> serverChannelFactory;
+    ChannelFactory<? extends Channel> channelFactory;
+    switch (transport) {
+      case NIO:
+        group = new NioEventLoopGroup(1);
+        serverChannelFactory = NioServerSocketChannel::new;
+        channelFactory = NioSocketChannel::new;
+        break;
+      case EPOLL:
+        Epoll.ensureAvailability();
+        group = new EpollEventLoopGroup(1);
+        serverChannelFactory = EpollServerSocketChannel::new;
+        channelFactory = EpollSocketChannel::new;
+        break;
+      case IO_URING:
+        IOUring.ensureAvailability();
+        group = new IOUringEventLoopGroup(1);
+        serverChannelFactory = IOUringServerSocketChannel::new;
+        channelFactory = IOUringSocketChannel::new;
+        break;
+      default:
+        throw new AssertionError();
+    }
+
+    // The player: counts what it receives until the burst has been delivered.
+    playerListener = new ServerBootstrap()
+        .group(group)
+        .channelFactory(serverChannelFactory)
+        .childOption(ChannelOption.TCP_NODELAY, true)
+        .childHandler(new ChannelInboundHandlerAdapter() {
+          @Override
+          public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            receivedBytes += ((ByteBuf) msg).readableBytes();
+            ReferenceCountUtil.release(msg);
+            if (receivedBytes >= expectedBytes) {
+              delivered.complete(null);
+            }
+          }
+        })
+        .bind(new InetSocketAddress("127.0.0.1", 0)).sync().channel();
+
+    // The relay: connects to the player for every server that connects to it, then relays.
+    Bootstrap playerBootstrap = new Bootstrap()
+        .group(group)
+        .channelFactory(channelFactory)
+        .option(ChannelOption.TCP_NODELAY, true)
+        .handler(new ChannelInboundHandlerAdapter());
+    relayListener = new ServerBootstrap()
+        .group(group)
+        .channelFactory(serverChannelFactory)
+        .childOption(ChannelOption.TCP_NODELAY, true)
+        .childOption(ChannelOption.AUTO_READ, false)
+        .childHandler(new ChannelInitializer<Channel>() {
+          @Override
+          protected void initChannel(Channel ch) {
+            playerBootstrap.connect(playerListener.localAddress()).addListener(future -> {
+              Channel player = ((ChannelFuture) future).channel();
+              ch.pipeline().addLast(new ChannelInboundHandlerAdapter() {
+                @Override
+                public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                  player.write(msg, player.voidPromise());
+                }
+
+                @Override
+                public void channelReadComplete(ChannelHandlerContext ctx) {
+                  player.flush();
+                }
+              });
+              ch.config().setAutoRead(true);
+            });
+          }
+        })
+        .bind(new InetSocketAddress("127.0.0.1", 0)).sync().channel();
+
+    serverSide = new Bootstrap()
+        .group(group)
+        .channelFactory(channelFactory)
+        .option(ChannelOption.TCP_NODELAY, true)
+        .handler(new ChannelInboundHandlerAdapter())
+        .connect(relayListener.localAddress()).sync().channel();
+    packet = serverSide.alloc().directBuffer(packetSize).writeZero(packetSize);
+  }
+
+  /**
+   * Closes every channel and shuts down the event loop group.
+   */
+  @TearDown
+  public void tearDown() throws Exception {
+    packet.release();
+    serverSide.close().sync();
+    relayListener.close().sync();
+    playerListener.close().sync();
+    group.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+  }
+
+  /**
+   * Writes a burst of packets from the server side and waits until the player has received them.
+   */
+  @Benchmark
+  @OperationsPerInvocation(PACKETS_PER_BURST)
+  public void relayBurst() {
+    CompletableFuture<Void> delivered = new CompletableFuture<>();
+    this.delivered = delivered;
+    this.expectedBytes += (long) PACKETS_PER_BURST * packetSize;
+    serverSide.eventLoop().execute(() -> {
+      for (int i = 0; i < PACKETS_PER_BURST; i++) {
+        serverSide.write(packet.retainedDuplicate(), serverSide.voidPromise());
+      }
+      serverSide.flush();
+    });
+    delivered.join();
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.benchmarks.protocol;
+
+import com.velocitypowered.natives.encryption.ForeignVelocityCipher;
+import com.velocitypowered.natives.encryption.JavaVelocityCipher;
+import com.velocitypowered.natives.encryption.VelocityCipher;
+import com.velocitypowered.natives.encryption.VelocityCipherFactory;
+import com.velocitypowered.natives.util.Natives;
+import com.velocitypowered.proxy.protocol.netty.MinecraftCipherDecoder;
+import com.velocitypowered.proxy.protocol.netty.MinecraftCipherEncoder;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures {@link MinecraftCipherEncoder} and {@link MinecraftCipherDecoder} with both the Java
+ * and the OpenSSL {@link VelocityCipher}s. OpenSSL is either called through JNI or, on Java 22
+ * and newer, through the Foreign Function &amp; Memory API.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CipherBenchmark {
+
+  /**
+   * The cipher implementation to measure.
+   */
+  public enum Implementation {
+    /** The JCE based cipher. */
+    JAVA,
+    /** Whichever native cipher velocity-native loaded on this platform. */
+    NATIVE,
+    /** The system OpenSSL called through the Foreign Function &amp; Memory API (Java 22+). */
+    FOREIGN
+  }
+
+  @Param
+  public Implementation implementation;
+
+  @Param({"16", "256", "2048", "32768", "262144"})
+  public int packetSize;
+
+  private EmbeddedChannel encoderChannel;
+  private EmbeddedChannel decoderChannel;
+  private ByteBuf data;
+
+  /**
+   * Creates a cipher pair for a fixed key and the buffer they process.
+   *
+   * @throws GeneralSecurityException if the cipher can't be initialized
+   */
+  @Setup
+  public void setup() throws GeneralSecurityException {
+    VelocityCipherFactory factory = factory(implementation);
+    SecretKey key = new SecretKeySpec(Payloads.chunkLike(16), "AES");
+    VelocityCipher encrypt = factory.forEncryption(key);
+    encoderChannel = new EmbeddedChannel(new MinecraftCipherEncoder(encrypt));
+    decoderChannel = new EmbeddedChannel(new MinecraftCipherDecoder(factory.forDecryption(key)));
+
+    // Allocate the same kind of buffer the proxy would hand to this cipher.
+    data = Payloads.preferred(PooledByteBufAllocator.DEFAULT, encrypt,
+        Payloads.chunkLike(packetSize));
+  }
+
+  private static VelocityCipherFactory factory(Implementation implementation) {
+    if (implementation == Implementation.JAVA) {
+      return JavaVelocityCipher.FACTORY;
+    }
+    if (implementation == Implementation.FOREIGN) {
+      ForeignVelocityCipher.bind();
+      return ForeignVelocityCipher.FACTORY;
+    }
+    if (Natives.cipher.get() == JavaVelocityCipher.FACTORY) {
+      throw new IllegalStateException("No native cipher is available on this platform");
+    }
+    return Natives.cipher.get();
+  }
+
+  /**
+   * Closes the channels (and with them, the natives) and releases the buffers.
+   */
+  @TearDown
+  public void tearDown() {
+    encoderChannel.finishAndReleaseAll();
+    decoderChannel.finishAndReleaseAll();
+    data.release();
+  }
+
+  /**
+   * Encrypts one outbound frame in place.
+   *
+   * @param bh the blackhole to consume the result with
+   */
+  @Benchmark
+  public void encrypt(Blackhole bh) {
+    encoderChannel.writeOutbound(data.retainedDuplicate());
+    ByteBuf encrypted = encoderChannel.readOutbound();
+    bh.consume(encrypted.readableBytes());
+    encrypted.release();
+  }
+
+  /**
+   * Decrypts one inbound read in place.
+   *
+   * @param bh the blackhole to consume the result with
+   */
+  @Benchmark
+  public void decrypt(Blackhole bh) {
+    decoderChannel.writeInbound(data.retainedDuplicate());
+    ByteBuf decrypted = decoderChannel.readInbound();
+    bh.consume(decrypted.readableBytes());
+    decrypted.release();
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.benchmarks.protocol;
+
+import com.velocitypowered.natives.encryption.VelocityCipher;
+import com.velocitypowered.natives.encryption.VelocityCipherFactory;
+import com.velocitypowered.natives.util.Natives;
+import com.velocitypowered.proxy.protocol.netty.MinecraftCipherDecoder;
+import com.velocitypowered.proxy.protocol.netty.MinecraftCipherEncoder;
+import com.velocitypowered.proxy.protocol.netty.MinecraftCipherFrameCodec;
+import com.velocitypowered.proxy.protocol.netty.MinecraftVarintFrameDecoder;
+import com.velocitypowered.proxy.protocol.netty.MinecraftVarintLengthEncoder;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the separate cipher and framing stages with {@link MinecraftCipherFrameCodec}, by
+ * sending packets through an encrypting pipeline and back through a decrypting one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CipherFrameCodecBenchmark {
+
+  /**
+   * The pipeline layout to measure.
+   */
+  public enum Layout {
+    /** A cipher stage and a framing stage in each direction. */
+    SEPARATE,
+    /** One fused codec in each direction. */
+    FUSED
+  }
+
+  @Param
+  public Layout layout;
+
+  @Param({"16", "256", "2048", "32768"})
+  public int packetSize;
+
+  private EmbeddedChannel encryptChannel;
+  private EmbeddedChannel decryptChannel;
+  private ByteBuf data;
+
+  /**
+   * Sets up both pipelines with the cipher velocity-native loaded on this platform.
+   *
+   * @throws GeneralSecurityException if the cipher can't be initialized
+   */
+  @Setup
+  public void setup() throws GeneralSecurityException {
+    VelocityCipherFactory factory = Natives.cipher.get();
+    SecretKey key = new SecretKeySpec(Payloads.chunkLike(16), "AES");
+    VelocityCipher encrypt = factory.forEncryption(key);
+    VelocityCipher decrypt = factory.forDecryption(key);
+
+    if (layout == Layout.SEPARATE) {
+      encryptChannel = new EmbeddedChannel(new MinecraftCipherEncoder(encrypt),
+          MinecraftVarintLengthEncoder.INSTANCE);
+      decryptChannel = new EmbeddedChannel(new MinecraftCipherDecoder(decrypt),
+          new MinecraftVarintFrameDecoder());
+    } else {
+      // Each channel only uses one direction of its codec.
+      encryptChannel = new EmbeddedChannel(new MinecraftCipherFrameCodec(
+          factory.forDecryption(key), encrypt, true));
+      decryptChannel = new EmbeddedChannel(new MinecraftCipherFrameCodec(
+          decrypt, factory.forEncryption(key), true));
+    }
+
+    data = Payloads.preferred(PooledByteBufAllocator.DEFAULT, encrypt,
+        Payloads.chunkLike(packetSize));
+  }
+
+  /**
+   * Closes the channels (and with them, the ciphers) and releases the packet.
+   */
+  @TearDown
+  public void tearDown() {
+    encryptChannel.finishAndReleaseAll();
+    decryptChannel.finishAndReleaseAll();
+    data.release();
+  }
+
+  /**
+   * Frames and encrypts one packet, then decrypts and splits it off again.
+   *
+   * @param bh the blackhole to consume the result with
+   */
+  @Benchmark
+  public void roundTrip(Blackhole bh) {
+    encryptChannel.writeOutbound(data.retainedDuplicate());
+    ByteBuf wire;
+    while ((wire = encryptChannel.readOutbound()) != null) {
+      decryptChannel.writeInbound(wire);
+    }
+
+    ByteBuf frame = decryptChannel.readInbound();
+    bh.consume(frame.readableBytes());
+    frame.release();
+  }
+}
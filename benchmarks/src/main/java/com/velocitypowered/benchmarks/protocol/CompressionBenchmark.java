@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.benchmarks.protocol;
+
+import com.velocitypowered.natives.compression.ForeignVelocityCompressor;
+import com.velocitypowered.natives.compression.JavaVelocityCompressor;
+import com.velocitypowered.natives.compression.VelocityCompressor;
+import com.velocitypowered.natives.compression.VelocityCompressorFactory;
+import com.velocitypowered.natives.util.Natives;
+import com.velocitypowered.proxy.protocol.ProtocolUtils;
+import com.velocitypowered.proxy.protocol.netty.MinecraftCompressDecoder;
+import com.velocitypowered.proxy.protocol.netty.MinecraftCompressorAndLengthEncoder;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures {@link MinecraftCompressorAndLengthEncoder} and {@link MinecraftCompressDecoder} with
+ * the Java and the libdeflate {@link VelocityCompressor}s. The libdeflate compressor is either
+ * called through JNI or, on Java 22 and newer, through the Foreign Function &amp; Memory API.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CompressionBenchmark {
+
+  private static final int THRESHOLD = 256;
+
+  /**
+   * The compressor implementation to measure.
+   */
+  public enum Implementation {
+    /** The java.util.zip based compressor. */
+    JAVA,
+    /** Whichever native compressor velocity-native loaded on this platform. */
+    NATIVE,
+    /** The system libdeflate called through the Foreign Function &amp; Memory API (Java 22+). */
+    FOREIGN
+  }
+
+  @Param
+  public Implementation implementation;
+
+  @Param({"256", "2048", "32768", "262144"})
+  public int packetSize;
+
+  @Param({"1", "6"})
+  public int level;
+
+  private EmbeddedChannel encoderChannel;
+  private EmbeddedChannel decoderChannel;
+  private ByteBuf uncompressed;
+  private ByteBuf compressed;
+
+  /**
+   * Creates the compressor under test and pre-compresses a frame for the inflate benchmark.
+   */
+  @Setup
+  public void setup() {
+    VelocityCompressor compressor = factory(implementation).create(level);
+    encoderChannel = new EmbeddedChannel(
+        new MinecraftCompressorAndLengthEncoder(THRESHOLD, compressor));
+    decoderChannel = new EmbeddedChannel(new MinecraftCompressDecoder(THRESHOLD, compressor));
+
+    uncompressed = PooledByteBufAllocator.DEFAULT.directBuffer(packetSize);
+    uncompressed.writeBytes(Payloads.chunkLike(packetSize));
+
+    encoderChannel.writeOutbound(uncompressed.retainedDuplicate());
+    compressed = encoderChannel.readOutbound();
+    // The frame decoder strips the packet length before the compression decoder sees the frame.
+    ProtocolUtils.readVarInt(compressed);
+  }
+
+  private static VelocityCompressorFactory factory(Implementation implementation) {
+    if (implementation == Implementation.JAVA) {
+      return JavaVelocityCompressor.FACTORY;
+    }
+    if (implementation == Implementation.FOREIGN) {
+      ForeignVelocityCompressor.bind();
+      return ForeignVelocityCompressor.FACTORY;
+    }
+    if (Natives.compress.get() == JavaVelocityCompressor.FACTORY) {
+      throw new IllegalStateException("No native compressor is available on this platform");
+    }
+    return Natives.compress.get();
+  }
+
+  /**
+   * Closes the channels (and with them, the natives) and releases the buffers.
+   */
+  @TearDown
+  public void tearDown() {
+    encoderChannel.finishAndReleaseAll();
+    decoderChannel.finishAndReleaseAll();
+    uncompressed.release();
+    compressed.release();
+  }
+
+  /**
+   * Compresses and length-prefixes one packet.
+   *
+   * @param bh the blackhole to consume the result with
+   */
+  @Benchmark
+  public void deflate(Blackhole bh) {
+    encoderChannel.writeOutbound(uncompressed.retainedDuplicate());
+    ByteBuf frame = encoderChannel.readOutbound();
+    bh.consume(frame.readableBytes());
+    frame.release();
+  }
+
+  /**
+   * Decompresses one frame.
+   *
+   * @param bh the blackhole to consume the result with
+   */
+  @Benchmark
+  public void inflate(Blackhole bh) {
+    decoderChannel.writeInbound(compressed.retainedDuplicate());
+    ByteBuf packet = decoderChannel.readInbound();
+    bh.consume(packet.readableBytes());
+    packet.release();
+  }
+}
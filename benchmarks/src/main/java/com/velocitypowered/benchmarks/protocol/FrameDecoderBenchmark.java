@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.benchmarks.protocol;
+
+import com.velocitypowered.proxy.protocol.netty.MinecraftVarintFrameDecoder;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures {@link MinecraftVarintFrameDecoder} splitting a single read into frames.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FrameDecoderBenchmark {
+
+  @Param({"16", "256", "2048", "32768", "262144"})
+  public int packetSize;
+
+  @Param({"1", "16"})
+  public int framesPerRead;
+
+  private EmbeddedChannel channel;
+  private ByteBuf read;
+
+  @Setup
+  public void setup() {
+    channel = new EmbeddedChannel(new MinecraftVarintFrameDecoder());
+    read = Payloads.frames(PooledByteBufAllocator.DEFAULT, packetSize, framesPerRead);
+  }
+
+  @TearDown
+  public void tearDown() {
+    channel.finishAndReleaseAll();
+    read.release();
+  }
+
+  /**
+   * Feeds one read into the decoder and drains every frame it produces.
+   *
+   * @param bh the blackhole to consume frames with
+   */
+  @Benchmark
+  public void decode(Blackhole bh) {
+    channel.writeInbound(read.retainedDuplicate());
+    ByteBuf frame;
+    while ((frame = channel.readInbound()) != null) {
+      bh.consume(frame.readableBytes());
+      frame.release();
+    }
+  }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.benchmarks.protocol;
+
+import com.velocitypowered.api.network.ProtocolVersion;
+import com.velocitypowered.proxy.protocol.MinecraftPacket;
+import com.velocitypowered.proxy.protocol.ProtocolUtils;
+import com.velocitypowered.proxy.protocol.StateRegistry;
+import com.velocitypowered.proxy.protocol.netty.MinecraftDecoder;
+import com.velocitypowered.proxy.protocol.packet.KeepAlive;
+import com.velocitypowered.proxy.protocol.packet.PluginMessage;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.ReferenceCountUtil;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures {@link MinecraftDecoder} turning a clientbound play frame into a packet (or passing it
+ * through untouched if the proxy doesn't know about it).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PacketDecoderBenchmark {
+
+  static final ProtocolVersion VERSION = ProtocolVersion.MAXIMUM_VERSION;
+
+  /**
+   * The kind of frame fed into the decoder.
+   */
+  public enum Kind {
+    /** A tiny packet the proxy fully decodes. */
+    KEEP_ALIVE,
+    /** A packet the proxy decodes, retaining a slice of the payload. */
+    PLUGIN_MESSAGE,
+    /** A packet the proxy does not register, which is forwarded as a raw buffer. */
+    UNKNOWN
+  }
+
+  @Param
+  public Kind kind;
+
+  @Param({"64", "2048", "32768"})
+  public int payloadSize;
+
+  private EmbeddedChannel channel;
+  private ByteBuf frame;
+
+  /**
+   * Sets up a decoder in the play state and pre-encodes the frame to decode.
+   */
+  @Setup
+  public void setup() {
+    MinecraftDecoder decoder = new MinecraftDecoder(ProtocolUtils.Direction.CLIENTBOUND);
+    decoder.setState(StateRegistry.PLAY);
+    decoder.setProtocolVersion(VERSION);
+    channel = new EmbeddedChannel(decoder);
+
+    StateRegistry.PacketRegistry.ProtocolRegistry registry = ProtocolUtils.Direction.CLIENTBOUND
+        .getProtocolRegistry(StateRegistry.PLAY, VERSION);
+    frame = PooledByteBufAllocator.DEFAULT.directBuffer();
+    switch (kind) {
+      case KEEP_ALIVE:
+        KeepAlive keepAlive = new KeepAlive();
+        keepAlive.setRandomId(0xCAFEBABEL);
+        writePacket(registry, keepAlive);
+        break;
+      case PLUGIN_MESSAGE:
+        writePacket(registry, new PluginMessage("velocity:benchmark",
+            Unpooled.wrappedBuffer(Payloads.chunkLike(payloadSize))));
+        break;
+      case UNKNOWN:
+        ProtocolUtils.writeVarInt(frame, unknownPacketId(registry));
+        frame.writeBytes(Payloads.chunkLike(payloadSize));
+        break;
+      default:
+        throw new AssertionError(kind);
+    }
+  }
+
+  private void writePacket(StateRegistry.PacketRegistry.ProtocolRegistry registry,
+      MinecraftPacket packet) {
+    ProtocolUtils.writeVarInt(frame, registry.getPacketId(packet));
+    packet.encode(frame, ProtocolUtils.Direction.CLIENTBOUND, VERSION);
+    ReferenceCountUtil.release(packet);
+  }
+
+  private static int unknownPacketId(StateRegistry.PacketRegistry.ProtocolRegistry registry) {
+    for (int id = 0; id < 0x100; id++) {
+      if (registry.createPacket(id) == null) {
+        return id;
+      }
+    }
+    throw new IllegalStateException("Every packet ID is registered");
+  }
+
+  @TearDown
+  public void tearDown() {
+    channel.finishAndReleaseAll();
+    frame.release();
+  }
+
+  /**
+   * Decodes a single frame and releases whatever the decoder produced.
+   *
+   * @param bh the blackhole to consume the result with
+   */
+  @Benchmark
+  public void decode(Blackhole bh) {
+    channel.writeInbound(frame.retainedDuplicate());
+    Object decoded = channel.readInbound();
+    bh.consume(decoded);
+    ReferenceCountUtil.release(decoded);
+  }
+}
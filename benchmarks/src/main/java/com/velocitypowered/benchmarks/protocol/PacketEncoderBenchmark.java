@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.benchmarks.protocol;
+
+import com.velocitypowered.proxy.protocol.MinecraftPacket;
+import com.velocitypowered.proxy.protocol.ProtocolUtils;
+import com.velocitypowered.proxy.protocol.StateRegistry;
+import com.velocitypowered.proxy.protocol.netty.MinecraftEncoder;
+import com.velocitypowered.proxy.protocol.packet.KeepAlive;
+import com.velocitypowered.proxy.protocol.packet.PluginMessage;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.ReferenceCountUtil;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures {@link MinecraftEncoder} serializing a clientbound play packet into a buffer.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PacketEncoderBenchmark {
+
+  /**
+   * The kind of packet handed to the encoder.
+   */
+  public enum Kind {
+    /** A tiny fixed-size packet. */
+    KEEP_ALIVE,
+    /** A packet whose body is copied out of another buffer. */
+    PLUGIN_MESSAGE
+  }
+
+  @Param
+  public Kind kind;
+
+  @Param({"64", "2048", "32768"})
+  public int payloadSize;
+
+  private EmbeddedChannel channel;
+  private MinecraftPacket packet;
+
+  /**
+   * Sets up an encoder in the play state and creates the packet to encode.
+   */
+  @Setup
+  public void setup() {
+    MinecraftEncoder encoder = new MinecraftEncoder(ProtocolUtils.Direction.CLIENTBOUND);
+    encoder.setState(StateRegistry.PLAY);
+    encoder.setProtocolVersion(PacketDecoderBenchmark.VERSION);
+    channel = new EmbeddedChannel(encoder);
+
+    switch (kind) {
+      case KEEP_ALIVE:
+        KeepAlive keepAlive = new KeepAlive();
+        keepAlive.setRandomId(0xCAFEBABEL);
+        packet = keepAlive;
+        break;
+      case PLUGIN_MESSAGE:
+        packet = new PluginMessage("velocity:benchmark",
+            Unpooled.directBuffer(payloadSize).writeBytes(Payloads.chunkLike(payloadSize)));
+        break;
+      default:
+        throw new AssertionError(kind);
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    channel.finishAndReleaseAll();
+    ReferenceCountUtil.release(packet);
+  }
+
+  /**
+   * Encodes the packet once and releases the resulting buffer.
+   *
+   * @param bh the blackhole to consume the result with
+   */
+  @Benchmark
+  public void encode(Blackhole bh) {
+    // The encoder releases what it is given, so hand it a reference of its own.
+    channel.writeOutbound(ReferenceCountUtil.retain(packet));
+    ByteBuf encoded = channel.readOutbound();
+    bh.consume(encoded.readableBytes());
+    encoded.release();
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.benchmarks.protocol;
+
+import com.velocitypowered.api.network.ProtocolVersion;
+import com.velocitypowered.proxy.protocol.MinecraftPacket;
+import com.velocitypowered.proxy.protocol.ProtocolUtils;
+import com.velocitypowered.proxy.protocol.StateRegistry;
+import com.velocitypowered.proxy.protocol.packet.BossBar;
+import com.velocitypowered.proxy.protocol.packet.Disconnect;
+import com.velocitypowered.proxy.protocol.packet.HeaderAndFooter;
+import com.velocitypowered.proxy.protocol.packet.JoinGame;
+import com.velocitypowered.proxy.protocol.packet.KeepAlive;
+import com.velocitypowered.proxy.protocol.packet.PlayerListItem;
+import com.velocitypowered.proxy.protocol.packet.PluginMessage;
+import com.velocitypowered.proxy.protocol.packet.Respawn;
+import com.velocitypowered.proxy.protocol.packet.chat.SystemChatPacket;
+import com.velocitypowered.proxy.protocol.packet.title.TitleActionbarPacket;
+import io.netty.util.collection.IntObjectHashMap;
+import io.netty.util.collection.IntObjectMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the array-indexed packet ID lookup in
+ * {@link StateRegistry.PacketRegistry.ProtocolRegistry} against the hash map it replaced, cycling
+ * through the IDs of a mix of common clientbound play packets.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PacketRegistryBenchmark {
+
+  /**
+   * The lookup structure being measured.
+   */
+  public enum Lookup {
+    /**
+     * An {@code IntObjectHashMap} keyed by packet ID.
+     */
+    HASH_MAP,
+    /**
+     * The dense array used by the registry.
+     */
+    ARRAY
+  }
+
+  @Param
+  public Lookup lookup;
+
+  private StateRegistry.PacketRegistry.ProtocolRegistry registry;
+  private final IntObjectMap<Supplier<? extends MinecraftPacket>> packetIdToSupplier =
+      new IntObjectHashMap<>(16, 0.5f);
+  private int[] ids;
+  private int index;
+
+  /**
+   * Builds a hash map mirroring the registry's play state so both lookups see the same IDs.
+   */
+  @Setup
+  public void setup() {
+    registry = ProtocolUtils.Direction.CLIENTBOUND
+        .getProtocolRegistry(StateRegistry.PLAY, ProtocolVersion.MAXIMUM_VERSION);
+
+    for (int id = 0; id < 0x100; id++) {
+      if (registry.containsPacket(id)) {
+        final int packetId = id;
+        packetIdToSupplier.put(packetId, () -> registry.createPacket(packetId));
+      }
+    }
+
+    MinecraftPacket[] packets = {
+        new KeepAlive(), new PluginMessage(), new BossBar(), new PlayerListItem(),
+        new SystemChatPacket(), new HeaderAndFooter(), new JoinGame(), new Respawn(),
+        new Disconnect(), new TitleActionbarPacket()
+    };
+    ids = new int[packets.length];
+    for (int i = 0; i < packets.length; i++) {
+      ids[i] = registry.getPacketId(packets[i]);
+    }
+  }
+
+  private int next() {
+    int i = index;
+    index = i + 1 == ids.length ? 0 : i + 1;
+    return i;
+  }
+
+  /**
+   * Looks up the packet supplier for an ID, as done once per decoded packet. The supplier itself
+   * is not invoked so that only the lookup, and not the packet allocation, is measured.
+   *
+   * @return whether the ID was registered
+   */
+  @Benchmark
+  public boolean packetById() {
+    int id = ids[next()];
+    if (lookup == Lookup.HASH_MAP) {
+      return packetIdToSupplier.get(id) != null;
+    }
+    return registry.containsPacket(id);
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.benchmarks.protocol;
+
+import com.velocitypowered.natives.Native;
+import com.velocitypowered.natives.util.MoreByteBufUtils;
+import com.velocitypowered.proxy.protocol.ProtocolUtils;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import java.util.SplittableRandom;
+
+/**
+ * Builds the deterministic packet bodies shared by the pipeline benchmarks.
+ */
+final class Payloads {
+
+  // Fixed so that every run (and every fork) sees exactly the same bytes.
+  private static final long SEED = 0x5EED_7E10C17AL;
+
+  private Payloads() {
+    throw new AssertionError();
+  }
+
+  /**
+   * Creates {@code size} bytes of data that compresses roughly like chunk data does: each byte is
+   * drawn from a small alphabet, so deflate gets about a 2:1 ratio.
+   *
+   * @param size the number of bytes to generate
+   * @return the generated bytes
+   */
+  static byte[] chunkLike(int size) {
+    SplittableRandom random = new SplittableRandom(SEED);
+    byte[] data = new byte[size];
+    for (int i = 0; i < size; i++) {
+      data[i] = (byte) random.nextInt(16);
+    }
+    return data;
+  }
+
+  /**
+   * Writes {@code count} length-prefixed frames of {@code size} bytes each into a single buffer,
+   * as they would arrive from the network.
+   *
+   * @param alloc the allocator to use
+   * @param size the size of each frame body
+   * @param count the number of frames to write
+   * @return a buffer holding all the frames
+   */
+  static ByteBuf frames(ByteBufAllocator alloc, int size, int count) {
+    byte[] body = chunkLike(size);
+    ByteBuf buf = alloc.directBuffer((ProtocolUtils.varIntBytes(size) + size) * count);
+    for (int i = 0; i < count; i++) {
+      ProtocolUtils.writeVarInt(buf, size);
+      buf.writeBytes(body);
+    }
+    return buf;
+  }
+
+  /**
+   * Copies {@code data} into the buffer type {@code nativeStuff} works best with, mirroring how
+   * the proxy allocates buffers for the loaded natives.
+   *
+   * @param alloc the allocator to use
+   * @param nativeStuff the native that will process the buffer
+   * @param data the data to copy
+   * @return a buffer holding {@code data}
+   */
+  static ByteBuf preferred(ByteBufAllocator alloc, Native nativeStuff, byte[] data) {
+    ByteBuf buf = MoreByteBufUtils.preferredBuffer(alloc, nativeStuff, data.length);
+    buf.writeBytes(data);
+    return buf;
+  }
+}
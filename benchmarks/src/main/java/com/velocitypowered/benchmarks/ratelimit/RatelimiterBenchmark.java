@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.benchmarks.ratelimit;
+
+import com.velocitypowered.proxy.util.ratelimit.GuavaCacheRatelimiter;
+import com.velocitypowered.proxy.util.ratelimit.Ratelimiter;
+import com.velocitypowered.proxy.util.ratelimit.SlidingWindowRatelimiter;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Simulates a login flood against the login rate-limiter: every available thread, standing in
+ * for the worker event loops, checks addresses drawn from a pool of attacking addresses. Run with
+ * {@code -prof gc} to compare the allocation rates.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class RatelimiterBenchmark {
+
+  /**
+   * The rate-limiter implementation.
+   */
+  public enum Implementation {
+    /**
+     * The rate-limiter based on a Guava cache.
+     */
+    GUAVA,
+    /**
+     * The rate-limiter based on a table of longs.
+     */
+    TABLE
+  }
+
+  @Param
+  public Implementation implementation;
+
+  @Param({"1024", "65536"})
+  public int addresses;
+
+  private Ratelimiter ratelimiter;
+  private InetAddress[] pool;
+
+  /**
+   * Creates the rate-limiter and the pool of attacking addresses.
+   *
+   * @throws UnknownHostException never, since only literal addresses are used
+   */
+  @Setup
+  public void setup() throws UnknownHostException {
+    switch (implementation) {
+      case GUAVA:
+        ratelimiter = new GuavaCacheRatelimiter(3000, TimeUnit.MILLISECONDS);
+        break;
+      case TABLE:
+        ratelimiter = new SlidingWindowRatelimiter(3000, TimeUnit.MILLISECONDS);
+        break;
+      default:
+        throw new AssertionError(implementation);
+    }
+
+    SplittableRandom random = new SplittableRandom(0);
+    pool = new InetAddress[addresses];
+    for (int i = 0; i < addresses; i++) {
+      int address = random.nextInt();
+      pool[i] = InetAddress.getByAddress(new byte[] {(byte) (address >>> 24),
+          (byte) (address >>> 16), (byte) (address >>> 8), (byte) address});
+    }
+  }
+
+  /**
+   * Picks the addresses of a single thread.
+   */
+  @State(Scope.Thread)
+  public static class Cursor {
+
+    private final SplittableRandom random = new SplittableRandom();
+  }
+
+  /**
+   * Checks a random address from the pool.
+   *
+   * @param cursor the state of the calling thread
+   * @return whether the attempt was allowed
+   */
+  @Benchmark
+  public boolean attempt(Cursor cursor) {
+    return ratelimiter.attempt(pool[cursor.random.nextInt(pool.length)]);
+  }
+}
@@ -21,4 +21,15 @@ import com.velocitypowered.natives.util.BufferPreference;
 
 public interface Native {
   BufferPreference preferredBufferType();
+
+  /**
+   * Returns whether this native can work directly on a buffer made up of several direct regions,
+   * such as a {@link io.netty.buffer.CompositeByteBuf} of direct buffers. Otherwise, such buffers
+   * are copied into a single buffer first.
+   *
+   * @return whether buffers with several direct regions are accepted
+   */
+  default boolean supportsScatterGather() {
+    return false;
+  }
 }
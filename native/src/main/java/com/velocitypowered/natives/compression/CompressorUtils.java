@@ -26,6 +26,41 @@ class CompressorUtils {
    */
   static final int ZLIB_BUFFER_SIZE = 8192;
 
+  /**
+   * The shortest block libdeflate emits. Older versions used a longer minimum, so counting with
+   * this one gives a bound that holds for all of them.
+   */
+  private static final int LIBDEFLATE_MIN_BLOCK_LENGTH = 5000;
+
+  /**
+   * Returns the same bound as {@code libdeflate_zlib_compress_bound}: the input stored in blocks
+   * of five bytes of overhead each, plus the zlib header and trailer. This also includes the
+   * output padding older versions of libdeflate required.
+   *
+   * @param uncompressedSize the size of the data to deflate
+   * @return an upper bound on the size of the deflated data
+   */
+  static int libdeflateZlibBound(int uncompressedSize) {
+    int blocks = Math.max(
+        (uncompressedSize + LIBDEFLATE_MIN_BLOCK_LENGTH - 1) / LIBDEFLATE_MIN_BLOCK_LENGTH, 1);
+    return uncompressedSize + 5 * blocks + 1 + 8 + 6;
+  }
+
+  /**
+   * Maps a zlib compression level onto libdeflate's, where {@code -1} means its default of 6.
+   *
+   * @param level the compression level, from -1 to 12
+   * @return the libdeflate compression level
+   * @throws IllegalArgumentException if libdeflate has no such level
+   */
+  static int libdeflateLevel(int level) {
+    int correctedLevel = level == -1 ? 6 : level;
+    if (correctedLevel > 12 || correctedLevel < 1) {
+      throw new IllegalArgumentException("Invalid compression level " + level);
+    }
+    return correctedLevel;
+  }
+
   /**
    * Ensures that the buffer does not go over {@code max}.
    * @param buf the buffer for check
@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.natives.compression;
+
+import com.google.common.base.Preconditions;
+import com.velocitypowered.natives.NativeSetupException;
+import com.velocitypowered.natives.util.BufferPreference;
+import com.velocitypowered.natives.util.ForeignFunctions;
+import io.netty.buffer.ByteBuf;
+import java.lang.invoke.MethodHandle;
+import java.util.zip.DataFormatException;
+
+/**
+ * Calls the system libdeflate directly through the Foreign Function &amp; Memory API, rather than
+ * through the bundled JNI wrapper used by {@link LibdeflateVelocityCompressor}.
+ */
+public class ForeignVelocityCompressor implements VelocityCompressor {
+
+  public static final VelocityCompressorFactory FACTORY = ForeignVelocityCompressor::new;
+
+  private static final int LIBDEFLATE_SUCCESS = 0;
+  private static final int LIBDEFLATE_BAD_DATA = 1;
+
+  private final long inflateCtx;
+  private long deflateCtx;
+  private boolean disposed = false;
+
+  private ForeignVelocityCompressor(int level) {
+    int correctedLevel = CompressorUtils.libdeflateLevel(level);
+
+    bind();
+    try {
+      this.inflateCtx = (long) Libdeflate.ALLOC_DECOMPRESSOR.invokeExact();
+      if (inflateCtx == 0) {
+        throw new OutOfMemoryError("libdeflate allocate decompressor");
+      }
+      this.deflateCtx = (long) Libdeflate.ALLOC_COMPRESSOR.invokeExact(correctedLevel);
+      if (deflateCtx == 0) {
+        Libdeflate.FREE_DECOMPRESSOR.invokeExact(inflateCtx);
+        throw new OutOfMemoryError("libdeflate allocate compressor");
+      }
+    } catch (Throwable e) {
+      throw ForeignFunctions.rethrow(e);
+    }
+  }
+
+  /**
+   * Loads the system libdeflate, if it hasn't been loaded already.
+   *
+   * @throws NativeSetupException if libdeflate can't be loaded
+   */
+  public static void bind() {
+    try {
+      Libdeflate.ZLIB_COMPRESS.type();
+    } catch (ExceptionInInitializerError | NoClassDefFoundError e) {
+      throw new NativeSetupException("Unable to bind libdeflate", e);
+    }
+  }
+
+  @Override
+  public void inflate(ByteBuf source, ByteBuf destination, int uncompressedSize)
+      throws DataFormatException {
+    ensureNotDisposed();
+
+    // libdeflate recommends we work with a known uncompressed size - so we work strictly within
+    // those parameters.
+    destination.ensureWritable(uncompressedSize);
+
+    long sourceAddress = source.memoryAddress() + source.readerIndex();
+    long destinationAddress = destination.memoryAddress() + destination.writerIndex();
+
+    int result;
+    try {
+      result = (int) Libdeflate.ZLIB_DECOMPRESS.invokeExact(inflateCtx, sourceAddress,
+          (long) source.readableBytes(), destinationAddress, (long) uncompressedSize, 0L);
+    } catch (Throwable e) {
+      throw ForeignFunctions.rethrow(e);
+    }
+    if (result == LIBDEFLATE_BAD_DATA) {
+      throw new DataFormatException("inflate data is bad");
+    } else if (result != LIBDEFLATE_SUCCESS) {
+      // The remaining results all mean the uncompressed size we were given was wrong.
+      throw new DataFormatException("uncompressed size is inaccurate");
+    }
+    destination.writerIndex(destination.writerIndex() + uncompressedSize);
+  }
+
+  @Override
+  public void deflate(ByteBuf source, ByteBuf destination) throws DataFormatException {
+    ensureNotDisposed();
+
+    // Make room for the worst case up front, so libdeflate won't run out of space.
+    destination.ensureWritable(deflateBound(source.readableBytes()));
+    while (true) {
+      long sourceAddress = source.memoryAddress() + source.readerIndex();
+      long destinationAddress = destination.memoryAddress() + destination.writerIndex();
+
+      long produced;
+      try {
+        produced = (long) Libdeflate.ZLIB_COMPRESS.invokeExact(deflateCtx, sourceAddress,
+            (long) source.readableBytes(), destinationAddress, (long) destination.writableBytes());
+      } catch (Throwable e) {
+        throw ForeignFunctions.rethrow(e);
+      }
+      if (produced > 0) {
+        destination.writerIndex(destination.writerIndex() + (int) produced);
+        return;
+      }
+
+      // Insufficient room - enlarge the buffer.
+      destination.capacity(destination.capacity() * 2);
+    }
+  }
+
+  @Override
+  public void setLevel(int level) {
+    ensureNotDisposed();
+    int correctedLevel = CompressorUtils.libdeflateLevel(level);
+    try {
+      long newCtx = (long) Libdeflate.ALLOC_COMPRESSOR.invokeExact(correctedLevel);
+      if (newCtx == 0) {
+        throw new OutOfMemoryError("libdeflate allocate compressor");
+      }
+      Libdeflate.FREE_COMPRESSOR.invokeExact(deflateCtx);
+      this.deflateCtx = newCtx;
+    } catch (Throwable e) {
+      throw ForeignFunctions.rethrow(e);
+    }
+  }
+
+  @Override
+  public int deflateBound(int uncompressedSize) {
+    ensureNotDisposed();
+    try {
+      return (int) (long) Libdeflate.ZLIB_COMPRESS_BOUND.invokeExact(deflateCtx,
+          (long) uncompressedSize);
+    } catch (Throwable e) {
+      throw ForeignFunctions.rethrow(e);
+    }
+  }
+
+  private void ensureNotDisposed() {
+    Preconditions.checkState(!disposed, "Object already disposed");
+  }
+
+  @Override
+  public void close() {
+    if (!disposed) {
+      try {
+        Libdeflate.FREE_DECOMPRESSOR.invokeExact(inflateCtx);
+        Libdeflate.FREE_COMPRESSOR.invokeExact(deflateCtx);
+      } catch (Throwable e) {
+        throw ForeignFunctions.rethrow(e);
+      }
+    }
+    disposed = true;
+  }
+
+  @Override
+  public BufferPreference preferredBufferType() {
+    return BufferPreference.DIRECT_REQUIRED;
+  }
+
+  private static final class Libdeflate {
+
+    private static final ForeignFunctions LIBRARY = ForeignFunctions.open("libdeflate.so.0",
+        "libdeflate.so");
+
+    static final MethodHandle ALLOC_COMPRESSOR = LIBRARY.bind("libdeflate_alloc_compressor",
+        false, long.class, int.class);
+    static final MethodHandle FREE_COMPRESSOR = LIBRARY.bind("libdeflate_free_compressor",
+        false, void.class, long.class);
+    static final MethodHandle ZLIB_COMPRESS = LIBRARY.bind("libdeflate_zlib_compress",
+        true, long.class, long.class, long.class, long.class, long.class, long.class);
+    static final MethodHandle ZLIB_COMPRESS_BOUND = LIBRARY.bind(
+        "libdeflate_zlib_compress_bound", true, long.class, long.class, long.class);
+    static final MethodHandle ALLOC_DECOMPRESSOR = LIBRARY.bind("libdeflate_alloc_decompressor",
+        false, long.class);
+    static final MethodHandle FREE_DECOMPRESSOR = LIBRARY.bind("libdeflate_free_decompressor",
+        false, void.class, long.class);
+    static final MethodHandle ZLIB_DECOMPRESS = LIBRARY.bind("libdeflate_zlib_decompress",
+        true, int.class, long.class, long.class, long.class, long.class, long.class, long.class);
+  }
+}
@@ -103,6 +103,13 @@ public class JavaVelocityCompressor implements VelocityCompressor {
     deflater.reset();
   }
 
+  @Override
+  public void setLevel(int level) {
+    ensureNotDisposed();
+    // Only takes effect from the next deflate, as the deflater is reset after each one.
+    deflater.setLevel(level);
+  }
+
   @Override
   public void close() {
     disposed = true;
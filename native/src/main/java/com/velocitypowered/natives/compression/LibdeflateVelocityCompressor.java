@@ -27,14 +27,11 @@ public class LibdeflateVelocityCompressor implements VelocityCompressor {
   public static final VelocityCompressorFactory FACTORY = LibdeflateVelocityCompressor::new;
 
   private final long inflateCtx;
-  private final long deflateCtx;
+  private long deflateCtx;
   private boolean disposed = false;
 
   private LibdeflateVelocityCompressor(int level) {
-    int correctedLevel = level == -1 ? 6 : level;
-    if (correctedLevel > 12 || correctedLevel < 1) {
-      throw new IllegalArgumentException("Invalid compression level " + level);
-    }
+    int correctedLevel = CompressorUtils.libdeflateLevel(level);
 
     this.inflateCtx = NativeZlibInflate.init();
     this.deflateCtx = NativeZlibDeflate.init(correctedLevel);
@@ -62,6 +59,8 @@ public class LibdeflateVelocityCompressor implements VelocityCompressor {
   public void deflate(ByteBuf source, ByteBuf destination) throws DataFormatException {
     ensureNotDisposed();
 
+    // Make room for the worst case up front, so libdeflate won't run out of space.
+    destination.ensureWritable(deflateBound(source.readableBytes()));
     while (true) {
       long sourceAddress = source.memoryAddress() + source.readerIndex();
       long destinationAddress = destination.memoryAddress() + destination.writerIndex();
@@ -78,6 +77,20 @@ public class LibdeflateVelocityCompressor implements VelocityCompressor {
     }
   }
 
+  @Override
+  public void setLevel(int level) {
+    ensureNotDisposed();
+    long newCtx = NativeZlibDeflate.init(CompressorUtils.libdeflateLevel(level));
+    NativeZlibDeflate.free(deflateCtx);
+    this.deflateCtx = newCtx;
+  }
+
+  @Override
+  public int deflateBound(int uncompressedSize) {
+    // The JNI wrapper doesn't expose libdeflate_zlib_compress_bound, so compute it ourselves.
+    return CompressorUtils.libdeflateZlibBound(uncompressedSize);
+  }
+
   private void ensureNotDisposed() {
     Preconditions.checkState(!disposed, "Object already disposed");
   }
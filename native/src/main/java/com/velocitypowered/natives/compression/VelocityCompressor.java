@@ -31,4 +31,26 @@ public interface VelocityCompressor extends Disposable, Native {
       throws DataFormatException;
 
   void deflate(ByteBuf source, ByteBuf destination) throws DataFormatException;
+
+  /**
+   * Changes the level later calls to {@link #deflate(ByteBuf, ByteBuf)} compress at. Some
+   * implementations have to allocate a new compressor to do so, so the level should not be changed
+   * for every packet.
+   *
+   * @param level the new compression level
+   */
+  void setLevel(int level);
+
+  /**
+   * Returns the most bytes {@link #deflate(ByteBuf, ByteBuf)} can produce for
+   * {@code uncompressedSize} bytes of input. A destination with this much room never has to be
+   * grown while deflating. The default is zlib's {@code compressBound}.
+   *
+   * @param uncompressedSize the size of the data to deflate
+   * @return an upper bound on the size of the deflated data
+   */
+  default int deflateBound(int uncompressedSize) {
+    return uncompressedSize + (uncompressedSize >>> 12) + (uncompressedSize >>> 14)
+        + (uncompressedSize >>> 25) + 13;
+  }
 }
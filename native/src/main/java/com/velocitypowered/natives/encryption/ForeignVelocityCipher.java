@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.natives.encryption;
+
+import com.google.common.base.Preconditions;
+import com.velocitypowered.natives.NativeSetupException;
+import com.velocitypowered.natives.util.BufferPreference;
+import com.velocitypowered.natives.util.ForeignFunctions;
+import com.velocitypowered.natives.util.MoreByteBufUtils;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.lang.invoke.MethodHandle;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import javax.crypto.SecretKey;
+
+/**
+ * Calls the system OpenSSL {@code libcrypto} directly through the Foreign Function &amp; Memory
+ * API, rather than through one of the JNI wrappers used by {@link NativeVelocityCipher}.
+ */
+public class ForeignVelocityCipher implements VelocityCipher {
+
+  public static final VelocityCipherFactory FACTORY = new VelocityCipherFactory() {
+    @Override
+    public VelocityCipher forEncryption(SecretKey key) throws GeneralSecurityException {
+      return new ForeignVelocityCipher(true, key);
+    }
+
+    @Override
+    public VelocityCipher forDecryption(SecretKey key) throws GeneralSecurityException {
+      return new ForeignVelocityCipher(false, key);
+    }
+  };
+
+  private final long ctx;
+  // EVP_CipherUpdate reports how much it wrote through a pointer, so it needs somewhere to put it.
+  private final ByteBuf outLength;
+  private boolean disposed = false;
+
+  private ForeignVelocityCipher(boolean encrypt, SecretKey key) throws GeneralSecurityException {
+    byte[] encoded = key.getEncoded();
+    if (encoded.length != 16) {
+      throw new IllegalArgumentException("cipher not 16 bytes");
+    }
+
+    bind();
+    ByteBuf keyBuf = Unpooled.directBuffer(encoded.length).writeBytes(encoded);
+    try {
+      this.ctx = (long) Libcrypto.CIPHER_CTX_NEW.invokeExact();
+      if (ctx == 0) {
+        throw new OutOfMemoryError("allocate cipher");
+      }
+      long cipher = (long) Libcrypto.AES_128_CFB8.invokeExact();
+      long keyAddress = keyBuf.memoryAddress();
+      int result = (int) Libcrypto.CIPHER_INIT.invokeExact(ctx, cipher, keyAddress, keyAddress,
+          encrypt ? 1 : 0);
+      if (result != 1) {
+        Libcrypto.CIPHER_CTX_FREE.invokeExact(ctx);
+        throw new GeneralSecurityException("openssl initialize cipher");
+      }
+    } catch (GeneralSecurityException e) {
+      throw e;
+    } catch (Throwable e) {
+      throw ForeignFunctions.rethrow(e);
+    } finally {
+      keyBuf.setZero(0, keyBuf.capacity()).release();
+    }
+    this.outLength = Unpooled.directBuffer(Integer.BYTES, Integer.BYTES);
+  }
+
+  /**
+   * Loads the system OpenSSL, if it hasn't been loaded already.
+   *
+   * @throws NativeSetupException if OpenSSL can't be loaded
+   */
+  public static void bind() {
+    try {
+      Libcrypto.CIPHER_UPDATE.type();
+    } catch (ExceptionInInitializerError | NoClassDefFoundError e) {
+      throw new NativeSetupException("Unable to bind OpenSSL", e);
+    }
+  }
+
+  @Override
+  public void process(ByteBuf source) {
+    ensureNotDisposed();
+
+    if (source.hasMemoryAddress()) {
+      update(source.memoryAddress() + source.readerIndex(), source.readableBytes());
+      return;
+    }
+
+    // Several direct regions, such as a composite buffer. CFB8 is a stream mode, so processing
+    // them one after the other gives the same result as processing them in one go.
+    for (ByteBuffer region : source.nioBuffers()) {
+      update(MoreByteBufUtils.memoryAddress(region), region.remaining());
+    }
+  }
+
+  private void update(long base, int len) {
+    try {
+      // Like the JNI wrapper, ignore the result: updating a CFB8 context can't fail.
+      int ignored = (int) Libcrypto.CIPHER_UPDATE.invokeExact(ctx, base,
+          outLength.memoryAddress(), base, len);
+    } catch (Throwable e) {
+      throw ForeignFunctions.rethrow(e);
+    }
+  }
+
+  @Override
+  public void close() {
+    if (!disposed) {
+      try {
+        Libcrypto.CIPHER_CTX_FREE.invokeExact(ctx);
+      } catch (Throwable e) {
+        throw ForeignFunctions.rethrow(e);
+      } finally {
+        outLength.release();
+      }
+    }
+    disposed = true;
+  }
+
+  private void ensureNotDisposed() {
+    Preconditions.checkState(!disposed, "Object already disposed");
+  }
+
+  @Override
+  public BufferPreference preferredBufferType() {
+    return BufferPreference.DIRECT_REQUIRED;
+  }
+
+  @Override
+  public boolean supportsScatterGather() {
+    return true;
+  }
+
+  private static final class Libcrypto {
+
+    private static final ForeignFunctions LIBRARY = ForeignFunctions.open("libcrypto.so.3",
+        "libcrypto.so.1.1", "libcrypto.so");
+
+    static final MethodHandle CIPHER_CTX_NEW = LIBRARY.bind("EVP_CIPHER_CTX_new", false,
+        long.class);
+    static final MethodHandle CIPHER_CTX_FREE = LIBRARY.bind("EVP_CIPHER_CTX_free", false,
+        void.class, long.class);
+    static final MethodHandle AES_128_CFB8 = LIBRARY.bind("EVP_aes_128_cfb8", false,
+        long.class);
+    static final MethodHandle CIPHER_INIT = LIBRARY.bind("EVP_CipherInit", false,
+        int.class, long.class, long.class, long.class, long.class, int.class);
+    static final MethodHandle CIPHER_UPDATE = LIBRARY.bind("EVP_CipherUpdate", true,
+        int.class, long.class, long.class, long.class, long.class, int.class);
+  }
+}
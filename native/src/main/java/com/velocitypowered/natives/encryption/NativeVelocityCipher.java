@@ -19,7 +19,9 @@ package com.velocitypowered.natives.encryption;
 
 import com.google.common.base.Preconditions;
 import com.velocitypowered.natives.util.BufferPreference;
+import com.velocitypowered.natives.util.MoreByteBufUtils;
 import io.netty.buffer.ByteBuf;
+import java.nio.ByteBuffer;
 import java.security.GeneralSecurityException;
 import javax.crypto.SecretKey;
 
@@ -47,10 +49,20 @@ public class NativeVelocityCipher implements VelocityCipher {
   public void process(ByteBuf source) {
     ensureNotDisposed();
 
-    long base = source.memoryAddress() + source.readerIndex();
-    int len = source.readableBytes();
+    if (source.hasMemoryAddress()) {
+      long base = source.memoryAddress() + source.readerIndex();
+      int len = source.readableBytes();
 
-    OpenSslCipherImpl.process(ctx, base, len, base);
+      OpenSslCipherImpl.process(ctx, base, len, base);
+      return;
+    }
+
+    // Several direct regions, such as a composite buffer. CFB8 is a stream mode, so processing
+    // them one after the other gives the same result as processing them in one go.
+    for (ByteBuffer region : source.nioBuffers()) {
+      long base = MoreByteBufUtils.memoryAddress(region);
+      OpenSslCipherImpl.process(ctx, base, region.remaining(), base);
+    }
   }
 
   @Override
@@ -69,4 +81,9 @@ public class NativeVelocityCipher implements VelocityCipher {
   public BufferPreference preferredBufferType() {
     return BufferPreference.DIRECT_REQUIRED;
   }
+
+  @Override
+  public boolean supportsScatterGather() {
+    return true;
+  }
 }
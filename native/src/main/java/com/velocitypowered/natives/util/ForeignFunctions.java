@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.natives.util;
+
+import com.velocitypowered.natives.NativeSetupException;
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Optional;
+
+/**
+ * Binds functions in system libraries through the Foreign Function &amp; Memory API, which is
+ * final as of Java 22.
+ *
+ * <p>The natives still target Java 11, so the API is only reached reflectively while binding.
+ * The resulting downcall handles only take and return {@code int}s and {@code long}s, which keeps
+ * them callable with {@link MethodHandle#invokeExact} from Java 11 code: pointers and
+ * {@code size_t}s are passed as {@code long}s, which matches the C ABI on the 64-bit Linux
+ * platforms the natives support.</p>
+ */
+public final class ForeignFunctions {
+
+  private static final int FFM_FEATURE_VERSION = 22;
+
+  private final Object lookup;
+
+  private ForeignFunctions(Object lookup) {
+    this.lookup = lookup;
+  }
+
+  /**
+   * Returns whether the running JVM provides the Foreign Function &amp; Memory API.
+   *
+   * @return whether foreign functions can be bound
+   */
+  public static boolean isSupported() {
+    return Runtime.version().feature() >= FFM_FEATURE_VERSION;
+  }
+
+  /**
+   * Opens the first of the given system libraries that can be loaded. The library stays loaded
+   * for the lifetime of the JVM.
+   *
+   * @param names the library names to try, in order of preference
+   * @return the opened library
+   * @throws NativeSetupException if none of the libraries could be loaded
+   */
+  public static ForeignFunctions open(String... names) {
+    if (!isSupported()) {
+      throw new NativeSetupException("The Foreign Function & Memory API is not available");
+    }
+    try {
+      Class<?> arenaClass = Class.forName("java.lang.foreign.Arena");
+      Class<?> symbolLookupClass = Class.forName("java.lang.foreign.SymbolLookup");
+      Object arena = arenaClass.getMethod("global").invoke(null);
+      Method libraryLookup = symbolLookupClass.getMethod("libraryLookup", String.class,
+          arenaClass);
+      for (String name : names) {
+        try {
+          return new ForeignFunctions(libraryLookup.invoke(null, name, arena));
+        } catch (InvocationTargetException e) {
+          if (!(e.getCause() instanceof IllegalArgumentException)) {
+            throw e;
+          }
+          // The library doesn't exist on this system, try the next one.
+        }
+      }
+    } catch (ReflectiveOperationException e) {
+      throw new NativeSetupException("Unable to look up native libraries", e);
+    }
+    throw new NativeSetupException("None of " + String.join(", ", names) + " could be loaded");
+  }
+
+  /**
+   * Binds a function of this library. Parameters and return values may be {@code int} or
+   * {@code long}, and the return type may also be {@code void}.
+   *
+   * <p>A critical function does not transition the calling thread out of Java, making the call
+   * nearly as cheap as a regular method call. Only use it for short functions that never block
+   * and never call back into Java.</p>
+   *
+   * @param name the name of the function
+   * @param critical whether the function may be called without a thread state transition
+   * @param returnType the return type of the function
+   * @param parameterTypes the parameter types of the function
+   * @return a downcall handle for the function
+   * @throws NativeSetupException if the function can't be found or bound
+   */
+  public MethodHandle bind(String name, boolean critical, Class<?> returnType,
+      Class<?>... parameterTypes) {
+    try {
+      Optional<?> symbol = (Optional<?>) Class.forName("java.lang.foreign.SymbolLookup")
+          .getMethod("find", String.class)
+          .invoke(lookup, name);
+      if (symbol.isEmpty()) {
+        throw new NativeSetupException("Unable to find native function " + name);
+      }
+
+      Class<?> layoutClass = Class.forName("java.lang.foreign.MemoryLayout");
+      Class<?> descriptorClass = Class.forName("java.lang.foreign.FunctionDescriptor");
+      Object parameterLayouts = Array.newInstance(layoutClass, parameterTypes.length);
+      for (int i = 0; i < parameterTypes.length; i++) {
+        Array.set(parameterLayouts, i, layout(parameterTypes[i]));
+      }
+      Object descriptor;
+      if (returnType == void.class) {
+        descriptor = descriptorClass.getMethod("ofVoid", parameterLayouts.getClass())
+            .invoke(null, parameterLayouts);
+      } else {
+        descriptor = descriptorClass.getMethod("of", layoutClass, parameterLayouts.getClass())
+            .invoke(null, layout(returnType), parameterLayouts);
+      }
+
+      Class<?> linkerClass = Class.forName("java.lang.foreign.Linker");
+      Class<?> optionClass = Class.forName("java.lang.foreign.Linker$Option");
+      Object options = Array.newInstance(optionClass, critical ? 1 : 0);
+      if (critical) {
+        Array.set(options, 0, optionClass.getMethod("critical", boolean.class)
+            .invoke(null, false));
+      }
+      Object linker = linkerClass.getMethod("nativeLinker").invoke(null);
+      return (MethodHandle) linkerClass.getMethod("downcallHandle",
+              Class.forName("java.lang.foreign.MemorySegment"), descriptorClass,
+              options.getClass())
+          .invoke(linker, symbol.get(), descriptor, options);
+    } catch (ReflectiveOperationException e) {
+      throw new NativeSetupException("Unable to bind native function " + name, e);
+    }
+  }
+
+  /**
+   * Rethrows an exception thrown by a downcall handle. Native functions can't throw exceptions
+   * themselves, so this only ever sees errors like {@link OutOfMemoryError}. Unchecked exceptions
+   * are thrown as-is, anything else is wrapped.
+   *
+   * @param e the exception thrown by {@link MethodHandle#invokeExact}
+   * @return the wrapped exception, for the caller to throw
+   */
+  public static RuntimeException rethrow(Throwable e) {
+    if (e instanceof RuntimeException) {
+      throw (RuntimeException) e;
+    } else if (e instanceof Error) {
+      throw (Error) e;
+    }
+    return new IllegalStateException(e);
+  }
+
+  private static Object layout(Class<?> type) throws ReflectiveOperationException {
+    String field;
+    if (type == int.class) {
+      field = "JAVA_INT";
+    } else if (type == long.class) {
+      field = "JAVA_LONG";
+    } else {
+      throw new IllegalArgumentException("Unsupported native type " + type);
+    }
+    return Class.forName("java.lang.foreign.ValueLayout").getField(field).get(null);
+  }
+}
@@ -20,6 +20,8 @@ package com.velocitypowered.natives.util;
 import com.velocitypowered.natives.Native;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
+import io.netty.util.internal.PlatformDependent;
+import java.nio.ByteBuffer;
 
 public class MoreByteBufUtils {
   private MoreByteBufUtils() {
@@ -52,10 +54,13 @@ public class MoreByteBufUtils {
     switch (preferred) {
       case DIRECT_PREFERRED:
       case HEAP_PREFERRED:
-        // The native prefers this type, but doesn't strictly require we provide it.
-        return true;
+        // The native prefers this type, but doesn't strictly require we provide it. It does need
+        // a single region of memory, though.
+        return buf.nioBufferCount() == 1 || nativeStuff.supportsScatterGather();
       case DIRECT_REQUIRED:
-        return buf.hasMemoryAddress();
+        return buf.hasMemoryAddress()
+            || (nativeStuff.supportsScatterGather() && buf.isDirect()
+                && buf.nioBufferCount() > 1);
       case HEAP_REQUIRED:
         return buf.hasArray();
       default:
@@ -63,6 +68,17 @@ public class MoreByteBufUtils {
     }
   }
 
+  /**
+   * Returns the address of the first readable byte of a direct NIO buffer, for natives that
+   * {@link Native#supportsScatterGather() process direct regions} one by one.
+   *
+   * @param region a direct buffer, usually one of {@link ByteBuf#nioBuffers()}
+   * @return the address of the buffer's position
+   */
+  public static long memoryAddress(ByteBuffer region) {
+    return PlatformDependent.directBufferAddress(region) + region.position();
+  }
+
   /**
    * Creates a {@link ByteBuf} that will have the best performance with the specified
    * {@code nativeStuff}.
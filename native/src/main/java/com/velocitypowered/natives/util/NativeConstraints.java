@@ -52,6 +52,14 @@ public class NativeConstraints {
       && System.getProperty("os.name", "").equalsIgnoreCase("Linux")
       && IS_AARCH64;
 
+  // The Foreign Function & Memory variants are opt-in, as the JVM warns about them unless the
+  // proxy is started with --enable-native-access.
+  static final BooleanSupplier LINUX_FOREIGN = () -> NATIVE_BASE.getAsBoolean()
+      && Boolean.getBoolean("velocity.natives-foreign")
+      && ForeignFunctions.isSupported()
+      && System.getProperty("os.name", "").equalsIgnoreCase("Linux")
+      && (IS_AMD64 || IS_AARCH64);
+
   static final BooleanSupplier JAVA_11 = () -> Double.parseDouble(
       System.getProperty("java.specification.version")) >= 11;
 }
@@ -20,9 +20,11 @@ package com.velocitypowered.natives.compression;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 import static org.junit.jupiter.api.condition.OS.LINUX;
 
 import com.velocitypowered.natives.util.BufferPreference;
+import com.velocitypowered.natives.util.ForeignFunctions;
 import com.velocitypowered.natives.util.Natives;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufUtil;
@@ -65,6 +67,35 @@ class VelocityCompressorTest {
     check(compressor, () -> Unpooled.directBuffer(TEST_DATA.length + 32));
   }
 
+  @Test
+  @EnabledOnOs({LINUX})
+  void nativeIntegrityCheckAfterLevelChange() throws DataFormatException {
+    VelocityCompressor compressor = Natives.compress.get().create(Deflater.DEFAULT_COMPRESSION);
+    compressor.setLevel(1);
+    assertThrows(IllegalArgumentException.class, () -> compressor.setLevel(-42));
+    check(compressor, () -> Unpooled.directBuffer(TEST_DATA.length + 32));
+  }
+
+  @Test
+  @EnabledOnOs({LINUX})
+  void foreignIntegrityCheck() throws DataFormatException {
+    assumeTrue(ForeignFunctions.isSupported(), "requires the Foreign Function & Memory API");
+    VelocityCompressor compressor = ForeignVelocityCompressor.FACTORY
+        .create(Deflater.DEFAULT_COMPRESSION);
+    check(compressor, () -> Unpooled.directBuffer(TEST_DATA.length + 32));
+  }
+
+  @Test
+  @EnabledOnOs({LINUX})
+  void nativeDeflateFitsBound() throws DataFormatException {
+    checkBound(Natives.compress.get().create(Deflater.DEFAULT_COMPRESSION));
+  }
+
+  @Test
+  void javaDeflateFitsBound() throws DataFormatException {
+    checkBound(JavaVelocityCompressor.FACTORY.create(Deflater.DEFAULT_COMPRESSION));
+  }
+
   @Test
   void javaIntegrityCheckDirect() throws DataFormatException {
     VelocityCompressor compressor = JavaVelocityCompressor.FACTORY
@@ -79,6 +110,30 @@ class VelocityCompressorTest {
     check(compressor, () -> Unpooled.buffer(TEST_DATA.length + 32));
   }
 
+  @Test
+  void javaIntegrityCheckAfterLevelChange() throws DataFormatException {
+    VelocityCompressor compressor = JavaVelocityCompressor.FACTORY
+        .create(Deflater.DEFAULT_COMPRESSION);
+    compressor.setLevel(Deflater.BEST_SPEED);
+    check(compressor, () -> Unpooled.directBuffer(TEST_DATA.length + 32));
+  }
+
+  private void checkBound(VelocityCompressor compressor) throws DataFormatException {
+    // Random data doesn't compress, so this is close to the worst case. The destination can't
+    // grow past the bound, so deflating fails if the bound is too small.
+    int bound = compressor.deflateBound(TEST_DATA.length);
+    ByteBuf source = Unpooled.directBuffer(TEST_DATA.length).writeBytes(TEST_DATA);
+    ByteBuf dest = Unpooled.directBuffer(bound, bound);
+    try {
+      compressor.deflate(source, dest);
+      assertTrue(dest.readableBytes() > TEST_DATA.length);
+    } finally {
+      source.release();
+      dest.release();
+      compressor.close();
+    }
+  }
+
   private void check(VelocityCompressor compressor, Supplier<ByteBuf> bufSupplier)
       throws DataFormatException {
     ByteBuf source = bufSupplier.get();
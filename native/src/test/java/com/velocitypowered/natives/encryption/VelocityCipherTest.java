@@ -19,11 +19,14 @@ package com.velocitypowered.natives.encryption;
 
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 import static org.junit.jupiter.api.condition.OS.LINUX;
 
+import com.velocitypowered.natives.util.ForeignFunctions;
 import com.velocitypowered.natives.util.Natives;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.CompositeByteBuf;
 import io.netty.buffer.Unpooled;
 import java.security.GeneralSecurityException;
 import java.util.Random;
@@ -57,6 +60,40 @@ class VelocityCipherTest {
     check(factory, Unpooled::directBuffer);
   }
 
+  @Test
+  @EnabledOnOs({LINUX})
+  void foreignIntegrityCheck() throws GeneralSecurityException {
+    assumeTrue(ForeignFunctions.isSupported(), "requires the Foreign Function & Memory API");
+    check(ForeignVelocityCipher.FACTORY, Unpooled::directBuffer);
+  }
+
+  @Test
+  @EnabledOnOs({LINUX})
+  void nativeProcessesCompositeInPlace() throws GeneralSecurityException {
+    VelocityCipherFactory factory = Natives.cipher.get();
+    assumeTrue(factory != JavaVelocityCipher.FACTORY, "requires a native cipher");
+    VelocityCipher contiguous = factory.forEncryption(new SecretKeySpec(AES_KEY, "AES"));
+    VelocityCipher scattered = factory.forEncryption(new SecretKeySpec(AES_KEY, "AES"));
+
+    ByteBuf expected = Unpooled.directBuffer().writeBytes(TEST_DATA);
+    CompositeByteBuf composite = Unpooled.compositeBuffer();
+    int half = TEST_DATA.length / 2;
+    composite.addComponent(true, Unpooled.directBuffer().writeBytes(TEST_DATA, 0, half));
+    composite.addComponent(true, Unpooled.directBuffer()
+        .writeBytes(TEST_DATA, half, TEST_DATA.length - half));
+    try {
+      assertTrue(scattered.supportsScatterGather());
+      contiguous.process(expected);
+      scattered.process(composite);
+      assertTrue(ByteBufUtil.equals(expected, composite));
+    } finally {
+      expected.release();
+      composite.release();
+      contiguous.close();
+      scattered.close();
+    }
+  }
+
   @Test
   void javaIntegrityCheckHeap() throws GeneralSecurityException {
     check(JavaVelocityCipher.FACTORY, Unpooled::buffer);
@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.natives.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.velocitypowered.natives.Native;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Test;
+
+class MoreByteBufUtilsTest {
+
+  private static final Native CONTIGUOUS = () -> BufferPreference.DIRECT_REQUIRED;
+  private static final Native SCATTER_GATHER = new Native() {
+    @Override
+    public BufferPreference preferredBufferType() {
+      return BufferPreference.DIRECT_REQUIRED;
+    }
+
+    @Override
+    public boolean supportsScatterGather() {
+      return true;
+    }
+  };
+
+  private static CompositeByteBuf composite(boolean direct) {
+    ByteBufAllocator alloc = ByteBufAllocator.DEFAULT;
+    CompositeByteBuf composite = alloc.compositeBuffer();
+    for (int i = 0; i < 3; i++) {
+      ByteBuf component = direct ? alloc.directBuffer(4) : alloc.heapBuffer(4);
+      composite.addComponent(true, component.writeInt(i));
+    }
+    return composite;
+  }
+
+  private static void assertContents(ByteBuf buf) {
+    assertEquals(12, buf.readableBytes());
+    for (int i = 0; i < 3; i++) {
+      assertEquals(i, buf.getInt(buf.readerIndex() + i * 4));
+    }
+  }
+
+  @Test
+  void directCompositeIsUsedInPlace() {
+    CompositeByteBuf composite = composite(true);
+    ByteBuf compatible = MoreByteBufUtils.ensureCompatible(ByteBufAllocator.DEFAULT,
+        SCATTER_GATHER, composite);
+    try {
+      assertSame(composite, compatible);
+      assertEquals(2, composite.refCnt());
+    } finally {
+      compatible.release();
+      composite.release();
+    }
+  }
+
+  @Test
+  void compositeIsCopiedForContiguousNative() {
+    CompositeByteBuf composite = composite(true);
+    ByteBuf compatible = MoreByteBufUtils.ensureCompatible(ByteBufAllocator.DEFAULT,
+        CONTIGUOUS, composite);
+    try {
+      assertNotSame(composite, compatible);
+      assertTrue(compatible.hasMemoryAddress());
+      assertContents(compatible);
+    } finally {
+      compatible.release();
+      composite.release();
+    }
+  }
+
+  @Test
+  void heapCompositeIsCopied() {
+    CompositeByteBuf composite = composite(false);
+    ByteBuf compatible = MoreByteBufUtils.ensureCompatible(ByteBufAllocator.DEFAULT,
+        SCATTER_GATHER, composite);
+    try {
+      assertNotSame(composite, compatible);
+      assertTrue(compatible.hasMemoryAddress());
+    } finally {
+      compatible.release();
+      composite.release();
+    }
+  }
+
+  @Test
+  void compositeIsMadeContiguousForPreferredType() {
+    CompositeByteBuf composite = composite(true);
+    ByteBuf compatible = MoreByteBufUtils.ensureCompatible(ByteBufAllocator.DEFAULT,
+        () -> BufferPreference.DIRECT_PREFERRED, composite);
+    try {
+      assertEquals(1, compatible.nioBufferCount());
+      assertContents(compatible);
+    } finally {
+      compatible.release();
+      composite.release();
+    }
+  }
+
+  @Test
+  void memoryAddressPointsAtPosition() {
+    ByteBuf buf = Unpooled.directBuffer(8).writeLong(0x0102030405060708L);
+    try {
+      assertEquals(buf.memoryAddress() + 3, MoreByteBufUtils.memoryAddress(buf.nioBuffer(3, 5)));
+    } finally {
+      buf.release();
+    }
+  }
+}
@@ -41,18 +41,26 @@ import com.velocitypowered.proxy.command.builtin.GlistCommand;
 import com.velocitypowered.proxy.command.builtin.ServerCommand;
 import com.velocitypowered.proxy.command.builtin.ShutdownCommand;
 import com.velocitypowered.proxy.command.builtin.VelocityCommand;
+import com.velocitypowered.proxy.config.PingPassthroughMode;
 import com.velocitypowered.proxy.config.VelocityConfiguration;
+import com.velocitypowered.proxy.connection.client.AuthenticationExecutor;
 import com.velocitypowered.proxy.connection.client.ConnectedPlayer;
+import com.velocitypowered.proxy.connection.client.StatusResponseCache;
 import com.velocitypowered.proxy.connection.player.VelocityResourcePackInfo;
+import com.velocitypowered.proxy.connection.util.BroadcastPacketCache;
 import com.velocitypowered.proxy.console.VelocityConsole;
 import com.velocitypowered.proxy.event.VelocityEventManager;
+import com.velocitypowered.proxy.network.ConnectionAdmission;
 import com.velocitypowered.proxy.network.ConnectionManager;
+import com.velocitypowered.proxy.network.metrics.VelocityProxyMetrics;
 import com.velocitypowered.proxy.plugin.VelocityPluginManager;
 import com.velocitypowered.proxy.protocol.ProtocolUtils;
+import com.velocitypowered.proxy.protocol.netty.CompressionOffloadExecutor;
 import com.velocitypowered.proxy.protocol.util.FaviconSerializer;
 import com.velocitypowered.proxy.protocol.util.GameProfileSerializer;
 import com.velocitypowered.proxy.scheduler.VelocityScheduler;
 import com.velocitypowered.proxy.server.ServerMap;
+import com.velocitypowered.proxy.server.VelocityRegisteredServer;
 import com.velocitypowered.proxy.util.AddressUtil;
 import com.velocitypowered.proxy.util.ClosestLocaleMatcher;
 import com.velocitypowered.proxy.util.EncryptionUtils;
@@ -93,8 +101,12 @@ import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 import net.kyori.adventure.audience.Audience;
 import net.kyori.adventure.audience.ForwardingAudience;
+import net.kyori.adventure.audience.MessageType;
+import net.kyori.adventure.identity.Identified;
+import net.kyori.adventure.identity.Identity;
 import net.kyori.adventure.key.Key;
 import net.kyori.adventure.text.Component;
+import net.kyori.adventure.title.TitlePart;
 import net.kyori.adventure.translation.GlobalTranslator;
 import net.kyori.adventure.translation.TranslationRegistry;
 import net.kyori.adventure.util.UTF8ResourceBundleControl;
@@ -141,13 +153,19 @@ public class VelocityServer implements ProxyServer, ForwardingAudience {
   private final Map<String, ConnectedPlayer> connectionsByName = new ConcurrentHashMap<>();
   private final VelocityConsole console;
   private @MonotonicNonNull Ratelimiter ipAttemptLimiter;
+  private @MonotonicNonNull ConnectionAdmission connectionAdmission;
+  private @MonotonicNonNull StatusResponseCache statusResponseCache;
+  private @MonotonicNonNull AuthenticationExecutor authenticationExecutor;
+  private @MonotonicNonNull CompressionOffloadExecutor compressionOffloadExecutor;
   private final VelocityEventManager eventManager;
   private final VelocityScheduler scheduler;
   private final VelocityChannelRegistrar channelRegistrar = new VelocityChannelRegistrar();
+  private final VelocityProxyMetrics metrics = new VelocityProxyMetrics();
 
   VelocityServer(final ProxyOptions options) {
     pluginManager = new VelocityPluginManager(this);
     eventManager = new VelocityEventManager(pluginManager);
+    eventManager.monitorPinnedThreads(metrics::recordVirtualThreadPin);
     commandManager = new VelocityCommandManager(eventManager);
     scheduler = new VelocityScheduler(pluginManager);
     console = new VelocityConsole(this);
@@ -185,6 +203,11 @@ public class VelocityServer implements ProxyServer, ForwardingAudience {
     return new ProxyVersion(implName, implVendor, implVersion);
   }
 
+  @Override
+  public VelocityProxyMetrics getMetrics() {
+    return metrics;
+  }
+
   @Override
   public VelocityCommandManager getCommandManager() {
     return commandManager;
@@ -220,6 +243,13 @@ public class VelocityServer implements ProxyServer, ForwardingAudience {
     }
 
     ipAttemptLimiter = Ratelimiters.createWithMilliseconds(configuration.getLoginRatelimit());
+    connectionAdmission = createConnectionAdmission(configuration);
+    statusResponseCache = new StatusResponseCache(configuration.getStatusCacheMillis());
+    authenticationExecutor = new AuthenticationExecutor(configuration.getLoginCryptoThreads(),
+        configuration.getMaxPendingLogins());
+    compressionOffloadExecutor = new CompressionOffloadExecutor(
+        configuration.getCompressionOffloadThreads(), configuration.getCompressionOffloadThreshold(),
+        configuration.getCompressionLevel(), metrics);
     loadPlugins();
 
     // Go ahead and fire the proxy initialization event. We block since plugins should have a chance
@@ -241,9 +271,31 @@ public class VelocityServer implements ProxyServer, ForwardingAudience {
       this.cm.queryBind(configuration.getBind().getHostString(), configuration.getQueryPort());
     }
 
+    if (configuration.isPrometheusEndpointEnabled()) {
+      this.cm.metricsBind(configuration.getPrometheusEndpointBind());
+    }
+
+    this.cm.getBossGroup().scheduleAtFixedRate(this::refreshPassthroughPings, 1, 1,
+        TimeUnit.SECONDS);
+
     Metrics.VelocityMetrics.startMetrics(this, configuration.getMetrics());
   }
 
+  private void refreshPassthroughPings() {
+    int refreshMillis = configuration.getPingPassthroughRefreshMillis();
+    if (configuration.getPingPassthrough() == PingPassthroughMode.DISABLED || refreshMillis <= 0) {
+      return;
+    }
+    try {
+      for (RegisteredServer registered : servers.getAllServers()) {
+        ((VelocityRegisteredServer) registered).refreshPassthroughPings(refreshMillis);
+      }
+    } catch (Exception e) {
+      // Don't let one failure stop the refresh from being scheduled again.
+      logger.error("Unable to refresh the pings of backend servers", e);
+    }
+  }
+
   private void registerTranslations() {
     final TranslationRegistry translationRegistry = TranslationRegistry
         .create(Key.key("velocity", "translations"));
@@ -454,8 +506,26 @@ public class VelocityServer implements ProxyServer, ForwardingAudience {
           newConfiguration.getQueryPort());
     }
 
+    if (configuration.isPrometheusEndpointEnabled() && (!newConfiguration
+        .isPrometheusEndpointEnabled() || !newConfiguration.getPrometheusEndpointBind()
+        .equals(configuration.getPrometheusEndpointBind()))) {
+      this.cm.close(configuration.getPrometheusEndpointBind());
+    }
+
+    if (newConfiguration.isPrometheusEndpointEnabled() && (!configuration
+        .isPrometheusEndpointEnabled() || !newConfiguration.getPrometheusEndpointBind()
+        .equals(configuration.getPrometheusEndpointBind()))) {
+      this.cm.metricsBind(newConfiguration.getPrometheusEndpointBind());
+    }
+
     commandManager.setAnnounceProxyCommands(newConfiguration.isAnnounceProxyCommands());
     ipAttemptLimiter = Ratelimiters.createWithMilliseconds(newConfiguration.getLoginRatelimit());
+    connectionAdmission = createConnectionAdmission(newConfiguration);
+    statusResponseCache = new StatusResponseCache(newConfiguration.getStatusCacheMillis());
+    authenticationExecutor.configure(newConfiguration.getLoginCryptoThreads(),
+        newConfiguration.getMaxPendingLogins());
+    compressionOffloadExecutor.configure(newConfiguration.getCompressionOffloadThreads(),
+        newConfiguration.getCompressionOffloadThreshold(), newConfiguration.getCompressionLevel());
     this.configuration = newConfiguration;
     eventManager.fireAndForget(new ProxyReloadEvent());
     return true;
@@ -482,6 +552,12 @@ public class VelocityServer implements ProxyServer, ForwardingAudience {
       // Shutdown the connection manager, this should be
       // done first to refuse new connections
       cm.shutdown();
+      if (authenticationExecutor != null) {
+        authenticationExecutor.shutdown();
+      }
+      if (compressionOffloadExecutor != null) {
+        compressionOffloadExecutor.shutdown();
+      }
 
       ImmutableList<ConnectedPlayer> players = ImmutableList.copyOf(connectionsByUuid.values());
       for (ConnectedPlayer player : players) {
@@ -572,6 +648,27 @@ public class VelocityServer implements ProxyServer, ForwardingAudience {
     return ipAttemptLimiter;
   }
 
+  public ConnectionAdmission getConnectionAdmission() {
+    return connectionAdmission;
+  }
+
+  private static ConnectionAdmission createConnectionAdmission(VelocityConfiguration config) {
+    return new ConnectionAdmission(config.getConnectionRatelimitAddress(),
+        config.getConnectionRatelimitSubnet(), config.getConnectionRatelimitGlobal());
+  }
+
+  public StatusResponseCache getStatusResponseCache() {
+    return statusResponseCache;
+  }
+
+  public AuthenticationExecutor getAuthenticationExecutor() {
+    return authenticationExecutor;
+  }
+
+  public CompressionOffloadExecutor getCompressionOffloadExecutor() {
+    return compressionOffloadExecutor;
+  }
+
   /**
    * Checks if the {@code connection} can be registered with the proxy.
    * @param connection the connection to check
@@ -733,6 +830,47 @@ public class VelocityServer implements ProxyServer, ForwardingAudience {
     return audiences;
   }
 
+  // Broadcasts to every player encode each distinct packet once and share the bytes, rather than
+  // letting ForwardingAudience translate, serialize and encode the message for each player.
+
+  @Override
+  public void sendMessage(@NonNull Identity source, @NonNull Component message,
+      @NonNull MessageType type) {
+    this.console.sendMessage(source, message, type);
+    broadcast(BroadcastPacketCache.perLocale((version, locale) ->
+        ConnectedPlayer.createMessagePacket(source, message, type, locale, version)));
+  }
+
+  @Override
+  public void sendMessage(@NonNull Identified source, @NonNull Component message,
+      @NonNull MessageType type) {
+    this.sendMessage(source.identity(), message, type);
+  }
+
+  @Override
+  public void sendActionBar(@NonNull Component message) {
+    this.console.sendActionBar(message);
+    broadcast(BroadcastPacketCache.perLocale((version, locale) ->
+        ConnectedPlayer.createActionBarPacket(message, locale, version)));
+  }
+
+  @Override
+  public <T> void sendTitlePart(@NonNull TitlePart<T> part, @NonNull T value) {
+    this.console.sendTitlePart(part, value);
+    broadcast(BroadcastPacketCache.perLocale((version, locale) ->
+        ConnectedPlayer.createTitlePartPacket(part, value, locale, version)));
+  }
+
+  private void broadcast(BroadcastPacketCache cache) {
+    try {
+      for (ConnectedPlayer player : connectionsByUuid.values()) {
+        cache.write(player);
+      }
+    } finally {
+      cache.release();
+    }
+  }
+
   public AdventureBossBarManager getBossBarManager() {
     return bossBarManager;
   }
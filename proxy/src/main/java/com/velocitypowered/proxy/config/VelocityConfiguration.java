@@ -128,6 +128,15 @@ public class VelocityConfiguration implements ProxyConfig {
       }
     }
 
+    if (advanced.isPrometheusEndpointEnabled()) {
+      try {
+        AddressUtil.parseAddress(advanced.getPrometheusEndpointBind());
+      } catch (IllegalArgumentException e) {
+        logger.error("'prometheus-endpoint-bind' option does not specify a valid IP address.", e);
+        valid = false;
+      }
+    }
+
     if (!onlineMode) {
       logger.warn("The proxy is running in offline mode! This is a security risk and you will NOT "
           + "receive any support!");
@@ -212,6 +221,25 @@ public class VelocityConfiguration implements ProxyConfig {
       valid = false;
     }
 
+    if (advanced.connectionRatelimitAddress < 0 || advanced.connectionRatelimitSubnet < 0
+        || advanced.connectionRatelimitGlobal < 0) {
+      logger.error("Connection ratelimits must not be negative");
+      valid = false;
+    }
+
+    if (advanced.compressionOffloadThreshold < 0) {
+      logger.error("Invalid compression offload threshold {}", advanced.compressionOffloadThreshold);
+      valid = false;
+    }
+
+    if (advanced.adaptiveCompressionMinLevel < 1
+        || advanced.adaptiveCompressionMaxLevel > 9
+        || advanced.adaptiveCompressionMinLevel > advanced.adaptiveCompressionMaxLevel) {
+      logger.error("Invalid adaptive compression levels {} to {}",
+          advanced.adaptiveCompressionMinLevel, advanced.adaptiveCompressionMaxLevel);
+      valid = false;
+    }
+
     loadFavicon();
 
     return valid;
@@ -317,6 +345,18 @@ public class VelocityConfiguration implements ProxyConfig {
     return advanced.getLoginRatelimit();
   }
 
+  public int getConnectionRatelimitAddress() {
+    return advanced.getConnectionRatelimitAddress();
+  }
+
+  public int getConnectionRatelimitSubnet() {
+    return advanced.getConnectionRatelimitSubnet();
+  }
+
+  public int getConnectionRatelimitGlobal() {
+    return advanced.getConnectionRatelimitGlobal();
+  }
+
   @Override
   public Optional<Favicon> getFavicon() {
     return Optional.ofNullable(favicon);
@@ -345,6 +385,10 @@ public class VelocityConfiguration implements ProxyConfig {
     return advanced.tcpFastOpen;
   }
 
+  public boolean useReusePortListeners() {
+    return advanced.reusePortListeners;
+  }
+
   public Metrics getMetrics() {
     return metrics;
   }
@@ -381,6 +425,78 @@ public class VelocityConfiguration implements ProxyConfig {
     return advanced.isLogPlayerConnections();
   }
 
+  public int getFlushByteThreshold() {
+    return advanced.getFlushByteThreshold();
+  }
+
+  public int getFlushIntervalMicros() {
+    return advanced.getFlushIntervalMicros();
+  }
+
+  public int getStatusCacheMillis() {
+    return advanced.getStatusCacheMillis();
+  }
+
+  public int getPingPassthroughRefreshMillis() {
+    return advanced.getPingPassthroughRefreshMillis();
+  }
+
+  /**
+   * Returns the number of threads to run the RSA operations of online-mode logins on. Unless
+   * configured, half of the available processors are used.
+   *
+   * @return the number of login crypto threads
+   */
+  public int getLoginCryptoThreads() {
+    int threads = advanced.getLoginCryptoThreads();
+    if (threads <= 0) {
+      threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    }
+    return threads;
+  }
+
+  public int getMaxPendingLogins() {
+    return advanced.getMaxPendingLogins();
+  }
+
+  public int getCompressionOffloadThreshold() {
+    return advanced.getCompressionOffloadThreshold();
+  }
+
+  /**
+   * Returns the number of threads to compress large packets on, defaulting to half of the
+   * available processors.
+   *
+   * @return the number of compression offload threads
+   */
+  public int getCompressionOffloadThreads() {
+    int threads = advanced.getCompressionOffloadThreads();
+    if (threads <= 0) {
+      threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    }
+    return threads;
+  }
+
+  public boolean isAdaptiveCompression() {
+    return advanced.isAdaptiveCompression();
+  }
+
+  public int getAdaptiveCompressionMinLevel() {
+    return advanced.getAdaptiveCompressionMinLevel();
+  }
+
+  public int getAdaptiveCompressionMaxLevel() {
+    return advanced.getAdaptiveCompressionMaxLevel();
+  }
+
+  public boolean isPrometheusEndpointEnabled() {
+    return advanced.isPrometheusEndpointEnabled();
+  }
+
+  public InetSocketAddress getPrometheusEndpointBind() {
+    return AddressUtil.parseAndResolveAddress(advanced.getPrometheusEndpointBind());
+  }
+
   @Override
   public String toString() {
     return MoreObjects.toStringHelper(this)
@@ -634,16 +750,33 @@ public class VelocityConfiguration implements ProxyConfig {
     @Expose private int compressionThreshold = 256;
     @Expose private int compressionLevel = -1;
     @Expose private int loginRatelimit = 3000;
+    @Expose private int connectionRatelimitAddress = 10;
+    @Expose private int connectionRatelimitSubnet = 100;
+    @Expose private int connectionRatelimitGlobal = 0;
     @Expose private int connectionTimeout = 5000;
     @Expose private int readTimeout = 30000;
     @Expose private boolean proxyProtocol = false;
     @Expose private boolean tcpFastOpen = false;
+    @Expose private boolean reusePortListeners = false;
     @Expose private boolean bungeePluginMessageChannel = true;
     @Expose private boolean showPingRequests = false;
     @Expose private boolean failoverOnUnexpectedServerDisconnect = true;
     @Expose private boolean announceProxyCommands = true;
     @Expose private boolean logCommandExecutions = false;
     @Expose private boolean logPlayerConnections = true;
+    @Expose private int flushByteThreshold = 0;
+    @Expose private int flushIntervalMicros = 0;
+    @Expose private int statusCacheMillis = 1000;
+    @Expose private int pingPassthroughRefreshMillis = 5000;
+    @Expose private int loginCryptoThreads = 0;
+    @Expose private int maxPendingLogins = 1024;
+    @Expose private int compressionOffloadThreshold = 0;
+    @Expose private int compressionOffloadThreads = 0;
+    @Expose private boolean adaptiveCompression = false;
+    @Expose private int adaptiveCompressionMinLevel = 1;
+    @Expose private int adaptiveCompressionMaxLevel = 6;
+    @Expose private boolean prometheusEndpointEnabled = false;
+    @Expose private String prometheusEndpointBind = "127.0.0.1:9225";
 
     private Advanced() {
     }
@@ -653,6 +786,9 @@ public class VelocityConfiguration implements ProxyConfig {
         this.compressionThreshold = config.getIntOrElse("compression-threshold", 256);
         this.compressionLevel = config.getIntOrElse("compression-level", -1);
         this.loginRatelimit = config.getIntOrElse("login-ratelimit", 3000);
+        this.connectionRatelimitAddress = config.getIntOrElse("connection-ratelimit-address", 10);
+        this.connectionRatelimitSubnet = config.getIntOrElse("connection-ratelimit-subnet", 100);
+        this.connectionRatelimitGlobal = config.getIntOrElse("connection-ratelimit-global", 0);
         this.connectionTimeout = config.getIntOrElse("connection-timeout", 5000);
         this.readTimeout = config.getIntOrElse("read-timeout", 30000);
         if (config.contains("haproxy-protocol")) {
@@ -661,6 +797,7 @@ public class VelocityConfiguration implements ProxyConfig {
           this.proxyProtocol = config.getOrElse("proxy-protocol", false);
         }
         this.tcpFastOpen = config.getOrElse("tcp-fast-open", false);
+        this.reusePortListeners = config.getOrElse("reuse-port-listeners", false);
         this.bungeePluginMessageChannel = config.getOrElse("bungee-plugin-message-channel", true);
         this.showPingRequests = config.getOrElse("show-ping-requests", false);
         this.failoverOnUnexpectedServerDisconnect = config
@@ -668,6 +805,24 @@ public class VelocityConfiguration implements ProxyConfig {
         this.announceProxyCommands = config.getOrElse("announce-proxy-commands", true);
         this.logCommandExecutions = config.getOrElse("log-command-executions", false);
         this.logPlayerConnections = config.getOrElse("log-player-connections", true);
+        this.flushByteThreshold = config.getIntOrElse("flush-byte-threshold", 0);
+        this.flushIntervalMicros = config.getIntOrElse("flush-interval-micros", 0);
+        this.statusCacheMillis = config.getIntOrElse("status-cache-millis", 1000);
+        this.pingPassthroughRefreshMillis = config.getIntOrElse("ping-passthrough-refresh-millis",
+            5000);
+        this.loginCryptoThreads = config.getIntOrElse("login-crypto-threads", 0);
+        this.maxPendingLogins = config.getIntOrElse("max-pending-logins", 1024);
+        this.compressionOffloadThreshold = config.getIntOrElse("compression-offload-threshold",
+            0);
+        this.compressionOffloadThreads = config.getIntOrElse("compression-offload-threads", 0);
+        this.adaptiveCompression = config.getOrElse("adaptive-compression", false);
+        this.adaptiveCompressionMinLevel = config.getIntOrElse("adaptive-compression-min-level",
+            1);
+        this.adaptiveCompressionMaxLevel = config.getIntOrElse("adaptive-compression-max-level",
+            6);
+        this.prometheusEndpointEnabled = config.getOrElse("prometheus-endpoint-enabled", false);
+        this.prometheusEndpointBind = config.getOrElse("prometheus-endpoint-bind",
+            "127.0.0.1:9225");
       }
     }
 
@@ -683,6 +838,18 @@ public class VelocityConfiguration implements ProxyConfig {
       return loginRatelimit;
     }
 
+    public int getConnectionRatelimitAddress() {
+      return connectionRatelimitAddress;
+    }
+
+    public int getConnectionRatelimitSubnet() {
+      return connectionRatelimitSubnet;
+    }
+
+    public int getConnectionRatelimitGlobal() {
+      return connectionRatelimitGlobal;
+    }
+
     public int getConnectionTimeout() {
       return connectionTimeout;
     }
@@ -699,6 +866,10 @@ public class VelocityConfiguration implements ProxyConfig {
       return tcpFastOpen;
     }
 
+    public boolean isReusePortListeners() {
+      return reusePortListeners;
+    }
+
     public boolean isBungeePluginMessageChannel() {
       return bungeePluginMessageChannel;
     }
@@ -723,22 +894,91 @@ public class VelocityConfiguration implements ProxyConfig {
       return logPlayerConnections;
     }
 
+    public int getFlushByteThreshold() {
+      return flushByteThreshold;
+    }
+
+    public int getFlushIntervalMicros() {
+      return flushIntervalMicros;
+    }
+
+    public int getStatusCacheMillis() {
+      return statusCacheMillis;
+    }
+
+    public int getPingPassthroughRefreshMillis() {
+      return pingPassthroughRefreshMillis;
+    }
+
+    public int getLoginCryptoThreads() {
+      return loginCryptoThreads;
+    }
+
+    public int getMaxPendingLogins() {
+      return maxPendingLogins;
+    }
+
+    public int getCompressionOffloadThreshold() {
+      return compressionOffloadThreshold;
+    }
+
+    public int getCompressionOffloadThreads() {
+      return compressionOffloadThreads;
+    }
+
+    public boolean isAdaptiveCompression() {
+      return adaptiveCompression;
+    }
+
+    public int getAdaptiveCompressionMinLevel() {
+      return adaptiveCompressionMinLevel;
+    }
+
+    public int getAdaptiveCompressionMaxLevel() {
+      return adaptiveCompressionMaxLevel;
+    }
+
+    public boolean isPrometheusEndpointEnabled() {
+      return prometheusEndpointEnabled;
+    }
+
+    public String getPrometheusEndpointBind() {
+      return prometheusEndpointBind;
+    }
+
     @Override
     public String toString() {
       return "Advanced{"
           + "compressionThreshold=" + compressionThreshold
           + ", compressionLevel=" + compressionLevel
           + ", loginRatelimit=" + loginRatelimit
+          + ", connectionRatelimitAddress=" + connectionRatelimitAddress
+          + ", connectionRatelimitSubnet=" + connectionRatelimitSubnet
+          + ", connectionRatelimitGlobal=" + connectionRatelimitGlobal
           + ", connectionTimeout=" + connectionTimeout
           + ", readTimeout=" + readTimeout
           + ", proxyProtocol=" + proxyProtocol
           + ", tcpFastOpen=" + tcpFastOpen
+          + ", reusePortListeners=" + reusePortListeners
           + ", bungeePluginMessageChannel=" + bungeePluginMessageChannel
           + ", showPingRequests=" + showPingRequests
           + ", failoverOnUnexpectedServerDisconnect=" + failoverOnUnexpectedServerDisconnect
           + ", announceProxyCommands=" + announceProxyCommands
           + ", logCommandExecutions=" + logCommandExecutions
           + ", logPlayerConnections=" + logPlayerConnections
+          + ", flushByteThreshold=" + flushByteThreshold
+          + ", flushIntervalMicros=" + flushIntervalMicros
+          + ", statusCacheMillis=" + statusCacheMillis
+          + ", pingPassthroughRefreshMillis=" + pingPassthroughRefreshMillis
+          + ", loginCryptoThreads=" + loginCryptoThreads
+          + ", maxPendingLogins=" + maxPendingLogins
+          + ", compressionOffloadThreshold=" + compressionOffloadThreshold
+          + ", compressionOffloadThreads=" + compressionOffloadThreads
+          + ", adaptiveCompression=" + adaptiveCompression
+          + ", adaptiveCompressionMinLevel=" + adaptiveCompressionMinLevel
+          + ", adaptiveCompressionMaxLevel=" + adaptiveCompressionMaxLevel
+          + ", prometheusEndpointEnabled=" + prometheusEndpointEnabled
+          + ", prometheusEndpointBind=" + prometheusEndpointBind
           + '}';
     }
   }
@@ -17,8 +17,7 @@
 
 package com.velocitypowered.proxy.connection;
 
-import static com.velocitypowered.proxy.network.Connections.CIPHER_DECODER;
-import static com.velocitypowered.proxy.network.Connections.CIPHER_ENCODER;
+import static com.velocitypowered.proxy.network.Connections.CIPHER_FRAME_CODEC;
 import static com.velocitypowered.proxy.network.Connections.COMPRESSION_DECODER;
 import static com.velocitypowered.proxy.network.Connections.COMPRESSION_ENCODER;
 import static com.velocitypowered.proxy.network.Connections.FRAME_DECODER;
@@ -33,14 +32,19 @@ import com.velocitypowered.natives.encryption.VelocityCipher;
 import com.velocitypowered.natives.encryption.VelocityCipherFactory;
 import com.velocitypowered.natives.util.Natives;
 import com.velocitypowered.proxy.VelocityServer;
+import com.velocitypowered.proxy.config.VelocityConfiguration;
 import com.velocitypowered.proxy.connection.client.HandshakeSessionHandler;
 import com.velocitypowered.proxy.connection.client.InitialLoginSessionHandler;
 import com.velocitypowered.proxy.connection.client.StatusSessionHandler;
+import com.velocitypowered.proxy.connection.util.FlushStatistics;
+import com.velocitypowered.proxy.network.metrics.ConnectionMetrics;
 import com.velocitypowered.proxy.protocol.MinecraftPacket;
+import com.velocitypowered.proxy.protocol.RecyclablePacket;
 import com.velocitypowered.proxy.protocol.StateRegistry;
 import com.velocitypowered.proxy.protocol.VelocityConnectionEvent;
-import com.velocitypowered.proxy.protocol.netty.MinecraftCipherDecoder;
-import com.velocitypowered.proxy.protocol.netty.MinecraftCipherEncoder;
+import com.velocitypowered.proxy.protocol.netty.AdaptiveCompressionController;
+import com.velocitypowered.proxy.protocol.netty.CompressedFrame;
+import com.velocitypowered.proxy.protocol.netty.MinecraftCipherFrameCodec;
 import com.velocitypowered.proxy.protocol.netty.MinecraftCompressDecoder;
 import com.velocitypowered.proxy.protocol.netty.MinecraftCompressorAndLengthEncoder;
 import com.velocitypowered.proxy.protocol.netty.MinecraftDecoder;
@@ -53,6 +57,7 @@ import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOutboundBuffer;
 import io.netty.channel.EventLoop;
 import io.netty.handler.codec.haproxy.HAProxyMessage;
 import io.netty.handler.timeout.ReadTimeoutException;
@@ -84,6 +89,9 @@ public class MinecraftConnection extends ChannelInboundHandlerAdapter {
   public final VelocityServer server;
   private ConnectionType connectionType = ConnectionTypes.UNDETERMINED;
   private boolean knownDisconnect = false;
+  private final ConnectionMetrics metrics;
+  private final FlushStatistics flushStatistics;
+  private long unflushedBytes;
 
   /**
    * Initializes a new {@link MinecraftConnection} instance.
@@ -95,6 +103,8 @@ public class MinecraftConnection extends ChannelInboundHandlerAdapter {
     this.remoteAddress = channel.remoteAddress();
     this.server = server;
     this.state = StateRegistry.HANDSHAKE;
+    this.metrics = server.getMetrics().register(channel);
+    this.flushStatistics = metrics.getFlushStatistics();
   }
 
   @Override
@@ -148,9 +158,17 @@ public class MinecraftConnection extends ChannelInboundHandlerAdapter {
             proxyMessage.sourcePort());
       } else if (msg instanceof ByteBuf) {
         sessionHandler.handleUnknown((ByteBuf) msg);
+      } else if (msg instanceof CompressedFrame) {
+        sessionHandler.handleUnknownCompressed((CompressedFrame) msg);
       }
     } finally {
-      ReferenceCountUtil.release(msg);
+      if (msg instanceof RecyclablePacket) {
+        // The packet has been handled. Anything written from it on this event loop has already
+        // been encoded, and packets written to another event loop were detached from the pool.
+        ((RecyclablePacket) msg).recycle();
+      } else {
+        ReferenceCountUtil.release(msg);
+      }
     }
   }
 
@@ -215,7 +233,14 @@ public class MinecraftConnection extends ChannelInboundHandlerAdapter {
    */
   public void write(Object msg) {
     if (channel.isActive()) {
-      channel.writeAndFlush(msg, channel.voidPromise());
+      if (channel.eventLoop().inEventLoop()) {
+        queueWrite(msg);
+        flush();
+      } else {
+        metrics.recordCrossThreadWrite();
+        detachRecyclable(msg);
+        channel.writeAndFlush(msg, channel.voidPromise());
+      }
     } else {
       ReferenceCountUtil.release(msg);
     }
@@ -227,21 +252,75 @@ public class MinecraftConnection extends ChannelInboundHandlerAdapter {
    */
   public void delayedWrite(Object msg) {
     if (channel.isActive()) {
-      channel.write(msg, channel.voidPromise());
+      queueWrite(msg);
     } else {
       ReferenceCountUtil.release(msg);
     }
   }
 
+  private void queueWrite(Object msg) {
+    if (!channel.eventLoop().inEventLoop()) {
+      metrics.recordCrossThreadWrite();
+      detachRecyclable(msg);
+      channel.write(msg, channel.voidPromise());
+      return;
+    }
+    ChannelOutboundBuffer buffer = channel.unsafe().outboundBuffer();
+    if (buffer == null) {
+      channel.write(msg, channel.voidPromise());
+      return;
+    }
+
+    // On the event loop the message is encoded and queued right away, so we can see how many
+    // bytes it added to the outbound buffer.
+    long pendingBefore = buffer.totalPendingWriteBytes();
+    channel.write(msg, channel.voidPromise());
+    unflushedBytes += Math.max(0, buffer.totalPendingWriteBytes() - pendingBefore);
+  }
+
+  private static void detachRecyclable(Object msg) {
+    if (msg instanceof RecyclablePacket) {
+      // The packet is encoded on our event loop, possibly after the connection that read it has
+      // already recycled it.
+      ((RecyclablePacket) msg).detach();
+    }
+  }
+
   /**
    * Flushes the connection.
    */
   public void flush() {
     if (channel.isActive()) {
+      if (channel.eventLoop().inEventLoop()) {
+        // Don't count flushes that have nothing to write, such as the ones done after every read.
+        ChannelOutboundBuffer buffer = channel.unsafe().outboundBuffer();
+        if (buffer != null && buffer.totalPendingWriteBytes() > 0) {
+          flushStatistics.recordFlush(unflushedBytes);
+        }
+        unflushedBytes = 0;
+      }
       channel.flush();
     }
   }
 
+  /**
+   * Returns the number of bytes written to this connection from its event loop since it was last
+   * flushed. May only be called from the event loop.
+   *
+   * @return the number of unflushed bytes
+   */
+  public long getUnflushedBytes() {
+    return unflushedBytes;
+  }
+
+  public FlushStatistics getFlushStatistics() {
+    return flushStatistics;
+  }
+
+  public ConnectionMetrics getMetrics() {
+    return metrics;
+  }
+
   /**
    * Closes the connection after writing the {@code msg}.
    * @param msg the message to write
@@ -283,6 +362,7 @@ public class MinecraftConnection extends ChannelInboundHandlerAdapter {
         }
         channel.close();
       } else {
+        metrics.recordCrossThreadClose();
         channel.eventLoop().execute(() -> {
           if (markKnown) {
             knownDisconnect = true;
@@ -343,6 +423,7 @@ public class MinecraftConnection extends ChannelInboundHandlerAdapter {
     ensureInEventLoop();
 
     this.state = state;
+    this.metrics.setState(state);
     this.channel.pipeline().get(MinecraftEncoder.class).setState(state);
     this.channel.pipeline().get(MinecraftDecoder.class).setState(state);
   }
@@ -410,8 +491,13 @@ public class MinecraftConnection extends ChannelInboundHandlerAdapter {
       final ChannelHandler removedEncoder = channel.pipeline().remove(COMPRESSION_ENCODER);
 
       if (removedDecoder != null && removedEncoder != null) {
-        channel.pipeline().addBefore(MINECRAFT_DECODER, FRAME_ENCODER,
-            MinecraftVarintLengthEncoder.INSTANCE);
+        MinecraftCipherFrameCodec codec = channel.pipeline().get(MinecraftCipherFrameCodec.class);
+        if (codec != null) {
+          codec.setOutboundFraming(true);
+        } else {
+          channel.pipeline().addBefore(MINECRAFT_DECODER, FRAME_ENCODER,
+              MinecraftVarintLengthEncoder.INSTANCE);
+        }
         channel.pipeline().fireUserEventTriggered(VelocityConnectionEvent.COMPRESSION_DISABLED);
       }
     } else {
@@ -423,13 +509,26 @@ public class MinecraftConnection extends ChannelInboundHandlerAdapter {
         decoder.setThreshold(threshold);
         encoder.setThreshold(threshold);
       } else {
-        int level = server.getConfiguration().getCompressionLevel();
+        VelocityConfiguration config = server.getConfiguration();
+        AdaptiveCompressionController adaptive = null;
+        int level = config.getCompressionLevel();
+        if (config.isAdaptiveCompression()) {
+          adaptive = new AdaptiveCompressionController(config.getAdaptiveCompressionMinLevel(),
+              config.getAdaptiveCompressionMaxLevel(), level);
+          level = adaptive.getLevel();
+        }
         VelocityCompressor compressor = Natives.compress.get().create(level);
 
-        encoder = new MinecraftCompressorAndLengthEncoder(threshold, compressor);
+        encoder = new MinecraftCompressorAndLengthEncoder(threshold, compressor,
+            server.getCompressionOffloadExecutor(), adaptive);
         decoder = new MinecraftCompressDecoder(threshold, compressor);
 
-        channel.pipeline().remove(FRAME_ENCODER);
+        MinecraftCipherFrameCodec codec = channel.pipeline().get(MinecraftCipherFrameCodec.class);
+        if (codec != null) {
+          codec.setOutboundFraming(false);
+        } else {
+          channel.pipeline().remove(FRAME_ENCODER);
+        }
         channel.pipeline().addBefore(MINECRAFT_DECODER, COMPRESSION_DECODER, decoder);
         channel.pipeline().addBefore(MINECRAFT_ENCODER, COMPRESSION_ENCODER, encoder);
 
@@ -438,6 +537,34 @@ public class MinecraftConnection extends ChannelInboundHandlerAdapter {
     }
   }
 
+  /**
+   * Determines whether compression has been enabled on this connection.
+   *
+   * @return whether packets are being compressed
+   */
+  public boolean isCompressionEnabled() {
+    return channel.pipeline().get(COMPRESSION_ENCODER) != null;
+  }
+
+  /**
+   * Enables or disables compressed passthrough. With passthrough enabled, compressed packets that
+   * the proxy does not decode are not inflated, and are instead handed to the session handler as
+   * {@link CompressedFrame}s that can be relayed as-is to a connection that also uses compression.
+   * This has no effect if compression is not enabled on this connection.
+   *
+   * @param enabled whether to enable passthrough
+   */
+  public void setCompressedPassthrough(boolean enabled) {
+    ensureInEventLoop();
+
+    MinecraftCompressDecoder decoder = (MinecraftCompressDecoder) channel.pipeline()
+        .get(COMPRESSION_DECODER);
+    if (decoder != null) {
+      decoder.setPassthroughDecoder(enabled ? channel.pipeline().get(MinecraftDecoder.class)
+          : null);
+    }
+  }
+
   /**
    * Enables encryption on the connection.
    * @param secret the secret key negotiated between the client and the server
@@ -452,10 +579,15 @@ public class MinecraftConnection extends ChannelInboundHandlerAdapter {
     VelocityCipherFactory factory = Natives.cipher.get();
     VelocityCipher decryptionCipher = factory.forDecryption(key);
     VelocityCipher encryptionCipher = factory.forEncryption(key);
-    channel.pipeline()
-        .addBefore(FRAME_DECODER, CIPHER_DECODER, new MinecraftCipherDecoder(decryptionCipher));
-    channel.pipeline()
-        .addBefore(FRAME_ENCODER, CIPHER_ENCODER, new MinecraftCipherEncoder(encryptionCipher));
+
+    // Decryption, encryption and framing are all done by the one codec. Unless the compression
+    // encoder is already framing outbound packets, the codec takes over from the frame encoder.
+    boolean outboundFraming = channel.pipeline().get(FRAME_ENCODER) != null;
+    if (outboundFraming) {
+      channel.pipeline().remove(FRAME_ENCODER);
+    }
+    channel.pipeline().replace(FRAME_DECODER, CIPHER_FRAME_CODEC,
+        new MinecraftCipherFrameCodec(decryptionCipher, encryptionCipher, outboundFraming));
 
     channel.pipeline().fireUserEventTriggered(VelocityConnectionEvent.ENCRYPTION_ENABLED);
   }
@@ -18,6 +18,7 @@
 package com.velocitypowered.proxy.connection;
 
 import com.velocitypowered.proxy.protocol.MinecraftPacket;
+import com.velocitypowered.proxy.protocol.netty.CompressedFrame;
 import com.velocitypowered.proxy.protocol.packet.AvailableCommands;
 import com.velocitypowered.proxy.protocol.packet.BossBar;
 import com.velocitypowered.proxy.protocol.packet.ClientSettings;
@@ -68,6 +69,10 @@ public interface MinecraftSessionHandler {
 
   }
 
+  default void handleUnknownCompressed(CompressedFrame frame) {
+
+  }
+
   default void connected() {
 
   }
@@ -37,7 +37,9 @@ import com.velocitypowered.proxy.connection.MinecraftSessionHandler;
 import com.velocitypowered.proxy.connection.client.ClientPlaySessionHandler;
 import com.velocitypowered.proxy.connection.player.VelocityResourcePackInfo;
 import com.velocitypowered.proxy.connection.util.ConnectionMessages;
+import com.velocitypowered.proxy.connection.util.EventLoopAffinity;
 import com.velocitypowered.proxy.protocol.MinecraftPacket;
+import com.velocitypowered.proxy.protocol.netty.CompressedFrame;
 import com.velocitypowered.proxy.protocol.packet.AvailableCommands;
 import com.velocitypowered.proxy.protocol.packet.BossBar;
 import com.velocitypowered.proxy.protocol.packet.Disconnect;
@@ -50,13 +52,16 @@ import com.velocitypowered.proxy.protocol.packet.TabCompleteResponse;
 import com.velocitypowered.proxy.protocol.util.PluginMessageUtil;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufUtil;
-import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
 import io.netty.handler.timeout.ReadTimeoutException;
+import io.netty.util.ReferenceCountUtil;
 
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 public class BackendPlaySessionHandler implements MinecraftSessionHandler {
 
@@ -66,6 +71,8 @@ public class BackendPlaySessionHandler implements MinecraftSessionHandler {
       .getBoolean("velocity.log-server-backpressure");
   private static final int MAXIMUM_PACKETS_TO_FLUSH = Integer
       .getInteger("velocity.max-packets-per-flush", 8192);
+  private static final boolean COMPRESSED_PASSTHROUGH = Boolean
+      .getBoolean("velocity.compressed-passthrough");
 
   private final VelocityServer server;
   private final VelocityServerConnection serverConn;
@@ -74,6 +81,10 @@ public class BackendPlaySessionHandler implements MinecraftSessionHandler {
   private final BungeeCordMessageResponder bungeecordMessageResponder;
   private boolean exceptionTriggered = false;
   private int packetsFlushed;
+  private final int flushByteThreshold;
+  private final long flushIntervalNanos;
+  private long firstUnflushedWrite;
+  private @Nullable ScheduledFuture<?> scheduledFlush;
 
   BackendPlaySessionHandler(VelocityServer server, VelocityServerConnection serverConn) {
     this.server = server;
@@ -89,6 +100,9 @@ public class BackendPlaySessionHandler implements MinecraftSessionHandler {
 
     this.bungeecordMessageResponder = new BungeeCordMessageResponder(server,
         serverConn.getPlayer());
+    this.flushByteThreshold = server.getConfiguration().getFlushByteThreshold();
+    this.flushIntervalNanos = TimeUnit.MICROSECONDS.toNanos(
+        server.getConfiguration().getFlushIntervalMicros());
   }
 
   @Override
@@ -101,6 +115,12 @@ public class BackendPlaySessionHandler implements MinecraftSessionHandler {
           ImmutableList.of(getBungeeCordChannel(serverMc.getProtocolVersion()))
       ));
     }
+
+    // Packets we don't handle can be relayed to the client without being inflated and deflated
+    // again, but only if the client also has compression enabled.
+    if (COMPRESSED_PASSTHROUGH && playerConnection.isCompressionEnabled()) {
+      serverConn.ensureConnected().setCompressedPassthrough(true);
+    }
   }
 
   @Override
@@ -215,23 +235,26 @@ public class BackendPlaySessionHandler implements MinecraftSessionHandler {
     }
 
     ChannelIdentifier id = server.getChannelRegistrar().getFromId(packet.getChannel());
-    if (id == null) {
+    if (id == null || !server.getEventManager().hasSubscribers(PluginMessageEvent.class)) {
       return false;
     }
 
-    byte[] copy = ByteBufUtil.getBytes(packet.content());
+    // Hold on to the pooled payload while the event is fired: listeners get a read-only view of
+    // it, and if the message is allowed through we forward the very same packet.
+    PluginMessage retained = packet.retain();
     PluginMessageEvent event = new PluginMessageEvent(serverConn, serverConn.getPlayer(), id,
-        copy);
+        retained.content().nioBuffer());
     server.getEventManager().fire(event)
         .thenAcceptAsync(pme -> {
           if (pme.getResult().isAllowed() && !playerConnection.isClosed()) {
-            PluginMessage copied = new PluginMessage(packet.getChannel(),
-                Unpooled.wrappedBuffer(copy));
-            playerConnection.write(copied);
+            playerConnection.write(retained);
+          } else {
+            retained.release();
           }
         }, playerConnection.eventLoop())
         .exceptionally((ex) -> {
           logger.error("Exception while handling plugin message {}", packet, ex);
+          ReferenceCountUtil.safeRelease(retained);
           return null;
         });
     return true;
@@ -273,26 +296,57 @@ public class BackendPlaySessionHandler implements MinecraftSessionHandler {
     if (packet instanceof PluginMessage) {
       ((PluginMessage) packet).retain();
     }
-    playerConnection.delayedWrite(packet);
-    if (++packetsFlushed >= MAXIMUM_PACKETS_TO_FLUSH) {
-      playerConnection.flush();
-      packetsFlushed = 0;
-    }
+    relayToPlayer(packet);
   }
 
   @Override
   public void handleUnknown(ByteBuf buf) {
-    playerConnection.delayedWrite(buf.retain());
-    if (++packetsFlushed >= MAXIMUM_PACKETS_TO_FLUSH) {
-      playerConnection.flush();
-      packetsFlushed = 0;
-    }
+    relayToPlayer(buf.retain());
   }
 
   @Override
-  public void readCompleted() {
+  public void handleUnknownCompressed(CompressedFrame frame) {
+    relayToPlayer(frame.retain());
+  }
+
+  private void relayToPlayer(Object msg) {
+    EventLoopAffinity.verifyInEventLoop(playerConnection);
+    playerConnection.delayedWrite(msg);
+    if (++packetsFlushed == 1 && flushIntervalNanos > 0) {
+      firstUnflushedWrite = System.nanoTime();
+      // Make sure the batch goes out in time even if nothing else is read from the server.
+      scheduledFlush = playerConnection.eventLoop().schedule(this::flushToPlayer,
+          flushIntervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    if (packetsFlushed >= MAXIMUM_PACKETS_TO_FLUSH || isFlushDue()) {
+      flushToPlayer();
+    }
+  }
+
+  private boolean isFlushDue() {
+    if (flushByteThreshold > 0 && playerConnection.getUnflushedBytes() >= flushByteThreshold) {
+      return true;
+    }
+    return flushIntervalNanos > 0 && System.nanoTime() - firstUnflushedWrite >= flushIntervalNanos;
+  }
+
+  private void flushToPlayer() {
     playerConnection.flush();
+    cancelScheduledFlush();
+  }
+
+  private void cancelScheduledFlush() {
     packetsFlushed = 0;
+    if (scheduledFlush != null) {
+      scheduledFlush.cancel(false);
+      scheduledFlush = null;
+    }
+  }
+
+  @Override
+  public void readCompleted() {
+    flushToPlayer();
   }
 
   @Override
@@ -306,8 +360,14 @@ public class BackendPlaySessionHandler implements MinecraftSessionHandler {
     return server;
   }
 
+  @Override
+  public void deactivated() {
+    cancelScheduledFlush();
+  }
+
   @Override
   public void disconnected() {
+    cancelScheduledFlush();
     serverConn.getServer().removePlayer(serverConn.getPlayer());
     if (!serverConn.isGracefulDisconnect() && !exceptionTriggered) {
       if (server.getConfiguration().isFailoverOnUnexpectedServerDisconnect()) {
@@ -333,6 +393,7 @@ public class BackendPlaySessionHandler implements MinecraftSessionHandler {
       }
     }
 
+    EventLoopAffinity.verifyInEventLoop(playerConnection);
     playerConnection.setAutoReading(writable);
   }
 }
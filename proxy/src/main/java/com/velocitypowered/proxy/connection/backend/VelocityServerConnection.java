@@ -35,8 +35,8 @@ import com.velocitypowered.proxy.connection.ConnectionTypes;
 import com.velocitypowered.proxy.connection.MinecraftConnection;
 import com.velocitypowered.proxy.connection.MinecraftConnectionAssociation;
 import com.velocitypowered.proxy.connection.client.ConnectedPlayer;
-import com.velocitypowered.proxy.connection.registry.DimensionRegistry;
 import com.velocitypowered.proxy.connection.util.ConnectionRequestResults.Impl;
+import com.velocitypowered.proxy.connection.util.EventLoopAffinity;
 import com.velocitypowered.proxy.protocol.StateRegistry;
 import com.velocitypowered.proxy.protocol.packet.Handshake;
 import com.velocitypowered.proxy.protocol.packet.PluginMessage;
@@ -53,7 +53,6 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.UnaryOperator;
-import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 public class VelocityServerConnection implements MinecraftConnectionAssociation, ServerConnection {
@@ -67,7 +66,6 @@ public class VelocityServerConnection implements MinecraftConnectionAssociation,
   private boolean gracefulDisconnect = false;
   private BackendConnectionPhase connectionPhase = BackendConnectionPhases.UNKNOWN;
   private final Map<Long, Long> pendingPings = new HashMap<>();
-  private @MonotonicNonNull DimensionRegistry activeDimensionRegistry;
 
   /**
    * Initializes a new server connection.
@@ -92,8 +90,8 @@ public class VelocityServerConnection implements MinecraftConnectionAssociation,
    */
   public CompletableFuture<Impl> connect() {
     CompletableFuture<Impl> result = new CompletableFuture<>();
-    // Note: we use the event loop for the connection the player is on. This reduces context
-    // switches.
+    // Note: we use the event loop for the connection the player is on. Packets relayed between the
+    // two connections then never have to be handed to another thread.
     server.createBootstrap(proxyPlayer.getConnection().eventLoop())
         .handler(server.getBackendChannelInitializer())
         .connect(registeredServer.getServerInfo().getAddress())
@@ -102,6 +100,7 @@ public class VelocityServerConnection implements MinecraftConnectionAssociation,
             connection = new MinecraftConnection(future.channel(), server);
             connection.setAssociation(VelocityServerConnection.this);
             future.channel().pipeline().addLast(HANDLER, connection);
+            EventLoopAffinity.checkShared(proxyPlayer.getConnection(), connection);
 
             // Kick off the connection process
             connection.setSessionHandler(
@@ -333,12 +332,4 @@ public class VelocityServerConnection implements MinecraftConnectionAssociation,
   public boolean hasCompletedJoin() {
     return hasCompletedJoin;
   }
-
-  public DimensionRegistry getActiveDimensionRegistry() {
-    return activeDimensionRegistry;
-  }
-
-  public void setActiveDimensionRegistry(DimensionRegistry activeDimensionRegistry) {
-    this.activeDimensionRegistry = activeDimensionRegistry;
-  }
 }
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.connection.client;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the RSA operations of online-mode logins on a small pool of dedicated threads, so that a
+ * burst of logins does not hold up the event loops that every other player's packets go through.
+ * It also caps how many online-mode logins may be authenticating at once, which in turn bounds the
+ * work queued on the pool. Logins over the limit are turned away before any work is done for them.
+ */
+public final class AuthenticationExecutor {
+
+  private final ThreadPoolExecutor executor;
+  private final AtomicInteger pendingLogins = new AtomicInteger();
+  private volatile int maxPendingLogins;
+
+  /**
+   * Creates a new authentication executor.
+   *
+   * @param threads the number of threads to run the RSA operations on
+   * @param maxPendingLogins how many logins may be authenticating at once, or {@code 0} for no
+   *                         limit
+   */
+  public AuthenticationExecutor(int threads, int maxPendingLogins) {
+    this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+        new LinkedBlockingQueue<>(),
+        new ThreadFactoryBuilder().setNameFormat("Velocity Login Crypto - #%d").setDaemon(true)
+            .build());
+    this.maxPendingLogins = maxPendingLogins;
+  }
+
+  /**
+   * Applies new limits, for instance after the configuration has been reloaded.
+   *
+   * @param threads the number of threads to run the RSA operations on
+   * @param maxPendingLogins how many logins may be authenticating at once, or {@code 0} for no
+   *                         limit
+   */
+  public void configure(int threads, int maxPendingLogins) {
+    if (threads > executor.getMaximumPoolSize()) {
+      executor.setMaximumPoolSize(threads);
+      executor.setCorePoolSize(threads);
+    } else {
+      executor.setCorePoolSize(threads);
+      executor.setMaximumPoolSize(threads);
+    }
+    this.maxPendingLogins = maxPendingLogins;
+  }
+
+  /**
+   * Admits a login to be authenticated, unless too many logins are authenticating already. Every
+   * admitted login must be {@link #release() released} once it is authenticated or abandoned.
+   *
+   * @return whether the login was admitted
+   */
+  boolean tryAdmit() {
+    while (true) {
+      int pending = pendingLogins.get();
+      int max = maxPendingLogins;
+      if (max > 0 && pending >= max) {
+        return false;
+      }
+      if (pendingLogins.compareAndSet(pending, pending + 1)) {
+        return true;
+      }
+    }
+  }
+
+  void release() {
+    pendingLogins.decrementAndGet();
+  }
+
+  public int getPendingLogins() {
+    return pendingLogins.get();
+  }
+
+  /**
+   * Runs the {@code task} on one of the crypto threads.
+   *
+   * @param task the task to run
+   * @param <T> the result of the task
+   * @return a future completed with the result of the task
+   */
+  <T> CompletableFuture<T> submit(Callable<T> task) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    try {
+      executor.execute(() -> {
+        try {
+          future.complete(task.call());
+        } catch (Throwable e) {
+          future.completeExceptionally(e);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      future.completeExceptionally(e);
+    }
+    return future;
+  }
+
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+}
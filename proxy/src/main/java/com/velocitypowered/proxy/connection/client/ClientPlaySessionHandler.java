@@ -42,6 +42,7 @@ import com.velocitypowered.proxy.connection.MinecraftSessionHandler;
 import com.velocitypowered.proxy.connection.backend.BackendConnectionPhases;
 import com.velocitypowered.proxy.connection.backend.BungeeCordMessageResponder;
 import com.velocitypowered.proxy.connection.backend.VelocityServerConnection;
+import com.velocitypowered.proxy.connection.util.EventLoopAffinity;
 import com.velocitypowered.proxy.protocol.MinecraftPacket;
 import com.velocitypowered.proxy.protocol.StateRegistry;
 import com.velocitypowered.proxy.protocol.packet.BossBar;
@@ -59,8 +60,6 @@ import com.velocitypowered.proxy.protocol.packet.title.GenericTitlePacket;
 import com.velocitypowered.proxy.protocol.util.PluginMessageUtil;
 import com.velocitypowered.proxy.util.CharacterUtil;
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.ByteBufUtil;
-import io.netty.buffer.Unpooled;
 import io.netty.util.ReferenceCountUtil;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -254,7 +253,7 @@ public class ClientPlaySessionHandler implements MinecraftSessionHandler {
 
         if (!player.getPhase().handle(player, packet, serverConn)) {
           ChannelIdentifier id = server.getChannelRegistrar().getFromId(packet.getChannel());
-          if (id == null) {
+          if (id == null || !server.getEventManager().hasSubscribers(PluginMessageEvent.class)) {
             // We don't have any plugins listening on this channel, process the packet now.
             if (!player.getPhase().consideredComplete() || !serverConn.getPhase().consideredComplete()) {
               // The client is trying to send messages too early. This is primarily caused by mods,
@@ -270,23 +269,27 @@ public class ClientPlaySessionHandler implements MinecraftSessionHandler {
               backendConn.write(packet.retain());
             }
           } else {
-            byte[] copy = ByteBufUtil.getBytes(packet.content());
-            PluginMessageEvent event = new PluginMessageEvent(player, serverConn, id, copy);
+            // Listeners see a read-only view of the pooled payload, and the same packet is
+            // forwarded once the event is done with it.
+            PluginMessage retained = packet.retain();
+            PluginMessageEvent event = new PluginMessageEvent(player, serverConn, id,
+                retained.content().nioBuffer());
             server.getEventManager().fire(event).thenAcceptAsync(pme -> {
               if (pme.getResult().isAllowed()) {
-                PluginMessage message = new PluginMessage(packet.getChannel(),
-                    Unpooled.wrappedBuffer(copy));
                 if (!player.getPhase().consideredComplete() || !serverConn.getPhase().consideredComplete()) {
                   // We're still processing the connection (see above), enqueue the packet for now.
-                  loginPluginMessages.add(message.retain());
+                  loginPluginMessages.add(retained);
                 } else {
-                  backendConn.write(message);
+                  backendConn.write(retained);
                 }
+              } else {
+                retained.release();
               }
             }, backendConn.eventLoop())
                 .exceptionally((ex) -> {
                   logger.error("Exception while handling plugin message packet for {}",
                       player, ex);
+                  ReferenceCountUtil.safeRelease(retained);
                   return null;
                 });
           }
@@ -315,6 +318,7 @@ public class ClientPlaySessionHandler implements MinecraftSessionHandler {
       if (packet instanceof PluginMessage) {
         ((PluginMessage) packet).retain();
       }
+      EventLoopAffinity.verifyInEventLoop(smc);
       smc.write(packet);
     }
   }
@@ -329,6 +333,7 @@ public class ClientPlaySessionHandler implements MinecraftSessionHandler {
 
     MinecraftConnection smc = serverConnection.getConnection();
     if (smc != null && !smc.isClosed() && serverConnection.getPhase().consideredComplete()) {
+      EventLoopAffinity.verifyInEventLoop(smc);
       smc.write(buf.retain());
     }
   }
@@ -360,6 +365,7 @@ public class ClientPlaySessionHandler implements MinecraftSessionHandler {
     if (serverConn != null) {
       MinecraftConnection smc = serverConn.getConnection();
       if (smc != null) {
+        EventLoopAffinity.verifyInEventLoop(smc);
         smc.setAutoReading(writable);
       }
     }
@@ -394,8 +400,6 @@ public class ClientPlaySessionHandler implements MinecraftSessionHandler {
       }
     }
 
-    destination.setActiveDimensionRegistry(joinGame.getDimensionRegistry()); // 1.16
-
     // Remove previous boss bars. These don't get cleared when sending JoinGame, thus the need to
     // track them.
     for (UUID serverBossBar : serverBossBars) {
@@ -55,6 +55,7 @@ import com.velocitypowered.proxy.connection.backend.VelocityServerConnection;
 import com.velocitypowered.proxy.connection.player.VelocityResourcePackInfo;
 import com.velocitypowered.proxy.connection.util.ConnectionMessages;
 import com.velocitypowered.proxy.connection.util.ConnectionRequestResults.Impl;
+import com.velocitypowered.proxy.protocol.MinecraftPacket;
 import com.velocitypowered.proxy.protocol.ProtocolUtils;
 import com.velocitypowered.proxy.protocol.StateRegistry;
 import com.velocitypowered.proxy.protocol.packet.ClientSettings;
@@ -304,9 +305,17 @@ public class ConnectedPlayer implements MinecraftConnectionAssociation, Player {
    * @return the translated message
    */
   public Component translateMessage(Component message) {
-    Locale locale = ClosestLocaleMatcher.INSTANCE
+    return GlobalTranslator.render(message, getTranslationLocale());
+  }
+
+  /**
+   * Returns the locale messages sent to this player are translated into.
+   *
+   * @return the closest supported locale to the player's effective locale
+   */
+  public Locale getTranslationLocale() {
+    return ClosestLocaleMatcher.INSTANCE
         .lookupClosest(getEffectiveLocale() == null ? Locale.getDefault() : getEffectiveLocale());
-    return GlobalTranslator.render(message, locale);
   }
 
   @Override
@@ -321,34 +330,61 @@ public class ConnectedPlayer implements MinecraftConnectionAssociation, Player {
     Preconditions.checkNotNull(message, "message");
     Preconditions.checkNotNull(type, "type");
 
-    Component translated = translateMessage(message);
-    GenericChatPacket packet = GenericChatPacket.createClientbound(identity, translated, this.getProtocolVersion());
+    connection.write(createMessagePacket(identity, message, type, getTranslationLocale(),
+        this.getProtocolVersion()));
+  }
+
+  /**
+   * Creates the packet that sends a chat message.
+   *
+   * @param identity the identity of the sender
+   * @param message the message to send
+   * @param type the type of the message
+   * @param locale the locale to translate the message into
+   * @param version the protocol version of the recipient
+   * @return the chat packet
+   */
+  public static GenericChatPacket createMessagePacket(Identity identity, Component message,
+      MessageType type, Locale locale, ProtocolVersion version) {
+    Component translated = GlobalTranslator.render(message, locale);
+    GenericChatPacket packet = GenericChatPacket.createClientbound(identity, translated, version);
     packet.setType(type == MessageType.CHAT ? GenericChatPacket.CHAT_TYPE : GenericChatPacket.SYSTEM_TYPE);
-    connection.write(packet);
+    return packet;
   }
 
   @Override
   public void sendActionBar(net.kyori.adventure.text.@NonNull Component message) {
-    Component translated = translateMessage(message);
+    connection.write(createActionBarPacket(message, getTranslationLocale(), getProtocolVersion()));
+  }
 
-    ProtocolVersion playerVersion = getProtocolVersion();
-    if (playerVersion.compareTo(ProtocolVersion.MINECRAFT_1_11) >= 0) {
+  /**
+   * Creates the packet that shows an action bar message.
+   *
+   * @param message the message to show
+   * @param locale the locale to translate the message into
+   * @param version the protocol version of the recipient
+   * @return the action bar packet
+   */
+  public static MinecraftPacket createActionBarPacket(Component message, Locale locale,
+      ProtocolVersion version) {
+    Component translated = GlobalTranslator.render(message, locale);
+
+    if (version.compareTo(ProtocolVersion.MINECRAFT_1_11) >= 0) {
       // Use the title packet instead.
       GenericTitlePacket pkt = GenericTitlePacket.constructTitlePacket(
-              GenericTitlePacket.ActionType.SET_ACTION_BAR, playerVersion);
-      pkt.setComponent(ProtocolUtils.getJsonChatSerializer(playerVersion)
+              GenericTitlePacket.ActionType.SET_ACTION_BAR, version);
+      pkt.setComponent(ProtocolUtils.getJsonChatSerializer(version)
           .serialize(translated));
-      connection.write(pkt);
+      return pkt;
     } else {
       // Due to issues with action bar packets, we'll need to convert the text message into a
       // legacy message and then inject the legacy text into a component... yuck!
       JsonObject object = new JsonObject();
       object.addProperty("text", LegacyComponentSerializer.legacySection()
           .serialize(translated));
-      GenericChatPacket chat = GenericChatPacket.createClientbound(
-          object.toString(), GenericChatPacket.GAME_INFO_TYPE, EMPTY_SENDER, playerVersion
+      return GenericChatPacket.createClientbound(
+          object.toString(), GenericChatPacket.GAME_INFO_TYPE, EMPTY_SENDER, version
       );
-      connection.write(chat);
     }
   }
 
@@ -414,6 +450,25 @@ public class ConnectedPlayer implements MinecraftConnectionAssociation, Player {
 
   @Override
   public <T> void sendTitlePart(@NotNull TitlePart<T> part, @NotNull T value) {
+    MinecraftPacket packet = createTitlePartPacket(part, value, getTranslationLocale(),
+        this.getProtocolVersion());
+    if (packet != null) {
+      connection.write(packet);
+    }
+  }
+
+  /**
+   * Creates the packet that sends part of a title.
+   *
+   * @param part the part of the title to send
+   * @param value the value of the part
+   * @param locale the locale to translate the title into
+   * @param version the protocol version of the recipient
+   * @param <T> the type of the part
+   * @return the title packet, or {@code null} if the protocol version does not support titles
+   */
+  public static <T> @Nullable MinecraftPacket createTitlePartPacket(@NotNull TitlePart<T> part,
+      @NotNull T value, Locale locale, ProtocolVersion version) {
     if (part == null) {
       throw new NullPointerException("part");
     }
@@ -421,31 +476,32 @@ public class ConnectedPlayer implements MinecraftConnectionAssociation, Player {
       throw new NullPointerException("value");
     }
 
-    if (this.getProtocolVersion().compareTo(ProtocolVersion.MINECRAFT_1_8) < 0) {
-      return;
+    if (version.compareTo(ProtocolVersion.MINECRAFT_1_8) < 0) {
+      return null;
     }
 
-    GsonComponentSerializer serializer = ProtocolUtils.getJsonChatSerializer(this
-        .getProtocolVersion());
+    GsonComponentSerializer serializer = ProtocolUtils.getJsonChatSerializer(version);
 
     if (part == TitlePart.TITLE) {
       GenericTitlePacket titlePkt = GenericTitlePacket.constructTitlePacket(
-          GenericTitlePacket.ActionType.SET_TITLE, this.getProtocolVersion());
-      titlePkt.setComponent(serializer.serialize(translateMessage((Component) value)));
-      connection.write(titlePkt);
+          GenericTitlePacket.ActionType.SET_TITLE, version);
+      titlePkt.setComponent(serializer.serialize(
+          GlobalTranslator.render((Component) value, locale)));
+      return titlePkt;
     } else if (part == TitlePart.SUBTITLE) {
       GenericTitlePacket titlePkt = GenericTitlePacket.constructTitlePacket(
-          GenericTitlePacket.ActionType.SET_SUBTITLE, this.getProtocolVersion());
-      titlePkt.setComponent(serializer.serialize(translateMessage((Component) value)));
-      connection.write(titlePkt);
+          GenericTitlePacket.ActionType.SET_SUBTITLE, version);
+      titlePkt.setComponent(serializer.serialize(
+          GlobalTranslator.render((Component) value, locale)));
+      return titlePkt;
     } else if (part == TitlePart.TIMES) {
       Times times = (Times) value;
       GenericTitlePacket timesPkt = GenericTitlePacket.constructTitlePacket(
-          GenericTitlePacket.ActionType.SET_TIMES, this.getProtocolVersion());
+          GenericTitlePacket.ActionType.SET_TIMES, version);
       timesPkt.setFadeIn((int) DurationUtils.toTicks(times.fadeIn()));
       timesPkt.setStay((int) DurationUtils.toTicks(times.stay()));
       timesPkt.setFadeOut((int) DurationUtils.toTicks(times.fadeOut()));
-      connection.write(timesPkt);
+      return timesPkt;
     } else {
       throw new IllegalArgumentException("Title part " + part + " is not valid");
     }
@@ -62,6 +62,7 @@ import org.apache.logging.log4j.Logger;
 import org.asynchttpclient.ListenableFuture;
 import org.asynchttpclient.Response;
 import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 public class InitialLoginSessionHandler implements MinecraftSessionHandler {
 
@@ -79,6 +80,7 @@ public class InitialLoginSessionHandler implements MinecraftSessionHandler {
   private byte[] verify = EMPTY_BYTE_ARRAY;
   private PublicKey publicKey = null;
   private LoginState currentState = LoginState.LOGIN_PACKET_EXPECTED;
+  private boolean admitted;
 
   InitialLoginSessionHandler(VelocityServer server, MinecraftConnection mcConnection,
                              LoginInboundConnection inbound) {
@@ -159,6 +161,17 @@ public class InitialLoginSessionHandler implements MinecraftSessionHandler {
             mcConnection.eventLoop().execute(() -> {
               if (!result.isForceOfflineMode() && (server.getConfiguration().isOnlineMode()
                   || result.isOnlineModeAllowed())) {
+                if (mcConnection.isClosed()) {
+                  return;
+                }
+                if (!server.getAuthenticationExecutor().tryAdmit()) {
+                  // Turn the player away now, rather than keep everyone waiting on the crypto
+                  // threads and the session server.
+                  inbound.disconnect(Component.translatable("velocity.error.login-busy"));
+                  return;
+                }
+                this.admitted = true;
+
                 // Request encryption.
                 EncryptionRequest request = generateEncryptionRequest();
                 this.verify = Arrays.copyOf(request.getVerifyToken(), 4);
@@ -200,99 +213,136 @@ public class InitialLoginSessionHandler implements MinecraftSessionHandler {
       throw new IllegalStateException("No EncryptionRequest packet sent yet.");
     }
 
-    try {
-      KeyPair serverKeyPair = server.getServerKeyPair();
-      boolean legacyProcess = true;
+    if (mcConnection.getProtocolVersion().compareTo(MINECRAFT_1_19) >= 0
+        && packet.getSaltSignature() != null && this.publicKey == null) {
+      inbound.disconnect(Component.translatable("multiplayer.disconnect.missing_public_key"));
+      return true;
+    }
 
-      // Minecraft 1.19+ Login process
-      if (mcConnection.getProtocolVersion().compareTo(MINECRAFT_1_19) >= 0) {
-        if (packet.getSaltSignature() != null) {
-          if (this.publicKey == null) {
-            inbound.disconnect(Component.translatable("multiplayer.disconnect.missing_public_key"));
-            return true;
+    // Decrypting is slow enough that it would hold up every other connection on this event loop,
+    // so it is done on the crypto threads instead.
+    final long cryptoStart = System.nanoTime();
+    final KeyPair serverKeyPair = server.getServerKeyPair();
+    server.getAuthenticationExecutor().submit(() -> decryptSharedSecret(packet, serverKeyPair))
+        .whenCompleteAsync((decryptedSharedSecret, ex) -> {
+          server.getMetrics().getLoginCryptoTime().recordSince(cryptoStart);
+          if (mcConnection.isClosed()) {
+            return;
           }
-          final Signature verifySig = Signature.getInstance("SHA256withRSA");
-          verifySig.initVerify(this.publicKey);
-          verifySig.update(this.verify);
-          verifySig.update(packet.getSaltSignature().saltAsBytes());
-          if (!verifySig.verify(packet.getSaltSignature().signature)) {
+          if (ex != null) {
+            logger.error("Unable to enable encryption", ex);
+            mcConnection.close(true);
+            releaseAdmission();
+          } else if (decryptedSharedSecret == null) {
             inbound.disconnect(Component.text("Protocol error"));
-            return true;
+            releaseAdmission();
+          } else {
+            authenticate(login, decryptedSharedSecret, serverKeyPair);
           }
-          legacyProcess = false;
-        }
-      }
+        }, mcConnection.eventLoop());
+    return true;
+  }
 
+  /**
+   * Checks the client's response to the encryption request and decrypts the shared secret it sent.
+   * This is slow, so it is not to be run on an event loop.
+   *
+   * @param packet the client's response
+   * @param serverKeyPair the key pair of the proxy
+   * @return the shared secret, or {@code null} if the signature of the response is invalid
+   * @throws GeneralSecurityException if the response could not be decrypted
+   */
+  private byte @Nullable [] decryptSharedSecret(EncryptionResponse packet, KeyPair serverKeyPair)
+      throws GeneralSecurityException {
+    // Minecraft 1.19+ Login process
+    if (mcConnection.getProtocolVersion().compareTo(MINECRAFT_1_19) >= 0
+        && packet.getSaltSignature() != null) {
+      final Signature verifySig = Signature.getInstance("SHA256withRSA");
+      verifySig.initVerify(this.publicKey);
+      verifySig.update(this.verify);
+      verifySig.update(packet.getSaltSignature().saltAsBytes());
+      if (!verifySig.verify(packet.getSaltSignature().signature)) {
+        return null;
+      }
+    } else {
       // Minecraft <= 1.18 Login process
-      if (legacyProcess) {
-        byte[] decryptedVerifyToken = decryptRsa(serverKeyPair, packet.getVerifyToken());
-        if (!MessageDigest.isEqual(verify, decryptedVerifyToken)) {
-          throw new IllegalStateException("Unable to successfully decrypt the verification token.");
-        }
+      byte[] decryptedVerifyToken = decryptRsa(serverKeyPair, packet.getVerifyToken());
+      if (!MessageDigest.isEqual(verify, decryptedVerifyToken)) {
+        throw new IllegalStateException("Unable to successfully decrypt the verification token.");
       }
+    }
 
-      byte[] decryptedSharedSecret = decryptRsa(serverKeyPair, packet.getSharedSecret());
-      String serverId = generateServerId(decryptedSharedSecret, serverKeyPair.getPublic());
+    return decryptRsa(serverKeyPair, packet.getSharedSecret());
+  }
 
-      String playerIp = ((InetSocketAddress) mcConnection.getRemoteAddress()).getHostString();
-      String url = String.format(MOJANG_HASJOINED_URL,
-          urlFormParameterEscaper().escape(login.getUsername()), serverId);
+  private void authenticate(ServerLogin login, byte[] decryptedSharedSecret,
+      KeyPair serverKeyPair) {
+    String serverId = generateServerId(decryptedSharedSecret, serverKeyPair.getPublic());
 
-      if (server.getConfiguration().shouldPreventClientProxyConnections()) {
-        url += "&ip=" + urlFormParameterEscaper().escape(playerIp);
-      }
+    String playerIp = ((InetSocketAddress) mcConnection.getRemoteAddress()).getHostString();
+    String url = String.format(MOJANG_HASJOINED_URL,
+        urlFormParameterEscaper().escape(login.getUsername()), serverId);
 
-      ListenableFuture<Response> hasJoinedResponse = server.getAsyncHttpClient().prepareGet(url)
-          .execute();
-      hasJoinedResponse.addListener(() -> {
-        if (mcConnection.isClosed()) {
-          // The player disconnected after we authenticated them.
-          return;
-        }
+    if (server.getConfiguration().shouldPreventClientProxyConnections()) {
+      url += "&ip=" + urlFormParameterEscaper().escape(playerIp);
+    }
 
-        // Go ahead and enable encryption. Once the client sends EncryptionResponse, encryption
-        // is enabled.
-        try {
-          mcConnection.enableEncryption(decryptedSharedSecret);
-        } catch (GeneralSecurityException e) {
-          logger.error("Unable to enable encryption for connection", e);
-          // At this point, the connection is encrypted, but something's wrong on our side and
-          // we can't do anything about it.
-          mcConnection.close(true);
-          return;
-        }
+    final long lookupStart = System.nanoTime();
+    ListenableFuture<Response> hasJoinedResponse = server.getAsyncHttpClient().prepareGet(url)
+        .execute();
+    hasJoinedResponse.addListener(() -> {
+      server.getMetrics().getSessionLookupTime().recordSince(lookupStart);
+      releaseAdmission();
+      if (mcConnection.isClosed()) {
+        // The player disconnected after we authenticated them.
+        return;
+      }
 
-        try {
-          Response profileResponse = hasJoinedResponse.get();
-          if (profileResponse.getStatusCode() == 200) {
-            // All went well, initialize the session.
-            mcConnection.setSessionHandler(new AuthSessionHandler(
-                server, inbound, GENERAL_GSON.fromJson(profileResponse.getResponseBody(), GameProfile.class), true
-            ));
-          } else if (profileResponse.getStatusCode() == 204) {
-            // Apparently an offline-mode user logged onto this online-mode proxy.
-            inbound.disconnect(Component.translatable("velocity.error.online-mode-only",
-                NamedTextColor.RED));
-          } else {
-            // Something else went wrong
-            logger.error(
-                "Got an unexpected error code {} whilst contacting Mojang to log in {} ({})",
-                profileResponse.getStatusCode(), login.getUsername(), playerIp);
-            inbound.disconnect(Component.translatable("multiplayer.disconnect.authservers_down"));
-          }
-        } catch (ExecutionException e) {
-          logger.error("Unable to authenticate with Mojang", e);
+      // Go ahead and enable encryption. Once the client sends EncryptionResponse, encryption
+      // is enabled.
+      try {
+        mcConnection.enableEncryption(decryptedSharedSecret);
+      } catch (GeneralSecurityException e) {
+        logger.error("Unable to enable encryption for connection", e);
+        // At this point, the connection is encrypted, but something's wrong on our side and
+        // we can't do anything about it.
+        mcConnection.close(true);
+        return;
+      }
+
+      try {
+        Response profileResponse = hasJoinedResponse.get();
+        if (profileResponse.getStatusCode() == 200) {
+          // All went well, initialize the session.
+          mcConnection.setSessionHandler(new AuthSessionHandler(
+              server, inbound, GENERAL_GSON.fromJson(profileResponse.getResponseBody(), GameProfile.class), true
+          ));
+        } else if (profileResponse.getStatusCode() == 204) {
+          // Apparently an offline-mode user logged onto this online-mode proxy.
+          inbound.disconnect(Component.translatable("velocity.error.online-mode-only",
+              NamedTextColor.RED));
+        } else {
+          // Something else went wrong
+          logger.error(
+              "Got an unexpected error code {} whilst contacting Mojang to log in {} ({})",
+              profileResponse.getStatusCode(), login.getUsername(), playerIp);
           inbound.disconnect(Component.translatable("multiplayer.disconnect.authservers_down"));
-        } catch (InterruptedException e) {
-          // not much we can do usefully
-          Thread.currentThread().interrupt();
         }
-      }, mcConnection.eventLoop());
-    } catch (GeneralSecurityException e) {
-      logger.error("Unable to enable encryption", e);
-      mcConnection.close(true);
+      } catch (ExecutionException e) {
+        logger.error("Unable to authenticate with Mojang", e);
+        inbound.disconnect(Component.translatable("multiplayer.disconnect.authservers_down"));
+      } catch (InterruptedException e) {
+        // not much we can do usefully
+        Thread.currentThread().interrupt();
+      }
+    }, mcConnection.eventLoop());
+  }
+
+  private void releaseAdmission() {
+    if (admitted) {
+      admitted = false;
+      server.getAuthenticationExecutor().release();
     }
-    return true;
   }
 
   private EncryptionRequest generateEncryptionRequest() {
@@ -312,6 +362,7 @@ public class InitialLoginSessionHandler implements MinecraftSessionHandler {
 
   @Override
   public void disconnected() {
+    releaseAdmission();
     this.inbound.cleanup();
   }
 
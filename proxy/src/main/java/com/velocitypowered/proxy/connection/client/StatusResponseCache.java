@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.connection.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.velocitypowered.api.network.ProtocolVersion;
+import com.velocitypowered.api.proxy.server.ServerPing;
+import com.velocitypowered.proxy.VelocityServer;
+import com.velocitypowered.proxy.protocol.ProtocolUtils;
+import com.velocitypowered.proxy.protocol.StateRegistry;
+import com.velocitypowered.proxy.protocol.packet.StatusResponse;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Caches the server list ping shown to clients for a short while, keyed by the protocol version
+ * of the client and the forced host its virtual host resolves to. Server list scanners can ping
+ * the proxy many thousands of times a second, and without the cache every ping would build (and,
+ * with ping passthrough, fetch) the ping again and serialize it, favicon and all.
+ */
+public final class StatusResponseCache {
+
+  /**
+   * The most pings that are cached at once. The virtual host is resolved to a configured forced
+   * host before it is used as a key, so this is only reached with an unusually large number of
+   * forced hosts.
+   */
+  private static final int MAXIMUM_SIZE = 4096;
+
+  private final @Nullable Cache<Key, Entry> cache;
+
+  /**
+   * Creates a new status response cache.
+   *
+   * @param durationMillis how long a ping is cached for, or {@code 0} to disable caching
+   */
+  public StatusResponseCache(int durationMillis) {
+    if (durationMillis > 0) {
+      this.cache = Caffeine.newBuilder()
+          .expireAfterWrite(durationMillis, TimeUnit.MILLISECONDS)
+          .maximumSize(MAXIMUM_SIZE)
+          .build();
+    } else {
+      this.cache = null;
+    }
+  }
+
+  /**
+   * Resolves the virtual host a client connected with to the key its ping is cached under. The
+   * virtual host is chosen by the client, so only hosts with a forced host entry get their own
+   * ping; every other host shares the ping for the empty string.
+   *
+   * @param virtualHost the lowercased virtual host of the client
+   * @param forcedHosts the configured forced hosts
+   * @return the forced host the virtual host resolves to, or an empty string if there is none
+   */
+  static String resolveVirtualHost(String virtualHost, Map<String, List<String>> forcedHosts) {
+    return forcedHosts.containsKey(virtualHost) ? virtualHost : "";
+  }
+
+  /**
+   * Returns the cached ping for the specified protocol version and virtual host, creating it with
+   * the {@code pingSupplier} if there is none. Concurrent pings share the same pending ping.
+   *
+   * @param version the protocol version of the client
+   * @param virtualHost the forced host the ping depends on, or an empty string if it does not,
+   *     as returned by {@link #resolveVirtualHost(String, Map)}
+   * @param pingSupplier creates the ping if it is not cached
+   * @return the cached entry
+   */
+  Entry get(ProtocolVersion version, String virtualHost,
+      Supplier<CompletableFuture<ServerPing>> pingSupplier) {
+    if (cache == null) {
+      return new Entry(version, pingSupplier.get());
+    }
+    Key key = new Key(version, virtualHost);
+    Entry entry = cache.get(key, k -> new Entry(version, pingSupplier.get()));
+    if (entry.ping.isCompletedExceptionally()) {
+      // Don't keep handing out a failed ping until it expires.
+      cache.asMap().remove(key, entry);
+      return new Entry(version, pingSupplier.get());
+    }
+    return entry;
+  }
+
+  /**
+   * A cached ping, along with its serialized form.
+   */
+  static final class Entry {
+
+    private final ProtocolVersion version;
+    private final CompletableFuture<ServerPing> ping;
+    private volatile @Nullable ByteBuf encodedResponse;
+
+    private Entry(ProtocolVersion version, CompletableFuture<ServerPing> ping) {
+      this.version = version;
+      this.ping = ping;
+    }
+
+    CompletableFuture<ServerPing> getPing() {
+      return ping;
+    }
+
+    /**
+     * Returns the {@link StatusResponse} for the cached ping, encoded with its packet ID. The
+     * buffer can not be released, so a duplicate of it may be written to any number of
+     * connections.
+     *
+     * @param completed the completed ping
+     * @return the encoded response
+     */
+    ByteBuf getEncodedResponse(ServerPing completed) {
+      ByteBuf encoded = this.encodedResponse;
+      if (encoded == null) {
+        StringBuilder json = new StringBuilder();
+        VelocityServer.getPingGsonInstance(version).toJson(completed, json);
+        StatusResponse response = new StatusResponse(json);
+
+        ByteBuf buf = Unpooled.buffer();
+        ProtocolUtils.writeVarInt(buf, ProtocolUtils.Direction.CLIENTBOUND
+            .getProtocolRegistry(StateRegistry.STATUS, version).getPacketId(response));
+        response.encode(buf, ProtocolUtils.Direction.CLIENTBOUND, version);
+        encoded = Unpooled.unreleasableBuffer(buf);
+        this.encodedResponse = encoded;
+      }
+      return encoded.duplicate();
+    }
+  }
+
+  private static final class Key {
+
+    private final ProtocolVersion version;
+    private final String virtualHost;
+
+    Key(ProtocolVersion version, String virtualHost) {
+      this.version = version;
+      this.virtualHost = virtualHost;
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key key = (Key) o;
+      return version == key.version && virtualHost.equals(key.virtualHost);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(version, virtualHost);
+    }
+  }
+}
@@ -96,7 +96,7 @@ public class StatusSessionHandler implements MinecraftSessionHandler {
         continue;
       }
       VelocityRegisteredServer vrs = (VelocityRegisteredServer) rs.get();
-      pings.add(vrs.ping(connection.eventLoop(), pingingVersion));
+      pings.add(vrs.pingPassthrough(connection.eventLoop(), pingingVersion));
     }
     if (pings.isEmpty()) {
       return CompletableFuture.completedFuture(fallback);
@@ -158,21 +158,27 @@ public class StatusSessionHandler implements MinecraftSessionHandler {
     }
   }
 
-  private CompletableFuture<ServerPing> getInitialPing() {
+  private StatusResponseCache.Entry getInitialPing() {
     VelocityConfiguration configuration = server.getConfiguration();
     ProtocolVersion shownVersion = ProtocolVersion.isSupported(connection.getProtocolVersion())
         ? connection.getProtocolVersion() : ProtocolVersion.MAXIMUM_VERSION;
     PingPassthroughMode passthrough = configuration.getPingPassthrough();
 
     if (passthrough == PingPassthroughMode.DISABLED) {
-      return CompletableFuture.completedFuture(constructLocalPing(shownVersion));
+      return server.getStatusResponseCache().get(connection.getProtocolVersion(), "",
+          () -> CompletableFuture.completedFuture(constructLocalPing(shownVersion)));
     } else {
       String virtualHostStr = inbound.getVirtualHost().map(InetSocketAddress::getHostString)
           .map(str -> str.toLowerCase(Locale.ROOT))
           .orElse("");
-      List<String> serversToTry = server.getConfiguration().getForcedHosts().getOrDefault(
-          virtualHostStr, server.getConfiguration().getAttemptConnectionOrder());
-      return attemptPingPassthrough(configuration.getPingPassthrough(), serversToTry, shownVersion);
+      String cacheHost = StatusResponseCache.resolveVirtualHost(virtualHostStr,
+          configuration.getForcedHosts());
+      return server.getStatusResponseCache().get(connection.getProtocolVersion(), cacheHost,
+          () -> {
+            List<String> serversToTry = configuration.getForcedHosts().getOrDefault(
+                cacheHost, configuration.getAttemptConnectionOrder());
+            return attemptPingPassthrough(passthrough, serversToTry, shownVersion);
+          });
     }
   }
 
@@ -182,7 +188,7 @@ public class StatusSessionHandler implements MinecraftSessionHandler {
       throw EXPECTED_AWAITING_REQUEST;
     }
     this.pingReceived = true;
-    getInitialPing()
+    getInitialPing().getPing()
         .thenCompose(ping -> server.getEventManager().fire(new ProxyPingEvent(inbound, ping)))
         .thenAcceptAsync(event -> connection.closeWith(
             LegacyDisconnect.fromServerPing(event.getPing(), packet.getVersion())),
@@ -207,7 +213,20 @@ public class StatusSessionHandler implements MinecraftSessionHandler {
     }
     this.pingReceived = true;
 
-    getInitialPing()
+    StatusResponseCache.Entry status = getInitialPing();
+    if (!server.getEventManager().hasSubscribers(ProxyPingEvent.class)) {
+      // Nothing can change the ping, so every client shown this ping gets the same response.
+      status.getPing()
+          .thenAcceptAsync(ping -> connection.write(status.getEncodedResponse(ping)),
+              connection.eventLoop())
+          .exceptionally((ex) -> {
+            logger.error("Exception while handling status request {}", packet, ex);
+            return null;
+          });
+      return true;
+    }
+
+    status.getPing()
         .thenCompose(ping -> server.getEventManager().fire(new ProxyPingEvent(inbound, ping)))
         .thenAcceptAsync(
             (event) -> {
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.connection.registry;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.collect.ImmutableSet;
+import com.velocitypowered.api.network.ProtocolVersion;
+import com.velocitypowered.proxy.protocol.ProtocolUtils;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.DecoderException;
+import net.kyori.adventure.nbt.BinaryTagIO;
+import net.kyori.adventure.nbt.BinaryTagTypes;
+import net.kyori.adventure.nbt.CompoundBinaryTag;
+import net.kyori.adventure.nbt.ListBinaryTag;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * The registry container sent in the 1.16+ {@code JoinGame} packet, kept in its serialized form.
+ * It holds the dimension types, biomes and (in 1.19+) chat types, and can run to hundreds of
+ * kilobytes, yet the proxy rarely needs to look inside it. The container is therefore only parsed
+ * on demand and is otherwise forwarded byte for byte.
+ *
+ * <p>Backends send the same container to every player, so identical containers are interned and
+ * shared by every player connected to that backend, together with anything parsed from them.</p>
+ */
+public final class SerializedRegistryContainer {
+
+  private static final int MAX_SIZE = 2 * 1024 * 1024;
+  private static final BinaryTagIO.Reader READER = BinaryTagIO.reader(MAX_SIZE);
+  private static final Cache<Integer, SerializedRegistryContainer> INTERNED = Caffeine.newBuilder()
+      .weakValues()
+      .build();
+
+  private final byte[] serialized;
+  private volatile @Nullable CompoundBinaryTag container;
+  private volatile @Nullable DecodedDimensions dimensions;
+
+  private SerializedRegistryContainer(byte[] serialized) {
+    this.serialized = serialized;
+  }
+
+  /**
+   * Reads a registry container from the {@code buf}, returning a shared instance if an identical
+   * container has been read before.
+   *
+   * @param buf the buffer to read from
+   * @return the registry container
+   */
+  public static SerializedRegistryContainer read(ByteBuf buf) {
+    int start = buf.readerIndex();
+    int length = ProtocolUtils.skipCompoundTag(buf);
+    if (length > MAX_SIZE) {
+      throw new DecoderException("Registry container is too large (" + length + " bytes)");
+    }
+
+    ByteBuf slice = buf.slice(start, length);
+    int hash = ByteBufUtil.hashCode(slice);
+    SerializedRegistryContainer existing = INTERNED.getIfPresent(hash);
+    if (existing != null && ByteBufUtil.equals(Unpooled.wrappedBuffer(existing.serialized), slice)) {
+      return existing;
+    }
+
+    byte[] serialized = new byte[length];
+    slice.getBytes(0, serialized);
+    SerializedRegistryContainer created = new SerializedRegistryContainer(serialized);
+    INTERNED.put(hash, created);
+    return created;
+  }
+
+  /**
+   * Writes the container to the {@code buf} exactly as it was received.
+   *
+   * @param buf the buffer to write to
+   */
+  public void write(ByteBuf buf) {
+    buf.writeBytes(serialized);
+  }
+
+  /**
+   * Returns the parsed registry container. The container is parsed the first time this is called.
+   *
+   * @return the parsed container
+   */
+  public CompoundBinaryTag getContainer() {
+    CompoundBinaryTag container = this.container;
+    if (container == null) {
+      synchronized (this) {
+        container = this.container;
+        if (container == null) {
+          container = ProtocolUtils.readCompoundTag(Unpooled.wrappedBuffer(serialized), READER);
+          this.container = container;
+        }
+      }
+    }
+    return container;
+  }
+
+  /**
+   * Returns the dimension types registered in this container.
+   *
+   * @param version the protocol version the container was sent with
+   * @return the registered dimension types
+   */
+  public ImmutableSet<DimensionData> getDimensions(ProtocolVersion version) {
+    DecodedDimensions dimensions = this.dimensions;
+    if (dimensions == null || dimensions.version != version) {
+      ListBinaryTag dimensionList;
+      if (version.compareTo(ProtocolVersion.MINECRAFT_1_16_2) >= 0) {
+        dimensionList = getContainer().getCompound("minecraft:dimension_type")
+            .getList("value", BinaryTagTypes.COMPOUND);
+      } else {
+        dimensionList = getContainer().getList("dimension", BinaryTagTypes.COMPOUND);
+      }
+      dimensions = new DecodedDimensions(version,
+          DimensionRegistry.fromGameData(dimensionList, version));
+      this.dimensions = dimensions;
+    }
+    return dimensions.data;
+  }
+
+  private static final class DecodedDimensions {
+
+    private final ProtocolVersion version;
+    private final ImmutableSet<DimensionData> data;
+
+    private DecodedDimensions(ProtocolVersion version, ImmutableSet<DimensionData> data) {
+      this.version = version;
+      this.data = data;
+    }
+  }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.connection.util;
+
+import com.velocitypowered.api.network.ProtocolVersion;
+import com.velocitypowered.proxy.connection.MinecraftConnection;
+import com.velocitypowered.proxy.connection.client.ConnectedPlayer;
+import com.velocitypowered.proxy.protocol.MinecraftPacket;
+import com.velocitypowered.proxy.protocol.ProtocolUtils;
+import com.velocitypowered.proxy.protocol.StateRegistry;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.util.ReferenceCountUtil;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Encodes a packet that is broadcast to many players once for every distinct protocol version
+ * (and, for translated content, locale) among the recipients. Each recipient is then written a
+ * duplicate of the encoded bytes, so translation, JSON serialization and the
+ * {@link com.velocitypowered.proxy.protocol.netty.MinecraftEncoder} run once per group rather
+ * than once per player.
+ *
+ * <p>A cache lives for a single broadcast and is not thread-safe. It must be {@link #release()
+ * released} once every recipient has been written to.</p>
+ */
+public final class BroadcastPacketCache {
+
+  private final BiFunction<ProtocolVersion, Locale, @Nullable MinecraftPacket> packetFactory;
+  private final boolean localized;
+  private final Map<Key, ByteBuf> encoded = new HashMap<>();
+
+  private BroadcastPacketCache(
+      BiFunction<ProtocolVersion, Locale, @Nullable MinecraftPacket> packetFactory,
+      boolean localized) {
+    this.packetFactory = packetFactory;
+    this.localized = localized;
+  }
+
+  /**
+   * Creates a cache for a packet that only depends on the recipient's protocol version.
+   *
+   * @param packetFactory creates the packet for a protocol version, or returns {@code null} if
+   *                      nothing should be sent to that version
+   * @return the cache
+   */
+  public static BroadcastPacketCache perVersion(
+      Function<ProtocolVersion, @Nullable MinecraftPacket> packetFactory) {
+    return new BroadcastPacketCache((version, locale) -> packetFactory.apply(version), false);
+  }
+
+  /**
+   * Creates a cache for a packet with content that is translated into the recipient's locale.
+   *
+   * @param packetFactory creates the packet for a protocol version and locale, or returns
+   *                      {@code null} if nothing should be sent to that version
+   * @return the cache
+   */
+  public static BroadcastPacketCache perLocale(
+      BiFunction<ProtocolVersion, Locale, @Nullable MinecraftPacket> packetFactory) {
+    return new BroadcastPacketCache(packetFactory, true);
+  }
+
+  /**
+   * Writes the packet to the specified {@code player}, encoding it first if no other recipient
+   * with the same protocol version and locale has received it yet.
+   *
+   * @param player the player to send the packet to
+   */
+  public void write(ConnectedPlayer player) {
+    ProtocolVersion version = player.getProtocolVersion();
+    Locale locale = localized ? player.getTranslationLocale() : Locale.ROOT;
+    MinecraftConnection connection = player.getConnection();
+    if (connection.getState() != StateRegistry.PLAY) {
+      // The pre-encoded bytes are only valid for the play state, so fall back to the encoder.
+      MinecraftPacket packet = packetFactory.apply(version, locale);
+      if (packet != null) {
+        connection.write(packet);
+      }
+      return;
+    }
+
+    ByteBuf buf = getEncoded(version, locale);
+    if (buf.isReadable()) {
+      connection.write(buf.retainedDuplicate());
+    }
+  }
+
+  /**
+   * Returns the encoded packet for the specified protocol version and locale, including the packet
+   * ID but not the frame length. The returned buffer is owned by the cache.
+   *
+   * @param version the protocol version to encode for
+   * @param locale the locale to encode for, ignored unless the cache is localized
+   * @return the encoded packet, or an empty buffer if nothing should be sent
+   */
+  public ByteBuf getEncoded(ProtocolVersion version, Locale locale) {
+    Key key = new Key(version, localized ? locale : Locale.ROOT);
+    ByteBuf buf = encoded.get(key);
+    if (buf == null) {
+      buf = encode(version, key.locale);
+      encoded.put(key, buf);
+    }
+    return buf;
+  }
+
+  private ByteBuf encode(ProtocolVersion version, Locale locale) {
+    MinecraftPacket packet = packetFactory.apply(version, locale);
+    if (packet == null) {
+      return Unpooled.EMPTY_BUFFER;
+    }
+    StateRegistry.PacketRegistry.ProtocolRegistry registry = ProtocolUtils.Direction.CLIENTBOUND
+        .getProtocolRegistry(StateRegistry.PLAY, version);
+    ByteBuf buf = ByteBufAllocator.DEFAULT.directBuffer();
+    try {
+      ProtocolUtils.writeVarInt(buf, registry.getPacketId(packet));
+      packet.encode(buf, ProtocolUtils.Direction.CLIENTBOUND, version);
+    } catch (RuntimeException e) {
+      buf.release();
+      throw e;
+    } finally {
+      ReferenceCountUtil.release(packet);
+    }
+    return buf;
+  }
+
+  /**
+   * Releases every packet encoded by this cache. Duplicates already handed to connections stay
+   * valid until they are written.
+   */
+  public void release() {
+    for (ByteBuf buf : encoded.values()) {
+      buf.release();
+    }
+    encoded.clear();
+  }
+
+  private static final class Key {
+
+    private final ProtocolVersion version;
+    private final Locale locale;
+
+    Key(ProtocolVersion version, Locale locale) {
+      this.version = version;
+      this.locale = locale;
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key key = (Key) o;
+      return version == key.version && locale.equals(key.locale);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(version, locale);
+    }
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.connection.util;
+
+import com.velocitypowered.proxy.connection.MinecraftConnection;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Checks that a player's connection and the server connections it opens run on the same event
+ * loop. Packets relayed between them are then written without handing them to another thread, and
+ * backpressure can toggle auto-reading on the other connection directly.
+ *
+ * <p>Server connections are always checked once they are established. Starting the proxy with
+ * {@code -Dvelocity.verify-event-loop-affinity=true} also checks every relayed packet and logs
+ * where a violation came from.
+ */
+public final class EventLoopAffinity {
+
+  private static final Logger logger = LogManager.getLogger(EventLoopAffinity.class);
+  private static final boolean VERIFY = Boolean.getBoolean("velocity.verify-event-loop-affinity");
+
+  private EventLoopAffinity() {
+    throw new AssertionError();
+  }
+
+  /**
+   * Checks that {@code serverConnection} runs on the event loop of {@code playerConnection}.
+   *
+   * @param playerConnection the player's connection
+   * @param serverConnection a server connection opened for the player
+   * @return whether both connections share an event loop
+   */
+  public static boolean checkShared(MinecraftConnection playerConnection,
+      MinecraftConnection serverConnection) {
+    if (playerConnection.eventLoop() == serverConnection.eventLoop()) {
+      return true;
+    }
+    serverConnection.getMetrics().recordAffinityViolation();
+    logger.warn("{} is not on the event loop of {}, packets relayed between them will be handed "
+        + "to another thread", serverConnection.getAssociation(), playerConnection.getAssociation());
+    return false;
+  }
+
+  /**
+   * Checks, if verification is enabled, that the current thread is the event loop of
+   * {@code connection}. Relay paths call this before writing to the other side of the proxy.
+   *
+   * @param connection the connection about to be written to
+   */
+  public static void verifyInEventLoop(MinecraftConnection connection) {
+    if (VERIFY && !connection.eventLoop().inEventLoop()) {
+      connection.getMetrics().recordAffinityViolation();
+      logger.warn("Relaying to {} from {} instead of its event loop", connection.getAssociation(),
+          Thread.currentThread().getName(), new IllegalStateException("Event loop mismatch"));
+    }
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.connection.util;
+
+import java.util.concurrent.atomic.LongAdder;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Keeps track of how often a connection is flushed and how much data each flush sends. Every flush
+ * that has data pending results in at least one write to the socket, so the flush count is a good
+ * approximation of the number of write system calls made for the connection. Only flushes made
+ * from the connection's event loop are counted, as only their size is known; writes made from
+ * other threads are counted as cross-thread writes in the connection metrics instead.
+ */
+public final class FlushStatistics {
+
+  private final LongAdder flushes = new LongAdder();
+  private final LongAdder flushedBytes = new LongAdder();
+  private final @Nullable FlushStatistics parent;
+
+  public FlushStatistics() {
+    this(null);
+  }
+
+  /**
+   * Creates statistics that also count every flush towards {@code parent}.
+   *
+   * @param parent the statistics to aggregate flushes into, if any
+   */
+  public FlushStatistics(@Nullable FlushStatistics parent) {
+    this.parent = parent;
+  }
+
+  /**
+   * Records a flush.
+   *
+   * @param bytes the number of bytes written since the previous flush
+   */
+  public void recordFlush(long bytes) {
+    flushes.increment();
+    if (bytes > 0) {
+      flushedBytes.add(bytes);
+    }
+    if (parent != null) {
+      parent.recordFlush(bytes);
+    }
+  }
+
+  public long getFlushCount() {
+    return flushes.sum();
+  }
+
+  /**
+   * Returns the total number of bytes flushed. Writes made from other threads are not included,
+   * so this may be lower than the amount of data actually sent.
+   *
+   * @return the number of bytes flushed
+   */
+  public long getFlushedBytes() {
+    return flushedBytes.sum();
+  }
+
+  /**
+   * Returns the average number of bytes sent per flush.
+   *
+   * @return the average flush size in bytes
+   */
+  public double getAverageFlushSize() {
+    long count = getFlushCount();
+    return count == 0 ? 0 : (double) getFlushedBytes() / count;
+  }
+
+  @Override
+  public String toString() {
+    return "FlushStatistics{"
+        + "flushes=" + getFlushCount()
+        + ", flushedBytes=" + getFlushedBytes()
+        + '}';
+  }
+}
@@ -39,6 +39,8 @@ import com.velocitypowered.api.plugin.PluginManager;
 import com.velocitypowered.proxy.event.UntargetedEventHandler.EventTaskHandler;
 import com.velocitypowered.proxy.event.UntargetedEventHandler.VoidHandler;
 import com.velocitypowered.proxy.event.UntargetedEventHandler.WithContinuationHandler;
+import com.velocitypowered.proxy.util.concurrent.VirtualThreadPinningMonitor;
+import com.velocitypowered.proxy.util.concurrent.VirtualThreads;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.VarHandle;
@@ -87,7 +89,11 @@ public class VelocityEventManager implements EventManager {
   private static final Comparator<HandlerRegistration> handlerComparator =
       Comparator.comparingInt(o -> o.order);
 
+  private static final String VIRTUAL_THREADS_PROPERTY = "velocity.virtual-thread-events";
+
   private final ExecutorService asyncExecutor;
+  private final boolean virtualThreads;
+  private @Nullable VirtualThreadPinningMonitor pinningMonitor;
   private final PluginManager pluginManager;
 
   private final ListMultimap<Class<?>, HandlerRegistration> handlersByType = ArrayListMultimap.create();
@@ -108,10 +114,39 @@ public class VelocityEventManager implements EventManager {
    * @param pluginManager a reference to the Velocity plugin manager
    */
   public VelocityEventManager(final PluginManager pluginManager) {
+    this(pluginManager, useVirtualThreads());
+  }
+
+  /**
+   * Initializes the Velocity event manager.
+   *
+   * @param pluginManager a reference to the Velocity plugin manager
+   * @param virtualThreads whether to run every event and continuation on its own virtual thread
+   *                       instead of a fixed pool of platform threads
+   */
+  public VelocityEventManager(final PluginManager pluginManager, final boolean virtualThreads) {
     this.pluginManager = pluginManager;
-    this.asyncExecutor = Executors
-        .newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactoryBuilder()
-            .setNameFormat("Velocity Async Event Executor - #%d").setDaemon(true).build());
+    this.virtualThreads = virtualThreads;
+    if (virtualThreads) {
+      this.asyncExecutor = VirtualThreads.newThreadPerTaskExecutor("Velocity Async Event Executor - #");
+    } else {
+      this.asyncExecutor = Executors
+          .newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactoryBuilder()
+              .setNameFormat("Velocity Async Event Executor - #%d").setDaemon(true).build());
+    }
+  }
+
+  private static boolean useVirtualThreads() {
+    if (!Boolean.getBoolean(VIRTUAL_THREADS_PROPERTY)) {
+      return false;
+    }
+    if (!VirtualThreads.isSupported()) {
+      logger.warn("{} is set, but this JVM does not support virtual threads. Events will be fired "
+          + "on platform threads.", VIRTUAL_THREADS_PROPERTY);
+      return false;
+    }
+    logger.info("Firing events on virtual threads");
+    return true;
   }
 
   /**
@@ -137,6 +172,7 @@ public class VelocityEventManager implements EventManager {
     final short order;
     final Class<?> eventType;
     final EventHandler<Object> handler;
+    final AsyncType asyncType;
 
     /**
      * The instance of the {@link EventHandler} or the listener instance that was registered.
@@ -144,12 +180,14 @@ public class VelocityEventManager implements EventManager {
     final Object instance;
 
     public HandlerRegistration(final PluginContainer plugin, final short order,
-        final Class<?> eventType, final Object instance, final EventHandler<Object> handler) {
+        final Class<?> eventType, final Object instance, final EventHandler<Object> handler,
+        final AsyncType asyncType) {
       this.plugin = plugin;
       this.order = order;
       this.eventType = eventType;
       this.instance = instance;
       this.handler = handler;
+      this.asyncType = asyncType;
     }
   }
 
@@ -167,9 +205,11 @@ public class VelocityEventManager implements EventManager {
 
   static final class HandlersCache {
 
+    final AsyncType asyncType;
     final HandlerRegistration[] handlers;
 
-    HandlersCache(final HandlerRegistration[] handlers) {
+    HandlersCache(final AsyncType asyncType, final HandlerRegistration[] handlers) {
+      this.asyncType = asyncType;
       this.handlers = handlers;
     }
   }
@@ -192,7 +232,16 @@ public class VelocityEventManager implements EventManager {
     }
 
     baked.sort(handlerComparator);
-    return new HandlersCache(baked.toArray(new HandlerRegistration[0]));
+
+    // Only skip the hop to the async executor if every handler has opted out of it.
+    AsyncType asyncType = AsyncType.NEVER;
+    for (final HandlerRegistration registration : baked) {
+      if (registration.asyncType == AsyncType.ALWAYS) {
+        asyncType = AsyncType.ALWAYS;
+        break;
+      }
+    }
+    return new HandlersCache(asyncType, baked.toArray(new HandlerRegistration[0]));
   }
 
   /**
@@ -231,15 +280,17 @@ public class VelocityEventManager implements EventManager {
     final Method method;
     final @Nullable Class<?> eventType;
     final short order;
+    final AsyncType asyncType;
     final @Nullable String errors;
     final @Nullable Class<?> continuationType;
 
     private MethodHandlerInfo(final Method method, final @Nullable Class<?> eventType,
-        final short order, final @Nullable String errors,
+        final short order, final AsyncType asyncType, final @Nullable String errors,
         final @Nullable Class<?> continuationType) {
       this.method = method;
       this.eventType = eventType;
       this.order = order;
+      this.asyncType = asyncType;
       this.errors = errors;
       this.continuationType = continuationType;
     }
@@ -311,8 +362,9 @@ public class VelocityEventManager implements EventManager {
         }
       }
       final short order = (short) subscribe.order().ordinal();
+      final AsyncType asyncType = subscribe.async() ? AsyncType.ALWAYS : AsyncType.NEVER;
       final String errorsJoined = errors.isEmpty() ? null : String.join(",", errors);
-      collected.put(key, new MethodHandlerInfo(method, eventType, order, errorsJoined,
+      collected.put(key, new MethodHandlerInfo(method, eventType, order, asyncType, errorsJoined,
           continuationType));
     }
     final Class<?> superclass = targetClass.getSuperclass();
@@ -356,7 +408,8 @@ public class VelocityEventManager implements EventManager {
     requireNonNull(handler, "handler");
 
     final HandlerRegistration registration = new HandlerRegistration(pluginContainer,
-        (short) order.ordinal(), eventClass, handler, (EventHandler<Object>) handler);
+        (short) order.ordinal(), eventClass, handler, (EventHandler<Object>) handler,
+        AsyncType.ALWAYS);
     register(Collections.singletonList(registration));
   }
 
@@ -386,7 +439,7 @@ public class VelocityEventManager implements EventManager {
 
       final EventHandler<Object> handler = untargetedHandler.buildHandler(listener);
       registrations.add(new HandlerRegistration(pluginContainer, info.order,
-          info.eventType, listener, handler));
+          info.eventType, listener, handler, info.asyncType));
     }
 
     register(registrations);
@@ -473,9 +526,14 @@ public class VelocityEventManager implements EventManager {
 
   private <E> void fire(final @Nullable CompletableFuture<E> future,
       final E event, final HandlersCache handlersCache) {
+    if (handlersCache.asyncType == AsyncType.NEVER) {
+      // Every handler has declared that it doesn't block, so run them right here. Any handler
+      // returning an EventTask that requires async execution still gets moved off this thread.
+      fire(future, event, 0, false, handlersCache.handlers);
+      return;
+    }
     // In Velocity 1.1.0, all events were fired asynchronously. As Velocity 3.0.0 is intended to be
-    // largely (albeit not 100%) compatible with 1.1.x, we also fire events async. This behavior
-    // will go away in Velocity Polymer.
+    // largely (albeit not 100%) compatible with 1.1.x, we also fire events async by default.
     asyncExecutor.execute(() -> fire(future, event, 0, true, handlersCache.handlers));
   }
 
@@ -626,7 +684,22 @@ public class VelocityEventManager implements EventManager {
         registration.plugin.getDescription().getId(), t);
   }
 
+  /**
+   * Reports listeners that pin the carrier thread of their virtual thread, if events are fired on
+   * virtual threads. Does nothing otherwise.
+   *
+   * @param onPinned called for every pin
+   */
+  public void monitorPinnedThreads(Runnable onPinned) {
+    if (virtualThreads && pinningMonitor == null) {
+      pinningMonitor = VirtualThreadPinningMonitor.start(onPinned);
+    }
+  }
+
   public boolean shutdown() throws InterruptedException {
+    if (pinningMonitor != null) {
+      pinningMonitor.close();
+    }
     asyncExecutor.shutdown();
     return asyncExecutor.awaitTermination(10, TimeUnit.SECONDS);
   }
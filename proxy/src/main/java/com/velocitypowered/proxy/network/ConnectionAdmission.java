@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.network;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.velocitypowered.proxy.util.ratelimit.RatelimitHashing;
+import com.velocitypowered.proxy.util.ratelimit.TokenBucketTable;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Decides whether a newly accepted connection may proceed, before any part of its pipeline is
+ * created. Connections are limited per address, per subnet (a /24 for IPv4 and a /48 for IPv6)
+ * and across the whole proxy, each with a token bucket that holds a second's worth of
+ * connections.
+ */
+public final class ConnectionAdmission {
+
+  private static final int SLOTS = 1 << 16;
+
+  private final @Nullable TokenBucketTable perAddress;
+  private final @Nullable TokenBucketTable perSubnet;
+  private final @Nullable TokenBucketTable global;
+
+  /**
+   * Creates a new admission gate. A limit of zero or less disables that limit.
+   *
+   * @param perAddress the connections per second allowed from a single address
+   * @param perSubnet the connections per second allowed from a single subnet
+   * @param global the connections per second allowed in total
+   */
+  public ConnectionAdmission(int perAddress, int perSubnet, int global) {
+    this.perAddress = perAddress > 0 ? new TokenBucketTable(SLOTS, perAddress, perAddress) : null;
+    this.perSubnet = perSubnet > 0 ? new TokenBucketTable(SLOTS, perSubnet, perSubnet) : null;
+    this.global = global > 0 ? new TokenBucketTable(1, global, global) : null;
+  }
+
+  /**
+   * Determines whether a connection from {@code remoteAddress} may proceed. Only the global limit
+   * applies to connections whose remote address is not an IP address, and to connections behind
+   * the PROXY protocol, whose real address is not known yet.
+   *
+   * @param remoteAddress the remote address of the connection
+   * @param checkAddress whether to apply the per-address and per-subnet limits
+   * @return whether the connection may proceed
+   */
+  public boolean admit(@Nullable SocketAddress remoteAddress, boolean checkAddress) {
+    final long now = System.nanoTime();
+    if (checkAddress && remoteAddress instanceof InetSocketAddress) {
+      InetAddress address = ((InetSocketAddress) remoteAddress).getAddress();
+      if (address != null) {
+        byte[] raw = address.getAddress();
+        if (perAddress != null && !perAddress.tryAcquire(addressHash(raw), now)) {
+          return false;
+        }
+        if (perSubnet != null && !perSubnet.tryAcquire(subnetHash(raw), now)) {
+          return false;
+        }
+      }
+    }
+    return global == null || global.tryAcquire(0, now);
+  }
+
+  @VisibleForTesting
+  static long addressHash(byte[] address) {
+    if (address.length == 4) {
+      return RatelimitHashing.mix(readInt(address, 0));
+    }
+    return RatelimitHashing.mix(readLong(address, 0) * 31
+        + RatelimitHashing.mix(readLong(address, 8)));
+  }
+
+  @VisibleForTesting
+  static long subnetHash(byte[] address) {
+    if (address.length == 4) {
+      return RatelimitHashing.mix(readInt(address, 0) & 0xFFFFFF00L);
+    }
+    return RatelimitHashing.mix(readLong(address, 0) & 0xFFFFFFFFFFFF0000L);
+  }
+
+  private static long readInt(byte[] bytes, int offset) {
+    return (bytes[offset] & 0xFFL) << 24 | (bytes[offset + 1] & 0xFFL) << 16
+        | (bytes[offset + 2] & 0xFFL) << 8 | bytes[offset + 3] & 0xFFL;
+  }
+
+  private static long readLong(byte[] bytes, int offset) {
+    return readInt(bytes, offset) << 32 | readInt(bytes, offset + 4);
+  }
+}
@@ -26,20 +26,33 @@ import com.velocitypowered.api.event.proxy.ListenerCloseEvent;
 import com.velocitypowered.api.network.ListenerType;
 import com.velocitypowered.natives.util.Natives;
 import com.velocitypowered.proxy.VelocityServer;
+import com.velocitypowered.proxy.network.metrics.PrometheusMetricsHandler;
 import com.velocitypowered.proxy.network.netty.SeparatePoolInetNameResolver;
 import com.velocitypowered.proxy.protocol.netty.GS4QueryHandler;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoop;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.WriteBufferWaterMark;
 import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.unix.UnixChannelOption;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import io.netty.incubator.channel.uring.IOUringChannelOption;
+import io.netty.util.concurrent.EventExecutor;
 import io.netty.util.concurrent.GlobalEventExecutor;
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.asynchttpclient.AsyncHttpClient;
@@ -111,19 +124,17 @@ public final class ConnectionManager {
    * @param address the address to bind to
    */
   public void bind(final InetSocketAddress address) {
-    final ServerBootstrap bootstrap = new ServerBootstrap()
-        .channelFactory(this.transportType.serverSocketChannelFactory)
-        .group(this.bossGroup, this.workerGroup)
-        .childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, SERVER_WRITE_MARK)
-        .childHandler(this.serverChannelInitializer.get())
-        .childOption(ChannelOption.TCP_NODELAY, true)
-        .childOption(ChannelOption.IP_TOS, 0x18)
-        .localAddress(address);
-
-    if (transportType == TransportType.EPOLL && server.getConfiguration().useTcpFastOpen()) {
-      bootstrap.option(EpollChannelOption.TCP_FASTOPEN, 3);
+    if (server.getConfiguration().useReusePortListeners()) {
+      if (transportType == TransportType.EPOLL || transportType == TransportType.IO_URING) {
+        bindReusePort(address);
+        return;
+      }
+      LOGGER.warn("SO_REUSEPORT listeners require the epoll or io_uring transport, binding a "
+          + "single listener instead");
     }
 
+    final ServerBootstrap bootstrap = createMinecraftBootstrap(address)
+        .group(this.bossGroup, this.workerGroup);
     bootstrap.bind()
         .addListener((ChannelFutureListener) future -> {
           final Channel channel = future.channel();
@@ -140,6 +151,75 @@ public final class ConnectionManager {
         });
   }
 
+  /**
+   * Binds one listener with {@code SO_REUSEPORT} to {@code address} for every worker event loop,
+   * so that the kernel spreads incoming connections across them instead of a single thread
+   * accepting all of them. Connections stay on the event loop that accepted them.
+   *
+   * @param address the address to bind to
+   */
+  private void bindReusePort(final InetSocketAddress address) {
+    final List<ChannelFuture> futures = new ArrayList<>();
+    for (EventExecutor executor : this.workerGroup) {
+      EventLoop loop = (EventLoop) executor;
+      futures.add(createMinecraftBootstrap(address)
+          .group(loop, loop)
+          .option(UnixChannelOption.SO_REUSEPORT, true)
+          .bind());
+    }
+
+    final AtomicInteger remaining = new AtomicInteger(futures.size());
+    for (ChannelFuture bindFuture : futures) {
+      bindFuture.addListener((ChannelFutureListener) future -> {
+        if (remaining.decrementAndGet() != 0) {
+          return;
+        }
+
+        final List<Channel> channels = new ArrayList<>(futures.size());
+        Throwable cause = null;
+        for (ChannelFuture bound : futures) {
+          if (bound.isSuccess()) {
+            channels.add(bound.channel());
+          } else if (cause == null) {
+            cause = bound.cause();
+          }
+        }
+
+        if (cause != null) {
+          LOGGER.error("Can't bind to {}", address, cause);
+          channels.forEach(Channel::close);
+          return;
+        }
+
+        this.endpoints.put(address, new Endpoint(channels, ListenerType.MINECRAFT));
+        LOGGER.info("Listening on {} with {} SO_REUSEPORT listeners",
+            channels.get(0).localAddress(), channels.size());
+
+        // Fire the proxy bound event after all the sockets are bound
+        server.getEventManager().fireAndForget(
+            new ListenerBoundEvent(address, ListenerType.MINECRAFT));
+      });
+    }
+  }
+
+  private ServerBootstrap createMinecraftBootstrap(final InetSocketAddress address) {
+    final ServerBootstrap bootstrap = new ServerBootstrap()
+        .channelFactory(this.transportType.serverSocketChannelFactory)
+        .childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, SERVER_WRITE_MARK)
+        .childHandler(this.serverChannelInitializer.get())
+        .childOption(ChannelOption.TCP_NODELAY, true)
+        .childOption(ChannelOption.IP_TOS, 0x18)
+        .localAddress(address);
+
+    if (transportType == TransportType.EPOLL && server.getConfiguration().useTcpFastOpen()) {
+      bootstrap.option(EpollChannelOption.TCP_FASTOPEN, 3);
+    } else if (transportType == TransportType.IO_URING
+        && server.getConfiguration().useTcpFastOpen()) {
+      bootstrap.option(IOUringChannelOption.TCP_FASTOPEN, 3);
+    }
+    return bootstrap;
+  }
+
   /**
    * Binds a GS4 listener to the specified {@code hostname} and {@code port}.
    *
@@ -169,6 +249,43 @@ public final class ConnectionManager {
         });
   }
 
+  /**
+   * Binds an HTTP listener serving Prometheus metrics to the specified {@code address}.
+   *
+   * @param address the address to bind to
+   */
+  public void metricsBind(final InetSocketAddress address) {
+    final PrometheusMetricsHandler handler = new PrometheusMetricsHandler(this.server);
+    final ServerBootstrap bootstrap = new ServerBootstrap()
+        .channelFactory(this.transportType.serverSocketChannelFactory)
+        .group(this.bossGroup, this.workerGroup)
+        .childHandler(new ChannelInitializer<Channel>() {
+          @Override
+          protected void initChannel(Channel ch) {
+            ch.pipeline()
+                .addLast(new ReadTimeoutHandler(30))
+                .addLast(new HttpServerCodec())
+                .addLast(new HttpObjectAggregator(8192))
+                .addLast(handler);
+          }
+        })
+        .localAddress(address);
+    bootstrap.bind()
+        .addListener((ChannelFutureListener) future -> {
+          final Channel channel = future.channel();
+          if (future.isSuccess()) {
+            this.endpoints.put(address, new Endpoint(channel, ListenerType.METRICS));
+            LOGGER.info("Serving Prometheus metrics on {}", channel.localAddress());
+
+            // Fire the proxy bound event after the socket is bound
+            server.getEventManager().fireAndForget(
+                new ListenerBoundEvent(address, ListenerType.METRICS));
+          } else {
+            LOGGER.error("Can't bind to {}", address, future.cause());
+          }
+        });
+  }
+
   /**
    * Creates a TCP {@link Bootstrap} using Velocity's event loops.
    *
@@ -186,6 +303,9 @@ public final class ConnectionManager {
         .resolver(this.resolver.asGroup());
     if (transportType == TransportType.EPOLL && server.getConfiguration().useTcpFastOpen()) {
       bootstrap.option(EpollChannelOption.TCP_FASTOPEN_CONNECT, true);
+    } else if (transportType == TransportType.IO_URING
+        && server.getConfiguration().useTcpFastOpen()) {
+      bootstrap.option(IOUringChannelOption.TCP_FASTOPEN_CONNECT, true);
     }
     return bootstrap;
   }
@@ -197,16 +317,16 @@ public final class ConnectionManager {
    */
   public void close(InetSocketAddress oldBind) {
     Endpoint endpoint = endpoints.remove(oldBind);
+    Preconditions.checkState(endpoint != null, "Endpoint %s not registered", oldBind);
 
     // Fire proxy close event to notify plugins of socket close. We block since plugins
     // should have a chance to be notified before the server stops accepting connections.
     server.getEventManager().fire(new ListenerCloseEvent(oldBind, endpoint.getType())).join();
 
-    Channel serverChannel = endpoint.getChannel();
-
-    Preconditions.checkState(serverChannel != null, "Endpoint %s not registered", oldBind);
-    LOGGER.info("Closing endpoint {}", serverChannel.localAddress());
-    serverChannel.close().syncUninterruptibly();
+    LOGGER.info("Closing endpoint {}", endpoint.getChannel().localAddress());
+    for (Channel serverChannel : endpoint.getChannels()) {
+      serverChannel.close().syncUninterruptibly();
+    }
   }
 
   /**
@@ -223,7 +343,9 @@ public final class ConnectionManager {
 
       try {
         LOGGER.info("Closing endpoint {}", address);
-        endpoint.getChannel().close().sync();
+        for (Channel channel : endpoint.getChannels()) {
+          channel.close().sync();
+        }
       } catch (final InterruptedException e) {
         LOGGER.info("Interrupted whilst closing endpoint", e);
         Thread.currentThread().interrupt();
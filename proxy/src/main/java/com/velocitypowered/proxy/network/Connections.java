@@ -21,12 +21,14 @@ public class Connections {
 
   public static final String CIPHER_DECODER = "cipher-decoder";
   public static final String CIPHER_ENCODER = "cipher-encoder";
+  public static final String CIPHER_FRAME_CODEC = "cipher-frame-codec";
   public static final String COMPRESSION_DECODER = "compression-decoder";
   public static final String COMPRESSION_ENCODER = "compression-encoder";
   public static final String FLOW_HANDLER = "flow-handler";
   public static final String FRAME_DECODER = "frame-decoder";
   public static final String FRAME_ENCODER = "frame-encoder";
   public static final String HANDLER = "handler";
+  public static final String HANDSHAKE_GATE = "handshake-gate";
   public static final String LEGACY_PING_DECODER = "legacy-ping-decoder";
   public static final String LEGACY_PING_ENCODER = "legacy-ping-encoder";
   public static final String MINECRAFT_DECODER = "minecraft-decoder";
@@ -18,23 +18,41 @@
 package com.velocitypowered.proxy.network;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
 import com.velocitypowered.api.network.ListenerType;
 import io.netty.channel.Channel;
+import java.util.List;
 
 /**
- * Represents a listener endpoint.
+ * Represents a listener endpoint. An endpoint usually has a single listening channel, but a
+ * Minecraft listener bound with {@code SO_REUSEPORT} has one for every worker event loop.
  */
 public final class Endpoint {
-  private final Channel channel;
+  private final List<Channel> channels;
   private final ListenerType type;
 
   public Endpoint(Channel channel, ListenerType type) {
-    this.channel = Preconditions.checkNotNull(channel, "channel");
+    this(ImmutableList.of(Preconditions.checkNotNull(channel, "channel")), type);
+  }
+
+  /**
+   * Creates an endpoint listening on several channels bound to the same address.
+   *
+   * @param channels the listening channels
+   * @param type the type of the listener
+   */
+  public Endpoint(List<Channel> channels, ListenerType type) {
+    Preconditions.checkArgument(!channels.isEmpty(), "channels");
+    this.channels = ImmutableList.copyOf(channels);
     this.type = Preconditions.checkNotNull(type, "type");
   }
 
   public Channel getChannel() {
-    return channel;
+    return channels.get(0);
+  }
+
+  public List<Channel> getChannels() {
+    return channels;
   }
 
   public ListenerType getType() {
@@ -19,6 +19,7 @@ package com.velocitypowered.proxy.network;
 
 import static com.velocitypowered.proxy.network.Connections.FRAME_DECODER;
 import static com.velocitypowered.proxy.network.Connections.FRAME_ENCODER;
+import static com.velocitypowered.proxy.network.Connections.HANDSHAKE_GATE;
 import static com.velocitypowered.proxy.network.Connections.LEGACY_PING_DECODER;
 import static com.velocitypowered.proxy.network.Connections.LEGACY_PING_ENCODER;
 import static com.velocitypowered.proxy.network.Connections.MINECRAFT_DECODER;
@@ -28,7 +29,9 @@ import static com.velocitypowered.proxy.network.Connections.READ_TIMEOUT;
 import com.velocitypowered.proxy.VelocityServer;
 import com.velocitypowered.proxy.connection.MinecraftConnection;
 import com.velocitypowered.proxy.connection.client.HandshakeSessionHandler;
+import com.velocitypowered.proxy.network.metrics.VelocityProxyMetrics;
 import com.velocitypowered.proxy.protocol.ProtocolUtils;
+import com.velocitypowered.proxy.protocol.netty.HandshakeGate;
 import com.velocitypowered.proxy.protocol.netty.LegacyPingDecoder;
 import com.velocitypowered.proxy.protocol.netty.LegacyPingEncoder;
 import com.velocitypowered.proxy.protocol.netty.MinecraftDecoder;
@@ -52,7 +55,18 @@ public class ServerChannelInitializer extends ChannelInitializer<Channel> {
 
   @Override
   protected void initChannel(final Channel ch) {
+    // Turn away connection floods before spending anything on the pipeline. Behind the PROXY
+    // protocol the real address of the client is not known yet, so only the global limit applies.
+    final boolean proxyProtocol = this.server.getConfiguration().isProxyProtocol();
+    if (!this.server.getConnectionAdmission().admit(ch.remoteAddress(), !proxyProtocol)) {
+      this.server.getMetrics().recordRejectedConnection();
+      ch.close();
+      return;
+    }
+
+    final VelocityProxyMetrics metrics = this.server.getMetrics();
     ch.pipeline()
+        .addLast(HANDSHAKE_GATE, new HandshakeGate(metrics::recordRejectedConnection))
         .addLast(LEGACY_PING_DECODER, new LegacyPingDecoder())
         .addLast(FRAME_DECODER, new MinecraftVarintFrameDecoder())
         .addLast(READ_TIMEOUT,
@@ -67,7 +81,7 @@ public class ServerChannelInitializer extends ChannelInitializer<Channel> {
     connection.setSessionHandler(new HandshakeSessionHandler(connection, this.server));
     ch.pipeline().addLast(Connections.HANDLER, connection);
 
-    if (this.server.getConfiguration().isProxyProtocol()) {
+    if (proxyProtocol) {
       ch.pipeline().addFirst(new HAProxyMessageDecoder());
     }
   }
@@ -32,8 +32,16 @@ import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioDatagramChannel;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.incubator.channel.uring.IOUring;
+import io.netty.incubator.channel.uring.IOUringDatagramChannel;
+import io.netty.incubator.channel.uring.IOUringEventLoopGroup;
+import io.netty.incubator.channel.uring.IOUringServerSocketChannel;
+import io.netty.incubator.channel.uring.IOUringSocketChannel;
 import java.util.concurrent.ThreadFactory;
 import java.util.function.BiFunction;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 enum TransportType {
   NIO("NIO", NioServerSocketChannel::new,
@@ -43,7 +51,13 @@ enum TransportType {
   EPOLL("epoll", EpollServerSocketChannel::new,
       EpollSocketChannel::new,
       EpollDatagramChannel::new,
-      (name, type) -> new EpollEventLoopGroup(0, createThreadFactory(name, type)));
+      (name, type) -> new EpollEventLoopGroup(0, createThreadFactory(name, type))),
+  IO_URING("io_uring", IOUringServerSocketChannel::new,
+      IOUringSocketChannel::new,
+      IOUringDatagramChannel::new,
+      (name, type) -> new IOUringEventLoopGroup(0, createThreadFactory(name, type)));
+
+  private static final Logger LOGGER = LogManager.getLogger(TransportType.class);
 
   final String name;
   final ChannelFactory<? extends ServerSocketChannel> serverSocketChannelFactory;
@@ -76,11 +90,26 @@ enum TransportType {
     return new VelocityNettyThreadFactory("Netty " + name + ' ' + type.toString() + " #%d");
   }
 
+  /**
+   * Returns the transport to use. Unless one is forced with the {@code velocity.transport} system
+   * property, this is epoll where it is available and NIO elsewhere. The io_uring transport is only
+   * used when it is asked for.
+   *
+   * @return the transport to use
+   */
   public static TransportType bestType() {
     if (Boolean.getBoolean("velocity.disable-native-transport")) {
       return NIO;
     }
 
+    String forced = System.getProperty("velocity.transport");
+    if (forced != null) {
+      TransportType type = forcedType(forced);
+      if (type != null) {
+        return type;
+      }
+    }
+
     if (Epoll.isAvailable()) {
       return EPOLL;
     } else {
@@ -88,6 +117,25 @@ enum TransportType {
     }
   }
 
+  private static @Nullable TransportType forcedType(String name) {
+    for (TransportType type : values()) {
+      if (type.name.equalsIgnoreCase(name)) {
+        if (type == IO_URING && !IOUring.isAvailable()) {
+          LOGGER.warn("The io_uring transport was requested, but is unavailable.",
+              IOUring.unavailabilityCause());
+          return null;
+        } else if (type == EPOLL && !Epoll.isAvailable()) {
+          LOGGER.warn("The epoll transport was requested, but is unavailable.",
+              Epoll.unavailabilityCause());
+          return null;
+        }
+        return type;
+      }
+    }
+    LOGGER.warn("Unknown transport {} requested, expected one of nio, epoll or io_uring.", name);
+    return null;
+  }
+
   public enum Type {
     BOSS("Boss"),
     WORKER("Worker");
@@ -0,0 +1,256 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.network.metrics;
+
+import com.velocitypowered.api.network.ProtocolState;
+import com.velocitypowered.api.proxy.metrics.NetworkStatistics;
+import com.velocitypowered.proxy.connection.util.FlushStatistics;
+import com.velocitypowered.proxy.protocol.StateRegistry;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelOutboundBuffer;
+import io.netty.util.AttributeKey;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * The metrics for a single connection. Counters are only updated from the connection's event loop,
+ * and every update is also added to the proxy-wide totals.
+ */
+public final class ConnectionMetrics implements NetworkStatistics {
+
+  private static final AttributeKey<ConnectionMetrics> KEY =
+      AttributeKey.valueOf("velocity-connection-metrics");
+  private static final int STATES = ProtocolState.values().length;
+
+  private final Channel channel;
+  private final VelocityProxyMetrics totals;
+  private final FlushStatistics flushStatistics;
+  private int state = ProtocolState.HANDSHAKE.ordinal();
+  private final long[] packetsReceived = new long[STATES];
+  private final long[] bytesReceived = new long[STATES];
+  private final long[] packetsSent = new long[STATES];
+  private final long[] bytesSent = new long[STATES];
+  private long bytesBeforeCompression;
+  private long bytesAfterCompression;
+  private long cipherBytes;
+  private long decodeTimeNanos;
+
+  ConnectionMetrics(Channel channel, VelocityProxyMetrics totals) {
+    this.channel = channel;
+    this.totals = totals;
+    this.flushStatistics = new FlushStatistics(totals.getFlushStatistics());
+  }
+
+  /**
+   * Returns the metrics attached to the given channel.
+   *
+   * @param channel the channel
+   * @return the metrics for the channel, or {@code null} if it is not being measured
+   */
+  public static @Nullable ConnectionMetrics of(Channel channel) {
+    return channel.attr(KEY).get();
+  }
+
+  void attach() {
+    channel.attr(KEY).set(this);
+  }
+
+  /**
+   * Sets the state that subsequent packets are counted under.
+   *
+   * @param state the new protocol state
+   */
+  public void setState(StateRegistry state) {
+    switch (state) {
+      case HANDSHAKE:
+        this.state = ProtocolState.HANDSHAKE.ordinal();
+        break;
+      case STATUS:
+        this.state = ProtocolState.STATUS.ordinal();
+        break;
+      case LOGIN:
+        this.state = ProtocolState.LOGIN.ordinal();
+        break;
+      case PLAY:
+        this.state = ProtocolState.PLAY.ordinal();
+        break;
+      default:
+        throw new AssertionError("Unknown state " + state);
+    }
+  }
+
+  /**
+   * Records a packet received in the current state.
+   *
+   * @param bytes the size of the packet
+   */
+  public void recordReceived(int bytes) {
+    packetsReceived[state]++;
+    bytesReceived[state] += bytes;
+    totals.recordReceived(state, bytes);
+  }
+
+  /**
+   * Records a packet sent in the current state.
+   *
+   * @param bytes the size of the packet
+   */
+  public void recordSent(int bytes) {
+    packetsSent[state]++;
+    bytesSent[state] += bytes;
+    totals.recordSent(state, bytes);
+  }
+
+  /**
+   * Records that the compressor turned {@code before} bytes into {@code after} bytes.
+   *
+   * @param before the size of the data before compression
+   * @param after the size of the data after compression
+   */
+  public void recordCompression(int before, int after) {
+    bytesBeforeCompression += before;
+    bytesAfterCompression += after;
+    totals.recordCompression(before, after);
+  }
+
+  public void recordCipher(int bytes) {
+    cipherBytes += bytes;
+    totals.recordCipher(bytes);
+  }
+
+  public void recordDecodeTime(long nanos) {
+    decodeTimeNanos += nanos;
+    totals.recordDecodeTime(nanos);
+  }
+
+  /**
+   * Records a write handed to this connection from a thread other than its event loop. Unlike the
+   * other counters, this may be called from any thread, so it is only added to the totals.
+   */
+  public void recordCrossThreadWrite() {
+    totals.recordCrossThreadWrite();
+  }
+
+  /**
+   * Records a close requested from a thread other than the connection's event loop. This may be
+   * called from any thread, so it is only added to the totals.
+   */
+  public void recordCrossThreadClose() {
+    totals.recordCrossThreadClose();
+  }
+
+  /**
+   * Records that this connection was used from an event loop it does not share with the
+   * connection it is paired with. This may be called from any thread.
+   */
+  public void recordAffinityViolation() {
+    totals.recordAffinityViolation();
+  }
+
+  /**
+   * Records that a buffer had to be copied before a native could work on it, because it was a
+   * heap buffer or made up of several regions. Only added to the totals.
+   *
+   * @param stage the pipeline stage that copied the buffer
+   * @param bytes the number of bytes copied
+   */
+  public void recordBufferCopy(CopyStage stage, int bytes) {
+    totals.recordBufferCopy(stage, bytes);
+  }
+
+  public FlushStatistics getFlushStatistics() {
+    return flushStatistics;
+  }
+
+  @Override
+  public long getPacketsReceived(ProtocolState state) {
+    return packetsReceived[state.ordinal()];
+  }
+
+  @Override
+  public long getBytesReceived(ProtocolState state) {
+    return bytesReceived[state.ordinal()];
+  }
+
+  @Override
+  public long getPacketsSent(ProtocolState state) {
+    return packetsSent[state.ordinal()];
+  }
+
+  @Override
+  public long getBytesSent(ProtocolState state) {
+    return bytesSent[state.ordinal()];
+  }
+
+  @Override
+  public long getBytesBeforeCompression() {
+    return bytesBeforeCompression;
+  }
+
+  @Override
+  public long getBytesAfterCompression() {
+    return bytesAfterCompression;
+  }
+
+  @Override
+  public long getCipherBytes() {
+    return cipherBytes;
+  }
+
+  @Override
+  public long getPendingOutboundBytes() {
+    ChannelOutboundBuffer buffer = channel.unsafe().outboundBuffer();
+    return buffer == null ? 0 : buffer.totalPendingWriteBytes();
+  }
+
+  @Override
+  public long getDecodeTimeNanos() {
+    return decodeTimeNanos;
+  }
+
+  @Override
+  public long getFlushCount() {
+    return flushStatistics.getFlushCount();
+  }
+
+  @Override
+  public long getFlushedBytes() {
+    return flushStatistics.getFlushedBytes();
+  }
+
+  /**
+   * The pipeline stages that may copy a buffer to make it usable by a native.
+   */
+  public enum CopyStage {
+    /**
+     * Decrypting inbound data.
+     */
+    DECRYPT,
+    /**
+     * Encrypting outbound data.
+     */
+    ENCRYPT,
+    /**
+     * Decompressing a packet.
+     */
+    INFLATE,
+    /**
+     * Compressing a packet.
+     */
+    DEFLATE
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.network.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of durations with fixed buckets, from half a millisecond to ten seconds. Like the
+ * other totals, the buckets are striped counters so that recording from many threads does not
+ * contend.
+ */
+public final class LatencyHistogram {
+
+  private static final long[] BUCKET_BOUNDS_NANOS = {
+      500_000L, 1_000_000L, 2_500_000L, 5_000_000L, 10_000_000L, 25_000_000L, 50_000_000L,
+      100_000_000L, 250_000_000L, 500_000_000L, 1_000_000_000L, 2_500_000_000L, 5_000_000_000L,
+      10_000_000_000L
+  };
+
+  private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS_NANOS.length + 1];
+  private final LongAdder totalNanos = new LongAdder();
+
+  /**
+   * Creates an empty histogram.
+   */
+  public LatencyHistogram() {
+    for (int i = 0; i < buckets.length; i++) {
+      buckets[i] = new LongAdder();
+    }
+  }
+
+  /**
+   * Records a duration.
+   *
+   * @param nanos the duration in nanoseconds
+   */
+  public void record(long nanos) {
+    int bucket = 0;
+    while (bucket < BUCKET_BOUNDS_NANOS.length && nanos > BUCKET_BOUNDS_NANOS[bucket]) {
+      bucket++;
+    }
+    buckets[bucket].increment();
+    totalNanos.add(nanos);
+  }
+
+  /**
+   * Records the time elapsed since {@code startNanos}, as returned by {@link System#nanoTime()}.
+   *
+   * @param startNanos when the measured operation started
+   */
+  public void recordSince(long startNanos) {
+    record(System.nanoTime() - startNanos);
+  }
+
+  static int getBucketCount() {
+    return BUCKET_BOUNDS_NANOS.length;
+  }
+
+  static double getBucketBoundSeconds(int bucket) {
+    return BUCKET_BOUNDS_NANOS[bucket] / (double) TimeUnit.SECONDS.toNanos(1);
+  }
+
+  /**
+   * Returns how many durations were at most as long as the upper bound of the {@code bucket}.
+   *
+   * @param bucket the bucket, or {@link #getBucketCount()} for all durations
+   * @return the cumulative count
+   */
+  long getCumulativeCount(int bucket) {
+    long count = 0;
+    for (int i = 0; i <= bucket; i++) {
+      count += buckets[i].sum();
+    }
+    return count;
+  }
+
+  long getCount() {
+    return getCumulativeCount(BUCKET_BOUNDS_NANOS.length);
+  }
+
+  long getTotalNanos() {
+    return totalNanos.sum();
+  }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.network.metrics;
+
+import com.velocitypowered.api.network.ProtocolState;
+import com.velocitypowered.api.proxy.ProxyServer;
+import com.velocitypowered.api.proxy.metrics.NetworkStatistics;
+import com.velocitypowered.api.proxy.metrics.ProxyMetrics;
+import com.velocitypowered.proxy.network.metrics.ConnectionMetrics.CopyStage;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import java.util.Locale;
+import java.util.function.ToLongFunction;
+
+/**
+ * Serves the proxy's {@link ProxyMetrics} in the Prometheus text exposition format on
+ * {@code /metrics}.
+ */
+@ChannelHandler.Sharable
+public class PrometheusMetricsHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
+
+  private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+  private static final ProtocolState[] STATES = ProtocolState.values();
+
+  private final ProxyServer server;
+
+  public PrometheusMetricsHandler(ProxyServer server) {
+    this.server = server;
+  }
+
+  @Override
+  protected void channelRead0(ChannelHandlerContext ctx, FullHttpRequest request) {
+    FullHttpResponse response;
+    if (!request.uri().equals("/metrics") && !request.uri().startsWith("/metrics?")) {
+      response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.NOT_FOUND);
+    } else if (!request.method().equals(HttpMethod.GET)) {
+      response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1,
+          HttpResponseStatus.METHOD_NOT_ALLOWED);
+    } else {
+      ByteBuf content = ByteBufUtil.writeUtf8(ctx.alloc(), render(server));
+      response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK,
+          content);
+      response.headers().set(HttpHeaderNames.CONTENT_TYPE, CONTENT_TYPE);
+    }
+    HttpUtil.setContentLength(response, response.content().readableBytes());
+
+    boolean keepAlive = HttpUtil.isKeepAlive(request);
+    if (keepAlive) {
+      response.headers().set(HttpHeaderNames.CONNECTION, HttpHeaderValues.KEEP_ALIVE);
+      ctx.writeAndFlush(response, ctx.voidPromise());
+    } else {
+      ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
+    }
+  }
+
+  @Override
+  public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+    ctx.close();
+  }
+
+  /**
+   * Renders the proxy's metrics in the Prometheus text exposition format.
+   *
+   * @param server the proxy
+   * @return the rendered metrics
+   */
+  static String render(ProxyServer server) {
+    ProxyMetrics metrics = server.getMetrics();
+    NetworkStatistics total = metrics.getTotalStatistics();
+    StringBuilder out = new StringBuilder(2048);
+
+    perState(out, "velocity_packets_received_total", "Packets received.",
+        total::getPacketsReceived);
+    perState(out, "velocity_bytes_received_total", "Bytes received, before decompression.",
+        total::getBytesReceived);
+    perState(out, "velocity_packets_sent_total", "Packets sent.", total::getPacketsSent);
+    perState(out, "velocity_bytes_sent_total", "Bytes sent, before compression.",
+        total::getBytesSent);
+    metric(out, "velocity_compression_input_bytes_total", "counter",
+        "Bytes handed to the compressor.", total.getBytesBeforeCompression());
+    metric(out, "velocity_compression_output_bytes_total", "counter",
+        "Bytes produced by the compressor.", total.getBytesAfterCompression());
+    metric(out, "velocity_cipher_bytes_total", "counter",
+        "Bytes encrypted or decrypted.", total.getCipherBytes());
+    metric(out, "velocity_decode_seconds_total", "counter",
+        "Time spent decoding packets.", total.getDecodeTimeNanos() / 1e9);
+    metric(out, "velocity_flushes_total", "counter",
+        "Connection flushes with data pending.", total.getFlushCount());
+    metric(out, "velocity_flushed_bytes_total", "counter",
+        "Bytes sent by connection flushes.", total.getFlushedBytes());
+    metric(out, "velocity_pending_outbound_bytes", "gauge",
+        "Bytes written but not yet sent to the network.", total.getPendingOutboundBytes());
+    metric(out, "velocity_open_connections", "gauge",
+        "Open client and server connections.", metrics.getOpenConnections());
+    metric(out, "velocity_players", "gauge", "Players connected to the proxy.",
+        server.getPlayerCount());
+    if (metrics instanceof VelocityProxyMetrics) {
+      VelocityProxyMetrics proxyMetrics = (VelocityProxyMetrics) metrics;
+      histogram(out, "velocity_login_crypto_seconds",
+          "Time spent on the RSA operations of online-mode logins.",
+          proxyMetrics.getLoginCryptoTime());
+      histogram(out, "velocity_session_lookup_seconds",
+          "Time taken by the session server to authenticate online-mode logins.",
+          proxyMetrics.getSessionLookupTime());
+      metric(out, "velocity_cross_thread_writes_total", "counter",
+          "Writes handed to a connection from outside its event loop.",
+          proxyMetrics.getCrossThreadWrites());
+      metric(out, "velocity_cross_thread_closes_total", "counter",
+          "Connection closes requested from outside the connection's event loop.",
+          proxyMetrics.getCrossThreadCloses());
+      metric(out, "velocity_event_loop_affinity_violations_total", "counter",
+          "Times a player and its server connection were used from different event loops.",
+          proxyMetrics.getAffinityViolations());
+      metric(out, "velocity_connections_rejected_total", "counter",
+          "Connections closed by the connection rate limits or the handshake check.",
+          proxyMetrics.getRejectedConnections());
+      perCopyStage(out, "velocity_buffer_copies_total",
+          "Buffers copied so a native compressor or cipher could work on them.",
+          proxyMetrics::getBufferCopies);
+      perCopyStage(out, "velocity_buffer_copied_bytes_total",
+          "Bytes copied so a native compressor or cipher could work on them.",
+          proxyMetrics::getBufferCopyBytes);
+      metric(out, "velocity_compression_offloaded_packets_total", "counter",
+          "Packets compressed on the compression offload pool.",
+          proxyMetrics.getOffloadedCompressions());
+      metric(out, "velocity_compression_offloaded_bytes_total", "counter",
+          "Bytes, before compression, compressed on the compression offload pool.",
+          proxyMetrics.getOffloadedCompressionBytes());
+      histogram(out, "velocity_compression_offload_wait_seconds",
+          "Time large packets wait for a compression offload thread.",
+          proxyMetrics.getCompressionOffloadWait());
+      metric(out, "velocity_virtual_thread_pins_total", "counter",
+          "Times a virtual thread running event listeners pinned its carrier thread.",
+          proxyMetrics.getVirtualThreadPins());
+    }
+    return out.toString();
+  }
+
+  private static void header(StringBuilder out, String name, String type, String help) {
+    out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+    out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+  }
+
+  private static void metric(StringBuilder out, String name, String type, String help,
+      Number value) {
+    header(out, name, type, help);
+    out.append(name).append(' ').append(value).append('\n');
+  }
+
+  private static void histogram(StringBuilder out, String name, String help,
+      LatencyHistogram histogram) {
+    header(out, name, "histogram", help);
+    for (int i = 0; i < LatencyHistogram.getBucketCount(); i++) {
+      out.append(name).append("_bucket{le=\"").append(LatencyHistogram.getBucketBoundSeconds(i))
+          .append("\"} ").append(histogram.getCumulativeCount(i)).append('\n');
+    }
+    out.append(name).append("_bucket{le=\"+Inf\"} ").append(histogram.getCount()).append('\n');
+    out.append(name).append("_sum ").append(histogram.getTotalNanos() / 1e9).append('\n');
+    out.append(name).append("_count ").append(histogram.getCount()).append('\n');
+  }
+
+  private static void perState(StringBuilder out, String name, String help,
+      ToLongFunction<ProtocolState> value) {
+    header(out, name, "counter", help);
+    for (ProtocolState state : STATES) {
+      out.append(name).append("{state=\"").append(state.name().toLowerCase(Locale.ROOT))
+          .append("\"} ").append(value.applyAsLong(state)).append('\n');
+    }
+  }
+
+  private static void perCopyStage(StringBuilder out, String name, String help,
+      ToLongFunction<CopyStage> value) {
+    header(out, name, "counter", help);
+    for (CopyStage stage : CopyStage.values()) {
+      out.append(name).append("{stage=\"").append(stage.name().toLowerCase(Locale.ROOT))
+          .append("\"} ").append(value.applyAsLong(stage)).append('\n');
+    }
+  }
+}
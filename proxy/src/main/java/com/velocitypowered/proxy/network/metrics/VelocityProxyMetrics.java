@@ -0,0 +1,356 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.network.metrics;
+
+import com.velocitypowered.api.network.ProtocolState;
+import com.velocitypowered.api.proxy.Player;
+import com.velocitypowered.api.proxy.ServerConnection;
+import com.velocitypowered.api.proxy.metrics.NetworkStatistics;
+import com.velocitypowered.api.proxy.metrics.ProxyMetrics;
+import com.velocitypowered.proxy.connection.MinecraftConnection;
+import com.velocitypowered.proxy.connection.backend.VelocityServerConnection;
+import com.velocitypowered.proxy.connection.client.ConnectedPlayer;
+import com.velocitypowered.proxy.connection.util.FlushStatistics;
+import io.netty.channel.Channel;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps track of the metrics of every connection, and of the totals across all of them. The totals
+ * are kept in striped counters, so that connections on different event loops can update them
+ * without contending with each other.
+ */
+public final class VelocityProxyMetrics implements ProxyMetrics {
+
+  private static final int STATES = ProtocolState.values().length;
+  private static final int COPY_STAGES = ConnectionMetrics.CopyStage.values().length;
+
+  private final Set<ConnectionMetrics> openConnections = ConcurrentHashMap.newKeySet();
+  private final LongAdder[] packetsReceived = createCounters(STATES);
+  private final LongAdder[] bytesReceived = createCounters(STATES);
+  private final LongAdder[] packetsSent = createCounters(STATES);
+  private final LongAdder[] bytesSent = createCounters(STATES);
+  private final LongAdder bytesBeforeCompression = new LongAdder();
+  private final LongAdder bytesAfterCompression = new LongAdder();
+  private final LongAdder cipherBytes = new LongAdder();
+  private final LongAdder decodeTimeNanos = new LongAdder();
+  private final LongAdder crossThreadWrites = new LongAdder();
+  private final LongAdder crossThreadCloses = new LongAdder();
+  private final LongAdder affinityViolations = new LongAdder();
+  private final LongAdder rejectedConnections = new LongAdder();
+  private final LongAdder[] bufferCopies = createCounters(COPY_STAGES);
+  private final LongAdder[] bufferCopyBytes = createCounters(COPY_STAGES);
+  private final LongAdder offloadedCompressions = new LongAdder();
+  private final LongAdder offloadedCompressionBytes = new LongAdder();
+  private final LongAdder virtualThreadPins = new LongAdder();
+  private final FlushStatistics flushStatistics = new FlushStatistics();
+  private final LatencyHistogram loginCryptoTime = new LatencyHistogram();
+  private final LatencyHistogram sessionLookupTime = new LatencyHistogram();
+  private final LatencyHistogram compressionOffloadWait = new LatencyHistogram();
+  private final TotalStatistics totalStatistics = new TotalStatistics();
+
+  private static LongAdder[] createCounters(int count) {
+    LongAdder[] counters = new LongAdder[count];
+    for (int i = 0; i < count; i++) {
+      counters[i] = new LongAdder();
+    }
+    return counters;
+  }
+
+  /**
+   * Starts measuring the given channel. The metrics stay attached to the channel, and the channel
+   * is no longer counted as open once it is closed.
+   *
+   * @param channel the channel to measure
+   * @return the metrics for the channel
+   */
+  public ConnectionMetrics register(Channel channel) {
+    ConnectionMetrics metrics = new ConnectionMetrics(channel, this);
+    metrics.attach();
+    openConnections.add(metrics);
+    channel.closeFuture().addListener(future -> openConnections.remove(metrics));
+    return metrics;
+  }
+
+  void recordReceived(int state, int bytes) {
+    packetsReceived[state].increment();
+    bytesReceived[state].add(bytes);
+  }
+
+  void recordSent(int state, int bytes) {
+    packetsSent[state].increment();
+    bytesSent[state].add(bytes);
+  }
+
+  void recordCompression(int before, int after) {
+    bytesBeforeCompression.add(before);
+    bytesAfterCompression.add(after);
+  }
+
+  void recordCipher(int bytes) {
+    cipherBytes.add(bytes);
+  }
+
+  void recordDecodeTime(long nanos) {
+    decodeTimeNanos.add(nanos);
+  }
+
+  void recordCrossThreadWrite() {
+    crossThreadWrites.increment();
+  }
+
+  void recordCrossThreadClose() {
+    crossThreadCloses.increment();
+  }
+
+  void recordAffinityViolation() {
+    affinityViolations.increment();
+  }
+
+  void recordBufferCopy(ConnectionMetrics.CopyStage stage, int bytes) {
+    bufferCopies[stage.ordinal()].increment();
+    bufferCopyBytes[stage.ordinal()].add(bytes);
+  }
+
+  /**
+   * Records a connection that was closed by the connection admission checks, before its pipeline
+   * was set up or before it could send a handshake.
+   */
+  public void recordRejectedConnection() {
+    rejectedConnections.increment();
+  }
+
+  /**
+   * Records a packet that was compressed on the compression offload pool.
+   *
+   * @param bytes the size of the packet before compression
+   */
+  public void recordOffloadedCompression(int bytes) {
+    offloadedCompressions.increment();
+    offloadedCompressionBytes.add(bytes);
+  }
+
+  /**
+   * Records a virtual thread that pinned its carrier thread.
+   */
+  public void recordVirtualThreadPin() {
+    virtualThreadPins.increment();
+  }
+
+  FlushStatistics getFlushStatistics() {
+    return flushStatistics;
+  }
+
+  /**
+   * Returns the histogram of how long the RSA operations of online-mode logins take.
+   *
+   * @return the login crypto histogram
+   */
+  public LatencyHistogram getLoginCryptoTime() {
+    return loginCryptoTime;
+  }
+
+  /**
+   * Returns the histogram of how long it takes the session server to authenticate a login.
+   *
+   * @return the session lookup histogram
+   */
+  public LatencyHistogram getSessionLookupTime() {
+    return sessionLookupTime;
+  }
+
+  /**
+   * Returns the number of writes handed to a connection from outside its event loop. Each of them
+   * costs a task submission and a wakeup of the connection's event loop.
+   *
+   * @return the number of cross-thread writes
+   */
+  public long getCrossThreadWrites() {
+    return crossThreadWrites.sum();
+  }
+
+  /**
+   * Returns the number of connection closes requested from outside the connection's event loop.
+   *
+   * @return the number of cross-thread closes
+   */
+  public long getCrossThreadCloses() {
+    return crossThreadCloses.sum();
+  }
+
+  /**
+   * Returns the histogram of how long large packets wait for a compression offload thread.
+   *
+   * @return the compression offload wait histogram
+   */
+  public LatencyHistogram getCompressionOffloadWait() {
+    return compressionOffloadWait;
+  }
+
+  /**
+   * Returns the number of packets compressed on the compression offload pool.
+   *
+   * @return the number of offloaded compressions
+   */
+  public long getOffloadedCompressions() {
+    return offloadedCompressions.sum();
+  }
+
+  /**
+   * Returns the number of bytes, before compression, compressed on the compression offload pool.
+   *
+   * @return the number of offloaded bytes
+   */
+  public long getOffloadedCompressionBytes() {
+    return offloadedCompressionBytes.sum();
+  }
+
+  /**
+   * Returns the number of times a virtual thread pinned its carrier thread. Only counted when
+   * events are fired on virtual threads.
+   *
+   * @return the number of pinned virtual threads
+   */
+  public long getVirtualThreadPins() {
+    return virtualThreadPins.sum();
+  }
+
+  /**
+   * Returns the number of times a player's connection and its server connection were found on
+   * different event loops.
+   *
+   * @return the number of event loop affinity violations
+   */
+  public long getAffinityViolations() {
+    return affinityViolations.sum();
+  }
+
+  /**
+   * Returns the number of connections closed by the connection admission checks.
+   *
+   * @return the number of rejected connections
+   */
+  public long getRejectedConnections() {
+    return rejectedConnections.sum();
+  }
+
+  /**
+   * Returns the number of buffers a pipeline stage copied before a native could work on them.
+   *
+   * @param stage the pipeline stage
+   * @return the number of buffers copied
+   */
+  public long getBufferCopies(ConnectionMetrics.CopyStage stage) {
+    return bufferCopies[stage.ordinal()].sum();
+  }
+
+  /**
+   * Returns the number of bytes a pipeline stage copied before a native could work on them.
+   *
+   * @param stage the pipeline stage
+   * @return the number of bytes copied
+   */
+  public long getBufferCopyBytes(ConnectionMetrics.CopyStage stage) {
+    return bufferCopyBytes[stage.ordinal()].sum();
+  }
+
+  @Override
+  public NetworkStatistics getTotalStatistics() {
+    return totalStatistics;
+  }
+
+  @Override
+  public NetworkStatistics getStatistics(Player player) {
+    return ((ConnectedPlayer) player).getConnection().getMetrics();
+  }
+
+  @Override
+  public Optional<NetworkStatistics> getStatistics(ServerConnection connection) {
+    MinecraftConnection mc = ((VelocityServerConnection) connection).getConnection();
+    return mc == null ? Optional.empty() : Optional.of(mc.getMetrics());
+  }
+
+  @Override
+  public int getOpenConnections() {
+    return openConnections.size();
+  }
+
+  private final class TotalStatistics implements NetworkStatistics {
+
+    @Override
+    public long getPacketsReceived(ProtocolState state) {
+      return packetsReceived[state.ordinal()].sum();
+    }
+
+    @Override
+    public long getBytesReceived(ProtocolState state) {
+      return bytesReceived[state.ordinal()].sum();
+    }
+
+    @Override
+    public long getPacketsSent(ProtocolState state) {
+      return packetsSent[state.ordinal()].sum();
+    }
+
+    @Override
+    public long getBytesSent(ProtocolState state) {
+      return bytesSent[state.ordinal()].sum();
+    }
+
+    @Override
+    public long getBytesBeforeCompression() {
+      return bytesBeforeCompression.sum();
+    }
+
+    @Override
+    public long getBytesAfterCompression() {
+      return bytesAfterCompression.sum();
+    }
+
+    @Override
+    public long getCipherBytes() {
+      return cipherBytes.sum();
+    }
+
+    @Override
+    public long getPendingOutboundBytes() {
+      long pending = 0;
+      for (ConnectionMetrics connection : openConnections) {
+        pending += connection.getPendingOutboundBytes();
+      }
+      return pending;
+    }
+
+    @Override
+    public long getDecodeTimeNanos() {
+      return decodeTimeNanos.sum();
+    }
+
+    @Override
+    public long getFlushCount() {
+      return flushStatistics.getFlushCount();
+    }
+
+    @Override
+    public long getFlushedBytes() {
+      return flushStatistics.getFlushedBytes();
+    }
+  }
+}
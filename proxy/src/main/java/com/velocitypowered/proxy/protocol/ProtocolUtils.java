@@ -60,6 +60,8 @@ public enum ProtocolUtils {
           .build();
 
   private static final int DEFAULT_MAX_STRING_SIZE = 65536; // 64KiB
+  private static final int NBT_TAG_COMPOUND = 10;
+  private static final int MAX_NBT_DEPTH = 512;
   private static final QuietDecoderException BAD_VARINT_CACHED =
       new QuietDecoderException("Bad VarInt decoded");
   private static final int[] VARINT_EXACT_BYTE_LENGTHS = new int[33];
@@ -310,6 +312,81 @@ public enum ProtocolUtils {
     }
   }
 
+  /**
+   * Skips over a named root {@link net.kyori.adventure.nbt.CompoundBinaryTag} in the {@code buf}
+   * without materializing it, leaving the reader index just past the tag.
+   * @param buf the buffer to skip the tag in
+   * @return the number of bytes the tag occupies
+   */
+  public static int skipCompoundTag(ByteBuf buf) {
+    final int start = buf.readerIndex();
+    byte type = buf.readByte();
+    checkFrame(type == NBT_TAG_COMPOUND, "Expected root compound tag, got type %s", type);
+    buf.skipBytes(buf.readUnsignedShort()); // name
+    skipTagPayload(buf, type, 0);
+    return buf.readerIndex() - start;
+  }
+
+  private static void skipTagPayload(ByteBuf buf, int type, int depth) {
+    checkFrame(depth <= MAX_NBT_DEPTH, "NBT tag is nested too deeply");
+    switch (type) {
+      case 1: // byte
+        buf.skipBytes(1);
+        break;
+      case 2: // short
+        buf.skipBytes(2);
+        break;
+      case 3: // int
+      case 5: // float
+        buf.skipBytes(4);
+        break;
+      case 4: // long
+      case 6: // double
+        buf.skipBytes(8);
+        break;
+      case 7: // byte array
+        buf.skipBytes(readNbtLength(buf, 1));
+        break;
+      case 8: // string
+        buf.skipBytes(buf.readUnsignedShort());
+        break;
+      case 9: { // list
+        final int elementType = buf.readByte();
+        final int length = readNbtLength(buf, elementType == 0 ? 0 : 1);
+        // Lists of end tags carry no payload at all, whatever length they claim.
+        for (int i = 0; elementType != 0 && i < length; i++) {
+          skipTagPayload(buf, elementType, depth + 1);
+        }
+        break;
+      }
+      case NBT_TAG_COMPOUND: {
+        byte entryType;
+        while ((entryType = buf.readByte()) != 0) {
+          buf.skipBytes(buf.readUnsignedShort()); // name
+          skipTagPayload(buf, entryType, depth + 1);
+        }
+        break;
+      }
+      case 11: // int array
+        buf.skipBytes(readNbtLength(buf, 4) * 4);
+        break;
+      case 12: // long array
+        buf.skipBytes(readNbtLength(buf, 8) * 8);
+        break;
+      case 0: // end, only valid as the element type of an empty list
+        break;
+      default:
+        throw new CorruptedFrameException("Unknown NBT tag type " + type);
+    }
+  }
+
+  private static int readNbtLength(ByteBuf buf, int minElementSize) {
+    int length = buf.readInt();
+    checkFrame(length >= 0 && (long) length * minElementSize <= buf.readableBytes(),
+        "Bad NBT array length %s", length);
+    return length;
+  }
+
   /**
    * Writes a CompoundTag to the {@code buf}.
    * @param buf the buffer to write to
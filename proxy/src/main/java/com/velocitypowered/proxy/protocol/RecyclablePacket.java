@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.protocol;
+
+/**
+ * A packet that can be reused for later packets of the same type once it has been handled.
+ *
+ * <p>Only packets that never outlive the handling of the read that produced them may be recycled.
+ * Packets that are stored, handed to plugins or used from another thread must not implement this
+ * interface.</p>
+ */
+public interface RecyclablePacket extends MinecraftPacket {
+
+  /**
+   * Resets this packet and returns it to the pool it came from, if any. The packet must not be
+   * used after calling this method.
+   */
+  void recycle();
+
+  /**
+   * Keeps this packet from being recycled, because it is being written from another thread and
+   * may still be waiting to be encoded there when the read that produced it is done. A detached
+   * packet never returns to its pool, and is left to the garbage collector instead.
+   */
+  void detach();
+}
@@ -75,10 +75,9 @@ import com.velocitypowered.proxy.protocol.packet.title.TitleSubtitlePacket;
 import com.velocitypowered.proxy.protocol.packet.title.TitleTextPacket;
 import com.velocitypowered.proxy.protocol.packet.title.TitleTimesPacket;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
-import io.netty.util.collection.IntObjectHashMap;
-import io.netty.util.collection.IntObjectMap;
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.EnumSet;
@@ -147,7 +146,7 @@ public enum StateRegistry {
           map(0x0B, MINECRAFT_1_14, false),
           map(0x0A, MINECRAFT_1_17, false),
           map(0x0C, MINECRAFT_1_19, false));
-      serverbound.register(KeepAlive.class, KeepAlive::new,
+      serverbound.register(KeepAlive.class, KeepAlive.POOL,
           map(0x00, MINECRAFT_1_7_2, false),
           map(0x0B, MINECRAFT_1_9, false),
           map(0x0C, MINECRAFT_1_12, false),
@@ -220,7 +219,7 @@ public enum StateRegistry {
           map(0x19, MINECRAFT_1_16_2, false),
           map(0x1A, MINECRAFT_1_17, false),
           map(0x17, MINECRAFT_1_19, false));
-      clientbound.register(KeepAlive.class, KeepAlive::new,
+      clientbound.register(KeepAlive.class, KeepAlive.POOL,
           map(0x00, MINECRAFT_1_7_2, false),
           map(0x1F, MINECRAFT_1_9, false),
           map(0x21, MINECRAFT_1_13, false),
@@ -409,7 +408,7 @@ public enum StateRegistry {
                 + current.protocolVersion);
           }
 
-          if (registry.packetIdToSupplier.containsKey(current.id)) {
+          if (registry.containsPacket(current.id)) {
             throw new IllegalArgumentException("Can not register class " + clazz.getSimpleName()
                 + " with id " + current.id + " for " + registry.version
                 + " because another packet is already registered");
@@ -421,7 +420,7 @@ public enum StateRegistry {
           }
 
           if (!current.encodeOnly) {
-            registry.packetIdToSupplier.put(current.id, packetSupplier);
+            registry.putSupplier(current.id, packetSupplier);
           }
           registry.packetClassToId.put(clazz, current.id);
         }
@@ -431,8 +430,9 @@ public enum StateRegistry {
     public class ProtocolRegistry {
 
       public final ProtocolVersion version;
-      final IntObjectMap<Supplier<? extends MinecraftPacket>> packetIdToSupplier =
-          new IntObjectHashMap<>(16, 0.5f);
+      // Packet IDs are small and dense, so decoding looks the supplier up with an array index.
+      @SuppressWarnings({"unchecked", "rawtypes"})
+      private Supplier<? extends MinecraftPacket>[] packetIdToSupplier = new Supplier[0];
       final Object2IntMap<Class<? extends MinecraftPacket>> packetClassToId =
           new Object2IntOpenHashMap<>(16, 0.5f);
 
@@ -441,6 +441,13 @@ public enum StateRegistry {
         this.packetClassToId.defaultReturnValue(Integer.MIN_VALUE);
       }
 
+      private void putSupplier(final int id, final Supplier<? extends MinecraftPacket> supplier) {
+        if (id >= this.packetIdToSupplier.length) {
+          this.packetIdToSupplier = Arrays.copyOf(this.packetIdToSupplier, id + 1);
+        }
+        this.packetIdToSupplier[id] = supplier;
+      }
+
       /**
        * Attempts to create a packet from the specified {@code id}.
        *
@@ -448,13 +455,28 @@ public enum StateRegistry {
        * @return the packet instance, or {@code null} if the ID is not registered
        */
       public @Nullable MinecraftPacket createPacket(final int id) {
-        final Supplier<? extends MinecraftPacket> supplier = this.packetIdToSupplier.get(id);
+        final Supplier<? extends MinecraftPacket>[] suppliers = this.packetIdToSupplier;
+        if (id < 0 || id >= suppliers.length) {
+          return null;
+        }
+        final Supplier<? extends MinecraftPacket> supplier = suppliers[id];
         if (supplier == null) {
           return null;
         }
         return supplier.get();
       }
 
+      /**
+       * Determines whether a packet is registered for decoding with the specified {@code id}.
+       *
+       * @param id the packet ID
+       * @return whether {@link #createPacket(int)} would return a packet
+       */
+      public boolean containsPacket(final int id) {
+        final Supplier<? extends MinecraftPacket>[] suppliers = this.packetIdToSupplier;
+        return id >= 0 && id < suppliers.length && suppliers[id] != null;
+      }
+
       /**
        * Attempts to look up the packet ID for an {@code packet}.
        *
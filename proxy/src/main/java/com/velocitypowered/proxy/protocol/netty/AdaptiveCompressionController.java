@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.protocol.netty;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Picks the compression level for a single connection from what compressing its packets costs and
+ * what it gains. The level goes up while data queues up in front of the connection and compressing
+ * harder still shrinks it, and comes back down once the connection keeps up or deflating becomes
+ * the bottleneck itself. Only used from the event loop of the connection.
+ */
+public final class AdaptiveCompressionController {
+
+  /**
+   * A new level is picked every time this many bytes have been compressed.
+   */
+  static final int WINDOW_BYTES = 256 * 1024;
+  /**
+   * Deflating slower than this (50 MiB/s) costs more than sending the data would.
+   */
+  static final long MAX_NANOS_PER_KIB = 20_000;
+  /**
+   * This many bytes waiting to be written means the network can't keep up with the connection.
+   */
+  static final long BACKLOG_BYTES = 128 * 1024;
+  /**
+   * Data that compresses worse than this will hardly shrink at a higher level either.
+   */
+  static final double MAX_USEFUL_RATIO = 0.9;
+
+  private final int minLevel;
+  private final int maxLevel;
+  private int level;
+  private long windowUncompressed;
+  private long windowCompressed;
+  private long windowNanos;
+  private long windowBacklog;
+
+  /**
+   * Creates a new controller.
+   *
+   * @param minLevel the lowest level to compress at
+   * @param maxLevel the highest level to compress at
+   * @param initialLevel the level to start with, clamped to the bounds
+   */
+  public AdaptiveCompressionController(int minLevel, int maxLevel, int initialLevel) {
+    Preconditions.checkArgument(minLevel >= 1 && minLevel <= maxLevel,
+        "invalid compression level bounds %s to %s", minLevel, maxLevel);
+    this.minLevel = minLevel;
+    this.maxLevel = maxLevel;
+    // -1 is zlib's default level of 6.
+    this.level = clamp(initialLevel == -1 ? 6 : initialLevel);
+  }
+
+  public int getLevel() {
+    return level;
+  }
+
+  /**
+   * Records a compressed packet, and picks a new level at the end of each window.
+   *
+   * @param uncompressed the size of the packet before compression
+   * @param compressed the size of the packet after compression
+   * @param nanos the time it took to compress the packet
+   * @param backlog the number of flushed bytes the connection has yet to write
+   * @return the level to compress at from now on
+   */
+  public int record(int uncompressed, int compressed, long nanos, long backlog) {
+    windowUncompressed += uncompressed;
+    windowCompressed += compressed;
+    windowNanos += nanos;
+    windowBacklog = Math.max(windowBacklog, backlog);
+    if (windowUncompressed < WINDOW_BYTES) {
+      return level;
+    }
+
+    long nanosPerKib = windowNanos * 1024 / windowUncompressed;
+    double ratio = (double) windowCompressed / windowUncompressed;
+    if (nanosPerKib > MAX_NANOS_PER_KIB) {
+      level = clamp(level - 1);
+    } else if (windowBacklog >= BACKLOG_BYTES) {
+      if (ratio < MAX_USEFUL_RATIO) {
+        level = clamp(level + 1);
+      }
+    } else if (windowBacklog < BACKLOG_BYTES / 4) {
+      // The connection keeps up, so bandwidth isn't worth spending more time on. In between the
+      // two, hold the level so it doesn't flap.
+      level = clamp(level - 1);
+    }
+
+    windowUncompressed = 0;
+    windowCompressed = 0;
+    windowNanos = 0;
+    windowBacklog = 0;
+    return level;
+  }
+
+  private int clamp(int level) {
+    return Math.max(minLevel, Math.min(maxLevel, level));
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.protocol.netty;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.DefaultByteBufHolder;
+
+/**
+ * A compressed frame that is relayed to another connection without being inflated. The content is
+ * the frame as it appeared on the wire after the packet length: the uncompressed data length,
+ * followed by the deflated packet.
+ */
+public final class CompressedFrame extends DefaultByteBufHolder {
+
+  private final int uncompressedSize;
+
+  public CompressedFrame(ByteBuf data, int uncompressedSize) {
+    super(data);
+    this.uncompressedSize = uncompressedSize;
+  }
+
+  public int getUncompressedSize() {
+    return uncompressedSize;
+  }
+
+  @Override
+  public CompressedFrame replace(ByteBuf content) {
+    return new CompressedFrame(content, uncompressedSize);
+  }
+
+  @Override
+  public CompressedFrame retain() {
+    super.retain();
+    return this;
+  }
+
+  @Override
+  public CompressedFrame retain(int increment) {
+    super.retain(increment);
+    return this;
+  }
+
+  @Override
+  public CompressedFrame touch() {
+    super.touch();
+    return this;
+  }
+
+  @Override
+  public CompressedFrame touch(Object hint) {
+    super.touch(hint);
+    return this;
+  }
+}
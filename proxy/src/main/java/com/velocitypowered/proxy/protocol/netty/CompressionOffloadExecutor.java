@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.protocol.netty;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.velocitypowered.natives.compression.VelocityCompressor;
+import com.velocitypowered.natives.util.MoreByteBufUtils;
+import com.velocitypowered.natives.util.Natives;
+import com.velocitypowered.proxy.network.metrics.ConnectionMetrics;
+import com.velocitypowered.proxy.network.metrics.VelocityProxyMetrics;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Compresses large outbound packets on a small pool of dedicated threads, so that deflating a
+ * multi-hundred-kilobyte chunk batch does not hold up every other connection on the event loop
+ * that sends it. Each thread has a compressor of its own. The queue of the pool is bounded: once it
+ * is full, packets are compressed on the event loop as if offloading was turned off.
+ */
+public final class CompressionOffloadExecutor {
+
+  private static final int MAX_QUEUED = 1024;
+
+  private final ThreadPoolExecutor executor;
+  private final VelocityProxyMetrics metrics;
+  private final ThreadLocal<ThreadCompressor> compressors = new ThreadLocal<>();
+  private volatile int threshold;
+  private volatile int level;
+
+  /**
+   * Creates a new compression offload executor.
+   *
+   * @param threads the number of threads to compress packets on
+   * @param threshold the size from which packets are offloaded, or {@code 0} to offload none
+   * @param level the compression level to use
+   * @param metrics the metrics to record offloaded packets in
+   */
+  public CompressionOffloadExecutor(int threads, int threshold, int level,
+      VelocityProxyMetrics metrics) {
+    this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+        new LinkedBlockingQueue<>(MAX_QUEUED),
+        new ThreadFactoryBuilder().setNameFormat("Velocity Compression - #%d").setDaemon(true)
+            .setThreadFactory(task -> new Thread(() -> {
+              try {
+                task.run();
+              } finally {
+                closeCompressor();
+              }
+            }))
+            .build());
+    this.metrics = metrics;
+    this.threshold = threshold;
+    this.level = level;
+  }
+
+  /**
+   * Applies new settings, for instance after the configuration has been reloaded.
+   *
+   * @param threads the number of threads to compress packets on
+   * @param threshold the size from which packets are offloaded, or {@code 0} to offload none
+   * @param level the compression level to use
+   */
+  public void configure(int threads, int threshold, int level) {
+    if (threads > executor.getMaximumPoolSize()) {
+      executor.setMaximumPoolSize(threads);
+      executor.setCorePoolSize(threads);
+    } else {
+      executor.setCorePoolSize(threads);
+      executor.setMaximumPoolSize(threads);
+    }
+    this.threshold = threshold;
+    this.level = level;
+  }
+
+  /**
+   * Determines whether a packet of the given size should be compressed on the pool.
+   *
+   * @param uncompressedSize the size of the packet before compression
+   * @return whether to offload the packet
+   */
+  boolean shouldOffload(int uncompressedSize) {
+    int threshold = this.threshold;
+    return threshold > 0 && uncompressedSize >= threshold;
+  }
+
+  /**
+   * Compresses a packet into a complete frame, length prefix included, on one of the pool threads.
+   * The pool takes over the reference to {@code msg}, unless it is saturated.
+   *
+   * @param alloc the allocator to allocate the frame with
+   * @param msg the packet to compress
+   * @param connectionMetrics the metrics of the connection the packet is sent on
+   * @return a future completed with the frame, or {@code null} if the pool is saturated and the
+   *         caller should compress the packet itself
+   */
+  @Nullable CompletableFuture<ByteBuf> submit(ByteBufAllocator alloc, ByteBuf msg,
+      @Nullable ConnectionMetrics connectionMetrics) {
+    CompletableFuture<ByteBuf> future = new CompletableFuture<>();
+    long queuedAt = System.nanoTime();
+    try {
+      executor.execute(() -> {
+        metrics.getCompressionOffloadWait().recordSince(queuedAt);
+        int uncompressed = msg.readableBytes();
+        ByteBuf out = null;
+        try {
+          VelocityCompressor compressor = compressor();
+          out = MoreByteBufUtils.preferredBuffer(alloc, compressor,
+              MinecraftCompressorAndLengthEncoder.compressedFrameSize(compressor, uncompressed));
+          MinecraftCompressorAndLengthEncoder.compressFrame(compressor, alloc, msg, out,
+              connectionMetrics);
+          metrics.recordOffloadedCompression(uncompressed);
+          future.complete(out);
+        } catch (Throwable e) {
+          if (out != null) {
+            out.release();
+          }
+          future.completeExceptionally(e);
+        } finally {
+          msg.release();
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      return null;
+    }
+    return future;
+  }
+
+  private VelocityCompressor compressor() {
+    int level = this.level;
+    ThreadCompressor current = compressors.get();
+    if (current == null || current.level != level) {
+      // The level was changed by a reload since this thread last compressed anything.
+      closeCompressor();
+      current = new ThreadCompressor(level, Natives.compress.get().create(level));
+      compressors.set(current);
+    }
+    return current.compressor;
+  }
+
+  private void closeCompressor() {
+    ThreadCompressor current = compressors.get();
+    if (current != null) {
+      current.compressor.close();
+      compressors.remove();
+    }
+  }
+
+  /**
+   * Stops accepting packets. Packets already queued are still compressed.
+   */
+  public void shutdown() {
+    executor.shutdown();
+  }
+
+  private static final class ThreadCompressor {
+
+    private final int level;
+    private final VelocityCompressor compressor;
+
+    ThreadCompressor(int level, VelocityCompressor compressor) {
+      this.level = level;
+      this.compressor = compressor;
+    }
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.protocol.netty;
+
+import com.velocitypowered.proxy.protocol.packet.Handshake;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.util.ReferenceCountUtil;
+
+/**
+ * Looks at the first bytes a client sends, and closes the connection right away if they cannot be
+ * the start of a handshake. Otherwise the frame decoder would buffer up to the maximum packet size
+ * before the handshake could be rejected. Anything other than bytes, such as the PROXY protocol
+ * header, is passed through untouched; the gate removes itself once it has judged the first
+ * bytes.
+ */
+public class HandshakeGate extends ChannelInboundHandlerAdapter {
+
+  private final Runnable onReject;
+
+  /**
+   * Creates a new gate.
+   *
+   * @param onReject called whenever the gate closes a connection
+   */
+  public HandshakeGate(Runnable onReject) {
+    this.onReject = onReject;
+  }
+
+  @Override
+  public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+    if (!(msg instanceof ByteBuf)) {
+      ctx.fireChannelRead(msg);
+      return;
+    }
+    if (!isPlausibleHandshake((ByteBuf) msg)) {
+      ReferenceCountUtil.release(msg);
+      onReject.run();
+      ctx.close();
+      return;
+    }
+    ctx.pipeline().remove(this);
+    ctx.fireChannelRead(msg);
+  }
+
+  /**
+   * Determines whether {@code buf} may start with a handshake. Legacy pings and anything too
+   * short to judge are let through to the regular decoders.
+   *
+   * @param buf the first bytes received from the client
+   * @return whether the bytes may be the start of a handshake
+   */
+  static boolean isPlausibleHandshake(ByteBuf buf) {
+    int index = buf.readerIndex();
+    if (!buf.isReadable()) {
+      return true;
+    }
+    int first = buf.getUnsignedByte(index);
+    if (first == 0xfe || first == 0x02 || first == 0x00) {
+      // Legacy pings and handshakes, and the runs of zeroes the frame decoder skips.
+      return true;
+    }
+
+    // A handshake is short enough for its length to fit into a VarInt of at most 2 bytes.
+    int length = 0;
+    int lengthBytes = 0;
+    while (true) {
+      if (lengthBytes == 2) {
+        return false;
+      }
+      if (!buf.isReadable(lengthBytes + 1)) {
+        return true;
+      }
+      int read = buf.getByte(index + lengthBytes);
+      length |= (read & 0x7F) << (lengthBytes++ * 7);
+      if ((read & 0x80) == 0) {
+        break;
+      }
+    }
+    if (length > Handshake.MAXIMUM_LENGTH) {
+      return false;
+    }
+    // The handshake is packet 0x00.
+    return !buf.isReadable(lengthBytes + 1) || buf.getByte(index + lengthBytes) == 0x00;
+  }
+}
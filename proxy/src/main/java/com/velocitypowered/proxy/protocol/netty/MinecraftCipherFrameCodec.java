@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.protocol.netty;
+
+import com.google.common.base.Preconditions;
+import com.velocitypowered.natives.encryption.VelocityCipher;
+import com.velocitypowered.natives.util.MoreByteBufUtils;
+import com.velocitypowered.proxy.network.metrics.ConnectionMetrics;
+import com.velocitypowered.proxy.network.metrics.ConnectionMetrics.CopyStage;
+import com.velocitypowered.proxy.protocol.ProtocolUtils;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.ByteToMessageCodec;
+import java.util.List;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Handles both encryption and packet framing in a single handler, in place of separate
+ * {@link MinecraftCipherDecoder}, {@link MinecraftVarintFrameDecoder},
+ * {@link MinecraftVarintLengthEncoder} and {@link MinecraftCipherEncoder} stages.
+ *
+ * <p>Inbound data is decrypted in place as it is read and then split into frames. Outbound packets
+ * are written with their length prefix into a single buffer, which is encrypted with one call to
+ * the cipher. If another handler already frames outbound packets (as the compression encoder
+ * does), outbound framing can be turned off, and buffers are only encrypted.</p>
+ */
+public class MinecraftCipherFrameCodec extends ByteToMessageCodec<ByteBuf> {
+
+  private final VelocityCipher decryptionCipher;
+  private final VelocityCipher encryptionCipher;
+  private boolean outboundFraming;
+  private @Nullable ConnectionMetrics metrics;
+
+  /**
+   * Creates a new codec.
+   *
+   * @param decryptionCipher the cipher to decrypt inbound data with
+   * @param encryptionCipher the cipher to encrypt outbound data with
+   * @param outboundFraming whether this codec should add the length prefix to outbound packets
+   */
+  public MinecraftCipherFrameCodec(VelocityCipher decryptionCipher,
+      VelocityCipher encryptionCipher, boolean outboundFraming) {
+    this.decryptionCipher = Preconditions.checkNotNull(decryptionCipher, "decryptionCipher");
+    this.encryptionCipher = Preconditions.checkNotNull(encryptionCipher, "encryptionCipher");
+    this.outboundFraming = outboundFraming;
+  }
+
+  @Override
+  public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+    if (!(msg instanceof ByteBuf)) {
+      super.channelRead(ctx, msg);
+      return;
+    }
+
+    ByteBuf compatible;
+    try {
+      compatible = MoreByteBufUtils.ensureCompatible(ctx.alloc(), decryptionCipher, (ByteBuf) msg);
+    } finally {
+      ((ByteBuf) msg).release();
+    }
+    if (compatible != msg) {
+      recordCopy(ctx, CopyStage.DECRYPT, compatible.readableBytes());
+    }
+
+    try {
+      decryptionCipher.process(compatible);
+      recordCipher(ctx, compatible.readableBytes());
+    } catch (Exception e) {
+      compatible.release(); // compatible will never be used if we throw an exception
+      throw e;
+    }
+    super.channelRead(ctx, compatible);
+  }
+
+  @Override
+  protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) {
+    MinecraftVarintFrameDecoder.decodeFrame(ctx, in, out);
+  }
+
+  @Override
+  public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise)
+      throws Exception {
+    if (!(msg instanceof ByteBuf)) {
+      super.write(ctx, msg, promise);
+      return;
+    }
+
+    ByteBuf buf = (ByteBuf) msg;
+    ByteBuf out = null;
+    try {
+      if (outboundFraming) {
+        int length = buf.readableBytes();
+        ConnectionMetrics metrics = metrics(ctx);
+        if (metrics != null) {
+          metrics.recordSent(length);
+        }
+        out = MoreByteBufUtils.preferredBuffer(ctx.alloc(), encryptionCipher,
+            ProtocolUtils.varIntBytes(length) + length);
+        encode(ctx, buf, out);
+      } else {
+        out = MoreByteBufUtils.ensureCompatible(ctx.alloc(), encryptionCipher, buf);
+        if (out != buf) {
+          recordCopy(ctx, CopyStage.ENCRYPT, out.readableBytes());
+        }
+        encryptionCipher.process(out);
+      }
+      recordCipher(ctx, out.readableBytes());
+    } catch (Exception e) {
+      if (out != null) {
+        out.release(); // out will never be used if we throw an exception
+      }
+      throw e;
+    } finally {
+      buf.release();
+    }
+    ctx.write(out, promise);
+  }
+
+  @Override
+  protected void encode(ChannelHandlerContext ctx, ByteBuf msg, ByteBuf out) throws Exception {
+    int start = out.writerIndex();
+    ProtocolUtils.writeVarInt(out, msg.readableBytes());
+    out.writeBytes(msg);
+    encryptionCipher.process(out.slice(start, out.writerIndex() - start));
+  }
+
+  private @Nullable ConnectionMetrics metrics(ChannelHandlerContext ctx) {
+    if (metrics == null) {
+      metrics = ConnectionMetrics.of(ctx.channel());
+    }
+    return metrics;
+  }
+
+  private void recordCipher(ChannelHandlerContext ctx, int bytes) {
+    ConnectionMetrics metrics = metrics(ctx);
+    if (metrics != null) {
+      metrics.recordCipher(bytes);
+    }
+  }
+
+  private void recordCopy(ChannelHandlerContext ctx, CopyStage stage, int bytes) {
+    ConnectionMetrics metrics = metrics(ctx);
+    if (metrics != null) {
+      metrics.recordBufferCopy(stage, bytes);
+    }
+  }
+
+  @Override
+  public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+    try {
+      super.handlerRemoved(ctx);
+    } finally {
+      decryptionCipher.close();
+      encryptionCipher.close();
+    }
+  }
+
+  public void setOutboundFraming(boolean outboundFraming) {
+    this.outboundFraming = outboundFraming;
+  }
+}
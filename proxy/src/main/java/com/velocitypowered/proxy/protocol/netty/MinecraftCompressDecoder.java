@@ -22,11 +22,16 @@ import static com.velocitypowered.natives.util.MoreByteBufUtils.preferredBuffer;
 import static com.velocitypowered.proxy.protocol.util.NettyPreconditions.checkFrame;
 
 import com.velocitypowered.natives.compression.VelocityCompressor;
+import com.velocitypowered.proxy.network.metrics.ConnectionMetrics;
+import com.velocitypowered.proxy.network.metrics.ConnectionMetrics.CopyStage;
 import com.velocitypowered.proxy.protocol.ProtocolUtils;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToMessageDecoder;
 import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 public class MinecraftCompressDecoder extends MessageToMessageDecoder<ByteBuf> {
 
@@ -39,6 +44,10 @@ public class MinecraftCompressDecoder extends MessageToMessageDecoder<ByteBuf> {
 
   private int threshold;
   private final VelocityCompressor compressor;
+  private @Nullable MinecraftDecoder passthroughDecoder;
+  private @Nullable Inflater peekInflater;
+  private final byte[] peekedPacketId = new byte[5];
+  private @Nullable ConnectionMetrics metrics;
 
   public MinecraftCompressDecoder(int threshold, VelocityCompressor compressor) {
     this.threshold = threshold;
@@ -47,6 +56,7 @@ public class MinecraftCompressDecoder extends MessageToMessageDecoder<ByteBuf> {
 
   @Override
   protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+    int frameStart = in.readerIndex();
     int claimedUncompressedSize = ProtocolUtils.readVarInt(in);
     if (claimedUncompressedSize == 0) {
       // This message is not compressed.
@@ -60,7 +70,21 @@ public class MinecraftCompressDecoder extends MessageToMessageDecoder<ByteBuf> {
         "Uncompressed size %s exceeds hard threshold of %s", claimedUncompressedSize,
         UNCOMPRESSED_CAP);
 
+    if (passthroughDecoder != null) {
+      int packetId = peekPacketId(in);
+      if (packetId != -1 && !passthroughDecoder.decodes(packetId)) {
+        // Nothing on this side needs to look inside the packet, so relay it still compressed.
+        out.add(new CompressedFrame(in.retainedSlice(frameStart, in.writerIndex() - frameStart),
+            claimedUncompressedSize));
+        in.skipBytes(in.readableBytes());
+        return;
+      }
+    }
+
     ByteBuf compatibleIn = ensureCompatible(ctx.alloc(), compressor, in);
+    if (compatibleIn != in) {
+      recordCopy(ctx, compatibleIn.readableBytes());
+    }
     ByteBuf uncompressed = preferredBuffer(ctx.alloc(), compressor, claimedUncompressedSize);
     try {
       compressor.inflate(compatibleIn, uncompressed, claimedUncompressedSize);
@@ -73,12 +97,68 @@ public class MinecraftCompressDecoder extends MessageToMessageDecoder<ByteBuf> {
     }
   }
 
+  private void recordCopy(ChannelHandlerContext ctx, int bytes) {
+    if (metrics == null) {
+      metrics = ConnectionMetrics.of(ctx.channel());
+    }
+    if (metrics != null) {
+      metrics.recordBufferCopy(CopyStage.INFLATE, bytes);
+    }
+  }
+
+  /**
+   * Inflates just enough of the compressed packet in {@code in} to read its ID.
+   *
+   * @param in the compressed packet
+   * @return the packet ID, or {@code -1} if it could not be determined
+   */
+  private int peekPacketId(ByteBuf in) {
+    if (peekInflater == null) {
+      peekInflater = new Inflater();
+    }
+
+    try {
+      peekInflater.setInput(in.nioBuffer());
+      int produced = peekInflater.inflate(peekedPacketId);
+
+      int packetId = 0;
+      for (int i = 0; i < produced; i++) {
+        byte b = peekedPacketId[i];
+        packetId |= (b & 0x7F) << (i * 7);
+        if ((b & 0x80) == 0) {
+          return packetId;
+        }
+      }
+      return -1;
+    } catch (DataFormatException e) {
+      // Let the regular path deal with (and report) the bad stream.
+      return -1;
+    } finally {
+      peekInflater.reset();
+    }
+  }
+
   @Override
   public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
     compressor.close();
+    if (peekInflater != null) {
+      peekInflater.end();
+    }
   }
 
   public void setThreshold(int threshold) {
     this.threshold = threshold;
   }
+
+  /**
+   * Sets the decoder that decides which compressed packets may skip inflation. Packets that
+   * {@code decoder} would not decode are emitted as {@link CompressedFrame}s instead of being
+   * inflated.
+   *
+   * @param decoder the packet decoder further down the pipeline, or {@code null} to inflate every
+   *                packet
+   */
+  public void setPassthroughDecoder(@Nullable MinecraftDecoder decoder) {
+    this.passthroughDecoder = decoder;
+  }
 }
@@ -21,25 +21,88 @@ import static com.velocitypowered.proxy.protocol.netty.MinecraftVarintLengthEnco
 
 import com.velocitypowered.natives.compression.VelocityCompressor;
 import com.velocitypowered.natives.util.MoreByteBufUtils;
+import com.velocitypowered.proxy.network.metrics.ConnectionMetrics;
+import com.velocitypowered.proxy.network.metrics.ConnectionMetrics.CopyStage;
 import com.velocitypowered.proxy.protocol.ProtocolUtils;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundBuffer;
+import io.netty.channel.ChannelPromise;
 import io.netty.handler.codec.MessageToByteEncoder;
+import io.netty.util.ReferenceCountUtil;
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.zip.DataFormatException;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 public class MinecraftCompressorAndLengthEncoder extends MessageToByteEncoder<ByteBuf> {
 
+  // The user-defined writability flag that reflects the writes queued behind offloaded packets.
+  private static final int PENDING_WRITABILITY_INDEX = 1;
+
   private int threshold;
   private final VelocityCompressor compressor;
+  private @Nullable ConnectionMetrics metrics;
+  private final @Nullable CompressionOffloadExecutor offload;
+  private final @Nullable AdaptiveCompressionController adaptive;
+  // Writes queued behind packets that are still being compressed on the offload pool, in the order
+  // they have to go out in.
+  private final ArrayDeque<PendingWrite> pending = new ArrayDeque<>();
+  // The size of the writes in the pending queue. These have not reached the outbound buffer yet,
+  // so they are counted against the channel's write buffer water marks separately.
+  private long pendingQueueBytes;
+  private boolean removed;
+  // Bytes the socket hadn't taken yet at the end of the last flush.
+  private long backlog;
 
   public MinecraftCompressorAndLengthEncoder(int threshold, VelocityCompressor compressor) {
+    this(threshold, compressor, null);
+  }
+
+  /**
+   * Creates a new encoder that compresses large packets on the given offload pool.
+   *
+   * @param threshold the compression threshold
+   * @param compressor the compressor to use on the event loop
+   * @param offload the pool to compress large packets on, or {@code null} to compress everything
+   *                on the event loop
+   */
+  public MinecraftCompressorAndLengthEncoder(int threshold, VelocityCompressor compressor,
+      @Nullable CompressionOffloadExecutor offload) {
+    this(threshold, compressor, offload, null);
+  }
+
+  /**
+   * Creates a new encoder that compresses large packets on the given offload pool, and adjusts
+   * the level of its own compressor to the connection.
+   *
+   * @param threshold the compression threshold
+   * @param compressor the compressor to use on the event loop
+   * @param offload the pool to compress large packets on, or {@code null} to compress everything
+   *                on the event loop
+   * @param adaptive the controller picking the level of {@code compressor}, or {@code null} to
+   *                 keep the level it was created with
+   */
+  public MinecraftCompressorAndLengthEncoder(int threshold, VelocityCompressor compressor,
+      @Nullable CompressionOffloadExecutor offload,
+      @Nullable AdaptiveCompressionController adaptive) {
     this.threshold = threshold;
     this.compressor = compressor;
+    this.offload = offload;
+    this.adaptive = adaptive;
   }
 
   @Override
   protected void encode(ChannelHandlerContext ctx, ByteBuf msg, ByteBuf out) throws Exception {
     int uncompressed = msg.readableBytes();
+    ConnectionMetrics metrics = metrics(ctx);
+    if (metrics != null) {
+      metrics.recordSent(uncompressed);
+    }
+
     if (uncompressed < threshold) {
       // Under the threshold, there is nothing to do.
       ProtocolUtils.writeVarInt(out, uncompressed + 1);
@@ -50,13 +113,221 @@ public class MinecraftCompressorAndLengthEncoder extends MessageToByteEncoder<By
     }
   }
 
+  @Override
+  public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise)
+      throws Exception {
+    if (msg instanceof ByteBuf && shouldOffload(((ByteBuf) msg).readableBytes())
+        && offload(ctx, (ByteBuf) msg, promise)) {
+      return;
+    }
+    if (!pending.isEmpty()) {
+      enqueue(ctx, new PendingWrite(msg, promise));
+      return;
+    }
+    writeNow(ctx, msg, promise);
+  }
+
+  private void writeNow(ChannelHandlerContext ctx, Object msg, ChannelPromise promise)
+      throws Exception {
+    if (msg instanceof CompressedFrame) {
+      writeCompressedFrame(ctx, (CompressedFrame) msg, promise);
+    } else {
+      super.write(ctx, msg, promise);
+    }
+  }
+
+  @Override
+  public void flush(ChannelHandlerContext ctx) throws Exception {
+    if (pending.isEmpty()) {
+      flushNow(ctx);
+    } else if (pending.peekLast() != PendingWrite.FLUSH) {
+      pending.add(PendingWrite.FLUSH);
+    }
+  }
+
+  private void flushNow(ChannelHandlerContext ctx) {
+    ctx.flush();
+    if (adaptive != null) {
+      // Whatever is still queued right after flushing is what the network hasn't kept up with.
+      // Sampling at any other time would also count writes that just haven't been flushed yet.
+      backlog = pendingBytes(ctx);
+    }
+  }
+
+  private boolean shouldOffload(int uncompressed) {
+    return offload != null && uncompressed >= threshold && offload.shouldOffload(uncompressed);
+  }
+
+  private boolean offload(ChannelHandlerContext ctx, ByteBuf msg, ChannelPromise promise) {
+    assert offload != null;
+    int uncompressed = msg.readableBytes();
+    ConnectionMetrics metrics = metrics(ctx);
+    CompletableFuture<ByteBuf> future = offload.submit(ctx.alloc(), msg, metrics);
+    if (future == null) {
+      // The pool is saturated, so compress the packet ourselves.
+      return false;
+    }
+    if (metrics != null) {
+      metrics.recordSent(uncompressed);
+    }
+
+    PendingWrite write = new PendingWrite(promise, uncompressed);
+    enqueue(ctx, write);
+    future.whenComplete((out, cause) -> {
+      try {
+        ctx.executor().execute(() -> completeOffloaded(ctx, write, out, cause));
+      } catch (RejectedExecutionException e) {
+        if (out != null) {
+          out.release();
+        }
+      }
+    });
+    return true;
+  }
+
+  private void completeOffloaded(ChannelHandlerContext ctx, PendingWrite write,
+      @Nullable ByteBuf out, @Nullable Throwable cause) {
+    if (removed) {
+      // The promise was already failed when the handler was removed.
+      if (out != null) {
+        out.release();
+      }
+      return;
+    }
+    write.complete(out, cause);
+    drain(ctx);
+  }
+
+  private void enqueue(ChannelHandlerContext ctx, PendingWrite write) {
+    pending.add(write);
+    pendingQueueBytes += write.size;
+    if (pendingQueueBytes > ctx.channel().config().getWriteBufferHighWaterMark()) {
+      // A slow offload pool must not let the queue grow without the sender noticing.
+      setPendingWritable(ctx, false);
+    }
+  }
+
+  private void drain(ChannelHandlerContext ctx) {
+    PendingWrite write;
+    while ((write = pending.peek()) != null && write.ready) {
+      pending.poll();
+      pendingQueueBytes -= write.size;
+      if (write == PendingWrite.FLUSH) {
+        flushNow(ctx);
+      } else if (write.msg != null) {
+        try {
+          writeNow(ctx, write.msg, write.promise);
+        } catch (Throwable e) {
+          write.promise.tryFailure(e);
+        }
+      } else if (write.out != null) {
+        ConnectionMetrics metrics = metrics(ctx);
+        if (metrics != null) {
+          metrics.recordCompression(write.uncompressed, write.out.readableBytes() - 3
+              - ProtocolUtils.varIntBytes(write.uncompressed));
+        }
+        ctx.write(write.out, write.promise);
+      } else {
+        write.promise.tryFailure(write.cause);
+      }
+    }
+    if (pendingQueueBytes < ctx.channel().config().getWriteBufferLowWaterMark()) {
+      setPendingWritable(ctx, true);
+    }
+  }
+
+  private static void setPendingWritable(ChannelHandlerContext ctx, boolean writable) {
+    ChannelOutboundBuffer buffer = ctx.channel().unsafe().outboundBuffer();
+    if (buffer != null) {
+      buffer.setUserDefinedWritability(PENDING_WRITABILITY_INDEX, writable);
+    }
+  }
+
+  private void writeCompressedFrame(ChannelHandlerContext ctx, CompressedFrame frame,
+      ChannelPromise promise) throws Exception {
+    ByteBuf data = frame.content();
+    if (frame.getUncompressedSize() < threshold) {
+      // The frame was compressed under a lower threshold than ours, so the receiver would reject
+      // it. Inflate it and send it the regular way.
+      ByteBuf uncompressed = MoreByteBufUtils.preferredBuffer(ctx.alloc(), compressor,
+          frame.getUncompressedSize());
+      try {
+        ProtocolUtils.readVarInt(data);
+        ByteBuf compatibleIn = MoreByteBufUtils.ensureCompatible(ctx.alloc(), compressor, data);
+        if (compatibleIn != data) {
+          recordCopy(ctx, CopyStage.INFLATE, compatibleIn.readableBytes());
+        }
+        try {
+          compressor.inflate(compatibleIn, uncompressed, frame.getUncompressedSize());
+        } finally {
+          compatibleIn.release();
+        }
+      } catch (Exception e) {
+        uncompressed.release();
+        throw e;
+      } finally {
+        frame.release();
+      }
+      super.write(ctx, uncompressed, promise);
+      return;
+    }
+
+    ConnectionMetrics metrics = metrics(ctx);
+    if (metrics != null) {
+      metrics.recordSent(frame.getUncompressedSize());
+    }
+
+    // Write the packet length separately so the compressed data is never copied.
+    int length = data.readableBytes();
+    ByteBuf prefix = IS_JAVA_CIPHER
+        ? ctx.alloc().heapBuffer(ProtocolUtils.varIntBytes(length))
+        : ctx.alloc().directBuffer(ProtocolUtils.varIntBytes(length));
+    ProtocolUtils.writeVarInt(prefix, length);
+    ctx.write(prefix, ctx.voidPromise());
+    ctx.write(data, promise);
+  }
+
   private void handleCompressed(ChannelHandlerContext ctx, ByteBuf msg, ByteBuf out)
       throws DataFormatException {
     int uncompressed = msg.readableBytes();
+    long start = System.nanoTime();
+    int compressedLength = compressFrame(compressor, ctx.alloc(), msg, out, metrics(ctx));
+    if (metrics != null) {
+      metrics.recordCompression(uncompressed, compressedLength);
+    }
+
+    if (adaptive != null) {
+      int level = adaptive.getLevel();
+      int newLevel = adaptive.record(uncompressed, compressedLength, System.nanoTime() - start,
+          backlog);
+      if (newLevel != level) {
+        compressor.setLevel(newLevel);
+      }
+    }
+  }
+
+  private static long pendingBytes(ChannelHandlerContext ctx) {
+    ChannelOutboundBuffer buffer = ctx.channel().unsafe().outboundBuffer();
+    return buffer == null ? 0 : buffer.totalPendingWriteBytes();
+  }
+
+  /**
+   * Compresses {@code msg} into a complete frame, packet length included, and appends it to
+   * {@code out}. May be called from any thread, as long as it owns {@code compressor}.
+   *
+   * @return the length of the compressed data
+   */
+  static int compressFrame(VelocityCompressor compressor, ByteBufAllocator alloc, ByteBuf msg,
+      ByteBuf out, @Nullable ConnectionMetrics metrics) throws DataFormatException {
+    int uncompressed = msg.readableBytes();
+    final int start = out.writerIndex();
 
     ProtocolUtils.write21BitVarInt(out, 0); // Dummy packet length
     ProtocolUtils.writeVarInt(out, uncompressed);
-    ByteBuf compatibleIn = MoreByteBufUtils.ensureCompatible(ctx.alloc(), compressor, msg);
+    ByteBuf compatibleIn = MoreByteBufUtils.ensureCompatible(alloc, compressor, msg);
+    if (compatibleIn != msg && metrics != null) {
+      metrics.recordBufferCopy(CopyStage.DEFLATE, uncompressed);
+    }
 
     int startCompressed = out.writerIndex();
     try {
@@ -70,10 +341,20 @@ public class MinecraftCompressorAndLengthEncoder extends MessageToByteEncoder<By
     }
 
     int writerIndex = out.writerIndex();
-    int packetLength = out.readableBytes() - 3;
-    out.writerIndex(0);
+    int packetLength = writerIndex - start - 3;
+    out.writerIndex(start);
     ProtocolUtils.write21BitVarInt(out, packetLength); // Rewrite packet length
     out.writerIndex(writerIndex);
+    return compressedLength;
+  }
+
+  /**
+   * Returns the size of the largest frame {@link #compressFrame} can produce for a packet of the
+   * given size.
+   */
+  static int compressedFrameSize(VelocityCompressor compressor, int uncompressed) {
+    // (maximum data length after compression) + packet length varint + uncompressed data varint
+    return compressor.deflateBound(uncompressed) + 3 + ProtocolUtils.varIntBytes(uncompressed);
   }
 
   @Override
@@ -88,17 +369,100 @@ public class MinecraftCompressorAndLengthEncoder extends MessageToByteEncoder<By
           : ctx.alloc().directBuffer(finalBufferSize);
     }
 
-    // (maximum data length after compression) + packet length varint + uncompressed data varint
-    int initialBufferSize = (uncompressed - 1) + 3 + ProtocolUtils.varIntBytes(uncompressed);
-    return MoreByteBufUtils.preferredBuffer(ctx.alloc(), compressor, initialBufferSize);
+    return MoreByteBufUtils.preferredBuffer(ctx.alloc(), compressor,
+        compressedFrameSize(compressor, uncompressed));
+  }
+
+  private @Nullable ConnectionMetrics metrics(ChannelHandlerContext ctx) {
+    if (metrics == null) {
+      metrics = ConnectionMetrics.of(ctx.channel());
+    }
+    return metrics;
+  }
+
+  private void recordCopy(ChannelHandlerContext ctx, CopyStage stage, int bytes) {
+    ConnectionMetrics metrics = metrics(ctx);
+    if (metrics != null) {
+      metrics.recordBufferCopy(stage, bytes);
+    }
   }
 
   @Override
   public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+    removed = true;
+    boolean dropped = false;
+    PendingWrite write;
+    while ((write = pending.poll()) != null) {
+      dropped |= write != PendingWrite.FLUSH;
+      write.discard();
+    }
+    pendingQueueBytes = 0;
+    setPendingWritable(ctx, true);
     compressor.close();
+    if (dropped) {
+      // Packets were lost in the middle of the stream, so the connection cannot be recovered.
+      ctx.channel().close();
+    }
   }
 
   public void setThreshold(int threshold) {
     this.threshold = threshold;
   }
+
+  /**
+   * A write held back until the offloaded packets before it have been compressed.
+   */
+  private static final class PendingWrite {
+
+    static final PendingWrite FLUSH = new PendingWrite(null, null);
+
+    private final @Nullable Object msg;
+    private final ChannelPromise promise;
+    private final int uncompressed;
+    private final long size;
+    private boolean ready;
+    private @Nullable ByteBuf out;
+    private @Nullable Throwable cause;
+
+    PendingWrite(Object msg, ChannelPromise promise) {
+      this.msg = msg;
+      this.promise = promise;
+      this.uncompressed = 0;
+      this.size = sizeOf(msg);
+      this.ready = true;
+    }
+
+    PendingWrite(ChannelPromise promise, int uncompressed) {
+      this.msg = null;
+      this.promise = promise;
+      this.uncompressed = uncompressed;
+      this.size = uncompressed;
+    }
+
+    private static long sizeOf(@Nullable Object msg) {
+      if (msg instanceof ByteBuf) {
+        return ((ByteBuf) msg).readableBytes();
+      } else if (msg instanceof CompressedFrame) {
+        return ((CompressedFrame) msg).content().readableBytes();
+      }
+      return 0;
+    }
+
+    void complete(@Nullable ByteBuf out, @Nullable Throwable cause) {
+      this.out = out;
+      this.cause = cause;
+      this.ready = true;
+    }
+
+    void discard() {
+      if (this == FLUSH) {
+        return;
+      }
+      ReferenceCountUtil.release(msg);
+      if (out != null) {
+        out.release();
+      }
+      promise.tryFailure(new ClosedChannelException());
+    }
+  }
 }
@@ -19,6 +19,7 @@ package com.velocitypowered.proxy.protocol.netty;
 
 import com.google.common.base.Preconditions;
 import com.velocitypowered.api.network.ProtocolVersion;
+import com.velocitypowered.proxy.network.metrics.ConnectionMetrics;
 import com.velocitypowered.proxy.protocol.MinecraftPacket;
 import com.velocitypowered.proxy.protocol.ProtocolUtils;
 import com.velocitypowered.proxy.protocol.StateRegistry;
@@ -27,6 +28,7 @@ import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.handler.codec.CorruptedFrameException;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 public class MinecraftDecoder extends ChannelInboundHandlerAdapter {
 
@@ -38,6 +40,7 @@ public class MinecraftDecoder extends ChannelInboundHandlerAdapter {
   private final ProtocolUtils.Direction direction;
   private StateRegistry state;
   private StateRegistry.PacketRegistry.ProtocolRegistry registry;
+  private @Nullable ConnectionMetrics metrics;
 
   /**
    * Creates a new {@code MinecraftDecoder} decoding packets from the specified {@code direction}.
@@ -57,21 +60,44 @@ public class MinecraftDecoder extends ChannelInboundHandlerAdapter {
       ByteBuf buf = (ByteBuf) msg;
       tryDecode(ctx, buf);
     } else {
+      if (msg instanceof CompressedFrame) {
+        ConnectionMetrics metrics = metrics(ctx);
+        if (metrics != null) {
+          metrics.recordReceived(((CompressedFrame) msg).getUncompressedSize());
+        }
+      }
       ctx.fireChannelRead(msg);
     }
   }
 
+  private @Nullable ConnectionMetrics metrics(ChannelHandlerContext ctx) {
+    if (metrics == null) {
+      metrics = ConnectionMetrics.of(ctx.channel());
+    }
+    return metrics;
+  }
+
   private void tryDecode(ChannelHandlerContext ctx, ByteBuf buf) throws Exception {
     if (!ctx.channel().isActive() || !buf.isReadable()) {
       buf.release();
       return;
     }
 
+    ConnectionMetrics metrics = metrics(ctx);
+    long decodeStart = 0;
+    if (metrics != null) {
+      metrics.recordReceived(buf.readableBytes());
+      decodeStart = System.nanoTime();
+    }
+
     int originalReaderIndex = buf.readerIndex();
     int packetId = ProtocolUtils.readVarInt(buf);
     MinecraftPacket packet = this.registry.createPacket(packetId);
     if (packet == null) {
       buf.readerIndex(originalReaderIndex);
+      if (metrics != null) {
+        metrics.recordDecodeTime(System.nanoTime() - decodeStart);
+      }
       ctx.fireChannelRead(buf);
     } else {
       try {
@@ -86,6 +112,10 @@ public class MinecraftDecoder extends ChannelInboundHandlerAdapter {
         if (buf.isReadable()) {
           throw handleOverflow(packet, buf.readerIndex(), buf.writerIndex());
         }
+        if (metrics != null) {
+          // Only count the decoding itself, not the handling of the packet.
+          metrics.recordDecodeTime(System.nanoTime() - decodeStart);
+        }
         ctx.fireChannelRead(packet);
       } finally {
         buf.release();
@@ -136,6 +166,17 @@ public class MinecraftDecoder extends ChannelInboundHandlerAdapter {
         + " ID " + Integer.toHexString(packetId);
   }
 
+  /**
+   * Determines whether this decoder turns packets with the given ID into {@link MinecraftPacket}s
+   * in the current state, rather than passing them along as raw buffers.
+   *
+   * @param packetId the packet ID
+   * @return whether the packet would be decoded
+   */
+  public boolean decodes(int packetId) {
+    return registry.containsPacket(packetId);
+  }
+
   public void setProtocolVersion(ProtocolVersion protocolVersion) {
     this.registry = direction.getProtocolRegistry(state, protocolVersion);
   }
@@ -33,6 +33,17 @@ public class MinecraftVarintFrameDecoder extends ByteToMessageDecoder {
 
   @Override
   protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) {
+    decodeFrame(ctx, in, out);
+  }
+
+  /**
+   * Splits the next length-prefixed frame off {@code in}, if it has been read completely.
+   *
+   * @param ctx the channel handler context
+   * @param in the buffer to read from
+   * @param out the list to add the frame to
+   */
+  static void decodeFrame(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) {
     if (!ctx.channel().isActive()) {
       in.clear();
       return;
@@ -19,6 +19,7 @@ package com.velocitypowered.proxy.protocol.netty;
 
 import com.velocitypowered.natives.encryption.JavaVelocityCipher;
 import com.velocitypowered.natives.util.Natives;
+import com.velocitypowered.proxy.network.metrics.ConnectionMetrics;
 import com.velocitypowered.proxy.protocol.ProtocolUtils;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandler;
@@ -36,6 +37,10 @@ public class MinecraftVarintLengthEncoder extends MessageToByteEncoder<ByteBuf>
 
   @Override
   protected void encode(ChannelHandlerContext ctx, ByteBuf msg, ByteBuf out) throws Exception {
+    ConnectionMetrics metrics = ConnectionMetrics.of(ctx.channel());
+    if (metrics != null) {
+      metrics.recordSent(msg.readableBytes());
+    }
     ProtocolUtils.writeVarInt(out, msg.readableBytes());
     out.writeBytes(msg);
   }
@@ -31,6 +31,9 @@ public class Handshake implements MinecraftPacket {
   // This size was chosen to ensure Forge clients can still connect even with very long hostnames.
   // While DNS technically allows any character to be used, in practice ASCII is used.
   private static final int MAXIMUM_HOSTNAME_LENGTH = 255 + HANDSHAKE_HOSTNAME_TOKEN.length() + 1;
+  // The packet ID, the protocol version, the hostname with its length (each character taking up
+  // to four bytes), the port and the next status.
+  public static final int MAXIMUM_LENGTH = 1 + 5 + 3 + MAXIMUM_HOSTNAME_LENGTH * 4 + 2 + 5;
   private ProtocolVersion protocolVersion;
   private String serverAddress = "";
   private int port;
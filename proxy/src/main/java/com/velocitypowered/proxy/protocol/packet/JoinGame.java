@@ -23,11 +23,11 @@ import com.velocitypowered.proxy.connection.MinecraftSessionHandler;
 import com.velocitypowered.proxy.connection.registry.DimensionData;
 import com.velocitypowered.proxy.connection.registry.DimensionInfo;
 import com.velocitypowered.proxy.connection.registry.DimensionRegistry;
+import com.velocitypowered.proxy.connection.registry.SerializedRegistryContainer;
 import com.velocitypowered.proxy.protocol.*;
 import io.netty.buffer.ByteBuf;
 import it.unimi.dsi.fastutil.Pair;
 import net.kyori.adventure.nbt.BinaryTagIO;
-import net.kyori.adventure.nbt.BinaryTagTypes;
 import net.kyori.adventure.nbt.CompoundBinaryTag;
 import net.kyori.adventure.nbt.ListBinaryTag;
 import org.checkerframework.checker.nullness.qual.Nullable;
@@ -46,6 +46,9 @@ public class JoinGame implements MinecraftPacket {
   private int viewDistance; // 1.14+
   private boolean reducedDebugInfo;
   private boolean showRespawnScreen;
+  private @Nullable SerializedRegistryContainer registryContainer; // 1.16+, as received
+  private @Nullable ProtocolVersion registryVersion; // version the container was received with
+  private @Nullable ImmutableSet<String> levelNames; // 1.16+, as received
   private DimensionRegistry dimensionRegistry; // 1.16+
   private DimensionInfo dimensionInfo; // 1.16+
   private DimensionData currentDimensionData; // 1.16.2+
@@ -131,11 +134,22 @@ public class JoinGame implements MinecraftPacket {
     this.dimensionInfo = dimensionInfo;
   }
 
+  /**
+   * Returns the dimension registry sent with this packet. If the packet was decoded from a server,
+   * the registry is only parsed the first time this is called.
+   *
+   * @return the dimension registry
+   */
   public DimensionRegistry getDimensionRegistry() {
+    if (dimensionRegistry == null && registryContainer != null) {
+      dimensionRegistry = new DimensionRegistry(registryContainer.getDimensions(registryVersion),
+          levelNames);
+    }
     return dimensionRegistry;
   }
 
   public void setDimensionRegistry(DimensionRegistry dimensionRegistry) {
+    detachRegistryContainer();
     this.dimensionRegistry = dimensionRegistry;
   }
 
@@ -155,22 +169,57 @@ public class JoinGame implements MinecraftPacket {
     this.isHardcore = isHardcore;
   }
 
+  /**
+   * Returns the biome registry sent with this packet. If the packet was decoded from a server,
+   * the registry is only parsed the first time this is called.
+   *
+   * @return the biome registry
+   */
   public CompoundBinaryTag getBiomeRegistry() {
+    if (biomeRegistry == null && registryContainer != null
+        && registryVersion.compareTo(ProtocolVersion.MINECRAFT_1_16_2) >= 0) {
+      biomeRegistry = registryContainer.getContainer().getCompound("minecraft:worldgen/biome");
+    }
     return biomeRegistry;
   }
 
   public void setBiomeRegistry(CompoundBinaryTag biomeRegistry) {
+    detachRegistryContainer();
     this.biomeRegistry = biomeRegistry;
   }
 
+  /**
+   * Returns the chat type registry sent with this packet. If the packet was decoded from a server,
+   * the registry is only parsed the first time this is called.
+   *
+   * @return the chat type registry
+   */
   public CompoundBinaryTag getChatRegistry() {
+    if (chatRegistry == null && registryContainer != null
+        && registryVersion.compareTo(ProtocolVersion.MINECRAFT_1_19) >= 0) {
+      chatRegistry = registryContainer.getContainer().getCompound("minecraft:chat_type");
+    }
     return chatRegistry;
   }
 
   public void setChatRegistry(CompoundBinaryTag chatRegistry) {
+    detachRegistryContainer();
     this.chatRegistry = chatRegistry;
   }
 
+  /**
+   * Parses every registry out of the container the packet was decoded with and drops it, so that
+   * the packet is re-encoded from its (possibly modified) registries.
+   */
+  private void detachRegistryContainer() {
+    if (registryContainer != null) {
+      getDimensionRegistry();
+      getBiomeRegistry();
+      getChatRegistry();
+      registryContainer = null;
+    }
+  }
+
   public DimensionData getCurrentDimensionData() {
     return currentDimensionData;
   }
@@ -265,24 +314,15 @@ public class JoinGame implements MinecraftPacket {
 
     this.previousGamemode = buf.readByte();
 
-    ImmutableSet<String> levelNames = ImmutableSet.copyOf(ProtocolUtils.readStringArray(buf));
+    this.levelNames = ImmutableSet.copyOf(ProtocolUtils.readStringArray(buf));
 
-    CompoundBinaryTag registryContainer = ProtocolUtils.readCompoundTag(buf, JOINGAME_READER);
-    ListBinaryTag dimensionRegistryContainer;
-    if (version.compareTo(ProtocolVersion.MINECRAFT_1_16_2) >= 0) {
-      dimensionRegistryContainer = registryContainer.getCompound("minecraft:dimension_type")
-          .getList("value", BinaryTagTypes.COMPOUND);
-      this.biomeRegistry = registryContainer.getCompound("minecraft:worldgen/biome");
-      if (version.compareTo(ProtocolVersion.MINECRAFT_1_19) >= 0) {
-        this.chatRegistry = registryContainer.getCompound("minecraft:chat_type");
-      }
-    } else {
-      dimensionRegistryContainer = registryContainer.getList("dimension",
-          BinaryTagTypes.COMPOUND);
-    }
-    ImmutableSet<DimensionData> readData =
-        DimensionRegistry.fromGameData(dimensionRegistryContainer, version);
-    this.dimensionRegistry = new DimensionRegistry(readData, levelNames);
+    // The registry container is by far the largest part of this packet and is almost always passed
+    // on untouched, so keep it serialized and only parse it if it is asked for.
+    this.registryContainer = SerializedRegistryContainer.read(buf);
+    this.registryVersion = version;
+    this.dimensionRegistry = null;
+    this.biomeRegistry = null;
+    this.chatRegistry = null;
 
     String dimensionIdentifier;
     String levelName = null;
@@ -376,22 +416,29 @@ public class JoinGame implements MinecraftPacket {
       buf.writeByte(isHardcore ? gamemode | 0x8 : gamemode);
     }
     buf.writeByte(previousGamemode);
-    ProtocolUtils.writeStringArray(buf, dimensionRegistry.getLevelNames().toArray(new String[0]));
-    CompoundBinaryTag.Builder registryContainer = CompoundBinaryTag.builder();
-    ListBinaryTag encodedDimensionRegistry = dimensionRegistry.encodeRegistry(version);
-    if (version.compareTo(ProtocolVersion.MINECRAFT_1_16_2) >= 0) {
-      CompoundBinaryTag.Builder dimensionRegistryEntry = CompoundBinaryTag.builder();
-      dimensionRegistryEntry.putString("type", "minecraft:dimension_type");
-      dimensionRegistryEntry.put("value", encodedDimensionRegistry);
-      registryContainer.put("minecraft:dimension_type", dimensionRegistryEntry.build());
-      registryContainer.put("minecraft:worldgen/biome", biomeRegistry);
-      if (version.compareTo(ProtocolVersion.MINECRAFT_1_19) >= 0) {
-        registryContainer.put("minecraft:chat_type", chatRegistry);
-      }
+    if (registryContainer != null && registryVersion == version) {
+      ProtocolUtils.writeStringArray(buf, levelNames.toArray(new String[0]));
+      registryContainer.write(buf);
     } else {
-      registryContainer.put("dimension", encodedDimensionRegistry);
+      DimensionRegistry dimensionRegistry = getDimensionRegistry();
+      ProtocolUtils.writeStringArray(buf,
+          dimensionRegistry.getLevelNames().toArray(new String[0]));
+      CompoundBinaryTag.Builder registryContainer = CompoundBinaryTag.builder();
+      ListBinaryTag encodedDimensionRegistry = dimensionRegistry.encodeRegistry(version);
+      if (version.compareTo(ProtocolVersion.MINECRAFT_1_16_2) >= 0) {
+        CompoundBinaryTag.Builder dimensionRegistryEntry = CompoundBinaryTag.builder();
+        dimensionRegistryEntry.putString("type", "minecraft:dimension_type");
+        dimensionRegistryEntry.put("value", encodedDimensionRegistry);
+        registryContainer.put("minecraft:dimension_type", dimensionRegistryEntry.build());
+        registryContainer.put("minecraft:worldgen/biome", getBiomeRegistry());
+        if (version.compareTo(ProtocolVersion.MINECRAFT_1_19) >= 0) {
+          registryContainer.put("minecraft:chat_type", getChatRegistry());
+        }
+      } else {
+        registryContainer.put("dimension", encodedDimensionRegistry);
+      }
+      ProtocolUtils.writeCompoundTag(buf, registryContainer.build());
     }
-    ProtocolUtils.writeCompoundTag(buf, registryContainer.build());
     if (version.compareTo(ProtocolVersion.MINECRAFT_1_16_2) >= 0 &&
         version.compareTo(ProtocolVersion.MINECRAFT_1_19) < 0) {
       ProtocolUtils.writeCompoundTag(buf, currentDimensionData.serializeDimensionDetails(version));
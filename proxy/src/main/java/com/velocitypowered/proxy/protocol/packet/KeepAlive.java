@@ -19,13 +19,29 @@ package com.velocitypowered.proxy.protocol.packet;
 
 import com.velocitypowered.api.network.ProtocolVersion;
 import com.velocitypowered.proxy.connection.MinecraftSessionHandler;
-import com.velocitypowered.proxy.protocol.MinecraftPacket;
 import com.velocitypowered.proxy.protocol.ProtocolUtils;
+import com.velocitypowered.proxy.protocol.RecyclablePacket;
+import com.velocitypowered.proxy.protocol.util.PacketPool;
 import io.netty.buffer.ByteBuf;
+import io.netty.util.Recycler;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
-public class KeepAlive implements MinecraftPacket {
+public class KeepAlive implements RecyclablePacket {
 
+  public static final PacketPool<KeepAlive> POOL = new PacketPool<>(KeepAlive::new,
+      KeepAlive::new);
+
+  private final Recycler.@Nullable Handle<KeepAlive> handle;
   private long randomId;
+  private boolean detached;
+
+  public KeepAlive() {
+    this.handle = null;
+  }
+
+  private KeepAlive(Recycler.Handle<KeepAlive> handle) {
+    this.handle = handle;
+  }
 
   public long getRandomId() {
     return randomId;
@@ -68,4 +84,17 @@ public class KeepAlive implements MinecraftPacket {
   public boolean handle(MinecraftSessionHandler handler) {
     return handler.handle(this);
   }
+
+  @Override
+  public void recycle() {
+    if (handle != null && !detached) {
+      randomId = 0;
+      handle.recycle(this);
+    }
+  }
+
+  @Override
+  public void detach() {
+    detached = true;
+  }
 }
@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.protocol.util;
+
+import com.velocitypowered.proxy.protocol.RecyclablePacket;
+import io.netty.util.Recycler;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Supplies packets from a {@link Recycler}, so that decoding frequent packets does not allocate a
+ * new packet every time. Pooling is off unless the {@code velocity.pool-packets} system property is
+ * set; without it, a new packet is created for each call.
+ *
+ * @param <P> the type of packet
+ */
+public final class PacketPool<P extends RecyclablePacket> implements Supplier<P> {
+
+  private static final boolean ENABLED = Boolean.getBoolean("velocity.pool-packets");
+
+  private final Supplier<P> unpooled;
+  private final Recycler<P> recycler;
+  private final boolean enabled;
+
+  /**
+   * Creates a new pool.
+   *
+   * @param unpooled creates packets that do not belong to a pool
+   * @param pooled creates packets that return themselves to the pool through the given handle
+   */
+  public PacketPool(Supplier<P> unpooled, Function<Recycler.Handle<P>, P> pooled) {
+    this(unpooled, pooled, ENABLED);
+  }
+
+  PacketPool(Supplier<P> unpooled, Function<Recycler.Handle<P>, P> pooled, boolean enabled) {
+    this.unpooled = unpooled;
+    this.enabled = enabled;
+    this.recycler = new Recycler<P>() {
+      @Override
+      protected P newObject(Handle<P> handle) {
+        return pooled.apply(handle);
+      }
+    };
+  }
+
+  @Override
+  public P get() {
+    return enabled ? recycler.get() : unpooled.get();
+  }
+}
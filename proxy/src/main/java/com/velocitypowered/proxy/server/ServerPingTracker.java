@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.server;
+
+import com.velocitypowered.api.network.ProtocolVersion;
+import com.velocitypowered.api.proxy.server.ServerPing;
+import io.netty.channel.EventLoop;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Keeps the latest ping of a backend server for every protocol version clients have recently
+ * pinged the proxy with. Pings are answered from the latest ping while it is fresh, and while it is
+ * merely stale it is still served as the server is pinged again in the background. This way a
+ * flood of pings to the proxy does not turn into a flood of connections to the backend servers.
+ */
+public final class ServerPingTracker {
+
+  // Protocol versions no client has pinged with for this long are no longer refreshed.
+  private static final long IDLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+  // A stale ping is served for this many refresh intervals before clients wait for a new one.
+  private static final int MAX_STALE_INTERVALS = 3;
+
+  private final VelocityRegisteredServer server;
+  private final Map<ProtocolVersion, VersionState> states = new ConcurrentHashMap<>();
+
+  ServerPingTracker(VelocityRegisteredServer server) {
+    this.server = server;
+  }
+
+  /**
+   * Returns the latest ping for the {@code version} if it is recent enough, pinging the server
+   * again if it is older than {@code refreshNanos}.
+   *
+   * @param loop the event loop to ping the server with, if it has to be pinged
+   * @param version the version to ping the server with
+   * @param refreshNanos how old a ping may get before the server is pinged again
+   * @return the server list ping response
+   */
+  CompletableFuture<ServerPing> ping(@Nullable EventLoop loop, ProtocolVersion version,
+      long refreshNanos) {
+    VersionState state = states.computeIfAbsent(version, VersionState::new);
+    long now = System.nanoTime();
+    state.lastRequested = now;
+
+    Snapshot snapshot = state.snapshot;
+    if (snapshot != null && now - snapshot.received < refreshNanos * MAX_STALE_INTERVALS) {
+      if (now - snapshot.received >= refreshNanos) {
+        refresh(state, loop);
+      }
+      return snapshot.toFuture();
+    }
+    return refresh(state, loop).thenCompose(Snapshot::toFuture);
+  }
+
+  /**
+   * Pings the server again for every version clients have recently pinged with, if its latest
+   * ping is older than {@code refreshNanos}.
+   *
+   * @param refreshNanos how old a ping may get before the server is pinged again
+   */
+  void refreshActive(long refreshNanos) {
+    long now = System.nanoTime();
+    states.values().removeIf(state -> now - state.lastRequested > IDLE_NANOS);
+    for (VersionState state : states.values()) {
+      Snapshot snapshot = state.snapshot;
+      if (snapshot == null || now - snapshot.received >= refreshNanos) {
+        refresh(state, null);
+      }
+    }
+  }
+
+  Optional<Snapshot> getLatest(ProtocolVersion version) {
+    VersionState state = states.get(version);
+    return state == null ? Optional.empty() : Optional.ofNullable(state.snapshot);
+  }
+
+  private CompletableFuture<Snapshot> refresh(VersionState state, @Nullable EventLoop loop) {
+    CompletableFuture<Snapshot> result;
+    synchronized (state) {
+      if (state.inFlight != null) {
+        return state.inFlight;
+      }
+      result = new CompletableFuture<>();
+      state.inFlight = result;
+    }
+
+    long start = System.nanoTime();
+    server.ping(loop, state.version).whenComplete((ping, ex) -> {
+      long received = System.nanoTime();
+      Snapshot snapshot = new Snapshot(ping, ex, received - start, received);
+      synchronized (state) {
+        state.snapshot = snapshot;
+        state.inFlight = null;
+      }
+      result.complete(snapshot);
+    });
+    return result;
+  }
+
+  private static final class VersionState {
+
+    private final ProtocolVersion version;
+    private volatile long lastRequested;
+    private volatile @Nullable Snapshot snapshot;
+    private @Nullable CompletableFuture<Snapshot> inFlight;
+
+    private VersionState(ProtocolVersion version) {
+      this.version = version;
+    }
+  }
+
+  /**
+   * The outcome of pinging a backend server.
+   */
+  public static final class Snapshot {
+
+    private final @Nullable ServerPing ping;
+    private final @Nullable Throwable failure;
+    private final long latencyNanos;
+    private final long received;
+
+    private Snapshot(@Nullable ServerPing ping, @Nullable Throwable failure, long latencyNanos,
+        long received) {
+      this.ping = ping;
+      this.failure = failure;
+      this.latencyNanos = latencyNanos;
+      this.received = received;
+    }
+
+    /**
+     * Returns the ping the server responded with, if it could be pinged.
+     *
+     * @return the server list ping response
+     */
+    public Optional<ServerPing> getPing() {
+      return Optional.ofNullable(ping);
+    }
+
+    /**
+     * Returns why the server could not be pinged, if it could not be.
+     *
+     * @return the reason the ping failed
+     */
+    public Optional<Throwable> getFailure() {
+      return Optional.ofNullable(failure);
+    }
+
+    public boolean isReachable() {
+      return ping != null;
+    }
+
+    /**
+     * Returns how long it took to connect to the server and receive its ping (or give up).
+     *
+     * @return the latency of the ping
+     */
+    public Duration getLatency() {
+      return Duration.ofNanos(latencyNanos);
+    }
+
+    public Duration getAge() {
+      return Duration.ofNanos(System.nanoTime() - received);
+    }
+
+    private CompletableFuture<ServerPing> toFuture() {
+      return ping != null ? CompletableFuture.completedFuture(ping)
+          : CompletableFuture.failedFuture(failure);
+    }
+
+    @Override
+    public String toString() {
+      return "Snapshot{"
+          + "ping=" + ping
+          + ", failure=" + failure
+          + ", latency=" + getLatency()
+          + ", age=" + getAge()
+          + '}';
+    }
+  }
+}
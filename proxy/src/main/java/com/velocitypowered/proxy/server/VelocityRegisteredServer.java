@@ -50,6 +50,7 @@ import io.netty.channel.EventLoop;
 import io.netty.handler.timeout.ReadTimeoutHandler;
 import java.util.Collection;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
@@ -64,6 +65,7 @@ public class VelocityRegisteredServer implements RegisteredServer, ForwardingAud
   private final @Nullable VelocityServer server;
   private final ServerInfo serverInfo;
   private final Map<UUID, ConnectedPlayer> players = new ConcurrentHashMap<>();
+  private final ServerPingTracker pingTracker = new ServerPingTracker(this);
 
   public VelocityRegisteredServer(@Nullable VelocityServer server, ServerInfo serverInfo) {
     this.server = server;
@@ -128,6 +130,45 @@ public class VelocityRegisteredServer implements RegisteredServer, ForwardingAud
     return pingFuture;
   }
 
+  /**
+   * Pings the specified server on behalf of a client pinging the proxy, claiming to be
+   * {@code version}. If enabled, the response is served from the latest ping of the server, which
+   * is kept up to date in the background.
+   * @param loop the event loop to use if the server has to be pinged
+   * @param version the version to report
+   * @return the server list ping response
+   */
+  public CompletableFuture<ServerPing> pingPassthrough(@Nullable EventLoop loop,
+      ProtocolVersion version) {
+    if (server == null) {
+      throw new IllegalStateException("No Velocity proxy instance available");
+    }
+    int refreshMillis = server.getConfiguration().getPingPassthroughRefreshMillis();
+    if (refreshMillis <= 0) {
+      return ping(loop, version);
+    }
+    return pingTracker.ping(loop, version, TimeUnit.MILLISECONDS.toNanos(refreshMillis));
+  }
+
+  /**
+   * Pings the server again for every version clients have recently pinged the proxy with, if the
+   * latest ping is older than {@code refreshMillis}.
+   * @param refreshMillis how old a ping may get before the server is pinged again
+   */
+  public void refreshPassthroughPings(int refreshMillis) {
+    pingTracker.refreshActive(TimeUnit.MILLISECONDS.toNanos(refreshMillis));
+  }
+
+  /**
+   * Returns the outcome of the latest ping of this server on behalf of clients with the specified
+   * {@code version}, which tells whether the server is reachable and how quickly it responds.
+   * @param version the version of the pinging clients
+   * @return the latest ping, if the server has been pinged for that version recently
+   */
+  public Optional<ServerPingTracker.Snapshot> getLatestPing(ProtocolVersion version) {
+    return pingTracker.getLatest(version);
+  }
+
   public void addPlayer(ConnectedPlayer player) {
     players.put(player.getUniqueId(), player);
   }
@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.tablist;
+
+import com.velocitypowered.api.proxy.player.TabListEntry;
+import com.velocitypowered.proxy.protocol.packet.PlayerListItem;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Collects the changes made to a tab list so that they can be sent together, with one
+ * {@link PlayerListItem} per action instead of one for every change. Changes to the same entry are
+ * merged: an entry that is added and removed again is never sent, updates to an entry that is yet
+ * to be added are part of its addition, and only the latest value of every field is sent. This
+ * class is not thread-safe.
+ */
+final class TabListChangeBuffer {
+
+  private static final int REMOVE = 1 << PlayerListItem.REMOVE_PLAYER;
+  private static final int ADD = 1 << PlayerListItem.ADD_PLAYER;
+  // Players are removed first, since an entry that is removed and added again must end up added.
+  private static final int[] ACTION_ORDER = {PlayerListItem.REMOVE_PLAYER,
+      PlayerListItem.ADD_PLAYER, PlayerListItem.UPDATE_GAMEMODE, PlayerListItem.UPDATE_LATENCY,
+      PlayerListItem.UPDATE_DISPLAY_NAME};
+
+  private final Map<UUID, Change> changes = new LinkedHashMap<>();
+
+  void add(TabListEntry entry) {
+    Change change = changes.computeIfAbsent(entry.getProfile().getId(), uuid -> new Change());
+    change.entry = entry;
+    // The addition carries every field of the entry, so earlier updates are no longer needed.
+    change.actions = (change.actions & REMOVE) | ADD;
+  }
+
+  void remove(TabListEntry entry) {
+    UUID uuid = entry.getProfile().getId();
+    Change change = changes.get(uuid);
+    if (change == null) {
+      change = new Change();
+      changes.put(uuid, change);
+    } else if ((change.actions & ADD) != 0) {
+      // The player never saw the addition, so only an earlier removal, if any, is left to send.
+      change.actions &= REMOVE;
+      if (change.actions == 0) {
+        changes.remove(uuid);
+        return;
+      }
+    }
+    change.entry = entry;
+    change.actions = REMOVE;
+  }
+
+  void update(int action, TabListEntry entry) {
+    Change change = changes.computeIfAbsent(entry.getProfile().getId(), uuid -> new Change());
+    if ((change.actions & ADD) != 0) {
+      return;
+    }
+    change.entry = entry;
+    change.actions |= 1 << action;
+  }
+
+  boolean isEmpty() {
+    return changes.isEmpty();
+  }
+
+  /**
+   * Builds the packets for the buffered changes, in the order they must be sent, and empties the
+   * buffer. The entries are read now, so the packets contain their latest values.
+   *
+   * @return the packets to send
+   */
+  List<PlayerListItem> drain() {
+    List<PlayerListItem> packets = new ArrayList<>(2);
+    for (int action : ACTION_ORDER) {
+      List<PlayerListItem.Item> items = null;
+      for (Change change : changes.values()) {
+        if ((change.actions & (1 << action)) != 0) {
+          if (items == null) {
+            items = new ArrayList<>();
+          }
+          items.add(PlayerListItem.Item.from(change.entry));
+        }
+      }
+      if (items != null) {
+        packets.add(new PlayerListItem(action, items));
+      }
+    }
+    changes.clear();
+    return packets;
+  }
+
+  private static final class Change {
+
+    private TabListEntry entry;
+    private int actions;
+  }
+}
@@ -17,6 +17,7 @@
 
 package com.velocitypowered.proxy.tablist;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.velocitypowered.api.proxy.player.TabList;
 import com.velocitypowered.api.proxy.player.TabListEntry;
@@ -28,19 +29,32 @@ import com.velocitypowered.proxy.protocol.packet.PlayerListItem;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import net.kyori.adventure.text.Component;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 public class VelocityTabList implements TabList {
 
+  // How long the entries of the previous server stay on the client after a switch if the new
+  // server sends no tab list update at all, as limbo and authentication servers often do.
+  private static final long STALE_ENTRY_TIMEOUT_MILLIS = 1000;
+
   protected final ConnectedPlayer player;
   protected final MinecraftConnection connection;
   protected final Map<UUID, VelocityTabListEntry> entries = new ConcurrentHashMap<>();
+  private final TabListChangeBuffer pendingChanges = new TabListChangeBuffer();
+  private boolean flushScheduled;
+  // The entries of the previous server that are still on the client after a server switch. Only
+  // accessed from the event loop of the player.
+  private final Map<UUID, TabListEntry> staleEntries = new HashMap<>();
+  private @Nullable ScheduledFuture<?> staleEntryRemoval;
 
   public VelocityTabList(final ConnectedPlayer player) {
     this.player = player;
@@ -70,10 +84,19 @@ public class VelocityTabList implements TabList {
     Preconditions.checkArgument(entry instanceof VelocityTabListEntry,
         "Not a Velocity tab list entry");
 
-    PlayerListItem.Item packetItem = PlayerListItem.Item.from(entry);
-    connection.write(
-        new PlayerListItem(PlayerListItem.ADD_PLAYER, Collections.singletonList(packetItem)));
     entries.put(entry.getProfile().getId(), (VelocityTabListEntry) entry);
+    entryAdded(entry);
+  }
+
+  void entryAdded(TabListEntry entry) {
+    boolean schedule;
+    synchronized (pendingChanges) {
+      pendingChanges.add(entry);
+      schedule = markFlushScheduled();
+    }
+    if (schedule) {
+      connection.eventLoop().execute(this::flushChanges);
+    }
   }
 
   @Override
@@ -82,14 +105,23 @@ public class VelocityTabList implements TabList {
 
     TabListEntry entry = entries.remove(uuid);
     if (entry != null) {
-      PlayerListItem.Item packetItem = PlayerListItem.Item.from(entry);
-      connection.write(
-          new PlayerListItem(PlayerListItem.REMOVE_PLAYER, Collections.singletonList(packetItem)));
+      entryRemoved(entry);
     }
 
     return Optional.ofNullable(entry);
   }
 
+  void entryRemoved(TabListEntry entry) {
+    boolean schedule;
+    synchronized (pendingChanges) {
+      pendingChanges.remove(entry);
+      schedule = markFlushScheduled();
+    }
+    if (schedule) {
+      connection.eventLoop().execute(this::flushChanges);
+    }
+  }
+
   @Override
   public boolean containsEntry(UUID uuid) {
     Preconditions.checkNotNull(uuid, "uuid");
@@ -97,21 +129,98 @@ public class VelocityTabList implements TabList {
   }
 
   /**
-   * Clears all entries from the tab list. Note that the entries are written with {@link
-   * MinecraftConnection#delayedWrite(Object)}, so make sure to do an explicit {@link
-   * MinecraftConnection#flush()}.
+   * Clears all entries from the tab list when the player switches servers. The entries are only
+   * removed from the client once the new server sends its first tab list update, and only if that
+   * update does not add them again. If the new server sends no update, they are removed after a
+   * short while. Must be called from the event loop of the player. Note that
+   * the entries are written with {@link MinecraftConnection#delayedWrite(Object)}, so make sure to
+   * do an explicit {@link MinecraftConnection#flush()}.
    */
   public void clearAll() {
-    Collection<VelocityTabListEntry> listEntries = entries.values();
-    if (listEntries.isEmpty()) {
+    writeChanges();
+    // Entries left over from the previous switch, if that server never sent an update.
+    removeStaleEntries(Collections.emptyList());
+    for (TabListEntry value : entries.values()) {
+      staleEntries.put(value.getProfile().getId(), value);
+    }
+    entries.clear();
+    if (!staleEntries.isEmpty()) {
+      staleEntryRemoval = connection.eventLoop().schedule(this::expireStaleEntries,
+          STALE_ENTRY_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  @VisibleForTesting
+  void expireStaleEntries() {
+    staleEntryRemoval = null;
+    writeChanges();
+    removeStaleEntries(Collections.emptyList());
+    connection.flush();
+  }
+
+  /**
+   * Removes the entries of the previous server from the client, except for those in
+   * {@code kept}, which the new server sends as well.
+   *
+   * @param kept the entries the new server adds
+   */
+  private void removeStaleEntries(List<PlayerListItem.Item> kept) {
+    if (staleEntryRemoval != null) {
+      staleEntryRemoval.cancel(false);
+      staleEntryRemoval = null;
+    }
+    if (staleEntries.isEmpty()) {
       return;
     }
-    List<PlayerListItem.Item> items = new ArrayList<>(listEntries.size());
-    for (TabListEntry value : listEntries) {
-      items.add(PlayerListItem.Item.from(value));
+    for (PlayerListItem.Item item : kept) {
+      staleEntries.remove(item.getUuid());
     }
-    entries.clear();
-    connection.delayedWrite(new PlayerListItem(PlayerListItem.REMOVE_PLAYER, items));
+    if (!staleEntries.isEmpty()) {
+      List<PlayerListItem.Item> items = new ArrayList<>(staleEntries.size());
+      for (TabListEntry value : staleEntries.values()) {
+        items.add(PlayerListItem.Item.from(value));
+      }
+      staleEntries.clear();
+      connection.delayedWrite(new PlayerListItem(PlayerListItem.REMOVE_PLAYER, items));
+    }
+  }
+
+  private boolean markFlushScheduled() {
+    if (flushScheduled) {
+      return false;
+    }
+    flushScheduled = true;
+    return true;
+  }
+
+  /**
+   * Sends the buffered changes to the player. Must be called from the event loop of the player.
+   */
+  public void flushChanges() {
+    if (writeChanges()) {
+      connection.flush();
+    }
+  }
+
+  private boolean writeChanges() {
+    List<PlayerListItem> packets;
+    synchronized (pendingChanges) {
+      flushScheduled = false;
+      if (pendingChanges.isEmpty()) {
+        return false;
+      }
+      packets = pendingChanges.drain();
+    }
+    for (PlayerListItem packet : packets) {
+      if (packet.getAction() == PlayerListItem.ADD_PLAYER && !staleEntries.isEmpty()) {
+        // The player has these entries already, and will replace them.
+        for (PlayerListItem.Item item : packet.getItems()) {
+          staleEntries.remove(item.getUuid());
+        }
+      }
+      connection.delayedWrite(packet);
+    }
+    return true;
   }
 
   @Override
@@ -131,7 +240,13 @@ public class VelocityTabList implements TabList {
    * @param packet the packet to process
    */
   public void processBackendPacket(PlayerListItem packet) {
-    // Packets are already forwarded on, so no need to do that here
+    // Packets are already forwarded on, so no need to do that here. Changes made by plugins come
+    // first, in the order they were made.
+    writeChanges();
+    // If this is the first update from the new server after a switch, only the entries of the
+    // previous server that it doesn't add as well have to go.
+    removeStaleEntries(packet.getAction() == PlayerListItem.ADD_PLAYER
+        ? packet.getItems() : Collections.emptyList());
     for (PlayerListItem.Item item : packet.getItems()) {
       UUID uuid = item.getUuid();
       assert uuid != null : "1.7 tab list entry given to modern tab list handler!";
@@ -191,8 +306,14 @@ public class VelocityTabList implements TabList {
 
   void updateEntry(int action, TabListEntry entry) {
     if (entries.containsKey(entry.getProfile().getId())) {
-      PlayerListItem.Item packetItem = PlayerListItem.Item.from(entry);
-      connection.write(new PlayerListItem(action, Collections.singletonList(packetItem)));
+      boolean schedule;
+      synchronized (pendingChanges) {
+        pendingChanges.update(action, entry);
+        schedule = markFlushScheduled();
+      }
+      if (schedule) {
+        connection.eventLoop().execute(this::flushChanges);
+      }
     }
   }
 }
@@ -61,6 +61,19 @@ public class VelocityTabListLegacy extends VelocityTabList {
     return entry;
   }
 
+  @Override
+  void entryAdded(TabListEntry entry) {
+    // 1.7 sends one entry per packet, so there is nothing to gain from buffering.
+    connection.write(new PlayerListItem(PlayerListItem.ADD_PLAYER,
+        Collections.singletonList(PlayerListItem.Item.from(entry))));
+  }
+
+  @Override
+  void entryRemoved(TabListEntry entry) {
+    connection.write(new PlayerListItem(PlayerListItem.REMOVE_PLAYER,
+        Collections.singletonList(PlayerListItem.Item.from(entry))));
+  }
+
   @Override
   public void clearAll() {
     for (TabListEntry value : entries.values()) {
@@ -20,6 +20,7 @@ package com.velocitypowered.proxy.util.bossbar;
 import com.google.common.collect.MapMaker;
 import com.velocitypowered.api.network.ProtocolVersion;
 import com.velocitypowered.proxy.connection.client.ConnectedPlayer;
+import com.velocitypowered.proxy.connection.util.BroadcastPacketCache;
 import com.velocitypowered.proxy.protocol.ProtocolUtils;
 import com.velocitypowered.proxy.util.collect.Enum2IntMap;
 import com.velocitypowered.proxy.util.concurrent.Once;
@@ -32,6 +33,7 @@ import net.kyori.adventure.bossbar.BossBar.Color;
 import net.kyori.adventure.bossbar.BossBar.Flag;
 import net.kyori.adventure.bossbar.BossBar.Overlay;
 import net.kyori.adventure.text.Component;
+import net.kyori.adventure.translation.GlobalTranslator;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
@@ -123,12 +125,8 @@ public class AdventureBossBarManager implements BossBar.Listener {
     if (holder == null) {
       return;
     }
-    for (ConnectedPlayer player : holder.subscribers) {
-      Component translated = player.translateMessage(newName);
-      com.velocitypowered.proxy.protocol.packet.BossBar packet = holder.createTitleUpdate(
-          translated, player.getProtocolVersion());
-      player.getConnection().write(packet);
-    }
+    broadcast(holder, BroadcastPacketCache.perLocale((version, locale) ->
+        holder.createTitleUpdate(GlobalTranslator.render(newName, locale), version)));
   }
 
   @Override
@@ -139,9 +137,7 @@ public class AdventureBossBarManager implements BossBar.Listener {
     }
     com.velocitypowered.proxy.protocol.packet.BossBar packet = holder
         .createPercentUpdate(newPercent);
-    for (ConnectedPlayer player : holder.subscribers) {
-      player.getConnection().write(packet);
-    }
+    broadcast(holder, BroadcastPacketCache.perVersion(version -> packet));
   }
 
   @Override
@@ -152,9 +148,7 @@ public class AdventureBossBarManager implements BossBar.Listener {
       return;
     }
     com.velocitypowered.proxy.protocol.packet.BossBar packet = holder.createColorUpdate(newColor);
-    for (ConnectedPlayer player : holder.subscribers) {
-      player.getConnection().write(packet);
-    }
+    broadcast(holder, BroadcastPacketCache.perVersion(version -> packet));
   }
 
   @Override
@@ -166,9 +160,7 @@ public class AdventureBossBarManager implements BossBar.Listener {
     }
     com.velocitypowered.proxy.protocol.packet.BossBar packet = holder
         .createOverlayUpdate(newOverlay);
-    for (ConnectedPlayer player : holder.subscribers) {
-      player.getConnection().write(packet);
-    }
+    broadcast(holder, BroadcastPacketCache.perVersion(version -> packet));
   }
 
   @Override
@@ -179,8 +171,16 @@ public class AdventureBossBarManager implements BossBar.Listener {
       return;
     }
     com.velocitypowered.proxy.protocol.packet.BossBar packet = holder.createFlagsUpdate();
-    for (ConnectedPlayer player : holder.subscribers) {
-      player.getConnection().write(packet);
+    broadcast(holder, BroadcastPacketCache.perVersion(version -> packet));
+  }
+
+  private static void broadcast(BossBarHolder holder, BroadcastPacketCache cache) {
+    try {
+      for (ConnectedPlayer player : holder.subscribers) {
+        cache.write(player);
+      }
+    } finally {
+      cache.release();
     }
   }
 
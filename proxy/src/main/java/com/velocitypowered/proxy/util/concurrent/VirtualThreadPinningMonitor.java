@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.util.concurrent;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Watches for virtual threads that pin their carrier thread, using the JFR
+ * {@code jdk.VirtualThreadPinned} event. A listener that blocks inside a synchronized block or a
+ * native call pins its carrier, which quietly brings back the thread starvation virtual threads
+ * are meant to avoid. Every pin is counted, and the stack of one is logged at most once a minute.
+ * Velocity is compiled against Java 11, so the event stream is set up reflectively.
+ */
+public final class VirtualThreadPinningMonitor implements AutoCloseable {
+
+  private static final Logger logger = LogManager.getLogger(VirtualThreadPinningMonitor.class);
+  private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+  private static final long LOG_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+  private static final int MAXIMUM_LOGGED_FRAMES = 20;
+
+  private final Runnable onPinned;
+  private final AtomicLong nextLog = new AtomicLong(System.nanoTime());
+  private @Nullable AutoCloseable stream;
+
+  private VirtualThreadPinningMonitor(Runnable onPinned) {
+    this.onPinned = onPinned;
+  }
+
+  /**
+   * Starts watching for pinned virtual threads.
+   *
+   * @param onPinned called for every pin
+   * @return the monitor, or {@code null} if the running JVM can't stream JFR events
+   */
+  public static @Nullable VirtualThreadPinningMonitor start(Runnable onPinned) {
+    VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(onPinned);
+    try {
+      Class<?> streamClass = Class.forName("jdk.jfr.consumer.RecordingStream");
+      AutoCloseable stream = (AutoCloseable) streamClass.getConstructor().newInstance();
+      Object settings = streamClass.getMethod("enable", String.class).invoke(stream, PINNED_EVENT);
+      Method withStackTrace = Class.forName("jdk.jfr.EventSettings").getMethod("withStackTrace");
+      withStackTrace.invoke(settings);
+      Consumer<RecordedEvent> handler = monitor::pinned;
+      streamClass.getMethod("onEvent", String.class, Consumer.class)
+          .invoke(stream, PINNED_EVENT, handler);
+      streamClass.getMethod("startAsync").invoke(stream);
+      monitor.stream = stream;
+      return monitor;
+    } catch (ReflectiveOperationException | LinkageError | SecurityException e) {
+      logger.warn("Unable to watch for pinned virtual threads with JFR", e);
+      return null;
+    }
+  }
+
+  private void pinned(RecordedEvent event) {
+    onPinned.run();
+
+    long now = System.nanoTime();
+    long next = nextLog.get();
+    if (now - next < 0 || !nextLog.compareAndSet(next, now + LOG_INTERVAL_NANOS)) {
+      return;
+    }
+    RecordedThread thread = event.getThread();
+    logger.warn("Virtual thread {} pinned its carrier thread for {} ms, which keeps other event "
+            + "listeners from running. Further pins in the next minute are only counted.\n{}",
+        thread == null ? "<unknown>" : thread.getJavaName(), event.getDuration().toMillis(),
+        formatStackTrace(event.getStackTrace()));
+  }
+
+  private static String formatStackTrace(@Nullable RecordedStackTrace stackTrace) {
+    if (stackTrace == null) {
+      return "\t<no stack trace>";
+    }
+    StringBuilder builder = new StringBuilder();
+    List<RecordedFrame> frames = stackTrace.getFrames();
+    for (int i = 0; i < frames.size() && i < MAXIMUM_LOGGED_FRAMES; i++) {
+      RecordedFrame frame = frames.get(i);
+      builder.append("\tat ").append(frame.getMethod().getType().getName()).append('.')
+          .append(frame.getMethod().getName()).append(":").append(frame.getLineNumber())
+          .append('\n');
+    }
+    if (frames.size() > MAXIMUM_LOGGED_FRAMES || stackTrace.isTruncated()) {
+      builder.append("\t...\n");
+    }
+    return builder.toString();
+  }
+
+  @Override
+  public void close() {
+    if (stream != null) {
+      try {
+        stream.close();
+      } catch (Exception e) {
+        logger.warn("Unable to stop watching for pinned virtual threads", e);
+      }
+      stream = null;
+    }
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.util.concurrent;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Creates executors backed by virtual threads when the running JVM supports them. Velocity is
+ * compiled against Java 11, so the virtual thread API is looked up reflectively.
+ */
+public final class VirtualThreads {
+
+  private static final @Nullable Method OF_VIRTUAL;
+  private static final @Nullable Method BUILDER_NAME;
+  private static final @Nullable Method BUILDER_FACTORY;
+  private static final @Nullable Method NEW_THREAD_PER_TASK_EXECUTOR;
+
+  static {
+    Method ofVirtual = null;
+    Method builderName = null;
+    Method builderFactory = null;
+    Method newThreadPerTaskExecutor = null;
+    try {
+      ofVirtual = Thread.class.getMethod("ofVirtual");
+      Class<?> builder = Class.forName("java.lang.Thread$Builder");
+      builderName = builder.getMethod("name", String.class, long.class);
+      builderFactory = builder.getMethod("factory");
+      newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor",
+          ThreadFactory.class);
+      // On Java 19 and 20 virtual threads are a preview feature, and this throws unless previews
+      // are enabled.
+      ofVirtual.invoke(null);
+    } catch (ReflectiveOperationException | LinkageError e) {
+      ofVirtual = null;
+    }
+    OF_VIRTUAL = ofVirtual;
+    BUILDER_NAME = builderName;
+    BUILDER_FACTORY = builderFactory;
+    NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+  }
+
+  private VirtualThreads() {
+    throw new AssertionError();
+  }
+
+  /**
+   * Determines whether the running JVM can create virtual threads.
+   *
+   * @return whether virtual threads are available
+   */
+  public static boolean isSupported() {
+    return OF_VIRTUAL != null;
+  }
+
+  /**
+   * Creates an executor that runs every task on a new virtual thread.
+   *
+   * @param namePrefix the prefix of the thread names, which are suffixed with a counter
+   * @return the executor
+   * @throws UnsupportedOperationException if virtual threads are not supported
+   */
+  public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+    if (OF_VIRTUAL == null) {
+      throw new UnsupportedOperationException("Virtual threads are not supported by this JVM");
+    }
+    try {
+      Object builder = OF_VIRTUAL.invoke(null);
+      builder = BUILDER_NAME.invoke(builder, namePrefix, 0L);
+      ThreadFactory factory = (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+      return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, factory);
+    } catch (IllegalAccessException | InvocationTargetException e) {
+      throw new UnsupportedOperationException("Unable to create a virtual thread executor", e);
+    }
+  }
+}
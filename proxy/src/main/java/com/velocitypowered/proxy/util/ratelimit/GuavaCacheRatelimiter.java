@@ -27,14 +27,16 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
 /**
- * A simple rate-limiter based on a Guava {@link Cache}.
+ * A simple rate-limiter based on a Guava {@link Cache}. The proxy uses
+ * {@link SlidingWindowRatelimiter} instead, which neither locks nor allocates on every attempt;
+ * this one is kept to compare against.
  */
 public class GuavaCacheRatelimiter implements Ratelimiter {
 
   private final Cache<InetAddress, Long> expiringCache;
   private final long timeoutNanos;
 
-  GuavaCacheRatelimiter(long time, TimeUnit unit) {
+  public GuavaCacheRatelimiter(long time, TimeUnit unit) {
     this(time, unit, Ticker.systemTicker());
   }
 
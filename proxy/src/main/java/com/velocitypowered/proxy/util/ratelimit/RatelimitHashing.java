@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.util.ratelimit;
+
+/**
+ * Provides utility functions for hashing addresses into rate limiter tables.
+ */
+public final class RatelimitHashing {
+
+  private RatelimitHashing() {
+    throw new AssertionError("Instances of this class should not be created.");
+  }
+
+  /**
+   * Spreads the bits of a value with the finalizer of MurmurHash3, so that neighbouring addresses
+   * end up in unrelated slots, and the high bits can serve as a fingerprint.
+   *
+   * @param value the value to mix
+   * @return the mixed value
+   */
+  public static long mix(long value) {
+    long h = value;
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+}
@@ -25,7 +25,7 @@ public final class Ratelimiters {
   }
 
   public static Ratelimiter createWithMilliseconds(long ms) {
-    return ms <= 0 ? NoopCacheRatelimiter.INSTANCE : new GuavaCacheRatelimiter(ms,
+    return ms <= 0 ? NoopCacheRatelimiter.INSTANCE : new SlidingWindowRatelimiter(ms,
         TimeUnit.MILLISECONDS);
   }
 }
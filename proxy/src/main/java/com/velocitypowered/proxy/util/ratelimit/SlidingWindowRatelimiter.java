@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.util.ratelimit;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A rate-limiter that allows one attempt per address within a window, like
+ * {@link GuavaCacheRatelimiter}, but keeps its state in a fixed-size open-addressed table of
+ * {@code long}s. Attempts are lock-free and, for IPv4 addresses, do not allocate.
+ *
+ * <p>Every slot packs a fingerprint of the address hash with the time its window ends, so a slot
+ * is claimed or renewed with a single compare-and-set. Slots whose window has ended are free to be
+ * reused, so nothing has to be evicted in the background. If every slot an address may use is
+ * still taken, the one whose window ends first is reused.
+ */
+public final class SlidingWindowRatelimiter implements Ratelimiter {
+
+  private static final int DEFAULT_SLOTS = 1 << 16;
+  private static final int PROBES = 8;
+  private static final int TIME_BITS = 40;
+  private static final long TIME_MASK = (1L << TIME_BITS) - 1;
+
+  private final AtomicLongArray table;
+  private final int mask;
+  private final long windowMillis;
+  private final Ticker ticker;
+  private final long startNanos;
+  // A random seed keeps clients from picking addresses that share a slot with someone else's.
+  private final long seed = new SecureRandom().nextLong();
+
+  /**
+   * Creates a new rate-limiter.
+   *
+   * @param time the length of the window
+   * @param unit the unit of {@code time}
+   */
+  public SlidingWindowRatelimiter(long time, TimeUnit unit) {
+    this(time, unit, Ticker.systemTicker(), DEFAULT_SLOTS);
+  }
+
+  @VisibleForTesting
+  SlidingWindowRatelimiter(long time, TimeUnit unit, Ticker ticker, int slots) {
+    Preconditions.checkNotNull(unit, "unit");
+    Preconditions.checkNotNull(ticker, "ticker");
+    Preconditions.checkArgument(slots >= PROBES && Integer.bitCount(slots) == 1,
+        "slots must be a power of two of at least %s", PROBES);
+    this.table = new AtomicLongArray(slots);
+    this.mask = slots - 1;
+    this.windowMillis = unit.toMillis(time);
+    this.ticker = ticker;
+    // Start the clock at 1, since 0 marks an empty slot.
+    this.startNanos = ticker.read() - TimeUnit.MILLISECONDS.toNanos(1);
+  }
+
+  /**
+   * Attempts to rate-limit the client.
+   *
+   * @param address the address to rate limit
+   * @return true if we should allow the client, false if we should rate-limit
+   */
+  @Override
+  public boolean attempt(InetAddress address) {
+    Preconditions.checkNotNull(address, "address");
+    final long hash = hash(address);
+    final long fingerprint = (hash >>> TIME_BITS | 1) << TIME_BITS;
+    final int start = (int) hash & mask;
+
+    while (true) {
+      long now = TimeUnit.NANOSECONDS.toMillis(ticker.read() - startNanos);
+      int free = -1;
+      int oldest = -1;
+      long oldestEntry = 0;
+      boolean found = false;
+      int index = start;
+      long entry = 0;
+      for (int i = 0; i < PROBES; i++, index = (index + 1) & mask) {
+        entry = table.get(index);
+        if ((entry & ~TIME_MASK) == fingerprint) {
+          found = true;
+          break;
+        }
+        if ((entry & TIME_MASK) <= now) {
+          if (free == -1) {
+            free = index;
+          }
+        } else if (oldest == -1 || (entry & TIME_MASK) < (oldestEntry & TIME_MASK)) {
+          oldest = index;
+          oldestEntry = entry;
+        }
+      }
+
+      if (found) {
+        if ((entry & TIME_MASK) > now) {
+          return false;
+        }
+      } else if (free != -1) {
+        index = free;
+        entry = table.get(free);
+        if ((entry & TIME_MASK) > now) {
+          continue;
+        }
+      } else {
+        index = oldest;
+        entry = oldestEntry;
+      }
+
+      if (table.compareAndSet(index, entry, fingerprint | ((now + windowMillis) & TIME_MASK))) {
+        return true;
+      }
+      // Another thread changed the slot, so look again. If it was for the same address, we will
+      // now find its entry.
+    }
+  }
+
+  private long hash(InetAddress address) {
+    if (address instanceof Inet4Address) {
+      // The hash code of an IPv4 address is the address itself.
+      return RatelimitHashing.mix(address.hashCode() ^ seed);
+    }
+    // The hash code of an IPv6 address is the sum of its parts, which is easy to collide with on
+    // purpose, so hash the whole address instead.
+    byte[] bytes = address.getAddress();
+    long high = 0;
+    long low = 0;
+    for (int i = 0; i < 8; i++) {
+      high = high << 8 | bytes[i] & 0xFF;
+      low = low << 8 | bytes[i + 8] & 0xFF;
+    }
+    return RatelimitHashing.mix(RatelimitHashing.mix(high ^ seed) ^ low);
+  }
+}
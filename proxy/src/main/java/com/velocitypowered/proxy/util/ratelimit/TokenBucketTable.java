@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.util.ratelimit;
+
+import com.google.common.base.Preconditions;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size table of token buckets indexed by a hash, which is never resized or cleaned up and
+ * does not allocate when it is used. Keys whose hashes fall into the same slot share a bucket,
+ * so a table that is too small for the number of active keys limits them more strictly.
+ *
+ * <p>Every bucket is a single {@code long} holding the time at which it will be full again (the
+ * "theoretical arrival time" of the generic cell rate algorithm), which is updated with a
+ * compare-and-set. This behaves like a bucket of {@code burst} tokens refilled at
+ * {@code permitsPerSecond}.
+ */
+public final class TokenBucketTable {
+
+  private final AtomicLongArray fullAt;
+  private final int mask;
+  private final long intervalNanos;
+  private final long toleranceNanos;
+
+  /**
+   * Creates a new table.
+   *
+   * @param slots the number of buckets, rounded up to a power of two
+   * @param permitsPerSecond the rate at which each bucket is refilled
+   * @param burst the number of tokens each bucket holds
+   */
+  public TokenBucketTable(int slots, double permitsPerSecond, int burst) {
+    Preconditions.checkArgument(slots > 0 && slots <= 1 << 30, "slots");
+    Preconditions.checkArgument(permitsPerSecond > 0, "permitsPerSecond");
+    Preconditions.checkArgument(burst > 0, "burst");
+    int size = slots == 1 ? 1 : Integer.highestOneBit(slots - 1) << 1;
+    this.fullAt = new AtomicLongArray(size);
+    this.mask = size - 1;
+    this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+    this.toleranceNanos = intervalNanos * (burst - 1);
+  }
+
+  /**
+   * Takes a token from the bucket of {@code hash}, if it has one.
+   *
+   * @param hash the hash of the key
+   * @param nowNanos the current {@link System#nanoTime()}
+   * @return whether a token was taken
+   */
+  public boolean tryAcquire(long hash, long nowNanos) {
+    int slot = (int) (hash ^ (hash >>> 32)) & mask;
+    while (true) {
+      long current = fullAt.get(slot);
+      // An unused slot is zero, which may be far ahead of or behind the current time.
+      long base = current == 0 || current - nowNanos < 0 ? nowNanos : current;
+      if (base - nowNanos > toleranceNanos) {
+        return false;
+      }
+      if (fullAt.compareAndSet(slot, current, base + intervalNanos)) {
+        return true;
+      }
+    }
+  }
+
+  int size() {
+    return mask + 1;
+  }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.util.UUID;
+import net.kyori.adventure.audience.MessageType;
+import net.kyori.adventure.identity.Identified;
+import net.kyori.adventure.identity.Identity;
+import net.kyori.adventure.text.Component;
+import org.junit.jupiter.api.Test;
+
+class VelocityServerTest {
+
+  @Test
+  void identifiedBroadcastUsesSharedEncoding() {
+    VelocityServer server = mock(VelocityServer.class);
+    doCallRealMethod().when(server)
+        .sendMessage(any(Identified.class), any(Component.class), any(MessageType.class));
+
+    Identity identity = Identity.identity(UUID.randomUUID());
+    Identified source = () -> identity;
+    Component message = Component.text("Hello");
+    server.sendMessage(source, message, MessageType.CHAT);
+
+    // The Identity overload encodes the message once per version and locale for every player.
+    verify(server).sendMessage(identity, message, MessageType.CHAT);
+  }
+}
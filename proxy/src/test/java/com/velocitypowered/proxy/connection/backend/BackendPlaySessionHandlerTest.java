@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.connection.backend;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.velocitypowered.proxy.VelocityServer;
+import com.velocitypowered.proxy.config.VelocityConfiguration;
+import com.velocitypowered.proxy.connection.MinecraftConnection;
+import com.velocitypowered.proxy.connection.client.ClientPlaySessionHandler;
+import com.velocitypowered.proxy.connection.client.ConnectedPlayer;
+import com.velocitypowered.proxy.network.metrics.VelocityProxyMetrics;
+import com.velocitypowered.proxy.server.VelocityRegisteredServer;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BackendPlaySessionHandlerTest {
+
+  private static final int FLUSH_INTERVAL_MICROS = 20_000;
+
+  private EmbeddedChannel playerChannel;
+  private BackendPlaySessionHandler handler;
+
+  @BeforeEach
+  void setup() {
+    VelocityServer server = mock(VelocityServer.class);
+    when(server.getMetrics()).thenReturn(new VelocityProxyMetrics());
+    VelocityConfiguration configuration = mock(VelocityConfiguration.class);
+    when(configuration.getFlushIntervalMicros()).thenReturn(FLUSH_INTERVAL_MICROS);
+    when(server.getConfiguration()).thenReturn(configuration);
+
+    playerChannel = new EmbeddedChannel();
+    MinecraftConnection playerConnection = new MinecraftConnection(playerChannel, server);
+    playerConnection.setSessionHandler(mock(ClientPlaySessionHandler.class));
+    ConnectedPlayer player = mock(ConnectedPlayer.class);
+    when(player.getConnection()).thenReturn(playerConnection);
+    VelocityServerConnection serverConn = mock(VelocityServerConnection.class);
+    when(serverConn.getPlayer()).thenReturn(player);
+    when(serverConn.getServer()).thenReturn(mock(VelocityRegisteredServer.class));
+
+    handler = new BackendPlaySessionHandler(server, serverConn);
+  }
+
+  private ByteBuf runScheduledFlush() throws InterruptedException {
+    Thread.sleep(FLUSH_INTERVAL_MICROS / 1000 * 2);
+    playerChannel.runScheduledPendingTasks();
+    return playerChannel.readOutbound();
+  }
+
+  @Test
+  void flushIntervalIsEnforcedWithoutFurtherReads() throws Exception {
+    handler.handleUnknown(Unpooled.wrappedBuffer(new byte[] {1, 2, 3}));
+    assertNull(playerChannel.readOutbound(), "The packet should wait for the flush interval");
+
+    ByteBuf flushed = runScheduledFlush();
+    assertNotNull(flushed, "The scheduled flush should send the packet");
+    flushed.release();
+    playerChannel.finishAndReleaseAll();
+  }
+
+  @Test
+  void disconnectCancelsScheduledFlush() throws Exception {
+    handler.handleUnknown(Unpooled.wrappedBuffer(new byte[] {1, 2, 3}));
+    handler.disconnected();
+
+    assertNull(runScheduledFlush(), "The flush should not run after the handler is torn down");
+    playerChannel.finishAndReleaseAll();
+  }
+}
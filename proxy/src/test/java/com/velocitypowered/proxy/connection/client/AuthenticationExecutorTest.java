@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.connection.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletionException;
+import org.junit.jupiter.api.Test;
+
+class AuthenticationExecutorTest {
+
+  @Test
+  void loginsOverTheLimitAreNotAdmitted() {
+    AuthenticationExecutor executor = new AuthenticationExecutor(1, 2);
+    try {
+      assertTrue(executor.tryAdmit());
+      assertTrue(executor.tryAdmit());
+      assertFalse(executor.tryAdmit());
+      assertEquals(2, executor.getPendingLogins());
+
+      executor.release();
+      assertTrue(executor.tryAdmit());
+
+      executor.configure(1, 0);
+      assertTrue(executor.tryAdmit(), "A limit of 0 should admit every login");
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void tasksRunOffTheCallingThread() {
+    AuthenticationExecutor executor = new AuthenticationExecutor(1, 0);
+    try {
+      Thread caller = Thread.currentThread();
+      assertNotEquals(caller, executor.submit(Thread::currentThread).join());
+      assertThrows(CompletionException.class, () -> executor.submit(() -> {
+        throw new IllegalStateException("Bad verify token");
+      }).join());
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
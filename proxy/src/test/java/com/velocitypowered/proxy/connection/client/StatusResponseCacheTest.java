@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.connection.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.velocitypowered.api.network.ProtocolVersion;
+import com.velocitypowered.api.proxy.server.ServerPing;
+import com.velocitypowered.proxy.protocol.ProtocolUtils;
+import com.velocitypowered.proxy.protocol.packet.StatusResponse;
+import io.netty.buffer.ByteBuf;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import net.kyori.adventure.text.Component;
+import org.junit.jupiter.api.Test;
+
+class StatusResponseCacheTest {
+
+  private static final ProtocolVersion VERSION = ProtocolVersion.MINECRAFT_1_16;
+
+  private static Supplier<CompletableFuture<ServerPing>> countingPing(AtomicInteger built) {
+    return () -> {
+      built.incrementAndGet();
+      return CompletableFuture.completedFuture(new ServerPing(
+          new ServerPing.Version(VERSION.getProtocol(), "Velocity"), null,
+          Component.text("A Velocity Server"), null));
+    };
+  }
+
+  @Test
+  void pingIsSharedPerVersionAndVirtualHost() {
+    StatusResponseCache cache = new StatusResponseCache(60_000);
+    AtomicInteger built = new AtomicInteger();
+    StatusResponseCache.Entry entry = cache.get(VERSION, "", countingPing(built));
+
+    assertSame(entry, cache.get(VERSION, "", countingPing(built)));
+    assertNotSame(entry, cache.get(VERSION, "play.example.com", countingPing(built)));
+    assertNotSame(entry, cache.get(ProtocolVersion.MINECRAFT_1_8, "", countingPing(built)));
+    assertEquals(3, built.get());
+  }
+
+  @Test
+  void unknownVirtualHostsShareOnePing() {
+    Map<String, List<String>> forcedHosts = ImmutableMap.of(
+        "play.example.com", ImmutableList.of("lobby"));
+    StatusResponseCache cache = new StatusResponseCache(60_000);
+    AtomicInteger built = new AtomicInteger();
+    StatusResponseCache.Entry entry = cache.get(VERSION,
+        StatusResponseCache.resolveVirtualHost("", forcedHosts), countingPing(built));
+
+    for (int i = 0; i < 100; i++) {
+      String host = StatusResponseCache.resolveVirtualHost("scan" + i + ".example.com",
+          forcedHosts);
+      assertSame(entry, cache.get(VERSION, host, countingPing(built)));
+    }
+    assertNotSame(entry, cache.get(VERSION,
+        StatusResponseCache.resolveVirtualHost("play.example.com", forcedHosts),
+        countingPing(built)));
+    assertEquals(2, built.get());
+  }
+
+  @Test
+  void disabledCacheBuildsEveryPing() {
+    StatusResponseCache cache = new StatusResponseCache(0);
+    AtomicInteger built = new AtomicInteger();
+    assertNotSame(cache.get(VERSION, "", countingPing(built)),
+        cache.get(VERSION, "", countingPing(built)));
+    assertEquals(2, built.get());
+  }
+
+  @Test
+  void failedPingIsNotCached() {
+    StatusResponseCache cache = new StatusResponseCache(60_000);
+    StatusResponseCache.Entry failed = cache.get(VERSION, "",
+        () -> CompletableFuture.failedFuture(new IllegalStateException()));
+    AtomicInteger built = new AtomicInteger();
+    assertNotSame(failed, cache.get(VERSION, "", countingPing(built)));
+    assertEquals(1, built.get());
+  }
+
+  @Test
+  void encodedResponseCanBeWrittenRepeatedly() {
+    StatusResponseCache cache = new StatusResponseCache(60_000);
+    StatusResponseCache.Entry entry = cache.get(VERSION, "", countingPing(new AtomicInteger()));
+    ServerPing ping = entry.getPing().join();
+
+    ByteBuf first = entry.getEncodedResponse(ping);
+    first.release();
+    ByteBuf second = entry.getEncodedResponse(ping);
+    assertEquals(0x00, ProtocolUtils.readVarInt(second));
+    StatusResponse response = new StatusResponse();
+    response.decode(second, ProtocolUtils.Direction.CLIENTBOUND, VERSION);
+    assertTrue(response.getStatus().contains("A Velocity Server"));
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.connection.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.velocitypowered.api.network.ProtocolVersion;
+import com.velocitypowered.proxy.protocol.ProtocolUtils;
+import com.velocitypowered.proxy.protocol.StateRegistry;
+import com.velocitypowered.proxy.protocol.packet.KeepAlive;
+import io.netty.buffer.ByteBuf;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class BroadcastPacketCacheTest {
+
+  private static KeepAlive keepAlive(long id) {
+    KeepAlive packet = new KeepAlive();
+    packet.setRandomId(id);
+    return packet;
+  }
+
+  @Test
+  void encodesOncePerVersionAndLocale() {
+    final AtomicInteger created = new AtomicInteger();
+    BroadcastPacketCache cache = BroadcastPacketCache.perLocale((version, locale) -> {
+      created.incrementAndGet();
+      return keepAlive(locale.hashCode());
+    });
+    try {
+      ByteBuf english = cache.getEncoded(ProtocolVersion.MAXIMUM_VERSION, Locale.ENGLISH);
+      assertSame(english, cache.getEncoded(ProtocolVersion.MAXIMUM_VERSION, Locale.ENGLISH));
+      assertNotSame(english, cache.getEncoded(ProtocolVersion.MAXIMUM_VERSION, Locale.GERMAN));
+      assertNotSame(english, cache.getEncoded(ProtocolVersion.MINECRAFT_1_12_2, Locale.ENGLISH));
+      assertEquals(3, created.get());
+
+      int packetId = ProtocolUtils.Direction.CLIENTBOUND
+          .getProtocolRegistry(StateRegistry.PLAY, ProtocolVersion.MAXIMUM_VERSION)
+          .getPacketId(new KeepAlive());
+      ByteBuf duplicate = english.duplicate();
+      assertEquals(packetId, ProtocolUtils.readVarInt(duplicate));
+      assertEquals(Locale.ENGLISH.hashCode(), duplicate.readLong());
+      assertFalse(duplicate.isReadable());
+    } finally {
+      cache.release();
+    }
+  }
+
+  @Test
+  void perVersionCacheIgnoresLocale() {
+    final AtomicInteger created = new AtomicInteger();
+    BroadcastPacketCache cache = BroadcastPacketCache.perVersion(version -> {
+      created.incrementAndGet();
+      return keepAlive(1);
+    });
+    try {
+      ByteBuf english = cache.getEncoded(ProtocolVersion.MAXIMUM_VERSION, Locale.ENGLISH);
+      assertSame(english, cache.getEncoded(ProtocolVersion.MAXIMUM_VERSION, Locale.GERMAN));
+      assertEquals(1, created.get());
+    } finally {
+      cache.release();
+    }
+  }
+
+  @Test
+  void unsupportedVersionsEncodeNothing() {
+    BroadcastPacketCache cache = BroadcastPacketCache.perVersion(version -> null);
+    try {
+      assertFalse(cache.getEncoded(ProtocolVersion.MAXIMUM_VERSION, Locale.ENGLISH).isReadable());
+    } finally {
+      cache.release();
+    }
+  }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.connection.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.velocitypowered.proxy.VelocityServer;
+import com.velocitypowered.proxy.connection.MinecraftConnection;
+import com.velocitypowered.proxy.network.metrics.VelocityProxyMetrics;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.Test;
+
+class EventLoopAffinityTest {
+
+  @Test
+  void separateEventLoopsAreCounted() {
+    VelocityProxyMetrics metrics = new VelocityProxyMetrics();
+    VelocityServer server = mock(VelocityServer.class);
+    when(server.getMetrics()).thenReturn(metrics);
+
+    MinecraftConnection player = new MinecraftConnection(new EmbeddedChannel(), server);
+    MinecraftConnection otherLoop = new MinecraftConnection(new EmbeddedChannel(), server);
+
+    assertTrue(EventLoopAffinity.checkShared(player, player));
+    assertEquals(0, metrics.getAffinityViolations());
+    assertFalse(EventLoopAffinity.checkShared(player, otherLoop));
+    assertEquals(1, metrics.getAffinityViolations());
+  }
+}
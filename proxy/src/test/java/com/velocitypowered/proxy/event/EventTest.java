@@ -160,6 +160,67 @@ public class EventTest {
     }
   }
 
+  @Test
+  void testNeverAsync() throws Exception {
+    final NeverAsyncListener listener = new NeverAsyncListener();
+    eventManager.register(FakePluginManager.PLUGIN_A, listener);
+    try {
+      assertTrue(eventManager.fire(new TestEvent()).isDone(),
+          "Event with only synchronous handlers should complete inline");
+    } finally {
+      eventManager.unregisterListeners(FakePluginManager.PLUGIN_A);
+    }
+    assertEquals(Thread.currentThread(), listener.threadA);
+    assertEquals(Thread.currentThread(), listener.threadB);
+    assertEquals(2, listener.result);
+  }
+
+  static final class NeverAsyncListener {
+
+    @MonotonicNonNull Thread threadA;
+    @MonotonicNonNull Thread threadB;
+    int result;
+
+    @Subscribe(async = false)
+    void firstSync(TestEvent event) {
+      threadA = Thread.currentThread();
+      result++;
+    }
+
+    @Subscribe(order = PostOrder.LATE, async = false)
+    EventTask secondSync(TestEvent event) {
+      return EventTask.withContinuation(continuation -> {
+        threadB = Thread.currentThread();
+        result++;
+        continuation.resume();
+      });
+    }
+  }
+
+  @Test
+  void testSometimesAsync() throws Exception {
+    final SometimesAsyncListener listener = new SometimesAsyncListener();
+    handleMethodListener(listener);
+    assertAsyncThread(listener.threadA);
+    assertAsyncThread(listener.threadB);
+  }
+
+  static final class SometimesAsyncListener {
+
+    @MonotonicNonNull Thread threadA;
+    @MonotonicNonNull Thread threadB;
+
+    @Subscribe(async = false)
+    void sync(TestEvent event) {
+      threadA = Thread.currentThread();
+    }
+
+    @Subscribe(order = PostOrder.LATE)
+    void async(TestEvent event) {
+      threadB = Thread.currentThread();
+    }
+  }
+
   @Test
   void testContinuation() throws Exception {
     final ContinuationListener listener = new ContinuationListener();
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.network;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import org.junit.jupiter.api.Test;
+
+class ConnectionAdmissionTest {
+
+  private static InetSocketAddress address(String host) throws UnknownHostException {
+    return new InetSocketAddress(InetAddress.getByName(host), 25565);
+  }
+
+  @Test
+  void limitsAddress() throws UnknownHostException {
+    ConnectionAdmission admission = new ConnectionAdmission(2, 0, 0);
+    assertTrue(admission.admit(address("192.0.2.1"), true));
+    assertTrue(admission.admit(address("192.0.2.1"), true));
+    assertFalse(admission.admit(address("192.0.2.1"), true));
+    assertTrue(admission.admit(address("192.0.2.2"), true));
+    assertTrue(admission.admit(address("192.0.2.1"), false),
+        "Addresses should not be limited behind the PROXY protocol");
+  }
+
+  @Test
+  void limitsSubnet() throws UnknownHostException {
+    ConnectionAdmission admission = new ConnectionAdmission(0, 2, 0);
+    assertTrue(admission.admit(address("192.0.2.1"), true));
+    assertTrue(admission.admit(address("192.0.2.2"), true));
+    assertFalse(admission.admit(address("192.0.2.3"), true));
+    assertTrue(admission.admit(address("198.51.100.1"), true));
+
+    assertTrue(admission.admit(address("2001:db8:1:1::1"), true));
+    assertTrue(admission.admit(address("2001:db8:1:2::1"), true));
+    assertFalse(admission.admit(address("2001:db8:1:ffff::1"), true));
+    assertTrue(admission.admit(address("2001:db8:2::1"), true));
+  }
+
+  @Test
+  void limitsGlobally() throws UnknownHostException {
+    ConnectionAdmission admission = new ConnectionAdmission(0, 0, 2);
+    assertTrue(admission.admit(address("192.0.2.1"), false));
+    assertTrue(admission.admit(address("198.51.100.1"), true));
+    assertFalse(admission.admit(address("203.0.113.1"), true));
+  }
+
+  @Test
+  void subnetsShareHashes() throws UnknownHostException {
+    byte[] first = InetAddress.getByName("192.0.2.1").getAddress();
+    byte[] second = InetAddress.getByName("192.0.2.200").getAddress();
+    assertEquals(ConnectionAdmission.subnetHash(first), ConnectionAdmission.subnetHash(second));
+    assertNotEquals(ConnectionAdmission.addressHash(first),
+        ConnectionAdmission.addressHash(second));
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.network.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.velocitypowered.api.network.ProtocolState;
+import com.velocitypowered.api.proxy.ProxyServer;
+import com.velocitypowered.api.proxy.metrics.NetworkStatistics;
+import com.velocitypowered.proxy.protocol.StateRegistry;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class VelocityProxyMetricsTest {
+
+  @Test
+  void connectionsAreAggregated() {
+    VelocityProxyMetrics metrics = new VelocityProxyMetrics();
+    EmbeddedChannel first = new EmbeddedChannel();
+    EmbeddedChannel second = new EmbeddedChannel();
+    ConnectionMetrics firstMetrics = metrics.register(first);
+    final ConnectionMetrics secondMetrics = metrics.register(second);
+    assertSame(firstMetrics, ConnectionMetrics.of(first));
+    assertEquals(2, metrics.getOpenConnections());
+
+    firstMetrics.recordReceived(10);
+    firstMetrics.setState(StateRegistry.PLAY);
+    firstMetrics.recordReceived(100);
+    firstMetrics.recordSent(1000);
+    secondMetrics.recordCompression(1000, 100);
+    secondMetrics.recordCipher(50);
+
+    assertEquals(1, firstMetrics.getPacketsReceived(ProtocolState.HANDSHAKE));
+    assertEquals(100, firstMetrics.getBytesReceived(ProtocolState.PLAY));
+    assertEquals(110, firstMetrics.getBytesReceived());
+
+    NetworkStatistics total = metrics.getTotalStatistics();
+    assertEquals(2, total.getPacketsReceived());
+    assertEquals(1000, total.getBytesSent(ProtocolState.PLAY));
+    assertEquals(1000, total.getBytesBeforeCompression());
+    assertEquals(100, total.getBytesAfterCompression());
+    assertEquals(50, total.getCipherBytes());
+
+    first.close();
+    assertEquals(1, metrics.getOpenConnections());
+    assertEquals(2, total.getPacketsReceived(), "Totals should outlive connections");
+    second.close();
+  }
+
+  @Test
+  void prometheusOutput() {
+    VelocityProxyMetrics metrics = new VelocityProxyMetrics();
+    ConnectionMetrics connection = metrics.register(new EmbeddedChannel());
+    connection.setState(StateRegistry.STATUS);
+    connection.recordSent(42);
+    connection.recordCrossThreadWrite();
+    connection.recordBufferCopy(ConnectionMetrics.CopyStage.DEFLATE, 300);
+    metrics.getSessionLookupTime().record(TimeUnit.MILLISECONDS.toNanos(30));
+    metrics.recordOffloadedCompression(65536);
+    metrics.recordVirtualThreadPin();
+
+    ProxyServer server = mock(ProxyServer.class);
+    when(server.getMetrics()).thenReturn(metrics);
+    when(server.getPlayerCount()).thenReturn(3);
+
+    String output = PrometheusMetricsHandler.render(server);
+    assertTrue(output.contains("# TYPE velocity_bytes_sent_total counter\n"));
+    assertTrue(output.contains("velocity_bytes_sent_total{state=\"status\"} 42\n"));
+    assertTrue(output.contains("velocity_packets_sent_total{state=\"play\"} 0\n"));
+    assertTrue(output.contains("velocity_open_connections 1\n"));
+    assertTrue(output.contains("velocity_players 3\n"));
+    assertTrue(output.contains("# TYPE velocity_session_lookup_seconds histogram\n"));
+    assertTrue(output.contains("velocity_session_lookup_seconds_bucket{le=\"0.025\"} 0\n"));
+    assertTrue(output.contains("velocity_session_lookup_seconds_bucket{le=\"0.05\"} 1\n"));
+    assertTrue(output.contains("velocity_session_lookup_seconds_count 1\n"));
+    assertTrue(output.contains("velocity_cross_thread_writes_total 1\n"));
+    assertTrue(output.contains("velocity_event_loop_affinity_violations_total 0\n"));
+    assertTrue(output.contains("velocity_buffer_copies_total{stage=\"deflate\"} 1\n"));
+    assertTrue(output.contains("velocity_buffer_copied_bytes_total{stage=\"deflate\"} 300\n"));
+    assertTrue(output.contains("velocity_buffer_copies_total{stage=\"decrypt\"} 0\n"));
+    assertTrue(output.contains("velocity_compression_offloaded_packets_total 1\n"));
+    assertTrue(output.contains("velocity_compression_offloaded_bytes_total 65536\n"));
+    assertTrue(output.contains("# TYPE velocity_compression_offload_wait_seconds histogram\n"));
+    assertTrue(output.contains("velocity_virtual_thread_pins_total 1\n"));
+  }
+}
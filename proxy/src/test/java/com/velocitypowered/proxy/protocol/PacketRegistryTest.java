@@ -156,4 +156,13 @@ class PacketRegistryTest {
     assertEquals(Handshake.class,
         registry.getProtocolRegistry(MINECRAFT_1_14_2).createPacket(0x02).getClass());
   }
-}
\ No newline at end of file
+
+  @Test
+  void outOfRangePacketIdsAreNotRegistered() {
+    StateRegistry.PacketRegistry.ProtocolRegistry registry = setupRegistry()
+        .getProtocolRegistry(MINECRAFT_1_12);
+    assertNull(registry.createPacket(-1), "Negative packet ID should not be registered");
+    assertNull(registry.createPacket(0x7F), "Unregistered packet ID should return null");
+    assertThrows(IllegalArgumentException.class, () -> registry.getPacketId(new StatusPing()));
+  }
+}
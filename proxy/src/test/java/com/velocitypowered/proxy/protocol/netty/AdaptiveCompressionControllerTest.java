@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.protocol.netty;
+
+import static com.velocitypowered.proxy.protocol.netty.AdaptiveCompressionController.BACKLOG_BYTES;
+import static com.velocitypowered.proxy.protocol.netty.AdaptiveCompressionController.WINDOW_BYTES;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.velocitypowered.natives.compression.JavaVelocityCompressor;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveCompressionControllerTest {
+
+  // Fast enough that the compressor is never the bottleneck.
+  private static final long CHEAP_NANOS = WINDOW_BYTES;
+
+  @Test
+  void initialLevelIsClamped() {
+    assertEquals(4, new AdaptiveCompressionController(1, 4, -1).getLevel());
+    assertEquals(2, new AdaptiveCompressionController(2, 6, 1).getLevel());
+    assertThrows(IllegalArgumentException.class, () -> new AdaptiveCompressionController(5, 4, 4));
+  }
+
+  @Test
+  void levelHoldsWithinWindow() {
+    AdaptiveCompressionController controller = new AdaptiveCompressionController(1, 6, 3);
+    assertEquals(3, controller.record(WINDOW_BYTES - 1, 1024, 1, BACKLOG_BYTES));
+  }
+
+  @Test
+  void backlogRaisesLevel() {
+    AdaptiveCompressionController controller = new AdaptiveCompressionController(1, 6, 3);
+    assertEquals(4, controller.record(WINDOW_BYTES, WINDOW_BYTES / 4, CHEAP_NANOS,
+        BACKLOG_BYTES));
+    assertEquals(5, controller.record(WINDOW_BYTES, WINDOW_BYTES / 4, CHEAP_NANOS,
+        BACKLOG_BYTES));
+    assertEquals(6, controller.record(WINDOW_BYTES, WINDOW_BYTES / 4, CHEAP_NANOS,
+        BACKLOG_BYTES));
+    assertEquals(6, controller.record(WINDOW_BYTES, WINDOW_BYTES / 4, CHEAP_NANOS,
+        BACKLOG_BYTES));
+  }
+
+  @Test
+  void incompressibleDataHoldsLevel() {
+    AdaptiveCompressionController controller = new AdaptiveCompressionController(1, 6, 3);
+    assertEquals(3, controller.record(WINDOW_BYTES, WINDOW_BYTES, CHEAP_NANOS, BACKLOG_BYTES));
+  }
+
+  @Test
+  void keepingUpLowersLevel() {
+    AdaptiveCompressionController controller = new AdaptiveCompressionController(1, 6, 2);
+    assertEquals(1, controller.record(WINDOW_BYTES, WINDOW_BYTES / 4, CHEAP_NANOS, 0));
+    assertEquals(1, controller.record(WINDOW_BYTES, WINDOW_BYTES / 4, CHEAP_NANOS, 0));
+  }
+
+  @Test
+  void moderateBacklogHoldsLevel() {
+    AdaptiveCompressionController controller = new AdaptiveCompressionController(1, 6, 3);
+    assertEquals(3, controller.record(WINDOW_BYTES, WINDOW_BYTES / 4, CHEAP_NANOS,
+        BACKLOG_BYTES / 2));
+  }
+
+  @Test
+  void slowDeflateLowersLevel() {
+    AdaptiveCompressionController controller = new AdaptiveCompressionController(1, 6, 3);
+    long slowNanos = AdaptiveCompressionController.MAX_NANOS_PER_KIB * (WINDOW_BYTES / 1024) * 2;
+    assertEquals(2, controller.record(WINDOW_BYTES, WINDOW_BYTES / 4, slowNanos,
+        BACKLOG_BYTES));
+  }
+
+  @Test
+  void unflushedWritesAreNotBacklog() {
+    // A burst relayed within a single read is only flushed once the read completes, which must not
+    // be mistaken for a connection that can't keep up. The level can't go below 3, so only a
+    // backlog could change it.
+    AdaptiveCompressionController controller = new AdaptiveCompressionController(3, 6, 3);
+    EmbeddedChannel channel = new EmbeddedChannel(new MinecraftCompressorAndLengthEncoder(256,
+        JavaVelocityCompressor.FACTORY.create(3), null, controller));
+    Random random = new Random(1);
+    byte[] block = new byte[2048];
+    for (int i = 0; i < 8 * WINDOW_BYTES / 16384; i++) {
+      // Repeating a random block compresses quickly, to about a seventh of its size.
+      random.nextBytes(block);
+      ByteBuf packet = Unpooled.buffer(16384);
+      for (int j = 0; j < 16384 / block.length; j++) {
+        packet.writeBytes(block);
+      }
+      channel.write(packet);
+    }
+
+    assertTrue(channel.unsafe().outboundBuffer().totalPendingWriteBytes() >= BACKLOG_BYTES,
+        "The burst should be larger than the backlog threshold");
+    assertEquals(3, controller.getLevel(), "Unflushed writes raised the compression level");
+    channel.finishAndReleaseAll();
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.protocol.netty;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.velocitypowered.api.network.ProtocolVersion;
+import com.velocitypowered.natives.compression.JavaVelocityCompressor;
+import com.velocitypowered.proxy.protocol.ProtocolUtils;
+import com.velocitypowered.proxy.protocol.StateRegistry;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.Test;
+
+class CompressedPassthroughTest {
+
+  private static final int UNKNOWN_PACKET_ID = 0x7F;
+
+  private static ByteBuf unknownPacket() {
+    ByteBuf packet = Unpooled.buffer();
+    ProtocolUtils.writeVarInt(packet, UNKNOWN_PACKET_ID);
+    for (int i = 0; i < 1024; i++) {
+      packet.writeByte(i % 7);
+    }
+    return packet;
+  }
+
+  private static ByteBuf compressedFrame(ByteBuf packet, int threshold) {
+    EmbeddedChannel channel = new EmbeddedChannel(new MinecraftCompressorAndLengthEncoder(
+        threshold, JavaVelocityCompressor.FACTORY.create(6)));
+    channel.writeOutbound(packet);
+    ByteBuf frame = channel.readOutbound();
+    channel.finishAndReleaseAll();
+
+    // Strip the packet length, as the frame decoder would.
+    ProtocolUtils.readVarInt(frame);
+    return frame;
+  }
+
+  private static EmbeddedChannel passthroughChannel() {
+    MinecraftDecoder decoder = new MinecraftDecoder(ProtocolUtils.Direction.CLIENTBOUND);
+    decoder.setState(StateRegistry.PLAY);
+    decoder.setProtocolVersion(ProtocolVersion.MAXIMUM_VERSION);
+    MinecraftCompressDecoder compressDecoder = new MinecraftCompressDecoder(256,
+        JavaVelocityCompressor.FACTORY.create(6));
+    compressDecoder.setPassthroughDecoder(decoder);
+    return new EmbeddedChannel(compressDecoder, decoder);
+  }
+
+  @Test
+  void unknownPacketIsNotInflated() {
+    ByteBuf packet = unknownPacket();
+    ByteBuf frame = compressedFrame(packet.retainedDuplicate(), 256);
+    final ByteBuf expected = frame.retainedDuplicate();
+
+    EmbeddedChannel channel = passthroughChannel();
+    channel.writeInbound(frame);
+    Object msg = channel.readInbound();
+    assertTrue(msg instanceof CompressedFrame, "Unknown packet was inflated");
+
+    CompressedFrame compressed = (CompressedFrame) msg;
+    assertEquals(packet.readableBytes(), compressed.getUncompressedSize());
+    assertTrue(ByteBufUtil.equals(expected, compressed.content()));
+
+    compressed.release();
+    expected.release();
+    packet.release();
+    channel.finishAndReleaseAll();
+  }
+
+  @Test
+  void compressedFrameIsRelayedUnchanged() {
+    ByteBuf frame = compressedFrame(unknownPacket(), 256);
+    ByteBuf expected = frame.retainedDuplicate();
+
+    EmbeddedChannel channel = new EmbeddedChannel(new MinecraftCompressorAndLengthEncoder(256,
+        JavaVelocityCompressor.FACTORY.create(6)));
+    channel.writeOutbound(new CompressedFrame(frame, 1025));
+
+    ByteBuf length = channel.readOutbound();
+    ByteBuf data = channel.readOutbound();
+    assertEquals(expected.readableBytes(), ProtocolUtils.readVarInt(length));
+    assertTrue(ByteBufUtil.equals(expected, data));
+
+    length.release();
+    data.release();
+    expected.release();
+    channel.finishAndReleaseAll();
+  }
+
+  @Test
+  void compressedFrameIsInflatedBelowThreshold() {
+    ByteBuf packet = unknownPacket();
+    ByteBuf frame = compressedFrame(packet.retainedDuplicate(), 256);
+
+    EmbeddedChannel channel = new EmbeddedChannel(new MinecraftCompressorAndLengthEncoder(4096,
+        JavaVelocityCompressor.FACTORY.create(6)));
+    channel.writeOutbound(new CompressedFrame(frame, packet.readableBytes()));
+
+    ByteBuf out = channel.readOutbound();
+    ProtocolUtils.readVarInt(out);
+    assertEquals(0, ProtocolUtils.readVarInt(out), "Frame should be sent uncompressed");
+    assertTrue(ByteBufUtil.equals(packet, out));
+
+    out.release();
+    packet.release();
+    channel.finishAndReleaseAll();
+  }
+}
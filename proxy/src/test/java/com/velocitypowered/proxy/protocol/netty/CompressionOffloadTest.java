@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.protocol.netty;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.velocitypowered.natives.compression.JavaVelocityCompressor;
+import com.velocitypowered.natives.compression.VelocityCompressor;
+import com.velocitypowered.proxy.network.metrics.VelocityProxyMetrics;
+import com.velocitypowered.proxy.protocol.ProtocolUtils;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CompressionOffloadTest {
+
+  private VelocityProxyMetrics metrics;
+  private CompressionOffloadExecutor offload;
+
+  @BeforeEach
+  void setUp() {
+    metrics = new VelocityProxyMetrics();
+    offload = new CompressionOffloadExecutor(2, 4096, 6, metrics);
+  }
+
+  @AfterEach
+  void tearDown() {
+    offload.shutdown();
+  }
+
+  private static ByteBuf packet(int size, int seed) {
+    ByteBuf packet = Unpooled.buffer(size);
+    for (int i = 0; i < size; i++) {
+      packet.writeByte((i / 16 + seed) % 31);
+    }
+    return packet;
+  }
+
+  private static void awaitOutbound(EmbeddedChannel channel, int count)
+      throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (channel.outboundMessages().size() < count && System.nanoTime() < deadline) {
+      Thread.sleep(1);
+      channel.runPendingTasks();
+    }
+    assertEquals(count, channel.outboundMessages().size(), "Offloaded packets were not written");
+  }
+
+  private static ByteBuf readFrame(EmbeddedChannel channel) throws Exception {
+    ByteBuf frame = channel.readOutbound();
+    try {
+      assertEquals(ProtocolUtils.readVarInt(frame), frame.readableBytes(), "Wrong packet length");
+      int uncompressed = ProtocolUtils.readVarInt(frame);
+      ByteBuf out = Unpooled.buffer();
+      if (uncompressed == 0) {
+        out.writeBytes(frame);
+        return out;
+      }
+      VelocityCompressor compressor = JavaVelocityCompressor.FACTORY.create(6);
+      try {
+        compressor.inflate(frame, out, uncompressed);
+      } finally {
+        compressor.close();
+      }
+      return out;
+    } finally {
+      frame.release();
+    }
+  }
+
+  @Test
+  void offloadedPacketsKeepTheirOrder() throws Exception {
+    ByteBuf large = packet(64 * 1024, 1);
+    ByteBuf medium = packet(1024, 2);
+    ByteBuf small = packet(16, 3);
+    EmbeddedChannel channel = new EmbeddedChannel(new MinecraftCompressorAndLengthEncoder(256,
+        JavaVelocityCompressor.FACTORY.create(6), offload));
+
+    channel.writeOutbound(large.retainedDuplicate(), medium.retainedDuplicate(),
+        small.retainedDuplicate());
+    awaitOutbound(channel, 3);
+
+    for (ByteBuf expected : new ByteBuf[] { large, medium, small }) {
+      ByteBuf actual = readFrame(channel);
+      assertTrue(ByteBufUtil.equals(expected, actual), "Packets were reordered");
+      actual.release();
+      expected.release();
+    }
+    assertEquals(1, metrics.getOffloadedCompressions());
+    assertEquals(64 * 1024, metrics.getOffloadedCompressionBytes());
+    channel.finishAndReleaseAll();
+  }
+
+  @Test
+  void writesQueuedBehindOffloadedPacketsApplyBackpressure() throws Exception {
+    EmbeddedChannel channel = new EmbeddedChannel(new MinecraftCompressorAndLengthEncoder(256,
+        JavaVelocityCompressor.FACTORY.create(6), offload));
+    channel.config().setWriteBufferWaterMark(new WriteBufferWaterMark(1024, 8192));
+
+    // Writing directly doesn't run the event loop, so the offloaded packet can't complete yet.
+    channel.write(packet(64 * 1024, 6));
+    channel.write(packet(16, 7));
+    channel.flush();
+    assertFalse(channel.isWritable(), "Queued writes should make the channel unwritable");
+
+    awaitOutbound(channel, 2);
+    assertTrue(channel.isWritable(), "The channel should be writable once the queue drained");
+    channel.finishAndReleaseAll();
+  }
+
+  @Test
+  void packetsUnderTheCompressionThresholdAreNotOffloaded() throws Exception {
+    ByteBuf packet = packet(8192, 4);
+    EmbeddedChannel channel = new EmbeddedChannel(new MinecraftCompressorAndLengthEncoder(16384,
+        JavaVelocityCompressor.FACTORY.create(6), offload));
+
+    channel.writeOutbound(packet.retainedDuplicate());
+    ByteBuf actual = readFrame(channel);
+    assertTrue(ByteBufUtil.equals(packet, actual));
+    assertEquals(0, metrics.getOffloadedCompressions());
+
+    actual.release();
+    packet.release();
+    channel.finishAndReleaseAll();
+  }
+
+  @Test
+  void offloadCanBeTurnedOff() throws Exception {
+    offload.configure(2, 0, 6);
+    ByteBuf packet = packet(64 * 1024, 5);
+    EmbeddedChannel channel = new EmbeddedChannel(new MinecraftCompressorAndLengthEncoder(256,
+        JavaVelocityCompressor.FACTORY.create(6), offload));
+
+    channel.writeOutbound(packet.retainedDuplicate());
+    ByteBuf actual = readFrame(channel);
+    assertTrue(ByteBufUtil.equals(packet, actual));
+    assertEquals(0, metrics.getOffloadedCompressions());
+
+    actual.release();
+    packet.release();
+    channel.finishAndReleaseAll();
+  }
+}
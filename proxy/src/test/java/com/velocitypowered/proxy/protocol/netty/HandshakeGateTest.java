@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.protocol.netty;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.velocitypowered.api.network.ProtocolVersion;
+import com.velocitypowered.proxy.protocol.ProtocolUtils;
+import com.velocitypowered.proxy.protocol.packet.Handshake;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.haproxy.HAProxyCommand;
+import io.netty.handler.codec.haproxy.HAProxyMessage;
+import io.netty.handler.codec.haproxy.HAProxyProtocolVersion;
+import io.netty.handler.codec.haproxy.HAProxyProxiedProtocol;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class HandshakeGateTest {
+
+  private static ByteBuf handshake() {
+    Handshake handshake = new Handshake();
+    handshake.setProtocolVersion(ProtocolVersion.MAXIMUM_VERSION);
+    handshake.setServerAddress("mc.example.com");
+    handshake.setPort(25565);
+    handshake.setNextStatus(2);
+    ByteBuf body = Unpooled.buffer();
+    ProtocolUtils.writeVarInt(body, 0x00);
+    handshake.encode(body, ProtocolUtils.Direction.SERVERBOUND, ProtocolVersion.MAXIMUM_VERSION);
+    ByteBuf frame = Unpooled.buffer();
+    ProtocolUtils.writeVarInt(frame, body.readableBytes());
+    frame.writeBytes(body);
+    body.release();
+    return frame;
+  }
+
+  @Test
+  void letsHandshakeThrough() {
+    AtomicInteger rejected = new AtomicInteger();
+    EmbeddedChannel channel = new EmbeddedChannel(new HandshakeGate(rejected::incrementAndGet));
+    ByteBuf frame = handshake();
+    channel.writeInbound(frame);
+    assertSame(frame, channel.readInbound());
+    assertNull(channel.pipeline().get(HandshakeGate.class), "The gate should remove itself");
+    assertEquals(0, rejected.get());
+    frame.release();
+    channel.finishAndReleaseAll();
+  }
+
+  @Test
+  void closesOnGarbage() {
+    AtomicInteger rejected = new AtomicInteger();
+    EmbeddedChannel channel = new EmbeddedChannel(new HandshakeGate(rejected::incrementAndGet));
+    ByteBuf garbage = Unpooled.wrappedBuffer(new byte[] {(byte) 0xff, (byte) 0xff, 0x7f, 1});
+    channel.writeInbound(garbage);
+    assertNull(channel.readInbound());
+    assertFalse(channel.isOpen());
+    assertEquals(0, garbage.refCnt());
+    assertEquals(1, rejected.get());
+  }
+
+  @Test
+  void judgesBytesAfterProxyHeader() {
+    AtomicInteger rejected = new AtomicInteger();
+    EmbeddedChannel channel = new EmbeddedChannel(new HandshakeGate(rejected::incrementAndGet));
+    HAProxyMessage header = new HAProxyMessage(HAProxyProtocolVersion.V1, HAProxyCommand.PROXY,
+        HAProxyProxiedProtocol.TCP4, "203.0.113.7", "192.0.2.1", 51234, 25577);
+    channel.writeInbound(header);
+    assertSame(header, channel.readInbound());
+    assertNotNull(channel.pipeline().get(HandshakeGate.class),
+        "The gate should stay until it has seen the first bytes");
+
+    ByteBuf garbage = Unpooled.wrappedBuffer(new byte[] {(byte) 0xff, (byte) 0xff, 0x7f, 1});
+    channel.writeInbound(garbage);
+    assertNull(channel.readInbound());
+    assertFalse(channel.isOpen());
+    assertEquals(0, garbage.refCnt());
+    assertEquals(1, rejected.get());
+    header.release();
+  }
+
+  @Test
+  void judgesFirstBytes() {
+    assertTrue(HandshakeGate.isPlausibleHandshake(Unpooled.wrappedBuffer(new byte[] {
+        (byte) 0xfe, 0x01})), "Legacy pings should pass");
+    assertTrue(HandshakeGate.isPlausibleHandshake(Unpooled.wrappedBuffer(new byte[] {0x10})),
+        "A lone length should pass until more is known");
+    assertFalse(HandshakeGate.isPlausibleHandshake(Unpooled.wrappedBuffer(new byte[] {
+        0x10, 0x05})), "Only packet 0x00 may come first");
+    ByteBuf tooLong = Unpooled.buffer();
+    ProtocolUtils.writeVarInt(tooLong, Handshake.MAXIMUM_LENGTH + 1);
+    tooLong.writeByte(0x00);
+    assertFalse(HandshakeGate.isPlausibleHandshake(tooLong));
+  }
+}
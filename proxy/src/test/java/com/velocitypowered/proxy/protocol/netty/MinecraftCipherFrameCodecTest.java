@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.protocol.netty;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.velocitypowered.natives.encryption.JavaVelocityCipher;
+import com.velocitypowered.natives.encryption.VelocityCipher;
+import com.velocitypowered.proxy.protocol.ProtocolUtils;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.security.GeneralSecurityException;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import org.junit.jupiter.api.Test;
+
+class MinecraftCipherFrameCodecTest {
+
+  private static final SecretKey KEY = new SecretKeySpec(new byte[16], "AES");
+
+  private static EmbeddedChannel codecChannel(boolean outboundFraming)
+      throws GeneralSecurityException {
+    return new EmbeddedChannel(new MinecraftCipherFrameCodec(
+        JavaVelocityCipher.FACTORY.forDecryption(KEY),
+        JavaVelocityCipher.FACTORY.forEncryption(KEY), outboundFraming));
+  }
+
+  private static ByteBuf packet(int size) {
+    ByteBuf packet = Unpooled.buffer(size);
+    for (int i = 0; i < size; i++) {
+      packet.writeByte(i);
+    }
+    return packet;
+  }
+
+  @Test
+  void roundTrip() throws GeneralSecurityException {
+    EmbeddedChannel sender = codecChannel(true);
+    final EmbeddedChannel receiver = codecChannel(true);
+
+    ByteBuf first = packet(300);
+    ByteBuf second = packet(5);
+    sender.writeOutbound(first.retainedDuplicate(), second.retainedDuplicate());
+
+    ByteBuf wire = Unpooled.buffer();
+    ByteBuf out;
+    while ((out = sender.readOutbound()) != null) {
+      wire.writeBytes(out);
+      out.release();
+    }
+    assertEquals(ProtocolUtils.varIntBytes(300) + 300 + 1 + 5, wire.readableBytes());
+
+    // Split the data at an awkward place to make sure partial frames are kept around.
+    receiver.writeInbound(wire.readRetainedSlice(100));
+    assertNull(receiver.readInbound());
+    receiver.writeInbound(wire);
+
+    ByteBuf decoded = receiver.readInbound();
+    assertTrue(ByteBufUtil.equals(first, decoded));
+    decoded.release();
+    decoded = receiver.readInbound();
+    assertTrue(ByteBufUtil.equals(second, decoded));
+    decoded.release();
+
+    first.release();
+    second.release();
+    sender.finishAndReleaseAll();
+    receiver.finishAndReleaseAll();
+  }
+
+  @Test
+  void encryptsWithoutFraming() throws GeneralSecurityException {
+    EmbeddedChannel channel = codecChannel(false);
+    ByteBuf frame = packet(64);
+    channel.writeOutbound(frame.retainedDuplicate());
+
+    ByteBuf encrypted = channel.readOutbound();
+    assertEquals(64, encrypted.readableBytes(), "No length prefix should have been added");
+
+    VelocityCipher cipher = JavaVelocityCipher.FACTORY.forDecryption(KEY);
+    cipher.process(encrypted);
+    assertTrue(ByteBufUtil.equals(frame, encrypted));
+
+    cipher.close();
+    encrypted.release();
+    frame.release();
+    channel.finishAndReleaseAll();
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.protocol.packet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.velocitypowered.api.network.ProtocolVersion;
+import com.velocitypowered.proxy.connection.registry.DimensionData;
+import com.velocitypowered.proxy.connection.registry.SerializedRegistryContainer;
+import com.velocitypowered.proxy.protocol.ProtocolUtils;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import java.util.List;
+import net.kyori.adventure.nbt.CompoundBinaryTag;
+import net.kyori.adventure.nbt.ListBinaryTag;
+import org.junit.jupiter.api.Test;
+
+class JoinGameTest {
+
+  private static final ProtocolVersion VERSION = ProtocolVersion.MINECRAFT_1_16;
+
+  private static CompoundBinaryTag registryContainer() {
+    DimensionData overworld = new DimensionData("minecraft:overworld", null, true, 0.0f, false,
+        false, false, true, false, true, false, true, 256, "minecraft:infiniburn_overworld",
+        null, null, 1.0, "minecraft:overworld", null, null, null, null);
+    return CompoundBinaryTag.builder()
+        .put("dimension", ListBinaryTag.from(
+            List.of(overworld.encodeAsCompoundTag(VERSION))))
+        // Not understood by the proxy, so it would be lost if the container were re-encoded.
+        .putString("velocity:extra", "kept")
+        .build();
+  }
+
+  private static ByteBuf serverJoinGame() {
+    ByteBuf buf = Unpooled.buffer();
+    buf.writeInt(42); // entity ID
+    buf.writeByte(1); // gamemode
+    buf.writeByte(-1); // previous gamemode
+    ProtocolUtils.writeStringArray(buf, new String[] { "world" });
+    ProtocolUtils.writeCompoundTag(buf, registryContainer());
+    ProtocolUtils.writeString(buf, "minecraft:overworld");
+    ProtocolUtils.writeString(buf, "world");
+    buf.writeLong(1234L); // hashed seed
+    buf.writeByte(20); // max players
+    ProtocolUtils.writeVarInt(buf, 10); // view distance
+    buf.writeBoolean(false); // reduced debug info
+    buf.writeBoolean(true); // show respawn screen
+    buf.writeBoolean(false); // debug
+    buf.writeBoolean(false); // flat
+    return buf;
+  }
+
+  private static JoinGame decode(ByteBuf buf) {
+    JoinGame joinGame = new JoinGame();
+    joinGame.decode(buf.duplicate(), ProtocolUtils.Direction.CLIENTBOUND, VERSION);
+    return joinGame;
+  }
+
+  @Test
+  void registryContainerIsForwardedVerbatim() {
+    ByteBuf original = serverJoinGame();
+    ByteBuf encoded = Unpooled.buffer();
+    decode(original).encode(encoded, ProtocolUtils.Direction.CLIENTBOUND, VERSION);
+    assertArrayEquals(ByteBufUtil.getBytes(original), ByteBufUtil.getBytes(encoded));
+  }
+
+  @Test
+  void registriesAreParsedOnDemand() {
+    JoinGame joinGame = decode(serverJoinGame());
+    assertNotNull(joinGame.getDimensionRegistry().getDimensionData("minecraft:overworld"));
+    assertEquals("world", joinGame.getDimensionRegistry().getLevelNames().iterator().next());
+  }
+
+  @Test
+  void modifiedRegistriesAreReencoded() {
+    JoinGame joinGame = decode(serverJoinGame());
+    joinGame.setDimensionRegistry(joinGame.getDimensionRegistry());
+
+    ByteBuf encoded = Unpooled.buffer();
+    joinGame.encode(encoded, ProtocolUtils.Direction.CLIENTBOUND, VERSION);
+    JoinGame reencoded = decode(encoded);
+    assertNotNull(reencoded.getDimensionRegistry().getDimensionData("minecraft:overworld"));
+  }
+
+  @Test
+  void identicalContainersAreShared() {
+    ByteBuf first = Unpooled.buffer();
+    ProtocolUtils.writeCompoundTag(first, registryContainer());
+    ByteBuf second = first.copy();
+
+    SerializedRegistryContainer container = SerializedRegistryContainer.read(first);
+    assertSame(container, SerializedRegistryContainer.read(second));
+    assertEquals(0, first.readableBytes());
+    assertEquals(0, second.readableBytes());
+  }
+}
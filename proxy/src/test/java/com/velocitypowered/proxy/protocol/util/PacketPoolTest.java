@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.protocol.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.velocitypowered.api.network.ProtocolVersion;
+import com.velocitypowered.proxy.VelocityServer;
+import com.velocitypowered.proxy.connection.MinecraftConnection;
+import com.velocitypowered.proxy.connection.MinecraftSessionHandler;
+import com.velocitypowered.proxy.network.metrics.VelocityProxyMetrics;
+import com.velocitypowered.proxy.protocol.ProtocolUtils;
+import com.velocitypowered.proxy.protocol.RecyclablePacket;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.DefaultEventLoopGroup;
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.local.LocalChannel;
+import io.netty.channel.local.LocalServerChannel;
+import io.netty.util.Recycler;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class PacketPoolTest {
+
+  @Test
+  void recycledPacketsAreReused() {
+    PacketPool<TestPacket> pool = new PacketPool<>(TestPacket::new, TestPacket::new, true);
+    TestPacket packet = pool.get();
+    packet.value = 42;
+    packet.recycle();
+
+    TestPacket reused = pool.get();
+    assertSame(packet, reused);
+    assertEquals(0, reused.value, "Recycled packet was not reset");
+  }
+
+  @Test
+  void disabledPoolCreatesNewPackets() {
+    PacketPool<TestPacket> pool = new PacketPool<>(TestPacket::new, TestPacket::new, false);
+    TestPacket packet = pool.get();
+    packet.recycle();
+    assertNotSame(packet, pool.get());
+  }
+
+  @Test
+  void packetsWrittenFromAnotherThreadAreNotRecycled() throws Exception {
+    DefaultEventLoopGroup group = new DefaultEventLoopGroup(1);
+    BlockingQueue<Object> received = new LinkedBlockingQueue<>();
+    try {
+      LocalAddress address = new LocalAddress("packet-pool-test");
+      new ServerBootstrap().group(group).channel(LocalServerChannel.class)
+          .childHandler(new ChannelInboundHandlerAdapter() {
+            @Override
+            public void channelRead(ChannelHandlerContext ctx, Object msg) {
+              received.add(msg);
+            }
+          })
+          .bind(address).sync();
+      Channel channel = new Bootstrap().group(group).channel(LocalChannel.class)
+          .handler(new ChannelInboundHandlerAdapter())
+          .connect(address).sync().channel();
+      VelocityServer server = mock(VelocityServer.class);
+      when(server.getMetrics()).thenReturn(new VelocityProxyMetrics());
+      MinecraftConnection connection = new MinecraftConnection(channel, server);
+
+      // This thread stands in for the event loop of the connection the packet was read from,
+      // which recycles the packet as soon as it has been handled.
+      PacketPool<TestPacket> pool = new PacketPool<>(TestPacket::new, TestPacket::new, true);
+      TestPacket packet = pool.get();
+      packet.value = 42;
+      connection.write(packet);
+      packet.recycle();
+
+      assertSame(packet, received.poll(5, TimeUnit.SECONDS));
+      assertEquals(42, packet.value, "Packet was reset before it was written");
+      assertNotSame(packet, pool.get(), "Packet was returned to the pool");
+    } finally {
+      group.shutdownGracefully(0, 0, TimeUnit.SECONDS).sync();
+    }
+  }
+
+  private static class TestPacket implements RecyclablePacket {
+
+    private final Recycler.Handle<TestPacket> handle;
+    private int value;
+    private boolean detached;
+
+    TestPacket() {
+      this.handle = null;
+    }
+
+    TestPacket(Recycler.Handle<TestPacket> handle) {
+      this.handle = handle;
+    }
+
+    @Override
+    public void decode(ByteBuf buf, ProtocolUtils.Direction direction, ProtocolVersion version) {
+      value = buf.readInt();
+    }
+
+    @Override
+    public void encode(ByteBuf buf, ProtocolUtils.Direction direction, ProtocolVersion version) {
+      buf.writeInt(value);
+    }
+
+    @Override
+    public boolean handle(MinecraftSessionHandler handler) {
+      return false;
+    }
+
+    @Override
+    public void recycle() {
+      if (handle != null && !detached) {
+        value = 0;
+        handle.recycle(this);
+      }
+    }
+
+    @Override
+    public void detach() {
+      detached = true;
+    }
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.velocitypowered.api.network.ProtocolVersion;
+import com.velocitypowered.api.proxy.server.ServerInfo;
+import com.velocitypowered.api.proxy.server.ServerPing;
+import io.netty.channel.EventLoop;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import net.kyori.adventure.text.Component;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.junit.jupiter.api.Test;
+
+class ServerPingTrackerTest {
+
+  private static final ProtocolVersion VERSION = ProtocolVersion.MINECRAFT_1_16;
+  private static final long HOUR = TimeUnit.HOURS.toNanos(1);
+
+  private static ServerPing ping(String description) {
+    return new ServerPing(new ServerPing.Version(VERSION.getProtocol(), "Backend"), null,
+        Component.text(description), null);
+  }
+
+  @Test
+  void concurrentPingsShareOneBackendPing() {
+    FakeServer server = new FakeServer();
+    ServerPingTracker tracker = new ServerPingTracker(server);
+
+    CompletableFuture<ServerPing> first = tracker.ping(null, VERSION, HOUR);
+    final CompletableFuture<ServerPing> second = tracker.ping(null, VERSION, HOUR);
+    assertEquals(1, server.pings.size());
+
+    ServerPing response = ping("hello");
+    server.pings.get(0).complete(response);
+    assertSame(response, first.join());
+    assertSame(response, second.join());
+  }
+
+  @Test
+  void freshPingIsServedWithoutPingingAgain() {
+    FakeServer server = new FakeServer();
+    ServerPingTracker tracker = new ServerPingTracker(server);
+    tracker.ping(null, VERSION, HOUR);
+    ServerPing response = ping("hello");
+    server.pings.get(0).complete(response);
+
+    assertSame(response, tracker.ping(null, VERSION, HOUR).join());
+    assertEquals(1, server.pings.size());
+    assertTrue(tracker.getLatest(VERSION).orElseThrow().isReachable());
+  }
+
+  @Test
+  void refreshRevalidatesInBackground() {
+    FakeServer server = new FakeServer();
+    ServerPingTracker tracker = new ServerPingTracker(server);
+    tracker.ping(null, VERSION, HOUR);
+    ServerPing stale = ping("stale");
+    server.pings.get(0).complete(stale);
+
+    tracker.refreshActive(0);
+    assertEquals(2, server.pings.size());
+    // Until the server responds again, clients are still shown the latest ping.
+    assertSame(stale, tracker.ping(null, VERSION, HOUR).join());
+
+    ServerPing fresh = ping("fresh");
+    server.pings.get(1).complete(fresh);
+    assertSame(fresh, tracker.ping(null, VERSION, HOUR).join());
+  }
+
+  @Test
+  void failuresAreRecorded() {
+    FakeServer server = new FakeServer();
+    ServerPingTracker tracker = new ServerPingTracker(server);
+    CompletableFuture<ServerPing> result = tracker.ping(null, VERSION, HOUR);
+    server.pings.get(0).completeExceptionally(new IOException("Connection refused"));
+
+    assertTrue(result.isCompletedExceptionally());
+    ServerPingTracker.Snapshot latest = tracker.getLatest(VERSION).orElseThrow();
+    assertFalse(latest.isReachable());
+    assertTrue(latest.getFailure().isPresent());
+  }
+
+  private static final class FakeServer extends VelocityRegisteredServer {
+
+    private final List<CompletableFuture<ServerPing>> pings = new ArrayList<>();
+
+    FakeServer() {
+      super(null, new ServerInfo("fake", InetSocketAddress.createUnresolved("localhost", 25565)));
+    }
+
+    @Override
+    public CompletableFuture<ServerPing> ping(@Nullable EventLoop loop, ProtocolVersion version) {
+      CompletableFuture<ServerPing> future = new CompletableFuture<>();
+      pings.add(future);
+      return future;
+    }
+  }
+}
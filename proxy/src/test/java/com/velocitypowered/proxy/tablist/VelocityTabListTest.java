@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.tablist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.velocitypowered.api.proxy.player.TabListEntry;
+import com.velocitypowered.api.util.GameProfile;
+import com.velocitypowered.proxy.VelocityServer;
+import com.velocitypowered.proxy.connection.MinecraftConnection;
+import com.velocitypowered.proxy.connection.client.ConnectedPlayer;
+import com.velocitypowered.proxy.network.metrics.VelocityProxyMetrics;
+import com.velocitypowered.proxy.protocol.packet.PlayerListItem;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.util.UUID;
+import net.kyori.adventure.text.Component;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class VelocityTabListTest {
+
+  private EmbeddedChannel channel;
+  private VelocityTabList tabList;
+
+  @BeforeEach
+  void setup() {
+    VelocityServer server = mock(VelocityServer.class);
+    when(server.getMetrics()).thenReturn(new VelocityProxyMetrics());
+    channel = new EmbeddedChannel();
+    MinecraftConnection connection = new MinecraftConnection(channel, server);
+    ConnectedPlayer player = mock(ConnectedPlayer.class);
+    when(player.getConnection()).thenReturn(connection);
+    tabList = new VelocityTabList(player);
+  }
+
+  private TabListEntry entry(String name) {
+    return tabList.buildEntry(new GameProfile(UUID.randomUUID(), name, ImmutableList.of()), null,
+        0, 0);
+  }
+
+  private PlayerListItem readPacket() {
+    channel.runPendingTasks();
+    return channel.readOutbound();
+  }
+
+  @Test
+  void changesAreBatched() {
+    TabListEntry first = entry("first");
+    TabListEntry second = entry("second");
+    TabListEntry third = entry("third");
+    tabList.addEntry(first);
+    tabList.addEntry(second);
+    tabList.addEntry(third);
+    second.setLatency(100);
+    tabList.removeEntry(third.getProfile().getId());
+    assertNull(channel.readOutbound(), "Changes should wait for the event loop");
+
+    PlayerListItem added = readPacket();
+    assertEquals(PlayerListItem.ADD_PLAYER, added.getAction());
+    assertEquals(2, added.getItems().size());
+    assertEquals(100, added.getItems().get(1).getLatency());
+    assertNull(channel.readOutbound(), "An entry added and removed again should not be sent");
+
+    first.setLatency(10);
+    second.setLatency(20);
+    first.setDisplayName(Component.text("First"));
+    first.setLatency(30);
+    PlayerListItem latency = readPacket();
+    assertEquals(PlayerListItem.UPDATE_LATENCY, latency.getAction());
+    assertEquals(2, latency.getItems().size());
+    assertEquals(30, latency.getItems().get(0).getLatency());
+    PlayerListItem displayName = channel.readOutbound();
+    assertEquals(PlayerListItem.UPDATE_DISPLAY_NAME, displayName.getAction());
+    assertEquals(1, displayName.getItems().size());
+    assertNull(channel.readOutbound());
+  }
+
+  @Test
+  void removeThenAddIsKept() {
+    TabListEntry entry = entry("entry");
+    tabList.addEntry(entry);
+    readPacket();
+
+    tabList.removeEntry(entry.getProfile().getId());
+    TabListEntry replacement = tabList.buildEntry(entry.getProfile(), null, 5, 0);
+    tabList.addEntry(replacement);
+    assertEquals(PlayerListItem.REMOVE_PLAYER, readPacket().getAction());
+    PlayerListItem added = channel.readOutbound();
+    assertEquals(PlayerListItem.ADD_PLAYER, added.getAction());
+    assertEquals(5, added.getItems().get(0).getLatency());
+  }
+
+  @Test
+  void switchingServersKeepsSharedEntries() {
+    TabListEntry kept = entry("kept");
+    TabListEntry dropped = entry("dropped");
+    tabList.addEntry(kept);
+    tabList.addEntry(dropped);
+    readPacket();
+
+    tabList.clearAll();
+    assertTrue(tabList.getEntries().isEmpty());
+    assertNull(readPacket(), "Entries should stay until the new server sends its tab list");
+
+    PlayerListItem.Item item = PlayerListItem.Item.from(kept);
+    tabList.processBackendPacket(new PlayerListItem(PlayerListItem.ADD_PLAYER,
+        ImmutableList.of(item)));
+    assertTrue(tabList.containsEntry(kept.getProfile().getId()));
+
+    PlayerListItem removed = channel.readOutbound();
+    assertEquals(PlayerListItem.REMOVE_PLAYER, removed.getAction());
+    assertEquals(1, removed.getItems().size());
+    assertEquals(dropped.getProfile().getId(), removed.getItems().get(0).getUuid());
+    assertNull(channel.readOutbound());
+  }
+
+  @Test
+  void entriesAreRemovedIfTheNewServerSendsNoUpdate() {
+    TabListEntry entry = entry("entry");
+    tabList.addEntry(entry);
+    readPacket();
+
+    tabList.clearAll();
+    assertNull(readPacket());
+
+    // Stands in for the timeout running out without a tab list update from the new server.
+    tabList.expireStaleEntries();
+    PlayerListItem removed = channel.readOutbound();
+    assertEquals(PlayerListItem.REMOVE_PLAYER, removed.getAction());
+    assertEquals(entry.getProfile().getId(), removed.getItems().get(0).getUuid());
+    assertNull(channel.readOutbound());
+  }
+
+  @Test
+  void switchingAgainRemovesLeftoverEntries() {
+    TabListEntry entry = entry("entry");
+    tabList.addEntry(entry);
+    readPacket();
+
+    tabList.clearAll();
+    tabList.clearAll();
+    PlayerListItem removed = channel.readOutbound();
+    assertEquals(PlayerListItem.REMOVE_PLAYER, removed.getAction());
+    assertEquals(entry.getProfile().getId(), removed.getItems().get(0).getUuid());
+
+    tabList.processBackendPacket(new PlayerListItem(PlayerListItem.ADD_PLAYER,
+        ImmutableList.of(PlayerListItem.Item.from(entry("other")))));
+    assertNull(channel.readOutbound(), "Removed entries should not be removed twice");
+  }
+}
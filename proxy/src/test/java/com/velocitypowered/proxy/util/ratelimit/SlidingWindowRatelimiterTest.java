@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.util.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.base.Ticker;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class SlidingWindowRatelimiterTest {
+
+  private final AtomicLong now = new AtomicLong(System.nanoTime());
+  private final Ticker ticker = new Ticker() {
+    @Override
+    public long read() {
+      return now.get();
+    }
+  };
+
+  @Test
+  void attemptOne() {
+    Ratelimiter ratelimiter = new SlidingWindowRatelimiter(1000, TimeUnit.MILLISECONDS, ticker,
+        1024);
+    assertTrue(ratelimiter.attempt(InetAddress.getLoopbackAddress()));
+    assertFalse(ratelimiter.attempt(InetAddress.getLoopbackAddress()));
+    now.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+    assertFalse(ratelimiter.attempt(InetAddress.getLoopbackAddress()));
+    now.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+    assertTrue(ratelimiter.attempt(InetAddress.getLoopbackAddress()));
+    assertFalse(ratelimiter.attempt(InetAddress.getLoopbackAddress()));
+  }
+
+  @Test
+  void addressesAreIndependent() throws UnknownHostException {
+    Ratelimiter ratelimiter = new SlidingWindowRatelimiter(1000, TimeUnit.MILLISECONDS, ticker,
+        1 << 14);
+    for (int i = 0; i < 256; i++) {
+      assertTrue(ratelimiter.attempt(InetAddress.getByName("192.0.2." + i)));
+      assertTrue(ratelimiter.attempt(InetAddress.getByName("2001:db8::" + Integer.toHexString(i))));
+    }
+    for (int i = 0; i < 256; i++) {
+      assertFalse(ratelimiter.attempt(InetAddress.getByName("192.0.2." + i)));
+      assertFalse(ratelimiter.attempt(InetAddress.getByName("2001:db8::"
+          + Integer.toHexString(i))));
+    }
+  }
+
+  @Test
+  void fullTableReusesOldestSlot() throws UnknownHostException {
+    // With only 8 slots, every address probes the whole table.
+    Ratelimiter ratelimiter = new SlidingWindowRatelimiter(1000, TimeUnit.MILLISECONDS, ticker,
+        8);
+    InetAddress first = InetAddress.getByName("192.0.2.0");
+    assertTrue(ratelimiter.attempt(first));
+    for (int i = 1; i < 8; i++) {
+      now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+      assertTrue(ratelimiter.attempt(InetAddress.getByName("192.0.2." + i)));
+    }
+    assertFalse(ratelimiter.attempt(first));
+
+    // The table is full, so the first address loses its slot to a new one.
+    assertTrue(ratelimiter.attempt(InetAddress.getByName("192.0.2.100")));
+    assertTrue(ratelimiter.attempt(first));
+  }
+}
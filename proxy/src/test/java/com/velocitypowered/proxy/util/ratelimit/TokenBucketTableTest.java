@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2018 Velocity Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.velocitypowered.proxy.util.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class TokenBucketTableTest {
+
+  @Test
+  void sizeIsRoundedUpToPowerOfTwo() {
+    assertEquals(1, new TokenBucketTable(1, 1, 1).size());
+    assertEquals(4, new TokenBucketTable(3, 1, 1).size());
+    assertEquals(1024, new TokenBucketTable(1024, 1, 1).size());
+  }
+
+  @Test
+  void burstThenRefill() {
+    TokenBucketTable table = new TokenBucketTable(16, 10, 3);
+    long now = System.nanoTime();
+    assertTrue(table.tryAcquire(1, now));
+    assertTrue(table.tryAcquire(1, now));
+    assertTrue(table.tryAcquire(1, now));
+    assertFalse(table.tryAcquire(1, now));
+    assertTrue(table.tryAcquire(2, now), "Other buckets should be unaffected");
+
+    // One token is refilled every 100 milliseconds.
+    long later = now + TimeUnit.MILLISECONDS.toNanos(100);
+    assertTrue(table.tryAcquire(1, later));
+    assertFalse(table.tryAcquire(1, later));
+
+    // An idle bucket fills up again, but never beyond its burst.
+    long muchLater = now + TimeUnit.SECONDS.toNanos(10);
+    for (int i = 0; i < 3; i++) {
+      assertTrue(table.tryAcquire(1, muchLater));
+    }
+    assertFalse(table.tryAcquire(1, muchLater));
+  }
+}